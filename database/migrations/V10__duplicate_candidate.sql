@@ -0,0 +1,22 @@
+-- =====================================================
+-- V10: Review queue for likely duplicate people
+-- Filled by dedup.DuplicateDetector (Main command: dedup).
+-- LeftID < RightID within one people table; re-running the
+-- job refreshes Pending rows and keeps reviewed ones.
+-- =====================================================
+
+USE PoiseDMS;
+
+CREATE TABLE IF NOT EXISTS duplicate_candidate (
+    CandidateID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    EntityType VARCHAR(20) NOT NULL,
+    LeftID VARCHAR(10) NOT NULL,
+    RightID VARCHAR(10) NOT NULL,
+    Score DECIMAL(4, 3) NOT NULL,
+    Reasons VARCHAR(100) NOT NULL,
+    Status ENUM('Pending', 'Merged', 'Dismissed') NOT NULL DEFAULT 'Pending',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_duplicate_pair (EntityType, LeftID, RightID),
+    INDEX idx_duplicate_review (Status, EntityType, Score)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
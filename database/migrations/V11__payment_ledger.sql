@@ -0,0 +1,77 @@
+-- =====================================================
+-- V11: Append-only payment ledger
+--
+-- Payments are recorded as rows in payment instead of by
+-- overwriting project.TotalPaid. after_payment_insert adds each
+-- amount to project.TotalPaid with a relative update, so the
+-- balance is maintained incrementally in the same transaction as
+-- the insert and is still checked by chk_payment and
+-- before_project_update (an overpayment fails the insert).
+-- Concurrent postings to one project never read-modify-write the
+-- balance and do not bump project.Version, so they neither lose
+-- updates nor make editors of the project retry.
+--
+-- Rows cannot be updated or deleted; corrections are recorded
+-- as negative amounts. Bulk loaders that write balances and
+-- ledger rows together (backup.BackupService restore,
+-- loadtest.DataGenerator) set @poisedms_bulk_load so the
+-- payments are not added to the balances a second time.
+--
+-- Existing balances are carried over as one 'Opening balance'
+-- payment per project before the triggers are created.
+-- =====================================================
+
+USE PoiseDMS;
+
+-- 1. Ledger
+CREATE TABLE IF NOT EXISTS payment (
+    PaymentID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ProjectNumber VARCHAR(20) NOT NULL,
+    Amount DECIMAL(15, 2) NOT NULL CHECK (Amount <> 0),
+    PaymentDate DATE NOT NULL,
+    Reference VARCHAR(100) DEFAULT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_payment_project (ProjectNumber, PaymentDate),
+    INDEX idx_payment_date (PaymentDate, ProjectNumber, Amount)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 2. Opening balances
+INSERT INTO payment (ProjectNumber, Amount, PaymentDate, Reference)
+SELECT ProjectNumber, TotalPaid, COALESCE(DATE(created_at), CURRENT_DATE), 'Opening balance'
+FROM project
+WHERE TotalPaid > 0;
+
+-- 3. Balance maintenance and append-only rules
+DELIMITER //
+
+CREATE TRIGGER IF NOT EXISTS after_payment_insert
+AFTER INSERT ON payment
+FOR EACH ROW
+BEGIN
+    IF @poisedms_bulk_load IS NULL THEN
+        UPDATE project SET TotalPaid = TotalPaid + NEW.Amount
+        WHERE ProjectNumber = NEW.ProjectNumber;
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '23000'
+            SET MESSAGE_TEXT = 'Unknown ProjectNumber', MYSQL_ERRNO = 1452;
+        END IF;
+    END IF;
+END//
+
+CREATE TRIGGER IF NOT EXISTS before_payment_update
+BEFORE UPDATE ON payment
+FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000'
+    SET MESSAGE_TEXT = 'Payments cannot be changed; record a correcting payment';
+END//
+
+CREATE TRIGGER IF NOT EXISTS before_payment_delete
+BEFORE DELETE ON payment
+FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000'
+    SET MESSAGE_TEXT = 'Payments cannot be deleted; record a correcting payment';
+END//
+
+DELIMITER ;
@@ -0,0 +1,121 @@
+-- =====================================================
+-- V12: Property registry with region index
+--
+-- project.ERFNumber and project.PhysicalAddress are free text.
+-- Each ERF number now has one property row holding the street
+-- and a region (city and country) parsed from the first address
+-- seen for it. Lookups by ERF use idx_project_erf, and lookups by
+-- city go region (uk_region) -> property (idx_property_region) ->
+-- project (idx_project_erf) instead of scanning addresses.
+--
+-- Addresses are split from the right on commas by address_part,
+-- the same rule as util.AddressParser: with two or more commas
+-- the last part is the country and the one before it the city;
+-- with one comma the country is empty.
+--
+-- project is partitioned and cannot reference property with a
+-- foreign key; after_project_insert_property registers the
+-- property of every new project instead.
+-- =====================================================
+
+USE PoiseDMS;
+
+-- 1. Tables
+CREATE TABLE IF NOT EXISTS region (
+    RegionID INT AUTO_INCREMENT PRIMARY KEY,
+    City VARCHAR(100) NOT NULL,
+    Country VARCHAR(100) NOT NULL DEFAULT '',
+    UNIQUE KEY uk_region (City, Country)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS property (
+    ERFNumber VARCHAR(20) PRIMARY KEY,
+    Street VARCHAR(255) NOT NULL,
+    RegionID INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_property_region (RegionID),
+    CONSTRAINT fk_property_region FOREIGN KEY (RegionID) REFERENCES region (RegionID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE project ADD INDEX idx_project_erf (ERFNumber);
+
+-- 2. Address parsing and registration
+DELIMITER //
+
+CREATE FUNCTION IF NOT EXISTS address_part(address VARCHAR(255), part TINYINT)
+RETURNS VARCHAR(255)
+DETERMINISTIC NO SQL
+BEGIN
+    DECLARE commas INT DEFAULT CHAR_LENGTH(address) - CHAR_LENGTH(REPLACE(address, ',', ''));
+    DECLARE tail VARCHAR(255);
+    DECLARE result VARCHAR(255);
+    IF address IS NULL THEN
+        RETURN '';
+    END IF;
+    IF commas = 0 THEN
+        SET result = IF(part = 1, address, '');
+    ELSEIF commas = 1 THEN
+        SET result = CASE part
+            WHEN 1 THEN SUBSTRING_INDEX(address, ',', 1)
+            WHEN 2 THEN SUBSTRING_INDEX(address, ',', -1)
+            ELSE '' END;
+    ELSE
+        SET tail = SUBSTRING_INDEX(address, ',', -2);
+        SET result = CASE part
+            WHEN 1 THEN LEFT(address, CHAR_LENGTH(address) - CHAR_LENGTH(tail) - 1)
+            WHEN 2 THEN SUBSTRING_INDEX(tail, ',', 1)
+            ELSE SUBSTRING_INDEX(tail, ',', -1) END;
+    END IF;
+    RETURN TRIM(REGEXP_REPLACE(result, '[[:space:]]+', ' '));
+END//
+
+CREATE PROCEDURE IF NOT EXISTS sp_register_property(
+    IN p_erf_number VARCHAR(20),
+    IN p_address VARCHAR(255)
+)
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM property WHERE ERFNumber = p_erf_number) THEN
+        INSERT IGNORE INTO region (City, Country)
+        VALUES (address_part(p_address, 2), address_part(p_address, 3));
+        INSERT IGNORE INTO property (ERFNumber, Street, RegionID)
+        SELECT p_erf_number, address_part(p_address, 1), RegionID
+        FROM region
+        WHERE City = address_part(p_address, 2) AND Country = address_part(p_address, 3);
+    END IF;
+END//
+
+DELIMITER ;
+
+-- 3. Existing projects, archived ones included; the first address per ERF wins
+INSERT IGNORE INTO region (City, Country)
+SELECT DISTINCT address_part(PhysicalAddress, 2), address_part(PhysicalAddress, 3)
+FROM (SELECT PhysicalAddress FROM project UNION ALL SELECT PhysicalAddress FROM project_archive) AS addresses;
+
+INSERT IGNORE INTO property (ERFNumber, Street, RegionID)
+SELECT a.ERFNumber, address_part(a.PhysicalAddress, 1), r.RegionID
+FROM (SELECT ERFNumber, MIN(PhysicalAddress) AS PhysicalAddress
+      FROM (SELECT ERFNumber, PhysicalAddress FROM project
+            UNION ALL SELECT ERFNumber, PhysicalAddress FROM project_archive) AS projects
+      GROUP BY ERFNumber) AS a
+JOIN region r ON r.City = address_part(a.PhysicalAddress, 2) AND r.Country = address_part(a.PhysicalAddress, 3);
+
+-- 4. Register the property of new projects and of projects moved to another ERF
+DELIMITER //
+
+CREATE TRIGGER IF NOT EXISTS after_project_insert_property
+AFTER INSERT ON project
+FOR EACH ROW
+BEGIN
+    CALL sp_register_property(NEW.ERFNumber, NEW.PhysicalAddress);
+END//
+
+CREATE TRIGGER IF NOT EXISTS after_project_update_property
+AFTER UPDATE ON project
+FOR EACH ROW
+BEGIN
+    IF NEW.ERFNumber <> OLD.ERFNumber THEN
+        CALL sp_register_property(NEW.ERFNumber, NEW.PhysicalAddress);
+    END IF;
+END//
+
+DELIMITER ;
@@ -0,0 +1,34 @@
+-- =====================================================
+-- V13: Keep the numbers of deleted projects that have payments
+--
+-- payment cannot reference the partitioned project table with a
+-- foreign key, and the ledger is append-only, so deleting a project
+-- leaves its payments behind. after_project_delete released the
+-- number in project_number_key, and a new project given the same
+-- number would inherit those payments while its TotalPaid started
+-- at zero. The number is now kept reserved while any payment
+-- refers to it, as it already was for archived projects.
+-- =====================================================
+
+USE PoiseDMS;
+
+-- 1. Reserve the numbers of projects already deleted with payments
+INSERT IGNORE INTO project_number_key (ProjectNumber)
+SELECT DISTINCT ProjectNumber FROM payment;
+
+-- 2. Release a number only if it is neither archived nor in the ledger
+DROP TRIGGER IF EXISTS after_project_delete;
+
+DELIMITER //
+
+CREATE TRIGGER after_project_delete
+AFTER DELETE ON project
+FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM project_archive WHERE ProjectNumber = OLD.ProjectNumber)
+       AND NOT EXISTS (SELECT 1 FROM payment WHERE ProjectNumber = OLD.ProjectNumber) THEN
+        DELETE FROM project_number_key WHERE ProjectNumber = OLD.ProjectNumber;
+    END IF;
+END//
+
+DELIMITER ;
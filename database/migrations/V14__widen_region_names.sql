@@ -0,0 +1,30 @@
+-- =====================================================
+-- V14: Widen region names to the length address_part returns
+--
+-- address_part returns VARCHAR(255), as addresses are up to 255
+-- characters, but region.City and region.Country were VARCHAR(100).
+-- sp_register_property's INSERT IGNORE truncated a longer city
+-- silently, the lookup by the full city then found no region, and
+-- the property was never registered. Both columns now hold 255
+-- characters, and properties missed that way are registered.
+-- =====================================================
+
+USE PoiseDMS;
+
+-- 1. Match the columns to address_part
+ALTER TABLE region
+    MODIFY City VARCHAR(255) NOT NULL,
+    MODIFY Country VARCHAR(255) NOT NULL DEFAULT '';
+
+-- 2. Register properties whose region could not be found
+INSERT IGNORE INTO region (City, Country)
+SELECT DISTINCT address_part(PhysicalAddress, 2), address_part(PhysicalAddress, 3)
+FROM (SELECT PhysicalAddress FROM project UNION ALL SELECT PhysicalAddress FROM project_archive) AS addresses;
+
+INSERT IGNORE INTO property (ERFNumber, Street, RegionID)
+SELECT a.ERFNumber, address_part(a.PhysicalAddress, 1), r.RegionID
+FROM (SELECT ERFNumber, MIN(PhysicalAddress) AS PhysicalAddress
+      FROM (SELECT ERFNumber, PhysicalAddress FROM project
+            UNION ALL SELECT ERFNumber, PhysicalAddress FROM project_archive) AS projects
+      GROUP BY ERFNumber) AS a
+JOIN region r ON r.City = address_part(a.PhysicalAddress, 2) AND r.Country = address_part(a.PhysicalAddress, 3);
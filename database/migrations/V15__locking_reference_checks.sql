@@ -0,0 +1,113 @@
+-- =====================================================
+-- V15: Locking reads in the foreign key triggers
+--
+-- project is partitioned and cannot carry foreign keys, so triggers
+-- check its references to the people tables. Their EXISTS checks
+-- were plain consistent reads: a person could be deleted while a
+-- project referencing them was being inserted, and both commit.
+-- The checks now read with FOR SHARE, taking the same shared locks
+-- a foreign key check would, so one of the two waits for the other.
+-- =====================================================
+
+USE PoiseDMS;
+
+DROP TRIGGER IF EXISTS before_project_insert;
+DROP TRIGGER IF EXISTS before_project_update;
+DROP TRIGGER IF EXISTS before_architect_delete;
+DROP TRIGGER IF EXISTS before_contractor_delete;
+DROP TRIGGER IF EXISTS before_customer_delete;
+
+DELIMITER //
+
+CREATE TRIGGER before_project_insert
+BEFORE INSERT ON project
+FOR EACH ROW
+BEGIN
+    IF NEW.TotalPaid > NEW.TotalFee THEN
+        SIGNAL SQLSTATE '45000'
+        SET MESSAGE_TEXT = 'Total paid cannot exceed total fee';
+    END IF;
+    
+    IF NOT EXISTS (SELECT 1 FROM architect WHERE ArchitectID = NEW.ArchitectID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ArchitectID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM contractor WHERE ContractorID = NEW.ContractorID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ContractorID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM customer WHERE CustomerID = NEW.CustomerID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown CustomerID', MYSQL_ERRNO = 1452;
+    END IF;
+    
+    -- Fails with duplicate-key error 1062 if the number is already in use
+    INSERT INTO project_number_key (ProjectNumber) VALUES (NEW.ProjectNumber);
+END//
+
+CREATE TRIGGER before_project_update
+BEFORE UPDATE ON project
+FOR EACH ROW
+BEGIN
+    IF NEW.TotalPaid > NEW.TotalFee THEN
+        SIGNAL SQLSTATE '45000'
+        SET MESSAGE_TEXT = 'Total paid cannot exceed total fee';
+    END IF;
+    
+    IF NEW.Finalised = 'Yes' AND NEW.CompletionDate IS NULL THEN
+        SET NEW.CompletionDate = CURRENT_DATE;
+    END IF;
+    
+    IF NEW.ArchitectID <> OLD.ArchitectID
+       AND NOT EXISTS (SELECT 1 FROM architect WHERE ArchitectID = NEW.ArchitectID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ArchitectID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NEW.ContractorID <> OLD.ContractorID
+       AND NOT EXISTS (SELECT 1 FROM contractor WHERE ContractorID = NEW.ContractorID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ContractorID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NEW.CustomerID <> OLD.CustomerID
+       AND NOT EXISTS (SELECT 1 FROM customer WHERE CustomerID = NEW.CustomerID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown CustomerID', MYSQL_ERRNO = 1452;
+    END IF;
+    
+    IF NEW.ProjectNumber <> OLD.ProjectNumber THEN
+        UPDATE project_number_key SET ProjectNumber = NEW.ProjectNumber
+        WHERE ProjectNumber = OLD.ProjectNumber;
+    END IF;
+END//
+
+CREATE TRIGGER before_architect_delete
+BEFORE DELETE ON architect
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE ArchitectID = OLD.ArchitectID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Architect is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+CREATE TRIGGER before_contractor_delete
+BEFORE DELETE ON contractor
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE ContractorID = OLD.ContractorID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Contractor is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+CREATE TRIGGER before_customer_delete
+BEFORE DELETE ON customer
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE CustomerID = OLD.CustomerID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Customer is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+DELIMITER ;
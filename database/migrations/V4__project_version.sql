@@ -0,0 +1,10 @@
+-- =====================================================
+-- V4: Optimistic concurrency for project updates
+-- Adds a row version used for compare-and-set writes in
+-- ProjectManager.updateProject/finaliseProject and ProjectService.
+-- =====================================================
+
+USE PoiseDMS;
+
+ALTER TABLE project
+    ADD COLUMN Version INT NOT NULL DEFAULT 0 AFTER CompletionDate;
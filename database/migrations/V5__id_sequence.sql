@@ -0,0 +1,34 @@
+-- =====================================================
+-- V5: Hi/lo identifier allocation
+-- Creates the block counters used by service.IdAllocator and
+-- starts each one above the highest existing prefixed ID.
+-- =====================================================
+
+USE PoiseDMS;
+
+CREATE TABLE IF NOT EXISTS id_sequence (
+    EntityType VARCHAR(20) PRIMARY KEY,
+    NextHi BIGINT NOT NULL,
+    BlockSize INT NOT NULL CHECK (BlockSize > 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Start each sequence above the highest existing prefixed ID
+INSERT INTO id_sequence (EntityType, NextHi, BlockSize)
+SELECT 'ARCHITECT', FLOOR(COALESCE(MAX(CAST(SUBSTRING(ArchitectID, 4) AS UNSIGNED)), 0) / 100) + 1, 100
+FROM architect WHERE ArchitectID REGEXP '^ARC[0-9]+$'
+ON DUPLICATE KEY UPDATE EntityType = EntityType;
+
+INSERT INTO id_sequence (EntityType, NextHi, BlockSize)
+SELECT 'CONTRACTOR', FLOOR(COALESCE(MAX(CAST(SUBSTRING(ContractorID, 4) AS UNSIGNED)), 0) / 100) + 1, 100
+FROM contractor WHERE ContractorID REGEXP '^CON[0-9]+$'
+ON DUPLICATE KEY UPDATE EntityType = EntityType;
+
+INSERT INTO id_sequence (EntityType, NextHi, BlockSize)
+SELECT 'CUSTOMER', FLOOR(COALESCE(MAX(CAST(SUBSTRING(CustomerID, 4) AS UNSIGNED)), 0) / 100) + 1, 100
+FROM customer WHERE CustomerID REGEXP '^CUS[0-9]+$'
+ON DUPLICATE KEY UPDATE EntityType = EntityType;
+
+INSERT INTO id_sequence (EntityType, NextHi, BlockSize)
+SELECT 'PROJECT', FLOOR(COALESCE(MAX(CAST(SUBSTRING(ProjectNumber, 4) AS UNSIGNED)), 0) / 100) + 1, 100
+FROM project WHERE ProjectNumber REGEXP '^PRJ[0-9]+$'
+ON DUPLICATE KEY UPDATE EntityType = EntityType;
@@ -0,0 +1,36 @@
+-- =====================================================
+-- V6: Cold archive for finalised projects
+-- Requires innodb_file_per_table=ON (the MySQL 8 default)
+-- for ROW_FORMAT=COMPRESSED.
+-- =====================================================
+
+USE PoiseDMS;
+
+-- =====================================================
+CREATE TABLE IF NOT EXISTS project_archive (
+    ProjectNumber VARCHAR(20) PRIMARY KEY,
+    ProjectName VARCHAR(100) NOT NULL,
+    Deadline DATE NOT NULL,
+    BuildingType VARCHAR(50) NOT NULL,
+    PhysicalAddress VARCHAR(255) NOT NULL,
+    ERFNumber VARCHAR(20) NOT NULL,
+    TotalFee DECIMAL(15, 2) NOT NULL,
+    TotalPaid DECIMAL(15, 2) DEFAULT 0.00,
+    ArchitectID VARCHAR(10) NOT NULL,
+    ContractorID VARCHAR(10) NOT NULL,
+    CustomerID VARCHAR(10) NOT NULL,
+    Finalised VARCHAR(3) NOT NULL,
+    CompletionDate DATE DEFAULT NULL,
+    Version INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    ArchivedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_archive_name (ProjectName),
+    INDEX idx_archive_completion (CompletionDate),
+    INDEX idx_archive_customer (CustomerID)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Lets the archival job find finalised projects by completion date
+ALTER TABLE project
+    ADD INDEX idx_project_completion (Finalised, CompletionDate);
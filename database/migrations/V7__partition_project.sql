@@ -0,0 +1,222 @@
+-- =====================================================
+-- V7: Range partitioning of project
+--
+-- project is partitioned by RANGE COLUMNS (Finalised, Deadline):
+-- open projects are split by deadline year and all finalised
+-- projects live in p_final. Queries on Finalised = 'No' (incomplete)
+-- only touch the p_open_* partitions, and overdue queries
+-- (Finalised = 'No' AND Deadline < CURDATE()) only touch the
+-- p_open_* partitions up to the current year.
+--
+-- MySQL requires every unique key of a partitioned table to contain
+-- all partitioning columns and does not support foreign keys on
+-- partitioned tables. Therefore:
+--   * the primary key becomes (ProjectNumber, Finalised, Deadline);
+--   * ProjectNumber uniqueness moves to project_number_key, filled
+--     by before_project_insert (duplicates still fail with 1062);
+--   * the three foreign keys are replaced by trigger checks
+--     (RESTRICT on delete, CASCADE on ID update).
+-- Finalised becomes NOT NULL so every row lands in a defined range.
+--
+-- Future p_open_YYYY partitions are split off p_open_future by
+-- service.PartitionMaintenance (Main command: partitions).
+--
+-- Take a backup first: the ALTERs rebuild the table.
+-- =====================================================
+
+USE PoiseDMS;
+
+-- 1. Finalised must be NOT NULL to partition on it
+UPDATE project SET Finalised = 'No' WHERE Finalised IS NULL;
+ALTER TABLE project MODIFY Finalised VARCHAR(3) NOT NULL DEFAULT 'No';
+
+-- 2. Project number uniqueness table
+CREATE TABLE IF NOT EXISTS project_number_key (
+    ProjectNumber VARCHAR(20) PRIMARY KEY
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT IGNORE INTO project_number_key (ProjectNumber)
+SELECT ProjectNumber FROM project;
+INSERT IGNORE INTO project_number_key (ProjectNumber)
+SELECT ProjectNumber FROM project_archive;
+
+-- 3. Foreign keys are not allowed on partitioned tables
+ALTER TABLE project
+    DROP FOREIGN KEY fk_project_architect,
+    DROP FOREIGN KEY fk_project_contractor,
+    DROP FOREIGN KEY fk_project_customer;
+
+-- 4. Primary key must include the partitioning columns
+ALTER TABLE project
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (ProjectNumber, Finalised, Deadline);
+
+-- 5. Partition
+ALTER TABLE project
+PARTITION BY RANGE COLUMNS (Finalised, Deadline) (
+    PARTITION p_open_2024   VALUES LESS THAN ('No', '2025-01-01'),
+    PARTITION p_open_2025   VALUES LESS THAN ('No', '2026-01-01'),
+    PARTITION p_open_2026   VALUES LESS THAN ('No', '2027-01-01'),
+    PARTITION p_open_2027   VALUES LESS THAN ('No', '2028-01-01'),
+    PARTITION p_open_2028   VALUES LESS THAN ('No', '2029-01-01'),
+    PARTITION p_open_future VALUES LESS THAN ('No', MAXVALUE),
+    PARTITION p_final       VALUES LESS THAN (MAXVALUE, MAXVALUE)
+);
+
+-- 6. Overdue view without the NULL branch (Finalised is NOT NULL now)
+CREATE OR REPLACE VIEW view_overdue_projects AS
+SELECT 
+    p.*,
+    a.FirstName AS ArchitectFirstName,
+    a.Surname AS ArchitectSurname,
+    c.FirstName AS ContractorFirstName,
+    c.Surname AS ContractorSurname,
+    cu.FirstName AS CustomerFirstName,
+    cu.Surname AS CustomerSurname,
+    DATEDIFF(CURRENT_DATE, p.Deadline) AS DaysOverdue
+FROM project p
+JOIN architect a ON p.ArchitectID = a.ArchitectID
+JOIN contractor c ON p.ContractorID = c.ContractorID
+JOIN customer cu ON p.CustomerID = cu.CustomerID
+WHERE p.Finalised = 'No' AND p.Deadline < CURRENT_DATE;
+
+-- 7. Triggers replacing the foreign keys and the unique key
+DROP TRIGGER IF EXISTS before_project_insert;
+DROP TRIGGER IF EXISTS before_project_update;
+
+DELIMITER //
+
+-- Trigger to validate payment, people references and project number uniqueness before insert.
+-- project is partitioned, so it cannot carry foreign keys or a unique key on ProjectNumber alone;
+-- these checks take their place.
+CREATE TRIGGER before_project_insert
+BEFORE INSERT ON project
+FOR EACH ROW
+BEGIN
+    IF NEW.TotalPaid > NEW.TotalFee THEN
+        SIGNAL SQLSTATE '45000'
+        SET MESSAGE_TEXT = 'Total paid cannot exceed total fee';
+    END IF;
+    
+    IF NOT EXISTS (SELECT 1 FROM architect WHERE ArchitectID = NEW.ArchitectID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ArchitectID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM contractor WHERE ContractorID = NEW.ContractorID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ContractorID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM customer WHERE CustomerID = NEW.CustomerID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown CustomerID', MYSQL_ERRNO = 1452;
+    END IF;
+    
+    -- Fails with duplicate-key error 1062 if the number is already in use
+    INSERT INTO project_number_key (ProjectNumber) VALUES (NEW.ProjectNumber);
+END//
+
+-- Trigger to validate payment and references before update
+CREATE TRIGGER before_project_update
+BEFORE UPDATE ON project
+FOR EACH ROW
+BEGIN
+    IF NEW.TotalPaid > NEW.TotalFee THEN
+        SIGNAL SQLSTATE '45000'
+        SET MESSAGE_TEXT = 'Total paid cannot exceed total fee';
+    END IF;
+    
+    IF NEW.Finalised = 'Yes' AND NEW.CompletionDate IS NULL THEN
+        SET NEW.CompletionDate = CURRENT_DATE;
+    END IF;
+    
+    IF NEW.ArchitectID <> OLD.ArchitectID
+       AND NOT EXISTS (SELECT 1 FROM architect WHERE ArchitectID = NEW.ArchitectID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ArchitectID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NEW.ContractorID <> OLD.ContractorID
+       AND NOT EXISTS (SELECT 1 FROM contractor WHERE ContractorID = NEW.ContractorID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ContractorID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NEW.CustomerID <> OLD.CustomerID
+       AND NOT EXISTS (SELECT 1 FROM customer WHERE CustomerID = NEW.CustomerID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown CustomerID', MYSQL_ERRNO = 1452;
+    END IF;
+    
+    IF NEW.ProjectNumber <> OLD.ProjectNumber THEN
+        UPDATE project_number_key SET ProjectNumber = NEW.ProjectNumber
+        WHERE ProjectNumber = OLD.ProjectNumber;
+    END IF;
+END//
+
+-- Release the project number on delete, unless the project was moved to the archive
+CREATE TRIGGER after_project_delete
+AFTER DELETE ON project
+FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM project_archive WHERE ProjectNumber = OLD.ProjectNumber) THEN
+        DELETE FROM project_number_key WHERE ProjectNumber = OLD.ProjectNumber;
+    END IF;
+END//
+
+-- ON DELETE RESTRICT / ON UPDATE CASCADE for the people tables
+CREATE TRIGGER before_architect_delete
+BEFORE DELETE ON architect
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE ArchitectID = OLD.ArchitectID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Architect is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+CREATE TRIGGER after_architect_update
+AFTER UPDATE ON architect
+FOR EACH ROW
+BEGIN
+    IF NEW.ArchitectID <> OLD.ArchitectID THEN
+        UPDATE project SET ArchitectID = NEW.ArchitectID WHERE ArchitectID = OLD.ArchitectID;
+    END IF;
+END//
+
+CREATE TRIGGER before_contractor_delete
+BEFORE DELETE ON contractor
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE ContractorID = OLD.ContractorID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Contractor is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+CREATE TRIGGER after_contractor_update
+AFTER UPDATE ON contractor
+FOR EACH ROW
+BEGIN
+    IF NEW.ContractorID <> OLD.ContractorID THEN
+        UPDATE project SET ContractorID = NEW.ContractorID WHERE ContractorID = OLD.ContractorID;
+    END IF;
+END//
+
+CREATE TRIGGER before_customer_delete
+BEFORE DELETE ON customer
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE CustomerID = OLD.CustomerID) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Customer is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+CREATE TRIGGER after_customer_update
+AFTER UPDATE ON customer
+FOR EACH ROW
+BEGIN
+    IF NEW.CustomerID <> OLD.CustomerID THEN
+        UPDATE project SET CustomerID = NEW.CustomerID WHERE CustomerID = OLD.CustomerID;
+    END IF;
+END//
+
+DELIMITER ;
@@ -0,0 +1,18 @@
+-- =====================================================
+-- V8: Overdue index column order
+--
+-- The overdue query is Finalised = 'No' AND Deadline < CURDATE().
+-- With (Deadline, Finalised) the optimizer can only range-scan on
+-- Deadline and filters Finalised row by row; (Finalised, Deadline)
+-- turns both predicates into one index range. idx_project_finalised
+-- is a prefix of the new index and is dropped.
+--
+-- Found by the EXPLAIN plan suite (service.QueryPlanRegressionTest).
+-- =====================================================
+
+USE PoiseDMS;
+
+ALTER TABLE project
+    DROP INDEX idx_project_overdue,
+    DROP INDEX idx_project_finalised,
+    ADD INDEX idx_project_overdue (Finalised, Deadline);
@@ -0,0 +1,30 @@
+-- =====================================================
+-- V9: Project details view
+--
+-- view_project_details returns every project with the names of its
+-- architect, contractor and customer in one joined read, so listings
+-- no longer need a lookup per person. view_incomplete_projects is
+-- redefined on top of it (same columns as before).
+-- LEFT JOINs keep a project visible even if a person row is missing.
+-- =====================================================
+
+USE PoiseDMS;
+
+CREATE OR REPLACE VIEW view_project_details AS
+SELECT 
+    p.*,
+    a.FirstName AS ArchitectFirstName,
+    a.Surname AS ArchitectSurname,
+    c.FirstName AS ContractorFirstName,
+    c.Surname AS ContractorSurname,
+    cu.FirstName AS CustomerFirstName,
+    cu.Surname AS CustomerSurname,
+    (p.TotalFee - p.TotalPaid) AS OutstandingAmount
+FROM project p
+LEFT JOIN architect a ON p.ArchitectID = a.ArchitectID
+LEFT JOIN contractor c ON p.ContractorID = c.ContractorID
+LEFT JOIN customer cu ON p.CustomerID = cu.CustomerID;
+
+CREATE OR REPLACE VIEW view_incomplete_projects AS
+SELECT * FROM view_project_details
+WHERE Finalised = 'No';
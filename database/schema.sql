@@ -69,7 +69,7 @@ CREATE TABLE IF NOT EXISTS customer (
 -- Stores information about construction projects
 -- =====================================================
 CREATE TABLE IF NOT EXISTS project (
-    ProjectNumber VARCHAR(20) PRIMARY KEY,
+    ProjectNumber VARCHAR(20) NOT NULL,
     ProjectName VARCHAR(100) NOT NULL,
     Deadline DATE NOT NULL,
     BuildingType VARCHAR(50) NOT NULL,
@@ -80,23 +80,17 @@ CREATE TABLE IF NOT EXISTS project (
     ArchitectID VARCHAR(10) NOT NULL,
     ContractorID VARCHAR(10) NOT NULL,
     CustomerID VARCHAR(10) NOT NULL,
-    Finalised VARCHAR(3) DEFAULT 'No' CHECK (Finalised IN ('Yes', 'No')),
+    Finalised VARCHAR(3) NOT NULL DEFAULT 'No' CHECK (Finalised IN ('Yes', 'No')),
     CompletionDate DATE DEFAULT NULL,
+    Version INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
-    -- Foreign Key Constraints
-    CONSTRAINT fk_project_architect 
-        FOREIGN KEY (ArchitectID) REFERENCES architect(ArchitectID)
-        ON DELETE RESTRICT ON UPDATE CASCADE,
-    
-    CONSTRAINT fk_project_contractor 
-        FOREIGN KEY (ContractorID) REFERENCES contractor(ContractorID)
-        ON DELETE RESTRICT ON UPDATE CASCADE,
-    
-    CONSTRAINT fk_project_customer 
-        FOREIGN KEY (CustomerID) REFERENCES customer(CustomerID)
-        ON DELETE RESTRICT ON UPDATE CASCADE,
+    -- Partitioned tables need the partitioning columns in the primary key.
+    -- ProjectNumber uniqueness is enforced through project_number_key and the
+    -- people references through triggers, since partitioned tables cannot have
+    -- foreign keys (see migrations/V7__partition_project.sql).
+    PRIMARY KEY (ProjectNumber, Finalised, Deadline),
     
     -- Check Constraints
     CONSTRAINT chk_payment 
@@ -108,11 +102,123 @@ CREATE TABLE IF NOT EXISTS project (
     -- Indexes for performance
     INDEX idx_project_name (ProjectName),
     INDEX idx_project_deadline (Deadline),
-    INDEX idx_project_finalised (Finalised),
     INDEX idx_project_architect (ArchitectID),
     INDEX idx_project_contractor (ContractorID),
     INDEX idx_project_customer (CustomerID),
-    INDEX idx_project_overdue (Deadline, Finalised)
+    INDEX idx_project_overdue (Finalised, Deadline),
+    INDEX idx_project_completion (Finalised, CompletionDate),
+    INDEX idx_project_erf (ERFNumber)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+PARTITION BY RANGE COLUMNS (Finalised, Deadline) (
+    PARTITION p_open_2024   VALUES LESS THAN ('No', '2025-01-01'),
+    PARTITION p_open_2025   VALUES LESS THAN ('No', '2026-01-01'),
+    PARTITION p_open_2026   VALUES LESS THAN ('No', '2027-01-01'),
+    PARTITION p_open_2027   VALUES LESS THAN ('No', '2028-01-01'),
+    PARTITION p_open_2028   VALUES LESS THAN ('No', '2029-01-01'),
+    PARTITION p_open_future VALUES LESS THAN ('No', MAXVALUE),
+    PARTITION p_final       VALUES LESS THAN (MAXVALUE, MAXVALUE)
+);
+
+-- =====================================================
+-- Table: project_number_key
+-- Enforces unique project numbers across partitions and the archive
+-- =====================================================
+CREATE TABLE IF NOT EXISTS project_number_key (
+    ProjectNumber VARCHAR(20) PRIMARY KEY
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =====================================================
+-- Table: project_archive
+-- Cold storage for projects finalised long ago (see service.ArchiveService).
+-- Same columns as project plus ArchivedAt; compressed, no foreign keys.
+-- =====================================================
+CREATE TABLE IF NOT EXISTS project_archive (
+    ProjectNumber VARCHAR(20) PRIMARY KEY,
+    ProjectName VARCHAR(100) NOT NULL,
+    Deadline DATE NOT NULL,
+    BuildingType VARCHAR(50) NOT NULL,
+    PhysicalAddress VARCHAR(255) NOT NULL,
+    ERFNumber VARCHAR(20) NOT NULL,
+    TotalFee DECIMAL(15, 2) NOT NULL,
+    TotalPaid DECIMAL(15, 2) DEFAULT 0.00,
+    ArchitectID VARCHAR(10) NOT NULL,
+    ContractorID VARCHAR(10) NOT NULL,
+    CustomerID VARCHAR(10) NOT NULL,
+    Finalised VARCHAR(3) NOT NULL,
+    CompletionDate DATE DEFAULT NULL,
+    Version INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    ArchivedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_archive_name (ProjectName),
+    INDEX idx_archive_completion (CompletionDate),
+    INDEX idx_archive_customer (CustomerID)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =====================================================
+-- Table: id_sequence
+-- Hi/lo block counters used by service.IdAllocator
+-- =====================================================
+CREATE TABLE IF NOT EXISTS id_sequence (
+    EntityType VARCHAR(20) PRIMARY KEY,
+    NextHi BIGINT NOT NULL,
+    BlockSize INT NOT NULL CHECK (BlockSize > 0)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =====================================================
+-- Table: duplicate_candidate
+-- Likely duplicate people awaiting review (see dedup.DuplicateDetector)
+-- =====================================================
+CREATE TABLE IF NOT EXISTS duplicate_candidate (
+    CandidateID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    EntityType VARCHAR(20) NOT NULL,
+    LeftID VARCHAR(10) NOT NULL,
+    RightID VARCHAR(10) NOT NULL,
+    Score DECIMAL(4, 3) NOT NULL,
+    Reasons VARCHAR(100) NOT NULL,
+    Status ENUM('Pending', 'Merged', 'Dismissed') NOT NULL DEFAULT 'Pending',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_duplicate_pair (EntityType, LeftID, RightID),
+    INDEX idx_duplicate_review (Status, EntityType, Score)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =====================================================
+-- Table: payment
+-- Append-only payment ledger; project.TotalPaid is the running
+-- balance kept by after_payment_insert (see migrations/V11__payment_ledger.sql)
+-- =====================================================
+CREATE TABLE IF NOT EXISTS payment (
+    PaymentID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ProjectNumber VARCHAR(20) NOT NULL,
+    Amount DECIMAL(15, 2) NOT NULL CHECK (Amount <> 0),
+    PaymentDate DATE NOT NULL,
+    Reference VARCHAR(100) DEFAULT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_payment_project (ProjectNumber, PaymentDate),
+    INDEX idx_payment_date (PaymentDate, ProjectNumber, Amount)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =====================================================
+-- Tables: region, property
+-- One property per ERF number with its street and region, parsed from the
+-- first project address seen for it (see migrations/V12__property_registry.sql)
+-- =====================================================
+CREATE TABLE IF NOT EXISTS region (
+    RegionID INT AUTO_INCREMENT PRIMARY KEY,
+    City VARCHAR(255) NOT NULL,
+    Country VARCHAR(255) NOT NULL DEFAULT '',
+    UNIQUE KEY uk_region (City, Country)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS property (
+    ERFNumber VARCHAR(20) PRIMARY KEY,
+    Street VARCHAR(255) NOT NULL,
+    RegionID INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_property_region (RegionID),
+    CONSTRAINT fk_property_region FOREIGN KEY (RegionID) REFERENCES region (RegionID)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- =====================================================
@@ -140,23 +246,57 @@ INSERT INTO customer (CustomerID, FirstName, Surname, Telephone, Email, Physical
 ('CUS003', 'William', 'Thomas', '0123456797', 'william.thomas@email.com', '333 Living Rd, Durban, South Africa')
 ON DUPLICATE KEY UPDATE updated_at = CURRENT_TIMESTAMP;
 
--- Insert sample projects
+-- Insert sample projects. Numbers already registered in project_number_key are skipped:
+-- on a rerun the insert trigger exists and would fail on the duplicate key.
 INSERT INTO project (ProjectNumber, ProjectName, Deadline, BuildingType, PhysicalAddress, ERFNumber, 
-                     TotalFee, TotalPaid, ArchitectID, ContractorID, CustomerID, Finalised) VALUES
-('PRJ001', 'House Taylor', '2025-12-31', 'House', '111 Home St, Johannesburg, South Africa', 'ERF1001', 500000.00, 250000.00, 'ARC001', 'CON001', 'CUS001', 'No'),
-('PRJ002', 'Apartment Anderson', '2025-11-30', 'Apartment', '222 Residence Ave, Cape Town, South Africa', 'ERF1002', 750000.00, 750000.00, 'ARC002', 'CON002', 'CUS002', 'Yes'),
-('PRJ003', 'House Thomas', '2025-06-30', 'House', '333 Living Rd, Durban, South Africa', 'ERF1003', 600000.00, 300000.00, 'ARC003', 'CON003', 'CUS003', 'No')
-ON DUPLICATE KEY UPDATE updated_at = CURRENT_TIMESTAMP;
+                     TotalFee, TotalPaid, ArchitectID, ContractorID, CustomerID, Finalised)
+SELECT s.* FROM (
+    SELECT 'PRJ001' AS ProjectNumber, 'House Taylor' AS ProjectName, '2025-12-31' AS Deadline, 'House' AS BuildingType,
+           '111 Home St, Johannesburg, South Africa' AS PhysicalAddress, 'ERF1001' AS ERFNumber, 500000.00 AS TotalFee,
+           250000.00 AS TotalPaid, 'ARC001' AS ArchitectID, 'CON001' AS ContractorID, 'CUS001' AS CustomerID, 'No' AS Finalised
+    UNION ALL
+    SELECT 'PRJ002', 'Apartment Anderson', '2025-11-30', 'Apartment', '222 Residence Ave, Cape Town, South Africa', 'ERF1002', 750000.00, 750000.00, 'ARC002', 'CON002', 'CUS002', 'Yes'
+    UNION ALL
+    SELECT 'PRJ003', 'House Thomas', '2025-06-30', 'House', '333 Living Rd, Durban, South Africa', 'ERF1003', 600000.00, 300000.00, 'ARC003', 'CON003', 'CUS003', 'No'
+) AS s
+WHERE NOT EXISTS (SELECT 1 FROM project_number_key k WHERE k.ProjectNumber = s.ProjectNumber);
 
 -- Update completion date for finalized project
 UPDATE project SET CompletionDate = CURRENT_DATE WHERE ProjectNumber = 'PRJ002' AND Finalised = 'Yes';
 
+-- Ledger entries for the sample balances, inserted before the payment trigger exists
+INSERT INTO payment (ProjectNumber, Amount, PaymentDate, Reference)
+SELECT ProjectNumber, TotalPaid, CURRENT_DATE, 'Opening balance'
+FROM project
+WHERE TotalPaid > 0 AND NOT EXISTS (SELECT 1 FROM payment);
+
+-- Start each sequence above the highest existing prefixed ID
+INSERT INTO id_sequence (EntityType, NextHi, BlockSize)
+SELECT 'ARCHITECT', FLOOR(COALESCE(MAX(CAST(SUBSTRING(ArchitectID, 4) AS UNSIGNED)), 0) / 100) + 1, 100
+FROM architect WHERE ArchitectID REGEXP '^ARC[0-9]+$'
+ON DUPLICATE KEY UPDATE EntityType = EntityType;
+
+INSERT INTO id_sequence (EntityType, NextHi, BlockSize)
+SELECT 'CONTRACTOR', FLOOR(COALESCE(MAX(CAST(SUBSTRING(ContractorID, 4) AS UNSIGNED)), 0) / 100) + 1, 100
+FROM contractor WHERE ContractorID REGEXP '^CON[0-9]+$'
+ON DUPLICATE KEY UPDATE EntityType = EntityType;
+
+INSERT INTO id_sequence (EntityType, NextHi, BlockSize)
+SELECT 'CUSTOMER', FLOOR(COALESCE(MAX(CAST(SUBSTRING(CustomerID, 4) AS UNSIGNED)), 0) / 100) + 1, 100
+FROM customer WHERE CustomerID REGEXP '^CUS[0-9]+$'
+ON DUPLICATE KEY UPDATE EntityType = EntityType;
+
+INSERT INTO id_sequence (EntityType, NextHi, BlockSize)
+SELECT 'PROJECT', FLOOR(COALESCE(MAX(CAST(SUBSTRING(ProjectNumber, 4) AS UNSIGNED)), 0) / 100) + 1, 100
+FROM project WHERE ProjectNumber REGEXP '^PRJ[0-9]+$'
+ON DUPLICATE KEY UPDATE EntityType = EntityType;
+
 -- =====================================================
 -- Views for Common Queries
 -- =====================================================
 
--- View for incomplete projects
-CREATE OR REPLACE VIEW view_incomplete_projects AS
+-- View for projects with the names of their people (one joined read instead of a lookup per person)
+CREATE OR REPLACE VIEW view_project_details AS
 SELECT 
     p.*,
     a.FirstName AS ArchitectFirstName,
@@ -167,10 +307,14 @@ SELECT
     cu.Surname AS CustomerSurname,
     (p.TotalFee - p.TotalPaid) AS OutstandingAmount
 FROM project p
-JOIN architect a ON p.ArchitectID = a.ArchitectID
-JOIN contractor c ON p.ContractorID = c.ContractorID
-JOIN customer cu ON p.CustomerID = cu.CustomerID
-WHERE p.Finalised = 'No';
+LEFT JOIN architect a ON p.ArchitectID = a.ArchitectID
+LEFT JOIN contractor c ON p.ContractorID = c.ContractorID
+LEFT JOIN customer cu ON p.CustomerID = cu.CustomerID;
+
+-- View for incomplete projects
+CREATE OR REPLACE VIEW view_incomplete_projects AS
+SELECT * FROM view_project_details
+WHERE Finalised = 'No';
 
 -- View for overdue projects
 CREATE OR REPLACE VIEW view_overdue_projects AS
@@ -187,8 +331,7 @@ FROM project p
 JOIN architect a ON p.ArchitectID = a.ArchitectID
 JOIN contractor c ON p.ContractorID = c.ContractorID
 JOIN customer cu ON p.CustomerID = cu.CustomerID
-WHERE p.Deadline < CURRENT_DATE 
-  AND (p.Finalised IS NULL OR p.Finalised = 'No');
+WHERE p.Finalised = 'No' AND p.Deadline < CURRENT_DATE;
 
 -- =====================================================
 -- Stored Procedures
@@ -232,6 +375,51 @@ BEGIN
     END IF;
 END//
 
+-- Part of an address split from the right on commas, as util.AddressParser does:
+-- 1 = street, 2 = city, 3 = country (empty when the address has only one comma)
+CREATE FUNCTION IF NOT EXISTS address_part(address VARCHAR(255), part TINYINT)
+RETURNS VARCHAR(255)
+DETERMINISTIC NO SQL
+BEGIN
+    DECLARE commas INT DEFAULT CHAR_LENGTH(address) - CHAR_LENGTH(REPLACE(address, ',', ''));
+    DECLARE tail VARCHAR(255);
+    DECLARE result VARCHAR(255);
+    IF address IS NULL THEN
+        RETURN '';
+    END IF;
+    IF commas = 0 THEN
+        SET result = IF(part = 1, address, '');
+    ELSEIF commas = 1 THEN
+        SET result = CASE part
+            WHEN 1 THEN SUBSTRING_INDEX(address, ',', 1)
+            WHEN 2 THEN SUBSTRING_INDEX(address, ',', -1)
+            ELSE '' END;
+    ELSE
+        SET tail = SUBSTRING_INDEX(address, ',', -2);
+        SET result = CASE part
+            WHEN 1 THEN LEFT(address, CHAR_LENGTH(address) - CHAR_LENGTH(tail) - 1)
+            WHEN 2 THEN SUBSTRING_INDEX(tail, ',', 1)
+            ELSE SUBSTRING_INDEX(tail, ',', -1) END;
+    END IF;
+    RETURN TRIM(REGEXP_REPLACE(result, '[[:space:]]+', ' '));
+END//
+
+-- Procedure to add the property for an ERF number unless it is already registered
+CREATE PROCEDURE IF NOT EXISTS sp_register_property(
+    IN p_erf_number VARCHAR(20),
+    IN p_address VARCHAR(255)
+)
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM property WHERE ERFNumber = p_erf_number) THEN
+        INSERT IGNORE INTO region (City, Country)
+        VALUES (address_part(p_address, 2), address_part(p_address, 3));
+        INSERT IGNORE INTO property (ERFNumber, Street, RegionID)
+        SELECT p_erf_number, address_part(p_address, 1), RegionID
+        FROM region
+        WHERE City = address_part(p_address, 2) AND Country = address_part(p_address, 3);
+    END IF;
+END//
+
 DELIMITER ;
 
 -- =====================================================
@@ -240,7 +428,10 @@ DELIMITER ;
 
 DELIMITER //
 
--- Trigger to validate payment before insert
+-- Trigger to validate payment, people references and project number uniqueness before insert.
+-- project is partitioned, so it cannot carry foreign keys or a unique key on ProjectNumber alone;
+-- these checks take their place. The reference checks are locking reads, as a foreign key's are,
+-- so the person cannot be deleted before this transaction commits.
 CREATE TRIGGER IF NOT EXISTS before_project_insert
 BEFORE INSERT ON project
 FOR EACH ROW
@@ -249,9 +440,25 @@ BEGIN
         SIGNAL SQLSTATE '45000'
         SET MESSAGE_TEXT = 'Total paid cannot exceed total fee';
     END IF;
+    
+    IF NOT EXISTS (SELECT 1 FROM architect WHERE ArchitectID = NEW.ArchitectID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ArchitectID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM contractor WHERE ContractorID = NEW.ContractorID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ContractorID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM customer WHERE CustomerID = NEW.CustomerID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown CustomerID', MYSQL_ERRNO = 1452;
+    END IF;
+    
+    -- Fails with duplicate-key error 1062 if the number is already in use
+    INSERT INTO project_number_key (ProjectNumber) VALUES (NEW.ProjectNumber);
 END//
 
--- Trigger to validate payment before update
+-- Trigger to validate payment and references before update
 CREATE TRIGGER IF NOT EXISTS before_project_update
 BEFORE UPDATE ON project
 FOR EACH ROW
@@ -264,10 +471,164 @@ BEGIN
     IF NEW.Finalised = 'Yes' AND NEW.CompletionDate IS NULL THEN
         SET NEW.CompletionDate = CURRENT_DATE;
     END IF;
+    
+    IF NEW.ArchitectID <> OLD.ArchitectID
+       AND NOT EXISTS (SELECT 1 FROM architect WHERE ArchitectID = NEW.ArchitectID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ArchitectID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NEW.ContractorID <> OLD.ContractorID
+       AND NOT EXISTS (SELECT 1 FROM contractor WHERE ContractorID = NEW.ContractorID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown ContractorID', MYSQL_ERRNO = 1452;
+    END IF;
+    IF NEW.CustomerID <> OLD.CustomerID
+       AND NOT EXISTS (SELECT 1 FROM customer WHERE CustomerID = NEW.CustomerID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Unknown CustomerID', MYSQL_ERRNO = 1452;
+    END IF;
+    
+    IF NEW.ProjectNumber <> OLD.ProjectNumber THEN
+        UPDATE project_number_key SET ProjectNumber = NEW.ProjectNumber
+        WHERE ProjectNumber = OLD.ProjectNumber;
+    END IF;
+END//
+
+-- Register the property of new projects and of projects moved to another ERF
+CREATE TRIGGER IF NOT EXISTS after_project_insert_property
+AFTER INSERT ON project
+FOR EACH ROW
+BEGIN
+    CALL sp_register_property(NEW.ERFNumber, NEW.PhysicalAddress);
+END//
+
+CREATE TRIGGER IF NOT EXISTS after_project_update_property
+AFTER UPDATE ON project
+FOR EACH ROW
+BEGIN
+    IF NEW.ERFNumber <> OLD.ERFNumber THEN
+        CALL sp_register_property(NEW.ERFNumber, NEW.PhysicalAddress);
+    END IF;
+END//
+
+-- Release the project number on delete, unless the project was moved to the archive or
+-- has payments, which stay in the append-only ledger and must not pass to a new project
+CREATE TRIGGER IF NOT EXISTS after_project_delete
+AFTER DELETE ON project
+FOR EACH ROW
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM project_archive WHERE ProjectNumber = OLD.ProjectNumber)
+       AND NOT EXISTS (SELECT 1 FROM payment WHERE ProjectNumber = OLD.ProjectNumber) THEN
+        DELETE FROM project_number_key WHERE ProjectNumber = OLD.ProjectNumber;
+    END IF;
+END//
+
+-- Add each payment to the project balance; the project update trigger and chk_payment
+-- reject an overpayment, which fails the insert. Skipped by bulk loaders (@poisedms_bulk_load).
+CREATE TRIGGER IF NOT EXISTS after_payment_insert
+AFTER INSERT ON payment
+FOR EACH ROW
+BEGIN
+    IF @poisedms_bulk_load IS NULL THEN
+        UPDATE project SET TotalPaid = TotalPaid + NEW.Amount
+        WHERE ProjectNumber = NEW.ProjectNumber;
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '23000'
+            SET MESSAGE_TEXT = 'Unknown ProjectNumber', MYSQL_ERRNO = 1452;
+        END IF;
+    END IF;
+END//
+
+-- The ledger is append-only; corrections are negative payments
+CREATE TRIGGER IF NOT EXISTS before_payment_update
+BEFORE UPDATE ON payment
+FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000'
+    SET MESSAGE_TEXT = 'Payments cannot be changed; record a correcting payment';
+END//
+
+CREATE TRIGGER IF NOT EXISTS before_payment_delete
+BEFORE DELETE ON payment
+FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000'
+    SET MESSAGE_TEXT = 'Payments cannot be deleted; record a correcting payment';
+END//
+
+-- ON DELETE RESTRICT / ON UPDATE CASCADE for the people tables. The locking read also
+-- blocks a project insert or update referencing the person until the delete commits.
+CREATE TRIGGER IF NOT EXISTS before_architect_delete
+BEFORE DELETE ON architect
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE ArchitectID = OLD.ArchitectID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Architect is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+CREATE TRIGGER IF NOT EXISTS after_architect_update
+AFTER UPDATE ON architect
+FOR EACH ROW
+BEGIN
+    IF NEW.ArchitectID <> OLD.ArchitectID THEN
+        UPDATE project SET ArchitectID = NEW.ArchitectID WHERE ArchitectID = OLD.ArchitectID;
+    END IF;
+END//
+
+CREATE TRIGGER IF NOT EXISTS before_contractor_delete
+BEFORE DELETE ON contractor
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE ContractorID = OLD.ContractorID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Contractor is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+CREATE TRIGGER IF NOT EXISTS after_contractor_update
+AFTER UPDATE ON contractor
+FOR EACH ROW
+BEGIN
+    IF NEW.ContractorID <> OLD.ContractorID THEN
+        UPDATE project SET ContractorID = NEW.ContractorID WHERE ContractorID = OLD.ContractorID;
+    END IF;
+END//
+
+CREATE TRIGGER IF NOT EXISTS before_customer_delete
+BEFORE DELETE ON customer
+FOR EACH ROW
+BEGIN
+    IF EXISTS (SELECT 1 FROM project WHERE CustomerID = OLD.CustomerID FOR SHARE) THEN
+        SIGNAL SQLSTATE '23000'
+        SET MESSAGE_TEXT = 'Customer is referenced by a project', MYSQL_ERRNO = 1451;
+    END IF;
+END//
+
+CREATE TRIGGER IF NOT EXISTS after_customer_update
+AFTER UPDATE ON customer
+FOR EACH ROW
+BEGIN
+    IF NEW.CustomerID <> OLD.CustomerID THEN
+        UPDATE project SET CustomerID = NEW.CustomerID WHERE CustomerID = OLD.CustomerID;
+    END IF;
 END//
 
 DELIMITER ;
 
+-- Register the sample projects, inserted before the triggers existed
+INSERT IGNORE INTO project_number_key (ProjectNumber)
+SELECT ProjectNumber FROM project;
+
+INSERT IGNORE INTO region (City, Country)
+SELECT DISTINCT address_part(PhysicalAddress, 2), address_part(PhysicalAddress, 3) FROM project;
+
+INSERT IGNORE INTO property (ERFNumber, Street, RegionID)
+SELECT p.ERFNumber, address_part(p.PhysicalAddress, 1), r.RegionID
+FROM project p
+JOIN region r ON r.City = address_part(p.PhysicalAddress, 2) AND r.Country = address_part(p.PhysicalAddress, 3);
+
 -- =====================================================
 -- Grant Permissions (adjust as needed for production)
 -- =====================================================
@@ -291,4 +652,5 @@ SELECT
     (SELECT COUNT(*) FROM architect) AS Architects,
     (SELECT COUNT(*) FROM contractor) AS Contractors,
     (SELECT COUNT(*) FROM customer) AS Customers,
-    (SELECT COUNT(*) FROM project) AS Projects;
+    (SELECT COUNT(*) FROM project) AS Projects,
+    (SELECT COUNT(*) FROM payment) AS Payments;
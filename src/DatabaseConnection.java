@@ -1,7 +1,9 @@
 import java.sql.Connection;
 import java.sql.SQLException;
+import resilience.CircuitOpenException;
 import util.ConnectionPool;
 import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
 
 /**
  * DatabaseConnection class is used to establish a connection to the PoiseDMS database.
@@ -23,10 +25,13 @@ public class DatabaseConnection {
   public static Connection getConnection() throws SQLException {
     try {
       Connection connection = ConnectionPool.getConnection();
-      LoggerUtil.debug("Database connection obtained from pool");
+      LoggerUtil.debug(Subsystem.POOL, "Database connection obtained from pool");
       return connection;
+    } catch (CircuitOpenException e) {
+      LoggerUtil.debug(Subsystem.POOL, "Connection refused by open circuit: {}", e.getMessage());
+      throw e;
     } catch (SQLException e) {
-      LoggerUtil.error("Failed to get database connection", e);
+      LoggerUtil.error(Subsystem.POOL, "Failed to get database connection", e);
       System.err.println("❌ Connection failed: " + e.getMessage());
       throw e;
     }
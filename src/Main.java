@@ -1,6 +1,47 @@
+import backup.BackupService;
+import config.AppConfig;
+import config.ConfigFileWatcher;
+import config.DatabaseConfig;
+import dedup.DuplicateDetector;
+import enums.EntityType;
+import event.EventStreamServer;
+import exception.DatabaseException;
+import event.ProjectEventBus;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import loadtest.DataGenerator;
+import loadtest.WorkloadDriver;
+import model.Project;
+import monitoring.SlowQueryRecorder;
+import report.AccountStatement;
+import report.StatementGenerator;
+import resilience.Retry;
+import schedule.ScheduleIndex;
+import service.ArchiveService;
+import service.BulkProjectService;
+import service.PartitionMaintenance;
+import service.PaymentService;
+import service.ProjectNumberRegistry;
+import service.ProjectService;
+import snapshot.Snapshot;
+import snapshot.SnapshotWriter;
 import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
 
 /**
  * The Main class serves as the entry point for the PoiseDMS project management system.
@@ -19,7 +60,8 @@ public class Main {
    * The main method initializes the program, establishes a database connection,
    * and handles user interaction through a menu-driven interface.
    *
-   * @param args Command-line arguments (not used in this application)
+   * @param args Command-line arguments; when present, an administrative command is run
+   *             instead of the interactive menu (see {@link #runCommand(String[])})
    */
   public static void main(String[] args) {
     LoggerUtil.info("PoiseDMS application started");
@@ -28,15 +70,30 @@ public class Main {
       LoggerUtil.info("Shutdown hook triggered: closing database pool");
       DatabaseConnection.closePool();
     }));
+    if (args.length > 0) {
+      runCommand(args);
+      return;
+    }
     Scanner scanner = new Scanner(System.in); // Scanner resource initialization
     ProjectManager projectManager = new ProjectManager(); // Initialize ProjectManager instance
 
     // Display welcome message
     displayWelcomeBanner();
+    EventStreamServer eventStream = startEventStream();
+    ConfigFileWatcher configWatcher = startConfigWatcher();
+    ScheduledExecutorService partitionMaintenance = startPartitionMaintenance();
     
-    try (Connection connection = DatabaseConnection.getConnection()) {
-      LoggerUtil.info("Database connection established successfully");
-      
+    try {
+      try (Connection connection = DatabaseConnection.getConnection()) {
+        LoggerUtil.info("Database connection established successfully");
+        ProjectNumberRegistry.warmUp(connection);
+      } catch (SQLException e) {
+        LoggerUtil.warning(Subsystem.SERVICE, "Project number filter not warmed; existence checks will query the database: {}",
+                           e.getMessage());
+      }
+
+      // Each menu action borrows its own connection, so the session survives a database
+      // restart or failover instead of holding one dead connection until exit.
       while (true) {
         // Display options to the user
         System.out.println("\n" + "=".repeat(50));
@@ -59,99 +116,524 @@ public class Main {
           choice = Integer.parseInt(scanner.nextLine().trim());
         } catch (NumberFormatException ex) {
           System.out.println("❌ Invalid input. Please enter a number between 1 and 9.");
-          LoggerUtil.warning("Non-numeric menu input received");
+          LoggerUtil.warning(Subsystem.UI, "Non-numeric menu input received");
           continue; // restart loop
         }
         
-        LoggerUtil.info("User selected menu option: " + choice);
+        try (LoggerUtil.OperationContext ignored = LoggerUtil.beginOperation("menu." + choice)) {
+          LoggerUtil.info(Subsystem.UI, "User selected menu option: {}", choice);
 
-        switch (choice) {
-          case 1:
-            if (!confirmContinue(scanner)) {
-              continue;
-            }
-            projectManager.viewAllProjects(connection);
-            break;
+          switch (choice) {
+            case 1:
+              if (!confirmContinue(scanner)) {
+                continue;
+              }
+              runAction("viewAllProjects", true, projectManager::viewAllProjects);
+              break;
 
-          case 2:
-            if (!confirmContinue(scanner)) {
-              continue;
-            }
-            projectManager.viewIncompleteProjects(connection);
-            break;
+            case 2:
+              if (!confirmContinue(scanner)) {
+                continue;
+              }
+              runAction("viewIncompleteProjects", true, projectManager::viewIncompleteProjects);
+              break;
 
-          case 3:
-            if (!confirmContinue(scanner)) {
-              continue;
-            }
-            projectManager.viewOverdueProjects(connection);
-            break;
+            case 3:
+              if (!confirmContinue(scanner)) {
+                continue;
+              }
+              runAction("viewOverdueProjects", true, projectManager::viewOverdueProjects);
+              break;
 
-          case 4:
-            if (!confirmContinue(scanner)) {
-              continue;
-            }
-            projectManager.searchProjects(connection, scanner);
-            break;
+            case 4:
+              if (!confirmContinue(scanner)) {
+                continue;
+              }
+              runAction("searchProjects", false, connection -> projectManager.searchProjects(connection, scanner));
+              break;
 
-          case 5:
-            if (!confirmContinue(scanner)) {
-              continue;
-            }
-            projectManager.addNewProject(connection, scanner);
-            break;
+            case 5:
+              if (!confirmContinue(scanner)) {
+                continue;
+              }
+              runAction("addNewProject", false, connection -> projectManager.addNewProject(connection, scanner));
+              break;
 
-          case 6:
-            if (!confirmContinue(scanner)) {
-              continue;
-            }
-            projectManager.updateProject(connection, scanner);
-            break;
+            case 6:
+              if (!confirmContinue(scanner)) {
+                continue;
+              }
+              runAction("updateProject", false, connection -> projectManager.updateProject(connection, scanner));
+              break;
 
-          case 7:
-            if (!confirmContinue(scanner)) {
-              continue;
-            }
-            projectManager.deleteProject(connection, scanner);
-            break;
+            case 7:
+              if (!confirmContinue(scanner)) {
+                continue;
+              }
+              runAction("deleteProject", false, connection -> projectManager.deleteProject(connection, scanner));
+              break;
 
-          case 8:
-            if (!confirmContinue(scanner)) {
-              continue;
-            }
-            projectManager.finaliseProject(connection, scanner);
-            break;
+            case 8:
+              if (!confirmContinue(scanner)) {
+                continue;
+              }
+              runAction("finaliseProject", false, connection -> projectManager.finaliseProject(connection, scanner));
+              break;
 
-          case 9:
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("Thank you for using PoiseDMS!");
-            System.out.println("Closing database connections...");
-            DatabaseConnection.closePool();
-            System.out.println("Application terminated successfully.");
-            System.out.println("=".repeat(50));
-            LoggerUtil.info("PoiseDMS application terminated by user");
-            return;
+            case 9:
+              System.out.println("\n" + "=".repeat(50));
+              System.out.println("Thank you for using PoiseDMS!");
+              System.out.println("Closing database connections...");
+              DatabaseConnection.closePool();
+              System.out.println("Application terminated successfully.");
+              System.out.println("=".repeat(50));
+              LoggerUtil.info("PoiseDMS application terminated by user");
+              return;
 
-          default:
-            System.out.println("❌ Invalid choice. Please enter a number between 1 and 9.");
-            LoggerUtil.warning("Out-of-range menu choice entered: " + choice);
+            default:
+              System.out.println("❌ Invalid choice. Please enter a number between 1 and 9.");
+              LoggerUtil.warning(Subsystem.UI, "Out-of-range menu choice entered: {}", choice);
+          }
         }
       }
-    } catch (SQLException e) {
-      LoggerUtil.error("Database error occurred", e);
-      System.err.println("❌ Database error: " + e.getMessage());
-      e.printStackTrace();
     } catch (Exception e) {
       LoggerUtil.error("Unexpected error occurred", e);
       System.err.println("❌ Unexpected error: " + e.getMessage());
       e.printStackTrace();
     } finally {
+      if (eventStream != null) {
+        eventStream.stop();
+      }
+      if (configWatcher != null) {
+        try {
+          configWatcher.close();
+        } catch (IOException e) {
+          LoggerUtil.debug(Subsystem.SERVICE, "Config watcher not closed cleanly: {}", e.getMessage());
+        }
+      }
+      if (partitionMaintenance != null) {
+        partitionMaintenance.shutdownNow();
+      }
       // Closes the scanner to avoid resource leak
       scanner.close();
       LoggerUtil.info("Scanner resources released");
     }
   }
   
+  /**
+   * A menu action run against a borrowed connection.
+   */
+  @FunctionalInterface
+  private interface MenuAction {
+    void run(Connection connection) throws SQLException;
+  }
+
+  /**
+   * Runs one menu action on a connection borrowed for it alone. Read-only actions are
+   * retried on a fresh connection when the failure is transient (see {@link Retry}); a
+   * failure that remains is reported without ending the session.
+   *
+   * @param name       Action name for logs and retries
+   * @param idempotent true if the action only reads and may run again
+   * @param action     The action
+   */
+  private static void runAction(String name, boolean idempotent, MenuAction action) {
+    try {
+      if (idempotent) {
+        Retry.read(name, connection -> {
+          action.run(connection);
+          return null;
+        });
+      } else {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+          action.run(connection);
+        }
+      }
+    } catch (SQLException e) {
+      ProjectManager.reportSqlError("Could not complete " + name, e);
+    }
+  }
+
+  /**
+   * Starts the project change feed endpoint when {@code events.sse.enabled} is set.
+   *
+   * @return The running server, or null when disabled or the port is unavailable
+   */
+  private static EventStreamServer startEventStream() {
+    if (!Boolean.parseBoolean(AppConfig.getProperty("events.sse.enabled", "false"))) {
+      return null;
+    }
+    try {
+      EventStreamServer server = new EventStreamServer(ProjectEventBus.getDefault(),
+          AppConfig.getIntProperty("events.sse.port", 8085),
+          AppConfig.getIntProperty("events.sse.heartbeat.seconds", 15) * 1000L);
+      server.start();
+      return server;
+    } catch (IOException e) {
+      LoggerUtil.warning(Subsystem.SERVICE, "Change feed endpoint not started: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Watches database.properties when {@code db.config.watch} is set, so that saving new
+   * credentials or a new pool size reconfigures the connection pool without a restart.
+   *
+   * @return The running watcher, or null when disabled or the file is not on disk
+   */
+  private static ConfigFileWatcher startConfigWatcher() {
+    if (!Boolean.parseBoolean(AppConfig.getProperty("db.config.watch", "true"))) {
+      return null;
+    }
+    Path file = DatabaseConfig.getConfigFile();
+    if (file == null) {
+      LoggerUtil.warning(Subsystem.SERVICE, "database.properties is not a file on disk, so it is not watched and pool "
+          + "settings change on restart only; name the file with -Dpoisedms.db.config or DB_CONFIG_FILE to watch it");
+      return null;
+    }
+    try {
+      return ConfigFileWatcher.start(file, DatabaseConfig::reload);
+    } catch (IOException e) {
+      LoggerUtil.warning(Subsystem.SERVICE, "Not watching {} for changes: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Adds the yearly project partitions {@code partitions.years.ahead} years ahead at startup
+   * and then every {@code partitions.check.hours}, so a long-running session does not reach a
+   * year that only has the catch-all partition. Disabled with {@code partitions.maintain=false}.
+   *
+   * @return The daemon scheduler, or null when disabled
+   */
+  private static ScheduledExecutorService startPartitionMaintenance() {
+    if (!Boolean.parseBoolean(AppConfig.getProperty("partitions.maintain", "true"))) {
+      return null;
+    }
+    int yearsAhead = AppConfig.getIntProperty("partitions.years.ahead", 3);
+    long hours = AppConfig.getIntProperty("partitions.check.hours", 24);
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "partition-maintenance");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(() -> {
+      try (Connection connection = DatabaseConnection.getConnection()) {
+        new PartitionMaintenance().ensureFuturePartitions(connection, yearsAhead);
+      } catch (SQLException | DatabaseException e) {
+        LoggerUtil.warning(Subsystem.SERVICE, "Project partitions not checked; retrying in {} hours: {}",
+                           hours, e.getMessage());
+      }
+    }, 0, hours, TimeUnit.HOURS);
+    return scheduler;
+  }
+
+  /**
+   * Runs a non-interactive administrative command and exits. Supported commands:
+   * <ul>
+   *   <li>{@code archive [days] [chunkSize]} - move old finalised projects to project_archive</li>
+   *   <li>{@code export <file.csv> [--archived]} - export projects, optionally with archived ones</li>
+   *   <li>{@code partitions [yearsAhead]} - add yearly project partitions ahead of the calendar</li>
+   *   <li>{@code generate [projects] [finalisedFraction]} - fill a scratch database with synthetic data</li>
+   *   <li>{@code workload [threads] [seconds]} - run the configured read/write mix and report latencies</li>
+   *   <li>{@code statements [customer|contractor] [outputDir] [asOf]} - write text and HTML statements</li>
+   *   <li>{@code snapshot write|info [file] [projectNumber]} - write or inspect the binary data snapshot</li>
+   *   <li>{@code backup [dir]} - dump all tables from one consistent snapshot in parallel chunks</li>
+   *   <li>{@code restore <dir> [--replace]} - load a backup, people before projects</li>
+   *   <li>{@code dedup} - queue likely duplicate people in duplicate_candidate for review</li>
+   *   <li>{@code slowqueries [count]} - print the most recent slow query log entries</li>
+   *   <li>{@code payments <projectNumber> | payments <from> <to>} - list a project's payments, or total
+   *       the payments made in a period per project</li>
+   *   <li>{@code property <erfNumber>} - list the projects on one ERF</li>
+   *   <li>{@code region <city> [country]} - list the projects in a city</li>
+   *   <li>{@code bulk finalise-paid|shift-deadlines <days>|reassign <role> <fromId> <toId> ...} - change many
+   *       projects in chunks; see {@link #runBulk(Connection, String[])}</li>
+   *   <li>{@code schedule active|conflicts|load ...} - projects running on a day, double-booked contractors
+   *       or architects, and projects per week; see {@link #runSchedule(Connection, String[])}</li>
+   * </ul>
+   *
+   * @param args Command name followed by its arguments
+   */
+  private static void runCommand(String[] args) {
+    try (Connection connection = DatabaseConnection.getConnection();
+         LoggerUtil.OperationContext ignored = LoggerUtil.beginOperation("cli." + args[0])) {
+      LoggerUtil.info(Subsystem.UI, "Running command: {}", String.join(" ", args));
+      switch (args[0]) {
+        case "archive": {
+          ArchiveService archiveService = new ArchiveService();
+          ArchiveService.ArchiveResult result = args.length > 1
+              ? archiveService.archiveFinalisedProjects(connection, Integer.parseInt(args[1]),
+                  args.length > 2 ? Integer.parseInt(args[2]) : AppConfig.getIntProperty("archive.chunk.size", 500),
+                  AppConfig.getIntProperty("archive.chunk.pause.ms", 50))
+              : archiveService.archiveFinalisedProjects(connection);
+          System.out.println("✅ " + result);
+          break;
+        }
+        case "export": {
+          if (args.length < 2) {
+            System.out.println("Usage: export <file.csv> [--archived]");
+            break;
+          }
+          boolean includeArchived = args.length > 2 && args[2].equals("--archived");
+          try (Writer out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            long rows = new ProjectService().exportProjectsCsv(connection, out, includeArchived);
+            System.out.println("✅ Exported " + rows + " projects to " + args[1]);
+          }
+          break;
+        }
+        case "partitions": {
+          int yearsAhead = args.length > 1 ? Integer.parseInt(args[1])
+              : AppConfig.getIntProperty("partitions.years.ahead", 3);
+          int added = new PartitionMaintenance().ensureFuturePartitions(connection, yearsAhead);
+          System.out.println("✅ Added " + added + " project partitions");
+          break;
+        }
+        case "generate": {
+          DataGenerator generator = args.length > 1
+              ? new DataGenerator(Long.parseLong(args[1]), args.length > 2 ? Double.parseDouble(args[2])
+                  : AppConfig.getDoubleProperty("loadtest.finalised.fraction", 0.7))
+              : new DataGenerator();
+          System.out.println("✅ Generated " + generator.generate(connection) + " projects");
+          break;
+        }
+        case "workload": {
+          int threads = args.length > 1 ? Integer.parseInt(args[1]) : AppConfig.getIntProperty("loadtest.threads", 16);
+          int seconds = args.length > 2 ? Integer.parseInt(args[2])
+              : AppConfig.getIntProperty("loadtest.duration.seconds", 60);
+          System.out.println(new WorkloadDriver().run(threads, seconds));
+          break;
+        }
+        case "statements": {
+          AccountStatement.Party party = args.length > 1 && args[1].equalsIgnoreCase("contractor")
+              ? AccountStatement.Party.CONTRACTOR : AccountStatement.Party.CUSTOMER;
+          Path outputDir = Paths.get(args.length > 2 ? args[2] : "statements");
+          LocalDate asOf = args.length > 3 ? LocalDate.parse(args[3]) : LocalDate.now();
+          System.out.println("✅ " + new StatementGenerator().generate(connection, party, outputDir, asOf));
+          break;
+        }
+        case "snapshot": {
+          Path file = Paths.get(args.length > 2 ? args[2] : AppConfig.getProperty("snapshot.file", "data/poisedms.snapshot"));
+          if (args.length > 1 && args[1].equals("write")) {
+            System.out.println("✅ " + SnapshotWriter.write(connection, file));
+            break;
+          }
+          try (Snapshot snapshot = Snapshot.open(file)) {
+            double outstanding = 0;
+            int overdue = 0;
+            int today = (int) LocalDate.now().toEpochDay();
+            for (int i = 0; i < snapshot.getProjectCount(); i++) {
+              outstanding += Math.max(0, snapshot.getTotalFee(i) - snapshot.getTotalPaid(i));
+              int deadline = snapshot.getDeadlineEpochDay(i);
+              if (!snapshot.isFinalised(i) && deadline != Integer.MIN_VALUE && deadline < today) {
+                overdue++;
+              }
+            }
+            System.out.printf("Snapshot %s taken %s: %d projects (%d overdue, R%,.2f outstanding), "
+                + "%d architects, %d contractors, %d customers%n", file, snapshot.getCreatedAt(),
+                snapshot.getProjectCount(), overdue, outstanding, snapshot.getPersonCount(EntityType.ARCHITECT),
+                snapshot.getPersonCount(EntityType.CONTRACTOR), snapshot.getPersonCount(EntityType.CUSTOMER));
+            if (args.length > 3) {
+              int index = snapshot.findProject(args[3]);
+              System.out.println(index < 0 ? "Project not found: " + args[3] : snapshot.getProjectDetails(index));
+            }
+          }
+          break;
+        }
+        case "backup": {
+          Path dir = args.length > 1 ? Paths.get(args[1]) : Paths.get(AppConfig.getProperty("backup.dir", "backups"),
+              LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+          System.out.println("✅ " + new BackupService().backup(connection, dir) + " -> " + dir);
+          break;
+        }
+        case "restore": {
+          if (args.length < 2) {
+            System.out.println("Usage: restore <dir> [--replace]");
+            break;
+          }
+          boolean replace = args.length > 2 && args[2].equals("--replace");
+          System.out.println("✅ " + new BackupService().restore(connection, Paths.get(args[1]), replace));
+          break;
+        }
+        case "dedup": {
+          System.out.println("✅ Queued " + new DuplicateDetector().run(connection) + " duplicate candidates for review");
+          break;
+        }
+        case "slowqueries": {
+          Path file = Paths.get(AppConfig.getProperty("slowquery.file", "logs/slow-queries.log"));
+          List<String> entries = SlowQueryRecorder.readRecent(file, args.length > 1 ? Integer.parseInt(args[1]) : 20);
+          if (entries.isEmpty()) {
+            System.out.println("No slow queries recorded in " + file);
+          }
+          entries.forEach(System.out::print);
+          break;
+        }
+        case "payments": {
+          PaymentService paymentService = new PaymentService();
+          if (args.length == 2) {
+            paymentService.findPayments(connection, args[1]).forEach(System.out::println);
+          } else if (args.length == 3) {
+            double total = 0;
+            for (Map.Entry<String, Double> entry : paymentService.totalsByProject(connection,
+                LocalDate.parse(args[1]), LocalDate.parse(args[2])).entrySet()) {
+              System.out.printf("%-12s R%,15.2f%n", entry.getKey(), entry.getValue());
+              total += entry.getValue();
+            }
+            System.out.printf("%-12s R%,15.2f%n", "Total", total);
+          } else {
+            System.out.println("Usage: payments <projectNumber> | payments <from> <to>");
+          }
+          break;
+        }
+        case "property": {
+          if (args.length != 2) {
+            System.out.println("Usage: property <erfNumber>");
+            break;
+          }
+          List<Project> projects = new ProjectService().findProjectsByErf(connection, args[1]);
+          projects.forEach(System.out::println);
+          System.out.println(projects.size() + " projects on " + args[1]);
+          break;
+        }
+        case "region": {
+          if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: region <city> [country]");
+            break;
+          }
+          List<Project> projects = new ProjectService().findProjectsInRegion(connection, args[1],
+              args.length > 2 ? args[2] : null);
+          projects.forEach(System.out::println);
+          System.out.println(projects.size() + " projects in " + String.join(", ", Arrays.copyOfRange(args, 1, args.length)));
+          break;
+        }
+        case "bulk": {
+          runBulk(connection, args);
+          break;
+        }
+        case "schedule": {
+          runSchedule(connection, args);
+          break;
+        }
+        default:
+          System.out.println("Unknown command: " + args[0]);
+          System.out.println("Commands: archive [days] [chunkSize] | export <file.csv> [--archived] | partitions [yearsAhead]"
+              + " | generate [projects] [finalisedFraction] | workload [threads] [seconds]"
+              + " | statements [customer|contractor] [outputDir] [asOf] | snapshot write|info [file] [projectNumber]"
+              + " | backup [dir] | restore <dir> [--replace] | dedup | slowqueries [count]"
+              + " | payments <projectNumber>|<from> <to> | property <erfNumber> | region <city> [country]"
+              + " | bulk finalise-paid|shift-deadlines <days>|reassign <role> <fromId> <toId> [role id] [--projects n,...]"
+              + " | schedule active [date] | schedule conflicts [role] [from] [to] | schedule load [role] [weeks]");
+      }
+    } catch (NumberFormatException e) {
+      System.err.println("❌ Invalid number: " + e.getMessage());
+    } catch (Exception e) {
+      LoggerUtil.error("Command failed: " + args[0], e);
+      System.err.println("❌ Command failed: " + e.getMessage());
+    } finally {
+      DatabaseConnection.closePool();
+    }
+  }
+
+  /**
+   * Runs one of the bulk operations:
+   * <ul>
+   *   <li>{@code bulk finalise-paid [role id]} - finalise open projects that are paid in full</li>
+   *   <li>{@code bulk shift-deadlines <days> [role id]} - move open deadlines, e.g. for one architect</li>
+   *   <li>{@code bulk reassign <role> <fromId> <toId>} - hand every project of one person to another</li>
+   * </ul>
+   * Each may end with {@code --projects <n,...>} to restrict it to the listed project numbers.
+   * A summary is printed as each chunk commits.
+   *
+   * @param connection Database connection
+   * @param args {@code bulk} followed by the operation and its arguments
+   */
+  private static void runBulk(Connection connection, String[] args) throws Exception {
+    String usage = "Usage: bulk finalise-paid [role id] | bulk shift-deadlines <days> [role id]"
+        + " | bulk reassign <role> <fromId> <toId>   (role: architect|contractor|customer; may end with --projects n,...)";
+    int end = args.length;
+    BulkProjectService.Filter filter = BulkProjectService.Filter.all();
+    if (end > 2 && args[end - 2].equals("--projects")) {
+      filter = filter.projectNumbers(List.of(args[end - 1].split(",")));
+      end -= 2;
+    }
+    BulkProjectService.Operation operation;
+    int next;
+    String mode = args.length > 1 ? args[1] : "";
+    if (mode.equals("finalise-paid")) {
+      operation = BulkProjectService.Operation.finalise();
+      filter = filter.fullyPaid();
+      next = 2;
+    } else if (mode.equals("shift-deadlines") && end > 2) {
+      operation = BulkProjectService.Operation.shiftDeadlines(Integer.parseInt(args[2]));
+      next = 3;
+    } else if (mode.equals("reassign") && end > 4) {
+      EntityType role = BulkProjectService.parseRole(args[2]);
+      operation = BulkProjectService.Operation.reassign(role, args[4]);
+      filter = filter.assignedTo(role, args[3]);
+      next = 5;
+    } else {
+      System.out.println(usage);
+      return;
+    }
+    if (end == next + 2) {
+      filter = filter.assignedTo(BulkProjectService.parseRole(args[next]), args[next + 1]);
+    } else if (end != next) {
+      System.out.println(usage);
+      return;
+    }
+    BulkProjectService.BulkResult result = new BulkProjectService().apply(connection, operation, filter,
+        summary -> System.out.println("  " + summary));
+    System.out.println("✅ " + result);
+  }
+
+  /**
+   * Runs one of the schedule reports:
+   * <ul>
+   *   <li>{@code schedule active [date]} - projects running on a day, today by default</li>
+   *   <li>{@code schedule conflicts [role] [from] [to]} - periods in which a contractor (default) or architect
+   *       has more projects running than {@code schedule.capacity.<role>}</li>
+   *   <li>{@code schedule load [role] [weeks]} - projects running per week from this week on, with the busiest
+   *       contractor or architect of each week</li>
+   * </ul>
+   *
+   * @param connection Database connection
+   * @param args {@code schedule} followed by the report and its arguments
+   */
+  private static void runSchedule(Connection connection, String[] args) throws Exception {
+    String mode = args.length > 1 ? args[1] : "";
+    ScheduleIndex index = ScheduleIndex.getDefault();
+    LocalDate today = LocalDate.now();
+    int next = 2;
+    EntityType role = EntityType.CONTRACTOR;
+    if (!mode.equals("active") && args.length > 2 && !Character.isDigit(args[2].charAt(0))) {
+      role = BulkProjectService.parseRole(args[2]);
+      next = 3;
+    }
+    if (role == EntityType.CUSTOMER) {
+      System.out.println("Schedules are kept for contractors and architects");
+    } else if (mode.equals("active") && args.length <= 3) {
+      LocalDate day = args.length > 2 ? LocalDate.parse(args[2]) : today;
+      List<ScheduleIndex.ProjectSpan> spans = index.activeOn(connection, day);
+      spans.forEach(System.out::println);
+      System.out.println(spans.size() + " projects running on " + day);
+    } else if (mode.equals("conflicts") && args.length <= next + 2) {
+      LocalDate from = args.length > next ? LocalDate.parse(args[next]) : today;
+      LocalDate to = args.length > next + 1 ? LocalDate.parse(args[next + 1])
+          : from.plusDays(AppConfig.getIntProperty("schedule.conflict.days", 90));
+      int capacity = AppConfig.getIntProperty("schedule.capacity." + role.getTableName(), 1);
+      List<ScheduleIndex.Conflict> conflicts = index.findConflicts(connection, role, from, to, capacity);
+      conflicts.forEach(System.out::println);
+      System.out.println(conflicts.size() + " periods between " + from + " and " + to + " with more than "
+          + capacity + " projects per " + role.getTableName());
+    } else if (mode.equals("load") && args.length <= next + 1) {
+      int weeks = args.length > next ? Integer.parseInt(args[next])
+          : AppConfig.getIntProperty("schedule.load.weeks", 8);
+      index.weeklyLoad(connection, role, today, weeks).forEach(System.out::println);
+    } else {
+      System.out.println("Usage: schedule active [date] | schedule conflicts [role] [from] [to]"
+          + " | schedule load [role] [weeks]   (role: contractor|architect; dates YYYY-MM-DD)");
+    }
+  }
+
   /**
    * Displays welcome banner for the application.
    */
@@ -1,11 +1,32 @@
 import java.sql.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.regex.Pattern;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.time.LocalDate;
+import config.AppConfig;
+import constants.AppConstants;
+import enums.EntityType;
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import exception.DatabaseException;
+import exception.PoiseDMSException;
+import exception.ValidationException;
+import model.Person;
+import resilience.SqlStateClassifier;
+import schedule.WorkloadIndex;
+import service.IdAllocator;
+import service.PaymentService;
+import service.PersonRepository;
+import service.ProjectNumberRegistry;
+import service.ProjectService;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+import util.ValidationEngine;
+import util.ValidationUtil;
 
 /**
  * ProjectManager class allows interaction with the project database
@@ -20,18 +41,19 @@ import java.time.LocalDate;
  */
 public class ProjectManager {
 
+  private final PaymentService paymentService = new PaymentService();
+
   /**
    * Displays all projects from the database.
    * 
    * @param connection the database connection
    * @see <a href="https://docs.oracle.com/javase/7/docs/api/java/sql/Connection.html">JDBC Connection documentation</a>
    */
-  public void viewAllProjects(Connection connection) {
-    String query = "SELECT * FROM project";
+  public void viewAllProjects(Connection connection) throws SQLException {
+    // Projects with the names of their people, from one joined view
+    String query = AppConstants.SQL_SELECT_ALL_DETAILS;
     try (Statement stmt = connection.createStatement(); ResultSet resultSet = stmt.executeQuery(query)) {
       TableFormatter.displayAllProjects(resultSet);
-    } catch (SQLException e) {
-      e.printStackTrace();
     }
   }
 
@@ -41,38 +63,31 @@ public class ProjectManager {
    * @param connection the database connection
    * @see <a href="https://dev.mysql.com/doc/refman/8.0/en/date-and-time-literals.html">MySQL Date and Time Literals</a>
    */
-  public void viewIncompleteProjects(Connection connection) {
-    String query = "SELECT * FROM project WHERE Finalised = 'No'";
+  public void viewIncompleteProjects(Connection connection) throws SQLException {
+    String query = AppConstants.SQL_SELECT_INCOMPLETE_DETAILS;
     try (Statement stmt = connection.createStatement(); ResultSet resultSet = stmt.executeQuery(query)) {
       TableFormatter.displayIncompleteProjects(resultSet);
-    } catch (SQLException e) {
-      e.printStackTrace();
     }
   }
   /**
    * Displays overdue projects from the database that are not yet finalised.
    *
    * <p>Projects are considered overdue if their deadline has passed and they
-   * have not been marked as finalised ('YES'). This method also handles cases
-   * where the 'Finalised' column is NULL or contains 'No'.</p>
+   * have not been marked as finalised ('YES'). Finalised is NOT NULL, so the
+   * plain {@code Finalised = 'No'} test lets MySQL prune to the open partitions.</p>
    *
    * @param connection the database connection
    * @see <a href="https://dev.mysql.com/doc/refman/8.0/en/date-and-time-functions.html">MySQL Date Functions</a>
    */
-  public void viewOverdueProjects(Connection connection) {
+  public void viewOverdueProjects(Connection connection) throws SQLException {
     // SQL query to fetch projects that are overdue and not finalised
-    String query = "SELECT * FROM project " +
-                   "WHERE Deadline < CURDATE() AND (Finalised IS NULL OR Finalised = 'No')";
+    String query = AppConstants.SQL_SELECT_OVERDUE_DETAILS;
 
     try (Statement stmt = connection.createStatement();
          ResultSet resultSet = stmt.executeQuery(query)) {
          
       // Display the result using your custom table formatter
       TableFormatter.displayOverdueProjects(resultSet);
-      
-    } catch (SQLException e) {
-      System.err.println("❌ Error retrieving overdue projects: " + e.getMessage());
-      e.printStackTrace();
     }
   }
 
@@ -87,11 +102,17 @@ public class ProjectManager {
   public void searchProjects(Connection connection, Scanner scanner) {
     System.out.print("Enter project number or name to search: ");
     String searchTerm = scanner.nextLine();
-    String query = "SELECT * FROM project WHERE ProjectNumber LIKE ? OR ProjectName LIKE ?";
+    System.out.print("Include archived projects? (y/n): ");
+    boolean includeArchived = scanner.nextLine().trim().equalsIgnoreCase("y");
+    String query = ProjectService.buildSearchQuery(includeArchived);
 
     try (PreparedStatement pstmt = connection.prepareStatement(query)) {
       pstmt.setString(1, "%" + searchTerm + "%");
       pstmt.setString(2, "%" + searchTerm + "%");
+      if (includeArchived) {
+        pstmt.setString(3, "%" + searchTerm + "%");
+        pstmt.setString(4, "%" + searchTerm + "%");
+      }
 
       try (ResultSet resultSet = pstmt.executeQuery()) {
         if (!resultSet.isBeforeFirst()) { // Check if the result set is empty
@@ -101,13 +122,10 @@ public class ProjectManager {
         TableFormatter.displayProjectsByNumberOrName(resultSet);
       }
     } catch (SQLException e) {
-      System.err.println("❌ Error searching for projects: " + e.getMessage());
-      e.printStackTrace();
+      reportSqlError("Error searching for projects", e);
     }
   }
 
-  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
   /**
    * Adds a new project to the database.
    * Performs validation on input fields including ERF number, fee logic,
@@ -119,21 +137,26 @@ public class ProjectManager {
    */
   public void addNewProject(Connection connection, Scanner scanner) {
     try {
-      // Get project number with numeric validation
+      // Get project number, or allocate one when the user presses Enter
       String projectNumber;
       while (true) {
-        System.out.print("Enter project number (e.g., 1234): ");
+        System.out.print("Enter project number (e.g., PRJ001), or press Enter to allocate one: ");
         String input = scanner.nextLine().trim();
-        if (input.matches("\\d+")) {
+        if (input.isEmpty()) {
+          projectNumber = IdAllocator.nextId(EntityType.PROJECT);
+          System.out.println("Allocated project number: " + projectNumber);
+          break;
+        } else if (ValidationEngine.isProjectNumber(input)) {
           projectNumber = input;
           break;
         } else {
-          System.out.println("❌ Invalid input. Please enter a numeric project number.");
+          System.out.println("❌ Invalid input. Please enter a project number such as PRJ001.");
         }
       }
 
-      // Check if project already exists
-      if (projectExists(connection, projectNumber)) {
+      // Only probe the database when the in-memory filter says the number may be taken;
+      // the insert below still reports duplicates from concurrent creators.
+      if (ProjectNumberRegistry.mightExist(projectNumber) && projectExists(connection, projectNumber)) {
         System.out.println("❌ Project with this number already exists.");
         return;
       }
@@ -178,10 +201,11 @@ public class ProjectManager {
         }
       }
 
-      // Validate and fetch existing entity IDs
-      String architectId = validateAndGetEntity(connection, scanner, "Architect", "ARC");
-      String contractorId = validateAndGetEntity(connection, scanner, "Contractor", "CON");
-      String customerId = validateAndGetEntity(connection, scanner, "Customer", "CUS");
+      // Validate and fetch existing entity IDs; all three people lists come from one query
+      Map<String, Map<String, String[]>> people = loadPeopleDirectory(connection);
+      String architectId = validateAndGetEntity(connection, scanner, "Architect", "ARC", people.get("Architect"));
+      String contractorId = validateAndGetEntity(connection, scanner, "Contractor", "CON", people.get("Contractor"));
+      String customerId = validateAndGetEntity(connection, scanner, "Customer", "CUS", people.get("Customer"));
 
       // Use helper method to validate all entities
       if (!validateEntityPresence(architectId, "Architect") ||
@@ -192,7 +216,7 @@ public class ProjectManager {
 
       // Auto-generate project name if not provided
       if (projectName.isEmpty()) {
-        projectName = generateProjectName(connection, customerId, buildingType);
+        projectName = generateProjectName(connection, customerId, buildingType, people.get("Customer"));
         System.out.println("Project name automatically set to: " + projectName);
       }
 
@@ -203,7 +227,9 @@ public class ProjectManager {
               + "ContractorID, CustomerID, Finalised) "
               + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'No');";
 
-      // Execute insertion
+      // Insert with nothing paid and post any amount already paid to the ledger as the
+      // opening balance, in one transaction so the ledger always adds up to TotalPaid
+      connection.setAutoCommit(false);
       try (PreparedStatement pstmt = connection.prepareStatement(query)) {
         pstmt.setString(1, projectNumber);
         pstmt.setString(2, projectName);
@@ -212,21 +238,36 @@ public class ProjectManager {
         pstmt.setString(5, physicalAddress);
         pstmt.setString(6, erfNumber);
         pstmt.setDouble(7, totalFee);
-        pstmt.setDouble(8, totalPaid);
+        pstmt.setDouble(8, 0);
         pstmt.setString(9, architectId);
         pstmt.setString(10, contractorId);
         pstmt.setString(11, customerId);
 
-        int rowsAffected = pstmt.executeUpdate();
-        if (rowsAffected > 0) {
-          System.out.println("✅ Project added successfully.");
-        } else {
-          System.out.println("Failed to add the project.");
+        pstmt.executeUpdate();
+        if (totalPaid > 0) {
+          paymentService.recordPayment(connection, projectNumber, totalPaid, LocalDate.now(),
+              PaymentService.OPENING_BALANCE);
         }
+        connection.commit();
       } catch (SQLException e) {
-        System.out.println("❌ Error adding project to the database: " + e.getMessage());
-        e.printStackTrace();
+        connection.rollback();
+        if (ProjectService.isDuplicateKey(e)) {
+          ProjectNumberRegistry.record(projectNumber);
+          System.out.println("❌ Project with this number already exists.");
+          return;
+        }
+        reportSqlError("Error adding project to the database", e);
+        return;
+      } catch (PoiseDMSException e) {
+        connection.rollback();
+        System.out.println("❌ Project not added: " + e.getMessage());
+        return;
+      } finally {
+        connection.setAutoCommit(true);
       }
+      ProjectNumberRegistry.record(projectNumber);
+      ProjectEventBus.getDefault().publish(ProjectEvent.Type.CREATED, projectNumber);
+      System.out.println("✅ Project added successfully.");
     } catch (Exception e) {
       System.out.println("❌ An unexpected error occurred: " + e.getMessage());
       e.printStackTrace();
@@ -252,21 +293,32 @@ public class ProjectManager {
   /**
    * Generates a project name based on the customer's surname and building type.
    *
+   * The surname is taken from the already loaded customer list when possible, so the
+   * database is only queried for a customer added during this session.
+   *
    * @param connection   the database connection
    * @param customerID   the ID of the customer
    * @param buildingType the type of building
+   * @param customers    known customers by ID ({first name, surname})
    * @return the generated project name
    */
-  private String generateProjectName(Connection connection, String customerID, String buildingType) {
+  private String generateProjectName(Connection connection, String customerID, String buildingType,
+                                     Map<String, String[]> customers) {
       String surname = "Unknown";
-      try (PreparedStatement pstmt = connection.prepareStatement("SELECT Surname FROM customer WHERE CustomerID = ?")) {
-          pstmt.setString(1, customerID);
-          ResultSet rs = pstmt.executeQuery();
-          if (rs.next()) {
-              surname = rs.getString("Surname");
+      String[] known = customers.get(customerID);
+      if (known != null) {
+          surname = known[1];
+      } else {
+          try (PreparedStatement pstmt = connection.prepareStatement("SELECT Surname FROM customer WHERE CustomerID = ?")) {
+              pstmt.setString(1, customerID);
+              try (ResultSet rs = pstmt.executeQuery()) {
+                  if (rs.next()) {
+                      surname = rs.getString("Surname");
+                  }
+              }
+          } catch (SQLException e) {
+              System.out.println("Error fetching customer surname: " + e.getMessage());
           }
-      } catch (SQLException e) {
-          System.out.println("Error fetching customer surname: " + e.getMessage());
       }
 
       switch (buildingType.toLowerCase()) {
@@ -290,15 +342,13 @@ public class ProjectManager {
     while (true) {
       System.out.print(prompt);
       String input = scanner.nextLine().trim();
-      try {
-        LocalDate date = LocalDate.parse(input, DATE_FORMAT);
-        if (date.isBefore(LocalDate.now())) {
-          System.out.println("Error: The date cannot be in the past. Please enter a future date.");
-        } else {
-          return date;
-        }
-      } catch (DateTimeParseException e) {
+      long epochDay = ValidationEngine.parseIsoDate(input);
+      if (epochDay == ValidationEngine.INVALID_DATE) {
         System.out.println("❌ Invalid date format! Please enter the date in YYYY-MM-DD format.");
+      } else if (epochDay < LocalDate.now().toEpochDay()) {
+        System.out.println("Error: The date cannot be in the past. Please enter a future date.");
+      } else {
+        return LocalDate.ofEpochDay(epochDay);
       }
     }
   }
@@ -334,7 +384,7 @@ public class ProjectManager {
    * @return true if the project exists, false otherwise
    */
   private boolean projectExists(Connection connection, String projectNumber) {
-    String query = "SELECT COUNT(*) FROM project WHERE ProjectNumber = ?";
+    String query = AppConstants.SQL_PROJECT_EXISTS;
     try (PreparedStatement pstmt = connection.prepareStatement(query)) {
       pstmt.setString(1, projectNumber);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -349,48 +399,92 @@ public class ProjectManager {
     return false;
   }
 
+  /**
+   * Loads every architect, contractor and customer in a single UNION ALL query.
+   *
+   * @param connection the database connection
+   * @return entity type ("Architect", "Contractor", "Customer") to ID to {first name, surname}
+   */
+  private Map<String, Map<String, String[]>> loadPeopleDirectory(Connection connection) {
+    Map<String, Map<String, String[]>> directory = new HashMap<>();
+    for (String entityType : new String[] {"Architect", "Contractor", "Customer"}) {
+      directory.put(entityType, new LinkedHashMap<>());
+    }
+    String query = "SELECT 'Architect', ArchitectID, FirstName, Surname FROM architect "
+        + "UNION ALL SELECT 'Contractor', ContractorID, FirstName, Surname FROM contractor "
+        + "UNION ALL SELECT 'Customer', CustomerID, FirstName, Surname FROM customer";
+    try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
+      while (rs.next()) {
+        directory.get(rs.getString(1)).put(rs.getString(2), new String[] {rs.getString(3), rs.getString(4)});
+      }
+    } catch (SQLException e) {
+      System.out.println("❌ Error retrieving existing people: " + e.getMessage());
+    }
+    return directory;
+  }
+
   /**
    * Validates and retrieves the entity ID (e.g., Architect, Contractor, Customer).
    * Supports both prefixed (e.g., ARC123) and numeric (e.g., 1, 2) IDs.
-   * Allows adding the entity if it does not exist.
+   * Allows adding the entity if it does not exist. Architects and contractors are offered
+   * as the least-loaded few rather than the full list, which can be asked for with 'all'.
    *
    * @param connection   the database connection
    * @param scanner      the scanner object for user input
    * @param entityType   the type of entity (e.g., Architect, Contractor, Customer)
    * @param prefix       the prefix for the entity ID (e.g., "ARC" for Architect)
+   * @param known        existing entities of this type by ID ({first name, surname})
    * @return the validated entity ID
    */
-  private String validateAndGetEntity(Connection connection, Scanner scanner, String entityType, String prefix) {
+  private String validateAndGetEntity(Connection connection, Scanner scanner, String entityType, String prefix,
+                                      Map<String, String[]> known) {
     String entityID;
 
+    EntityType role = EntityType.fromDisplayName(entityType);
+    boolean suggest = role == EntityType.CONTRACTOR || role == EntityType.ARCHITECT;
+    boolean listAll = !suggest;
+
     while (true) {
-      // Display available entity IDs
-      System.out.println("Available " + entityType + " IDs:");
-      try (
-        Statement stmt = connection.createStatement();
-        ResultSet rs = stmt.executeQuery(
-          "SELECT " + entityType + "ID, FirstName, Surname FROM " + entityType.toLowerCase()
-        )
-      ) {
-        while (rs.next()) {
-          System.out.println(" - " + rs.getString(1) + ": " + rs.getString(2) + " " + rs.getString(3));
+      // Suggest the least-loaded contractors and architects; list customers, or everyone on request
+      if (listAll || !suggestLeastLoaded(connection, role, known)) {
+        System.out.println("Available " + entityType + " IDs:");
+        for (Map.Entry<String, String[]> entry : known.entrySet()) {
+          System.out.println(" - " + entry.getKey() + ": " + entry.getValue()[0] + " " + entry.getValue()[1]);
         }
-      } catch (SQLException e) {
-        System.out.println("❌ Error retrieving existing " + entityType + "s: " + e.getMessage());
       }
 
       // Prompt for ID
-      System.out.print("Enter " + entityType + " ID (e.g., " + prefix + "123 or 1): ");
+      System.out.print("Enter " + entityType + " ID (e.g., " + prefix + "123 or 1), "
+          + (suggest && !listAll ? "'all' to list every " + entityType + ", " : "")
+          + "or press Enter to add a new " + entityType + ": ");
       entityID = scanner.nextLine().trim();
 
+      if (suggest && entityID.equalsIgnoreCase("all")) {
+        listAll = true;
+        continue;
+      }
+
+      if (entityID.isEmpty()) {
+        try {
+          entityID = IdAllocator.nextId(EntityType.fromDisplayName(entityType));
+        } catch (DatabaseException e) {
+          System.out.println("❌ Could not allocate a new " + entityType + " ID: " + e.getMessage());
+          continue;
+        }
+        System.out.println("Enter new " + entityType + " details below (ID " + entityID + "): ");
+        addEntity(connection, scanner, entityType, entityID);
+        return entityID;
+      }
+
       // Validate format: allow either numeric or prefixed
-      if (!entityID.matches("\\d+") && !entityID.matches(prefix + "\\d{3}")) {
-        System.out.println("Invalid " + entityType + " ID. It must be numeric or start with '" + prefix + "' followed by 3 digits.");
+      if (!ValidationUtil.isNumeric(entityID) && !ValidationEngine.isEntityId(entityID, prefix)) {
+        System.out.println("Invalid " + entityType + " ID. It must be numeric or start with '" + prefix + "' followed by at least 3 digits.");
         continue;
       }
 
-      // Check if the ID exists
-      if (isValidForeignKey(connection, entityType.toLowerCase(), entityType + "ID", entityID)) {
+      // Check if the ID exists; only IDs missing from the loaded list need a database check
+      if (known.containsKey(entityID)
+          || isValidForeignKey(connection, entityType.toLowerCase(), entityType + "ID", entityID)) {
         return entityID;
       }
 
@@ -413,12 +507,32 @@ public class ProjectManager {
   }
 
 
-  // Email and phone validation patterns
-  private static final Pattern EMAIL_PATTERN =
-          Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-
-  private static final Pattern PHONE_PATTERN =
-          Pattern.compile("^[0-9]{10,15}$"); // Allows 10 to 15 digits
+  /**
+   * Prints the contractors or architects with the fewest open projects and the least
+   * outstanding value, from the live workload index, instead of the whole table.
+   *
+   * @param connection the database connection
+   * @param role       contractor or architect
+   * @param known      existing people of this role by ID ({first name, surname})
+   * @return false if the workload could not be read and nothing was printed
+   */
+  private boolean suggestLeastLoaded(Connection connection, EntityType role, Map<String, String[]> known) {
+    List<WorkloadIndex.Load> candidates;
+    try {
+      candidates = WorkloadIndex.getDefault().leastLoaded(connection, role,
+          AppConfig.getIntProperty("workload.suggestions", 5));
+    } catch (DatabaseException e) {
+      System.out.println("❌ Could not load " + role.getDisplayName() + " workloads: " + e.getMessage());
+      return false;
+    }
+    System.out.println("Least busy " + role.getDisplayName() + "s (" + known.size() + " in total):");
+    for (WorkloadIndex.Load load : candidates) {
+      String[] name = known.get(load.getPersonId());
+      System.out.printf(" - %s: %s | %d open projects | R%,.2f outstanding%n", load.getPersonId(),
+          name == null ? "(new)" : name[0] + " " + name[1], load.getOpenProjects(), load.getOutstanding());
+    }
+    return true;
+  }
 
   /**
    * Method to add a new entity (e.g., Contractor, Architect).
@@ -441,7 +555,7 @@ public class ProjectManager {
     while (true) {
       System.out.print("Enter " + entityType + "'s Telephone Number (10-15 digits, numbers only): ");
       telephone = scanner.nextLine().trim();
-      if (PHONE_PATTERN.matcher(telephone).matches()) {
+      if (ValidationUtil.isValidPhone(telephone)) {
         break;
       }
       System.out.println("❌ Invalid telephone number! Please enter a valid number.");
@@ -452,7 +566,7 @@ public class ProjectManager {
     while (true) {
       System.out.print("Enter " + entityType + "'s Email: ");
       email = scanner.nextLine().trim();
-      if (EMAIL_PATTERN.matcher(email).matches()) {
+      if (ValidationUtil.isValidEmail(email)) {
         break;
       }
       System.out.println("❌ Invalid email format! Please enter a valid email (e.g., user@example.com).");
@@ -463,29 +577,28 @@ public class ProjectManager {
     while (true) {
       System.out.print("Enter physical address (e.g., 123 Main St, City, Country): ");
       physicalAddress = scanner.nextLine().trim();
-      if (physicalAddress.length() > 5 && physicalAddress.contains(",")) {
+      if (ValidationUtil.isValidAddress(physicalAddress)) {
         break;
       }
       System.out.println("Invalid address format! Ensure it includes street, city, and country.");
     }
 
-    // Insert into database (Fixed Name column issue)
-    String query = "INSERT INTO " + entityType.toLowerCase() +
-        " (" + entityType + "ID, FirstName, Surname, Telephone, Email, PhysicalAddress) VALUES (?, ?, ?, ?, ?, ?)";
-    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-      pstmt.setString(1, entityID);
-      pstmt.setString(2, firstName);
-      pstmt.setString(3, surname);
-      pstmt.setString(4, telephone);
-      pstmt.setString(5, email);
-      pstmt.setString(6, physicalAddress);
-      pstmt.executeUpdate();
+    // Insert into database through the repository for this entity type
+    try {
+      insertPerson(connection, PersonRepository.forDisplayName(entityType),
+          entityID, firstName, surname, telephone, email, physicalAddress);
       System.out.println(entityType + " added successfully. ✅");
-    } catch (SQLException e) {
+    } catch (ValidationException | DatabaseException e) {
       System.out.println("❌ Error adding " + entityType + ": " + e.getMessage());
     }
   }
 
+  private <T extends Person> void insertPerson(Connection connection, PersonRepository<T> repository, String id,
+      String firstName, String surname, String telephone, String email, String physicalAddress)
+      throws ValidationException, DatabaseException {
+    repository.insert(connection, repository.create(id, firstName, surname, telephone, email, physicalAddress));
+  }
+
   /**
    * Checks if a foreign key exists in the specified table and column.
    *
@@ -510,7 +623,7 @@ public class ProjectManager {
   }
 
   /**
-   * Updates a project's details such as name, due date, and total paid.
+   * Updates a project's name and due date, and records a payment received against it.
    *
    * @param connection The active database connection.
    * @param scanner    Scanner object for user input.
@@ -535,6 +648,7 @@ public class ProjectManager {
               String currentName = resultSet.getString("ProjectName");
               String currentDeadline = resultSet.getString("Deadline");
               double currentPaid = resultSet.getDouble("TotalPaid");
+              int currentVersion = resultSet.getInt("Version");
 
               // Allow user to leave project name unchanged by pressing Enter
               System.out.print("Enter new project name (press Enter to keep '" + currentName + "'): ");
@@ -553,31 +667,60 @@ public class ProjectManager {
                 }
               } while (newDueDate.isEmpty());
 
-              // Allow user to update the total paid or keep it unchanged
-              double newPaid = currentPaid;
+              // Payments are added to the ledger rather than overwriting the total paid
+              double payment = 0;
               while (true) {
-                System.out.print("Enter new total paid (current: R" + currentPaid + "): ");
+                System.out.print("Enter payment received (current total paid: R" + currentPaid
+                    + "; negative to correct, press Enter for none): ");
                 String paidInput = scanner.nextLine().trim();
                 if (paidInput.isEmpty()) {
-                  break; // Keep existing value if nothing is entered
+                  break; // No payment to record
                 }
                 try {
-                  newPaid = Double.parseDouble(paidInput);
+                  payment = Double.parseDouble(paidInput);
                   break;
                 } catch (NumberFormatException e) {
                   System.out.println("Invalid amount. Please enter a numeric value.");
                 }
               }
 
-              String updateQuery = "UPDATE project SET ProjectName = ?, Deadline = ?, TotalPaid = ? WHERE ProjectNumber = ?";
+              // Compare-and-set on Version: no row lock is held while the user was typing,
+              // so only write if nobody else changed the project in the meantime.
+              String updateQuery = "UPDATE project SET ProjectName = ?, Deadline = ?, "
+                  + "Version = Version + 1 WHERE ProjectNumber = ? AND Version = ?";
+              double newPaid = currentPaid;
+              connection.setAutoCommit(false);
               try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
                 updateStmt.setString(1, newName);
                 updateStmt.setString(2, newDueDate);
-                updateStmt.setDouble(3, newPaid);
-                updateStmt.setString(4, projectNumber);
-                updateStmt.executeUpdate();
-                System.out.println("✅ Project updated successfully.");
+                updateStmt.setString(3, projectNumber);
+                updateStmt.setInt(4, currentVersion);
+                if (updateStmt.executeUpdate() == 0) {
+                  connection.rollback();
+                  System.out.println("❌ Project " + projectNumber + " was changed by another user while you were editing. "
+                      + "Your changes were not saved; please enter the project number again to review the latest values.");
+                  continue;
+                }
+                if (payment != 0) {
+                  newPaid = paymentService.recordPayment(connection, projectNumber, payment, LocalDate.now(), null);
+                }
+                connection.commit();
+              } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+              } catch (PoiseDMSException e) {
+                connection.rollback();
+                System.out.println("❌ Payment not recorded: " + e.getMessage() + ". Your changes were not saved.");
+                continue;
+              } finally {
+                connection.setAutoCommit(true);
+              }
+              if (payment != 0) {
+                ProjectEventBus.getDefault().publish(ProjectEvent.Type.PAYMENT_CHANGED, projectNumber,
+                    newPaid - payment, newPaid);
               }
+              ProjectEventBus.getDefault().publish(ProjectEvent.Type.UPDATED, projectNumber, null, newPaid);
+              System.out.println("✅ Project updated successfully." + (payment != 0 ? " Total paid is now R" + newPaid + "." : ""));
               break;
             } else {
               System.out.println("❌ Project not found. Please enter a valid project number or type 'menu' to return.");
@@ -586,8 +729,7 @@ public class ProjectManager {
         }
       }
     } catch (SQLException e) {
-      System.err.println("❌ Error updating project: " + e.getMessage());
-      e.printStackTrace();
+      reportSqlError("Error updating project", e);
     }
   }
 
@@ -608,7 +750,7 @@ public class ProjectManager {
       String projectNumber = scanner.nextLine();
 
       // Queries to check if the project exists and retrieve its finalization status
-      String verifyQuery = "SELECT Finalised, CompletionDate FROM project WHERE ProjectNumber = ?";
+      String verifyQuery = "SELECT Finalised, CompletionDate, Version FROM project WHERE ProjectNumber = ?";
       try (PreparedStatement pstmt = connection.prepareStatement(verifyQuery)) {
         pstmt.setString(1, projectNumber);
 
@@ -616,6 +758,7 @@ public class ProjectManager {
           if (resultSet.next()) {
             String finalisedStatus = resultSet.getString("Finalised");
             Date completionDate = resultSet.getDate("CompletionDate");
+            int version = resultSet.getInt("Version");
 
             // If the project is already finalized and has a completion date, ask if it should be updated
             if ("Yes".equalsIgnoreCase(finalisedStatus) && completionDate != null) {
@@ -631,20 +774,34 @@ public class ProjectManager {
             }
 
             // Updates query to finalize the project and set the completion date to the current date
-            String updateQuery = "UPDATE project SET Finalised = 'Yes', CompletionDate = CURRENT_DATE WHERE ProjectNumber = ?";
+            String updateQuery = "UPDATE project SET Finalised = 'Yes', CompletionDate = CURRENT_DATE, "
+                + "Version = Version + 1 WHERE ProjectNumber = ? AND Version = ?";
+            // Listeners are told only once the change is committed
+            connection.setAutoCommit(false);
             try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
               updateStmt.setString(1, projectNumber);
-              updateStmt.executeUpdate();
-              System.out.println("✅ Project finalized successfully with updated completion date.");
+              updateStmt.setInt(2, version);
+              if (updateStmt.executeUpdate() == 0) {
+                connection.rollback();
+                System.out.println("❌ Project was changed by another user in the meantime. Nothing was updated; please try again.");
+                return;
+              }
+              connection.commit();
+            } catch (SQLException e) {
+              connection.rollback();
+              throw e;
+            } finally {
+              connection.setAutoCommit(true);
             }
+            ProjectEventBus.getDefault().publish(ProjectEvent.Type.FINALISED, projectNumber);
+            System.out.println("✅ Project finalized successfully with updated completion date.");
           } else {
             System.out.println("❌ Project not found.");
           }
         }
       }
     } catch (SQLException e) {
-      System.out.println("❌ Error finalizing project: " + e.getMessage());
-      e.printStackTrace();
+      reportSqlError("Error finalizing project", e);
     }
   }
 
@@ -666,18 +823,48 @@ public class ProjectManager {
         try (ResultSet resultSet = pstmt.executeQuery()) {
           if (resultSet.next()) {
             String deleteQuery = "DELETE FROM project WHERE ProjectNumber = ?";
+            boolean deleted;
+            // Listeners are told only once the delete is committed
+            connection.setAutoCommit(false);
             try (PreparedStatement deleteStmt = connection.prepareStatement(deleteQuery)) {
               deleteStmt.setString(1, projectNumber);
-              deleteStmt.executeUpdate();
-              System.out.println("✅ Project deleted successfully.");
+              deleted = deleteStmt.executeUpdate() > 0;
+              connection.commit();
+            } catch (SQLException e) {
+              connection.rollback();
+              throw e;
+            } finally {
+              connection.setAutoCommit(true);
+            }
+            if (deleted) {
+              ProjectEventBus.getDefault().publish(ProjectEvent.Type.DELETED, projectNumber);
             }
+            System.out.println("✅ Project deleted successfully.");
           } else {
             System.out.println("❌ Project not found.");
           }
         }
       }
     } catch (SQLException e) {
-      System.err.println("❌ Error deleting project: " + e.getMessage());
+      reportSqlError("Error deleting project", e);
+    }
+  }
+
+  /**
+   * Prints a database error for the user. Failures that retrying can fix, such as a lost
+   * connection during a failover or an open circuit breaker, get a short message; other
+   * errors keep their stack trace for diagnosis.
+   *
+   * @param message What was being attempted, e.g. "Error updating project"
+   * @param e       The failure
+   */
+  static void reportSqlError(String message, SQLException e) {
+    if (SqlStateClassifier.isTransient(e)) {
+      System.err.println("❌ " + message + ": the database is temporarily unavailable. Please try again shortly.");
+      LoggerUtil.warning(Subsystem.UI, "{}: {}", message, e.getMessage());
+    } else {
+      System.err.println("❌ " + message + ": " + e.getMessage());
+      e.printStackTrace();
     }
   }
 }
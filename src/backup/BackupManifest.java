@@ -0,0 +1,126 @@
+package backup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Contents of a backup directory: when it was taken and, per table, the chunk files
+ * and row count. Stored as {@code manifest.properties} and written last, so a
+ * directory without a manifest is an incomplete backup.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class BackupManifest {
+    static final String FILE_NAME = "manifest.properties";
+    static final int FORMAT = 1;
+
+    private final Instant createdAt;
+    private final Map<String, List<String>> chunks = new LinkedHashMap<>();
+    private final Map<String, Long> rows = new LinkedHashMap<>();
+
+    BackupManifest(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return Table names in the order they were dumped
+     */
+    public List<String> getTables() {
+        return new ArrayList<>(chunks.keySet());
+    }
+
+    /**
+     * @return Chunk file names of a table, relative to the backup directory
+     */
+    public List<String> getChunks(String table) {
+        return chunks.getOrDefault(table, new ArrayList<>());
+    }
+
+    public long getRows(String table) {
+        return rows.getOrDefault(table, 0L);
+    }
+
+    synchronized void addChunk(String table, String file, long chunkRows) {
+        chunks.computeIfAbsent(table, t -> new ArrayList<>()).add(file);
+        rows.merge(table, chunkRows, Long::sum);
+    }
+
+    void addTable(String table) {
+        chunks.putIfAbsent(table, new ArrayList<>());
+        rows.putIfAbsent(table, 0L);
+    }
+
+    /**
+     * Writes {@code manifest.properties} into {@code dir}, replacing it atomically.
+     */
+    void write(Path dir) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("format", String.valueOf(FORMAT));
+        properties.setProperty("created", createdAt.toString());
+        properties.setProperty("tables", String.join(",", chunks.keySet()));
+        for (Map.Entry<String, List<String>> entry : chunks.entrySet()) {
+            List<String> files = new ArrayList<>(entry.getValue());
+            files.sort(null);
+            properties.setProperty(entry.getKey() + ".chunks", String.join(",", files));
+            properties.setProperty(entry.getKey() + ".rows", String.valueOf(getRows(entry.getKey())));
+        }
+        Path temp = dir.resolve(FILE_NAME + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(out, "PoiseDMS backup");
+        }
+        Files.move(temp, dir.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the manifest of a backup directory.
+     *
+     * @param dir Backup directory
+     * @return The manifest
+     * @throws IOException if the manifest is missing, unreadable or of an unknown format
+     */
+    public static BackupManifest read(Path dir) throws IOException {
+        Path file = dir.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            throw new IOException("No " + FILE_NAME + " in " + dir + "; the backup is missing or incomplete");
+        }
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        }
+        if (!String.valueOf(FORMAT).equals(properties.getProperty("format"))) {
+            throw new IOException("Unsupported backup format " + properties.getProperty("format"));
+        }
+
+        BackupManifest manifest = new BackupManifest(Instant.parse(properties.getProperty("created")));
+        for (String table : properties.getProperty("tables", "").split(",")) {
+            if (table.isEmpty()) {
+                continue;
+            }
+            manifest.addTable(table);
+            String files = properties.getProperty(table + ".chunks", "");
+            if (!files.isEmpty()) {
+                for (String chunk : files.split(",")) {
+                    manifest.chunks.get(table).add(chunk);
+                }
+            }
+            manifest.rows.put(table, Long.parseLong(properties.getProperty(table + ".rows", "0")));
+        }
+        return manifest;
+    }
+}
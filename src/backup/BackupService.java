@@ -0,0 +1,598 @@
+package backup;
+
+import config.AppConfig;
+import config.DatabaseConfig;
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import exception.DatabaseException;
+import util.ConnectionPool;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Online backup and restore of the PoiseDMS tables, split into primary-key range
+ * chunks that are dumped and loaded by several connections at once.
+ *
+ * <p><b>Backup.</b> Every worker connection needs to see the same data. The coordinator
+ * holds {@code FLUSH TABLES WITH READ LOCK} just long enough for each worker to run
+ * {@code START TRANSACTION WITH CONSISTENT SNAPSHOT}, then releases it; writers are
+ * blocked for milliseconds, not for the length of the dump. The first worker reads
+ * the primary keys to split each table into chunks of about {@code backup.chunk.rows}
+ * rows, and the workers dump the chunks in parallel as files of multi-row
+ * {@code INSERT} statements. If the lock is not permitted (it needs the RELOAD
+ * privilege) the backup still runs, consistently, on a single connection.</p>
+ *
+ * <p><b>Restore.</b> Tables are loaded in dependency order: the people tables,
+ * {@code id_sequence}, {@code duplicate_candidate}, the property registry and
+ * {@code project_archive} in parallel first, then {@code project}, whose insert trigger checks the people and
+ * fills {@code project_number_key}, together with {@code payment}; the numbers of
+ * archived projects and of deleted projects with payments are reserved again afterwards. Triggers cannot be
+ * switched off, but unique and foreign key checks can: the data comes from one
+ * consistent snapshot and the target tables are verified empty beforehand, so each
+ * session turns them off. Each session also sets {@code @poisedms_bulk_load}, which
+ * stops the payment trigger adding restored payments to the restored balances again. Row counts are
+ * compared with the manifest at the end.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class BackupService {
+
+    /**
+     * A table in the backup: its chunking key and restore phase.
+     */
+    private static final class Table {
+        private final String name;
+        private final String key;
+        private final int phase;
+
+        Table(String name, String key, int phase) {
+            this.name = name;
+            this.key = key;
+            this.phase = phase;
+        }
+    }
+
+    /** Backed-up tables; project_number_key is rebuilt by the restore instead. */
+    private static final List<Table> TABLES = Arrays.asList(
+        new Table("architect", "ArchitectID", 0),
+        new Table("contractor", "ContractorID", 0),
+        new Table("customer", "CustomerID", 0),
+        new Table("id_sequence", "EntityType", 0),
+        new Table("duplicate_candidate", "CandidateID", 0),
+        new Table("region", "RegionID", 0),
+        new Table("property", "ERFNumber", 0),
+        new Table("project_archive", "ProjectNumber", 0),
+        new Table("project", "ProjectNumber", 1),
+        new Table("payment", "PaymentID", 1));
+
+    private static final String SESSION_DEFAULTS =
+        "SET SESSION time_zone = DEFAULT, foreign_key_checks = DEFAULT, unique_checks = DEFAULT, sql_mode = DEFAULT, "
+        + "@poisedms_bulk_load = NULL";
+
+    /**
+     * One chunk file: a key range of a table.
+     */
+    private static final class Chunk {
+        private final Table table;
+        private final String file;
+        private final String lower;
+        private final String upper;
+
+        Chunk(Table table, String file, String lower, String upper) {
+            this.table = table;
+            this.file = file;
+            this.lower = lower;
+            this.upper = upper;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkAction {
+        void run(Connection session, Chunk chunk) throws SQLException, IOException;
+    }
+
+    /**
+     * Summary of a backup or restore.
+     */
+    public static final class Result {
+        private final String action;
+        private final int tables;
+        private final int chunks;
+        private final long rows;
+        private final int workers;
+        private final long elapsedMillis;
+
+        Result(String action, int tables, int chunks, long rows, int workers, long elapsedMillis) {
+            this.action = action;
+            this.tables = tables;
+            this.chunks = chunks;
+            this.rows = rows;
+            this.workers = workers;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %d rows of %d tables in %d chunks with %d workers (%d ms)",
+                                 action, rows, tables, chunks, workers, elapsedMillis);
+        }
+    }
+
+    private final int parallelism;
+    private final int chunkRows;
+    private final int batchRows;
+
+    /**
+     * Creates a service with the {@code backup.*} settings.
+     */
+    public BackupService() {
+        this(AppConfig.getIntProperty("backup.parallelism",
+                 Math.min(Runtime.getRuntime().availableProcessors(), DatabaseConfig.getPoolSize() - 1)),
+             AppConfig.getIntProperty("backup.chunk.rows", 50_000),
+             AppConfig.getIntProperty("backup.batch.rows", 500));
+    }
+
+    /**
+     * @param parallelism Worker connections; each is borrowed from the pool
+     * @param chunkRows Rows per chunk file
+     * @param batchRows Rows per INSERT statement
+     */
+    public BackupService(int parallelism, int chunkRows, int batchRows) {
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkRows = Math.max(1, chunkRows);
+        this.batchRows = Math.max(1, batchRows);
+    }
+
+    /**
+     * Dumps all tables from one consistent snapshot into {@code dir}.
+     *
+     * @param connection Coordinator connection; holds the global read lock briefly
+     * @param dir New or empty backup directory
+     * @return Summary of the backup
+     * @throws DatabaseException if the data cannot be read
+     * @throws IOException if {@code dir} already holds a backup or a file cannot be written
+     */
+    public Result backup(Connection connection, Path dir) throws DatabaseException, IOException {
+        long started = System.currentTimeMillis();
+        Files.createDirectories(dir);
+        if (Files.exists(dir.resolve(BackupManifest.FILE_NAME))) {
+            throw new IOException("A backup already exists in " + dir);
+        }
+
+        List<Connection> sessions = new ArrayList<>();
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                sessions.add(ConnectionPool.getConnection());
+            }
+            Instant createdAt = openSnapshots(connection, sessions);
+            BackupManifest manifest = new BackupManifest(createdAt);
+            Queue<Chunk> chunks = planChunks(sessions.get(0), manifest);
+            int chunkCount = chunks.size();
+            runParallel(sessions, chunks, (session, chunk) -> dumpChunk(session, chunk, dir, manifest));
+            manifest.write(dir);
+
+            long rows = manifest.getTables().stream().mapToLong(manifest::getRows).sum();
+            Result result = new Result("Backed up", TABLES.size(), chunkCount, rows, sessions.size(),
+                                       System.currentTimeMillis() - started);
+            LoggerUtil.info(Subsystem.SERVICE, "{} to {}", result, dir);
+            return result;
+        } catch (SQLException e) {
+            LoggerUtil.error("Backup to " + dir + " failed", e);
+            throw new DatabaseException("Backup failed: " + e.getMessage(), e);
+        } finally {
+            sessions.forEach(BackupService::closeSession);
+        }
+    }
+
+    /**
+     * Loads a backup into empty tables.
+     *
+     * @param connection Coordinator connection
+     * @param dir Backup directory with a manifest
+     * @param replace Truncate the tables first instead of requiring them to be empty
+     * @return Summary of the restore
+     * @throws DatabaseException if a table is not empty, a chunk fails or the row counts differ
+     * @throws IOException if the backup cannot be read
+     */
+    public Result restore(Connection connection, Path dir, boolean replace) throws DatabaseException, IOException {
+        long started = System.currentTimeMillis();
+        BackupManifest manifest = BackupManifest.read(dir);
+        for (String name : manifest.getTables()) {
+            if (TABLES.stream().noneMatch(t -> t.name.equals(name))) {
+                throw new IOException("Backup contains unknown table " + name);
+            }
+        }
+
+        List<Connection> sessions = new ArrayList<>();
+        int chunkCount = 0;
+        try {
+            prepareTargets(connection, replace);
+            for (int i = 0; i < parallelism; i++) {
+                Connection session = ConnectionPool.getConnection();
+                sessions.add(session);
+                session.setAutoCommit(false);
+                try (Statement stmt = session.createStatement()) {
+                    stmt.execute("SET SESSION time_zone = '+00:00', foreign_key_checks = 0, unique_checks = 0, "
+                                 + "sql_mode = REPLACE(@@sql_mode, 'NO_BACKSLASH_ESCAPES', ''), @poisedms_bulk_load = 1");
+                }
+            }
+
+            for (int phase = 0; phase <= 1; phase++) {
+                Queue<Chunk> chunks = new ConcurrentLinkedQueue<>();
+                for (Table table : TABLES) {
+                    if (table.phase == phase) {
+                        manifest.getChunks(table.name).forEach(file -> chunks.add(new Chunk(table, file, null, null)));
+                    }
+                }
+                chunkCount += chunks.size();
+                runParallel(sessions, chunks, (session, chunk) -> loadChunk(session, chunk, dir));
+            }
+
+            // Archived projects and deleted projects with payments keep their numbers
+            // reserved, as the delete trigger leaves them in project_number_key
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("INSERT IGNORE INTO project_number_key (ProjectNumber) "
+                                   + "SELECT ProjectNumber FROM project_archive");
+                stmt.executeUpdate("INSERT IGNORE INTO project_number_key (ProjectNumber) "
+                                   + "SELECT DISTINCT ProjectNumber FROM payment");
+            }
+            long rows = verifyCounts(connection, manifest);
+            Result result = new Result("Restored", manifest.getTables().size(), chunkCount, rows, sessions.size(),
+                                       System.currentTimeMillis() - started);
+            LoggerUtil.info(Subsystem.SERVICE, "{} from {} (taken {})", result, dir, manifest.getCreatedAt());
+            return result;
+        } catch (SQLException e) {
+            LoggerUtil.error("Restore from " + dir + " failed", e);
+            throw new DatabaseException("Restore failed: " + e.getMessage(), e);
+        } finally {
+            sessions.forEach(BackupService::closeSession);
+            // Even a failed restore may have replaced rows, so indexes built on them reload
+            ProjectEventBus.getDefault().publish(ProjectEvent.Type.RESTORED, null);
+        }
+    }
+
+    /**
+     * Starts a consistent snapshot on every session. With more than one session the
+     * snapshots are opened under a global read lock so they all see the same commit.
+     *
+     * @return Time the snapshot was taken
+     */
+    private Instant openSnapshots(Connection coordinator, List<Connection> sessions) throws SQLException {
+        boolean locked = false;
+        try (Statement stmt = coordinator.createStatement()) {
+            if (sessions.size() > 1) {
+                try {
+                    stmt.execute("SET SESSION lock_wait_timeout = "
+                                 + AppConfig.getIntProperty("backup.lock.timeout.seconds", 10));
+                    stmt.execute("FLUSH TABLES WITH READ LOCK");
+                    locked = true;
+                } catch (SQLException e) {
+                    LoggerUtil.warning(Subsystem.SERVICE, "Global read lock unavailable ({}); backing up on one connection",
+                                       e.getMessage());
+                    while (sessions.size() > 1) {
+                        closeSession(sessions.remove(sessions.size() - 1));
+                    }
+                }
+            }
+            try {
+                for (Connection session : sessions) {
+                    session.setAutoCommit(false);
+                    session.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                    try (Statement begin = session.createStatement()) {
+                        begin.execute("SET SESSION time_zone = '+00:00'");
+                        begin.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+                    }
+                }
+            } finally {
+                if (locked) {
+                    stmt.execute("UNLOCK TABLES");
+                    stmt.execute("SET SESSION lock_wait_timeout = DEFAULT");
+                }
+            }
+        }
+        return Instant.now();
+    }
+
+    /**
+     * Splits every table into key ranges of about {@link #chunkRows} rows by reading its
+     * primary key in order.
+     */
+    private Queue<Chunk> planChunks(Connection session, BackupManifest manifest) throws SQLException {
+        Queue<Chunk> chunks = new ConcurrentLinkedQueue<>();
+        for (Table table : TABLES) {
+            manifest.addTable(table.name);
+            List<String> bounds = new ArrayList<>();
+            try (Statement stmt = streaming(session);
+                 ResultSet rs = stmt.executeQuery("SELECT " + table.key + " FROM " + table.name
+                                                  + " ORDER BY " + table.key)) {
+                long seen = 0;
+                while (rs.next()) {
+                    if (seen > 0 && seen % chunkRows == 0) {
+                        bounds.add(rs.getString(1));
+                    }
+                    seen++;
+                }
+            }
+            for (int i = 0; i <= bounds.size(); i++) {
+                chunks.add(new Chunk(table, String.format("%s.%05d.sql", table.name, i),
+                                     i == 0 ? null : bounds.get(i - 1), i < bounds.size() ? bounds.get(i) : null));
+            }
+        }
+        LoggerUtil.debug(Subsystem.SERVICE, "Planned {} backup chunks", chunks.size());
+        return chunks;
+    }
+
+    private void dumpChunk(Connection session, Chunk chunk, Path dir, BackupManifest manifest)
+            throws SQLException, IOException {
+        StringBuilder query = new StringBuilder("SELECT * FROM ").append(chunk.table.name).append(" WHERE 1 = 1");
+        if (chunk.lower != null) {
+            query.append(" AND ").append(chunk.table.key).append(" >= ").append(literal(chunk.lower, Types.VARCHAR));
+        }
+        if (chunk.upper != null) {
+            query.append(" AND ").append(chunk.table.key).append(" < ").append(literal(chunk.upper, Types.VARCHAR));
+        }
+        query.append(" ORDER BY ").append(chunk.table.key);
+
+        long rows = 0;
+        try (Statement stmt = streaming(session);
+             ResultSet rs = stmt.executeQuery(query.toString());
+             Writer out = Files.newBufferedWriter(dir.resolve(chunk.file), StandardCharsets.UTF_8)) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            int[] types = new int[columns];
+            StringBuilder prefix = new StringBuilder("INSERT INTO `").append(chunk.table.name).append("` (");
+            for (int i = 1; i <= columns; i++) {
+                types[i - 1] = meta.getColumnType(i);
+                prefix.append(i > 1 ? ", `" : "`").append(meta.getColumnName(i)).append('`');
+            }
+            prefix.append(") VALUES ");
+
+            int inBatch = 0;
+            while (rs.next()) {
+                out.write(inBatch == 0 ? prefix.toString() : ", ");
+                out.write('(');
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        out.write(", ");
+                    }
+                    out.write(literal(rs.getString(i), types[i - 1]));
+                }
+                out.write(')');
+                rows++;
+                if (++inBatch == batchRows) {
+                    out.write(";\n");
+                    inBatch = 0;
+                }
+            }
+            if (inBatch > 0) {
+                out.write(";\n");
+            }
+        }
+        manifest.addChunk(chunk.table.name, chunk.file, rows);
+        LoggerUtil.debug(Subsystem.SERVICE, "Dumped {} ({} rows)", chunk.file, rows);
+    }
+
+    private static void loadChunk(Connection session, Chunk chunk, Path dir) throws SQLException, IOException {
+        try (BufferedReader in = Files.newBufferedReader(dir.resolve(chunk.file), StandardCharsets.UTF_8);
+             Statement stmt = session.createStatement()) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    stmt.executeUpdate(line.endsWith(";") ? line.substring(0, line.length() - 1) : line);
+                }
+            }
+            session.commit();
+        } catch (SQLException | IOException e) {
+            session.rollback();
+            throw e;
+        }
+        LoggerUtil.debug(Subsystem.SERVICE, "Loaded {}", chunk.file);
+    }
+
+    /**
+     * Checks that every target table is empty, or truncates them all when replacing.
+     *
+     * <p>MySQL refuses to truncate a table another table references, such as region from
+     * property, even when the referencing table is empty, so foreign key checks are off on
+     * the coordinator session while truncating and restored to the default afterwards.</p>
+     */
+    private static void prepareTargets(Connection connection, boolean replace) throws SQLException, DatabaseException {
+        List<String> targets = new ArrayList<>();
+        TABLES.forEach(t -> targets.add(t.name));
+        targets.add("project_number_key");
+        try (Statement stmt = connection.createStatement()) {
+            if (replace) {
+                stmt.execute("SET SESSION foreign_key_checks = 0");
+                try {
+                    for (String table : targets) {
+                        stmt.execute("TRUNCATE TABLE " + table);
+                    }
+                } finally {
+                    stmt.execute("SET SESSION foreign_key_checks = DEFAULT");
+                }
+                return;
+            }
+            for (String table : targets) {
+                try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM " + table + " LIMIT 1")) {
+                    if (rs.next()) {
+                        throw new DatabaseException("Table " + table + " is not empty; restore into an empty "
+                                                    + "schema or use --replace");
+                    }
+                }
+            }
+        }
+    }
+
+    private static long verifyCounts(Connection connection, BackupManifest manifest)
+            throws SQLException, DatabaseException {
+        long total = 0;
+        try (Statement stmt = connection.createStatement()) {
+            for (String table : manifest.getTables()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    rs.next();
+                    long actual = rs.getLong(1);
+                    if (actual != manifest.getRows(table)) {
+                        throw new DatabaseException(String.format("Restored %d rows into %s, backup has %d",
+                                                                  actual, table, manifest.getRows(table)));
+                    }
+                    total += actual;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Runs chunk actions on all sessions until the queue is empty. The first failure
+     * stops the other workers and is rethrown.
+     */
+    private static void runParallel(List<Connection> sessions, Queue<Chunk> chunks, ChunkAction action)
+            throws SQLException, IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(sessions.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Connection session : sessions) {
+            futures.add(executor.submit(() -> {
+                Chunk chunk;
+                while (!failed.get() && (chunk = chunks.poll()) != null) {
+                    try {
+                        action.run(session, chunk);
+                    } catch (SQLException | IOException | RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException("Worker failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Statement streaming(Connection session) throws SQLException {
+        Statement stmt = session.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        return stmt;
+    }
+
+    /**
+     * Ends the session's transaction, resets the session variables changed here and
+     * returns the connection to the pool.
+     */
+    private static void closeSession(Connection session) {
+        try (Connection c = session) {
+            c.rollback();
+            try (Statement stmt = c.createStatement()) {
+                stmt.execute(SESSION_DEFAULTS);
+            }
+            c.setAutoCommit(true);
+        } catch (SQLException e) {
+            LoggerUtil.warning(Subsystem.POOL, "Failed to reset backup session: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Formats a column value as a MySQL literal: numbers as they are, everything else
+     * as a quoted string with backslash escapes.
+     *
+     * @param value Value as returned by {@code ResultSet.getString}, or null
+     * @param sqlType {@link Types} constant of the column
+     * @return SQL literal
+     */
+    static String literal(String value, int sqlType) {
+        if (value == null) {
+            return "NULL";
+        }
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+                return value;
+            default:
+                break;
+        }
+        StringBuilder out = new StringBuilder(value.length() + 2).append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\0':
+                    out.append("\\0");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\'':
+                    out.append("\\'");
+                    break;
+                case '\u001A':
+                    out.append("\\Z");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+        return out.append('\'').toString();
+    }
+}
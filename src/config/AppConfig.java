@@ -78,6 +78,38 @@ public class AppConfig {
         return properties.getProperty(key, defaultValue);
     }
     
+    /**
+     * Gets an integer configuration property.
+     * 
+     * @param key Property key
+     * @param defaultValue Value used when the property is missing or not a number
+     * @return Property value or default
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            LoggerUtil.warning("Invalid integer for {}; using {}", key, defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Gets a decimal configuration property.
+     * 
+     * @param key Property key
+     * @param defaultValue Value used when the property is missing or not a number
+     * @return Property value or default
+     */
+    public static double getDoubleProperty(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            LoggerUtil.warning("Invalid number for {}; using {}", key, defaultValue);
+            return defaultValue;
+        }
+    }
+    
     /**
      * Gets application name.
      * 
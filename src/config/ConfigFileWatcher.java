@@ -0,0 +1,105 @@
+package config;
+
+import util.LoggerUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an action when one configuration file changes, e.g. {@link DatabaseConfig#reload()}
+ * when {@code database.properties} is edited.
+ *
+ * <p>The file's directory is watched on a daemon thread, since a {@link WatchService}
+ * cannot watch a single file. Editors often save in several steps, writing a temporary
+ * file and renaming it or truncating before writing, so the action runs once the file
+ * has been quiet for {@value #QUIET_MS} ms rather than on every event.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class ConfigFileWatcher implements Closeable {
+    private static final long QUIET_MS = 500;
+
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private ConfigFileWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                       StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "config-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching a file.
+     *
+     * @param file File to watch; its directory must exist
+     * @param onChange Action to run after the file changes
+     * @return The running watcher
+     * @throws IOException if the directory cannot be watched
+     */
+    public static ConfigFileWatcher start(Path file, Runnable onChange) throws IOException {
+        ConfigFileWatcher watcher = new ConfigFileWatcher(file, onChange);
+        watcher.thread.start();
+        LoggerUtil.info("Watching {} for changes", watcher.file);
+        return watcher;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!consumeEvents(watchService.take())) {
+                    continue;
+                }
+                // Wait until a poll period passes without another change to the file
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_MS, TimeUnit.MILLISECONDS)) != null) {
+                    consumeEvents(key);
+                }
+                LoggerUtil.info("{} changed; reloading", file.getFileName());
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    LoggerUtil.error("Reload after change to " + file.getFileName() + " failed", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LoggerUtil.info("Stopped watching {}", file);
+        }
+    }
+
+    /**
+     * Consumes one key's events and re-arms it.
+     *
+     * @return true if any event was for the watched file
+     */
+    private boolean consumeEvents(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -2,7 +2,14 @@ package config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import util.LoggerUtil;
 
 /**
@@ -13,81 +20,171 @@ import util.LoggerUtil;
  * @version 2.0
  */
 public class DatabaseConfig {
-    private static final Properties properties = new Properties();
+    private static volatile Properties properties = new Properties();
+    private static final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
     private static final String CONFIG_FILE = "database.properties";
+    private static final String CONFIG_FILE_PROPERTY = "poisedms.db.config";
+    private static final String ENV_CONFIG_FILE = "DB_CONFIG_FILE";
     private static final String ENV_URL = "DB_URL";
     private static final String ENV_USER = "DB_USERNAME";
     private static final String ENV_PASSWORD = "DB_PASSWORD";
     private static final String ENV_DRIVER = "DB_DRIVER";
     private static final String ENV_POOL_SIZE = "DB_POOL_SIZE";
     private static final String ENV_POOL_TIMEOUT = "DB_POOL_TIMEOUT";
+    private static final String ENV_POOL_LEAK_DETECTION = "DB_POOL_LEAK_DETECTION";
+    private static final String ENV_CONNECT_TIMEOUT = "DB_CONNECT_TIMEOUT";
+    private static final String ENV_SOCKET_TIMEOUT = "DB_SOCKET_TIMEOUT";
+    private static final String ENV_QUERY_TIMEOUT = "DB_QUERY_TIMEOUT";
 
     static {
-        loadProperties();
-        overrideWithEnv();
-        validateSecurity();
+        properties = readConfiguration();
+    }
+
+    /**
+     * Reads the file, applies environment overrides and checks the result, into a new
+     * set of properties so readers never see a half-loaded configuration.
+     */
+    private static Properties readConfiguration() {
+        Properties loaded = new Properties();
+        if (!loadProperties(loaded)) {
+            setDefaultProperties(loaded);
+        }
+        overrideWithEnv(loaded);
+        validateSecurity(loaded);
+        return loaded;
     }
     
     /**
-     * Loads database configuration from properties file.
-     * Falls back to default values if file is not found.
+     * Loads database configuration from properties file. The file on disk is read
+     * directly when the classpath copy is one, so a reload sees edits made since startup.
+     * @return false if the file is missing or cannot be read
      */
-    private static void loadProperties() {
-        try (InputStream input = DatabaseConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
-            if (input != null) {
-                properties.load(input);
-                LoggerUtil.info("Database properties loaded from file: " + CONFIG_FILE);
-            } else {
-                LoggerUtil.warning("Configuration file '" + CONFIG_FILE + "' not found. Falling back to defaults.");
-                setDefaultProperties();
+    private static boolean loadProperties(Properties properties) {
+        Path file = getConfigFile();
+        try (InputStream input = file != null ? Files.newInputStream(file)
+                : DatabaseConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (input == null) {
+                LoggerUtil.warning("Configuration file '{}' not found.", CONFIG_FILE);
+                return false;
             }
+            properties.load(input);
+            LoggerUtil.info("Database properties loaded from file: {}", file != null ? file : CONFIG_FILE);
+            return true;
         } catch (IOException e) {
-            LoggerUtil.error("Error loading configuration file. Falling back to defaults.", e);
-            setDefaultProperties();
+            LoggerUtil.error("Error loading configuration file " + (file != null ? file : CONFIG_FILE), e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the database properties file on disk, for reading and for watching it for changes.
+     * A file named by the {@code poisedms.db.config} system property or the
+     * {@code DB_CONFIG_FILE} environment variable is used in place of the classpath copy,
+     * which cannot be edited when it is packaged in a jar.
+     * @return Path of the file, or null if none is named and the classpath copy is missing or inside a jar
+     */
+    public static Path getConfigFile() {
+        String external = System.getProperty(CONFIG_FILE_PROPERTY, System.getenv(ENV_CONFIG_FILE));
+        if (external != null && !external.trim().isEmpty()) {
+            return Paths.get(external.trim()).toAbsolutePath();
+        }
+        URL resource = DatabaseConfig.class.getClassLoader().getResource(CONFIG_FILE);
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
         }
     }
     
     /**
      * Sets default properties for development environment.
      */
-    private static void setDefaultProperties() {
+    private static void setDefaultProperties(Properties properties) {
         properties.setProperty("db.url", "jdbc:mysql://localhost:3306/PoiseDMS");
         properties.setProperty("db.username", "CHANGE_ME");
         properties.setProperty("db.password", "CHANGE_ME_SECURELY");
         properties.setProperty("db.driver", "com.mysql.cj.jdbc.Driver");
         properties.setProperty("db.pool.size", "10");
-        properties.setProperty("db.pool.timeout", "30000");
+        properties.setProperty("db.pool.timeout", "5000");
+        properties.setProperty("db.pool.leakDetectionThreshold", "120000");
+        properties.setProperty("db.connect.timeout", "5000");
+        properties.setProperty("db.socket.timeout", "600000");
+        properties.setProperty("db.query.timeout", "60");
     }
 
     /**
      * Overrides loaded properties with environment variables when present.
      * This enables twelve-factor style configuration for production deployments.
      */
-    private static void overrideWithEnv() {
-        overrideIfPresent("db.url", ENV_URL);
-        overrideIfPresent("db.username", ENV_USER);
-        overrideIfPresent("db.password", ENV_PASSWORD);
-        overrideIfPresent("db.driver", ENV_DRIVER);
-        overrideIfPresent("db.pool.size", ENV_POOL_SIZE);
-        overrideIfPresent("db.pool.timeout", ENV_POOL_TIMEOUT);
+    private static void overrideWithEnv(Properties properties) {
+        overrideIfPresent(properties, "db.url", ENV_URL);
+        overrideIfPresent(properties, "db.username", ENV_USER);
+        overrideIfPresent(properties, "db.password", ENV_PASSWORD);
+        overrideIfPresent(properties, "db.driver", ENV_DRIVER);
+        overrideIfPresent(properties, "db.pool.size", ENV_POOL_SIZE);
+        overrideIfPresent(properties, "db.pool.timeout", ENV_POOL_TIMEOUT);
+        overrideIfPresent(properties, "db.pool.leakDetectionThreshold", ENV_POOL_LEAK_DETECTION);
+        overrideIfPresent(properties, "db.connect.timeout", ENV_CONNECT_TIMEOUT);
+        overrideIfPresent(properties, "db.socket.timeout", ENV_SOCKET_TIMEOUT);
+        overrideIfPresent(properties, "db.query.timeout", ENV_QUERY_TIMEOUT);
     }
 
-    private static void overrideIfPresent(String key, String envName) {
+    private static void overrideIfPresent(Properties properties, String key, String envName) {
         String value = System.getenv(envName);
         if (value != null && !value.trim().isEmpty()) {
             properties.setProperty(key, value.trim());
             if (!key.equals("db.password")) { // do not log passwords
-                LoggerUtil.info("Config override via ENV: " + key + " <- " + envName);
+                LoggerUtil.info("Config override via ENV: {} <- {}", key, envName);
             } else {
-                LoggerUtil.info("Config override via ENV: db.password <- " + envName + " (hidden)");
+                LoggerUtil.info("Config override via ENV: db.password <- {} (hidden)", envName);
             }
         }
     }
 
+    /**
+     * Checks that the settings the connection pool is built from are present and parse,
+     * and that sizes and timeouts are in range.
+     * @throws IllegalArgumentException naming the first bad setting
+     */
+    private static void validate(Properties properties) {
+        if (properties.getProperty("db.url", "").trim().isEmpty()) {
+            throw new IllegalArgumentException("db.url is required");
+        }
+        try {
+            checkRanges(properties);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("A database pool or timeout setting is not a number: " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkRanges(Properties properties) {
+        if (poolSize(properties) < 1) {
+            throw new IllegalArgumentException("db.pool.size must be at least 1");
+        }
+        if (connectionTimeout(properties) <= 0) {
+            throw new IllegalArgumentException("db.pool.timeout must be positive");
+        }
+        if (leakDetectionThreshold(properties) < 0) {
+            throw new IllegalArgumentException("db.pool.leakDetectionThreshold cannot be negative");
+        }
+        if (connectTimeout(properties) < 0) {
+            throw new IllegalArgumentException("db.connect.timeout cannot be negative");
+        }
+        if (socketTimeout(properties) < 0) {
+            throw new IllegalArgumentException("db.socket.timeout cannot be negative");
+        }
+        if (queryTimeout(properties) < 0) {
+            throw new IllegalArgumentException("db.query.timeout cannot be negative");
+        }
+    }
+
     /**
      * Basic security validation to warn if insecure placeholder credentials are still in use.
      */
-    private static void validateSecurity() {
+    private static void validateSecurity(Properties properties) {
         String user = properties.getProperty("db.username", "");
         String pwd = properties.getProperty("db.password", "");
         if ("CHANGE_ME".equals(user) || "CHANGE_ME_SECURELY".equals(pwd)) {
@@ -97,11 +194,43 @@ public class DatabaseConfig {
 
     /**
      * Allows runtime reload (e.g., after updating environment variables in long-running process).
+     * The new values replace the old ones in one step, and then each reload listener is
+     * told, so the connection pool can pick up new credentials or a new size.
+     * 
+     * <p>Unlike the first load, a reload never falls back to the defaults: if the file is
+     * missing or unreadable, or any setting is invalid, the error is logged and the current
+     * settings stay in force.</p>
      */
     public static synchronized void reload() {
-        loadProperties();
-        overrideWithEnv();
-        validateSecurity();
+        Properties loaded = new Properties();
+        if (!loadProperties(loaded)) {
+            LoggerUtil.warning("Database configuration not reloaded; keeping the current settings");
+            return;
+        }
+        overrideWithEnv(loaded);
+        try {
+            validate(loaded);
+        } catch (IllegalArgumentException e) {
+            LoggerUtil.error("Invalid database configuration; keeping the current settings", e);
+            return;
+        }
+        validateSecurity(loaded);
+        properties = loaded;
+        for (Runnable listener : reloadListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                LoggerUtil.error("Database configuration reload listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Registers code to run after each {@link #reload()}.
+     * @param listener Listener, run on the reloading thread
+     */
+    public static void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
     }
     
     /**
@@ -141,14 +270,75 @@ public class DatabaseConfig {
      * @return Maximum pool size
      */
     public static int getPoolSize() {
-        return Integer.parseInt(properties.getProperty("db.pool.size", "10"));
+        return poolSize(properties);
     }
     
     /**
-     * Gets connection timeout in milliseconds.
-     * @return Connection timeout
+     * Gets how long a caller waits to borrow a pooled connection before giving up.
+     * @return Borrow timeout in milliseconds
      */
     public static int getConnectionTimeout() {
-        return Integer.parseInt(properties.getProperty("db.pool.timeout", "30000"));
+        return connectionTimeout(properties);
+    }
+
+    /**
+     * Gets how long opening a new connection to the server may take.
+     * @return Connect timeout in milliseconds
+     */
+    public static long getConnectTimeout() {
+        return connectTimeout(properties);
+    }
+
+    /**
+     * Gets how long the driver waits for the server to answer a read before failing the
+     * connection. It must outlast the slowest statement the application runs, such as a
+     * partition reorganisation; 0 waits forever.
+     * @return Socket timeout in milliseconds
+     */
+    public static long getSocketTimeout() {
+        return socketTimeout(properties);
+    }
+
+    /**
+     * Gets how long a statement may run before the driver cancels it. Statements that
+     * need longer set their own timeout.
+     * @return Statement timeout in seconds; 0 for no limit
+     */
+    public static int getQueryTimeout() {
+        return queryTimeout(properties);
+    }
+    
+    /**
+     * Gets how long a connection may be held before HikariCP reports it as a possible
+     * leak, with the stack trace of the code that borrowed it. 0 disables the check;
+     * HikariCP ignores values below 2000.
+     * @return Leak detection threshold in milliseconds
+     */
+    public static long getLeakDetectionThreshold() {
+        return leakDetectionThreshold(properties);
+    }
+
+    private static int poolSize(Properties properties) {
+        return Integer.parseInt(properties.getProperty("db.pool.size", "10"));
+    }
+
+    private static int connectionTimeout(Properties properties) {
+        return Integer.parseInt(properties.getProperty("db.pool.timeout", "5000"));
+    }
+
+    private static long connectTimeout(Properties properties) {
+        return Long.parseLong(properties.getProperty("db.connect.timeout", "5000"));
+    }
+
+    private static long socketTimeout(Properties properties) {
+        return Long.parseLong(properties.getProperty("db.socket.timeout", "600000"));
+    }
+
+    private static int queryTimeout(Properties properties) {
+        return Integer.parseInt(properties.getProperty("db.query.timeout", "60"));
+    }
+
+    private static long leakDetectionThreshold(Properties properties) {
+        return Long.parseLong(properties.getProperty("db.pool.leakDetectionThreshold", "120000"));
     }
 }
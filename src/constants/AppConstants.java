@@ -22,7 +22,7 @@ public final class AppConstants {
     // Database Constants
     public static final String DB_NAME = "PoiseDMS";
     public static final int DEFAULT_POOL_SIZE = 10;
-    public static final int DEFAULT_CONNECTION_TIMEOUT = 30000;
+    public static final int DEFAULT_CONNECTION_TIMEOUT = 5000;
     
     // Entity ID Prefixes
     public static final String ARCHITECT_PREFIX = "ARC";
@@ -32,9 +32,14 @@ public final class AppConstants {
     public static final String ERF_PREFIX = "ERF";
     
     // Validation Patterns
+    // Kept for reference only: validation is performed by util.ValidationEngine scanners.
+    @Deprecated
     public static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
+    @Deprecated
     public static final String PHONE_REGEX = "^[0-9]{10,15}$";
+    @Deprecated
     public static final String NUMERIC_REGEX = "^\\d+$";
+    @Deprecated
     public static final String ALPHANUMERIC_REGEX = "^[a-zA-Z0-9 ]+$";
     
     // Date Format
@@ -69,13 +74,31 @@ public final class AppConstants {
     public static final String SQL_SELECT_ALL_PROJECTS = "SELECT * FROM project";
     public static final String SQL_SELECT_INCOMPLETE = "SELECT * FROM project WHERE Finalised = 'No'";
     public static final String SQL_SELECT_OVERDUE = 
-        "SELECT * FROM project WHERE Deadline < CURDATE() AND (Finalised IS NULL OR Finalised = 'No')";
+        "SELECT * FROM project WHERE Finalised = 'No' AND Deadline < CURDATE()";
+    public static final String SQL_SELECT_PROJECT = "SELECT * FROM project WHERE ProjectNumber = ?";
+    public static final String SQL_PROJECT_EXISTS = "SELECT COUNT(*) FROM project WHERE ProjectNumber = ?";
+    
+    // Project listings with people names (views defined in schema.sql)
+    public static final String SQL_SELECT_ALL_DETAILS = "SELECT * FROM view_project_details";
+    public static final String SQL_SELECT_INCOMPLETE_DETAILS = "SELECT * FROM view_incomplete_projects";
+    public static final String SQL_SELECT_OVERDUE_DETAILS = "SELECT * FROM view_overdue_projects";
+    public static final String SQL_SELECT_PROJECT_DETAILS = "SELECT * FROM view_project_details WHERE ProjectNumber = ?";
+    
+    // Project columns shared by the hot table and project_archive (same order in both)
+    public static final String PROJECT_COLUMNS =
+        "ProjectNumber, ProjectName, Deadline, BuildingType, PhysicalAddress, ERFNumber, TotalFee, TotalPaid, "
+        + "ArchitectID, ContractorID, CustomerID, Finalised, CompletionDate, Version, created_at, updated_at";
     
     // Error Codes
     public static final String ERR_DB_CONNECTION = "PDMS-DB-001";
     public static final String ERR_VALIDATION = "PDMS-VAL-001";
     public static final String ERR_NOT_FOUND = "PDMS-ENT-404";
     public static final String ERR_DUPLICATE = "PDMS-DUP-001";
+    public static final String ERR_CONFLICT = "PDMS-CON-409";
+    
+    // Optimistic Concurrency
+    public static final int MAX_UPDATE_ATTEMPTS = 5;
+    public static final long UPDATE_RETRY_BACKOFF_MS = 25;
     
     // Finalised Status
     public static final String STATUS_FINALISED_YES = "Yes";
@@ -0,0 +1,426 @@
+package dedup;
+
+import config.AppConfig;
+import enums.EntityType;
+import exception.DatabaseException;
+import model.Person;
+import service.PersonRepository;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Finds likely duplicate architects, contractors and customers and writes them to
+ * {@code duplicate_candidate} for review.
+ *
+ * <p>Comparing every pair is O(n²), so people are first grouped by blocking keys and
+ * only people sharing a key are compared:</p>
+ * <ul>
+ *   <li>surname Soundex plus the last four telephone digits;</li>
+ *   <li>normalised email;</li>
+ *   <li>full normalised telephone number;</li>
+ *   <li>surname and first name Soundex.</li>
+ * </ul>
+ * <p>Blocks larger than {@code dedup.max.block} (common surnames) are sorted by name
+ * and only compared within a sliding window of {@code dedup.window} people. Blocks
+ * are scored in parallel on a {@link ForkJoinPool}; each pair is scored once even if
+ * it shares several keys. Pairs scoring at least {@code dedup.threshold} are kept.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class DuplicateDetector {
+    private static final int WRITE_CHUNK = 500;
+    private static final EntityType[] PEOPLE = {EntityType.ARCHITECT, EntityType.CONTRACTOR, EntityType.CUSTOMER};
+
+    /**
+     * A pair of people of one type that probably describe the same person.
+     */
+    public static final class Candidate {
+        private final EntityType type;
+        private final String leftId;
+        private final String rightId;
+        private final double score;
+        private final String reasons;
+
+        Candidate(EntityType type, String leftId, String rightId, double score, String reasons) {
+            this.type = type;
+            this.leftId = leftId;
+            this.rightId = rightId;
+            this.score = score;
+            this.reasons = reasons;
+        }
+
+        public EntityType getType() {
+            return type;
+        }
+
+        public String getLeftId() {
+            return leftId;
+        }
+
+        public String getRightId() {
+            return rightId;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public String getReasons() {
+            return reasons;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s ~ %s %.3f (%s)", type.getDisplayName(), leftId, rightId, score, reasons);
+        }
+    }
+
+    /**
+     * A person reduced to the normalised fields used for matching.
+     */
+    static final class Entry {
+        final String id;
+        final String first;
+        final String surname;
+        final String fullName;
+        final String phone;
+        final String email;
+        final Set<String> addressTokens;
+
+        Entry(Person person) {
+            this.id = person.getId();
+            this.first = PersonNormalizer.name(person.getFirstName());
+            this.surname = PersonNormalizer.name(person.getSurname());
+            this.fullName = (first + " " + surname).trim();
+            this.phone = PersonNormalizer.phone(person.getTelephone());
+            this.email = PersonNormalizer.email(person.getEmail());
+            this.addressTokens = new HashSet<>();
+            for (String token : PersonNormalizer.name(person.getPhysicalAddress()).split(" ")) {
+                if (!token.isEmpty()) {
+                    addressTokens.add(token);
+                }
+            }
+        }
+
+        List<String> blockingKeys() {
+            List<String> keys = new ArrayList<>(4);
+            String surnameCode = PersonNormalizer.soundex(surname);
+            if (!surnameCode.isEmpty() && phone.length() >= 4) {
+                keys.add("S" + surnameCode + PersonNormalizer.suffix(phone, 4));
+            }
+            if (!email.isEmpty()) {
+                keys.add("E" + email);
+            }
+            if (phone.length() >= 9) {
+                keys.add("P" + phone);
+            }
+            if (!surnameCode.isEmpty() && !first.isEmpty()) {
+                keys.add("N" + surnameCode + PersonNormalizer.soundex(first));
+            }
+            return keys;
+        }
+    }
+
+    private final double threshold;
+    private final int maxBlock;
+    private final int window;
+    private final int parallelism;
+
+    /**
+     * Creates a detector with the {@code dedup.*} settings.
+     */
+    public DuplicateDetector() {
+        this(AppConfig.getDoubleProperty("dedup.threshold", 0.8),
+             AppConfig.getIntProperty("dedup.max.block", 500),
+             AppConfig.getIntProperty("dedup.window", 50),
+             AppConfig.getIntProperty("dedup.parallelism", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param threshold Minimum score, 0 to 1, for a pair to be kept
+     * @param maxBlock Largest block compared exhaustively
+     * @param window Neighbours compared in larger blocks
+     * @param parallelism Scoring threads
+     */
+    public DuplicateDetector(double threshold, int maxBlock, int window, int parallelism) {
+        this.threshold = threshold;
+        this.maxBlock = Math.max(2, maxBlock);
+        this.window = Math.max(1, window);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Scans all three people tables and refreshes the pending review queue.
+     *
+     * @param connection Database connection
+     * @return Number of candidate pairs written
+     * @throws DatabaseException if people cannot be read or candidates cannot be written
+     */
+    public int run(Connection connection) throws DatabaseException {
+        int written = 0;
+        for (EntityType type : PEOPLE) {
+            long started = System.currentTimeMillis();
+            List<Person> people = load(connection, type);
+            List<Candidate> candidates = findCandidates(type, people);
+            save(connection, type, candidates);
+            written += candidates.size();
+            LoggerUtil.info(Subsystem.SERVICE, "Dedup {}: {} people, {} candidates ({} ms)",
+                            type.getTableName(), people.size(), candidates.size(), System.currentTimeMillis() - started);
+        }
+        return written;
+    }
+
+    /**
+     * Blocks and scores people of one type.
+     *
+     * @param type Entity type of all people
+     * @param people People to compare
+     * @return Candidate pairs at or above the threshold, best first
+     */
+    List<Candidate> findCandidates(EntityType type, List<? extends Person> people) {
+        List<Entry> entries = new ArrayList<>(people.size());
+        Map<String, List<Integer>> blocks = new HashMap<>();
+        for (Person person : people) {
+            Entry entry = new Entry(person);
+            int index = entries.size();
+            entries.add(entry);
+            for (String key : entry.blockingKeys()) {
+                blocks.computeIfAbsent(key, k -> new ArrayList<>(2)).add(index);
+            }
+        }
+        List<List<Integer>> work = blocks.values().stream().filter(b -> b.size() > 1).collect(Collectors.toList());
+
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Candidate> candidates = pool.submit(() -> work.parallelStream()
+                .flatMap(block -> scoreBlock(type, entries, block, seen).stream())
+                .collect(Collectors.toList())).get();
+            candidates.sort(Comparator.comparingDouble(Candidate::getScore).reversed()
+                                      .thenComparing(Candidate::getLeftId).thenComparing(Candidate::getRightId));
+            return candidates;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Duplicate scoring failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<Candidate> scoreBlock(EntityType type, List<Entry> entries, List<Integer> block, Set<Long> seen) {
+        List<Candidate> found = new ArrayList<>();
+        List<Integer> members = block;
+        int reach = members.size();
+        if (members.size() > maxBlock) {
+            members = new ArrayList<>(block);
+            members.sort(Comparator.comparing(i -> entries.get(i).fullName));
+            reach = window + 1;
+        }
+        for (int i = 0; i < members.size(); i++) {
+            for (int j = i + 1; j < Math.min(members.size(), i + reach); j++) {
+                int a = Math.min(members.get(i), members.get(j));
+                int b = Math.max(members.get(i), members.get(j));
+                if (!seen.add(((long) a << 32) | b)) {
+                    continue;
+                }
+                Entry left = entries.get(a);
+                Entry right = entries.get(b);
+                StringBuilder reasons = new StringBuilder();
+                double score = score(left, right, reasons);
+                if (score >= threshold) {
+                    boolean ordered = left.id.compareTo(right.id) < 0;
+                    found.add(new Candidate(type, ordered ? left.id : right.id, ordered ? right.id : left.id,
+                                            score, reasons.toString()));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Weighted similarity: name 40%, email 25%, telephone 25%, address 10%. Stored
+     * emails are unique, so two records only share an email after normalisation; when
+     * they do not, the email is left out and the other weights are scaled up to fill
+     * its share, so that a matching name, telephone and address still reach 1.
+     *
+     * @param reasons Receives a short summary of the matching fields
+     * @return Score from 0 to 1
+     */
+    static double score(Entry left, Entry right, StringBuilder reasons) {
+        double name = jaroWinkler(left.fullName, right.fullName);
+        reasons.append(String.format("name %.2f", name));
+
+        double email = !left.email.isEmpty() && left.email.equals(right.email) ? 1 : 0;
+        if (email > 0) {
+            reasons.append(", email");
+        }
+
+        double phone = 0;
+        if (!left.phone.isEmpty() && left.phone.equals(right.phone)) {
+            phone = 1;
+            reasons.append(", phone");
+        } else if (left.phone.length() >= 7 && PersonNormalizer.suffix(left.phone, 7)
+                                                                .equals(PersonNormalizer.suffix(right.phone, 7))) {
+            phone = 0.7;
+            reasons.append(", phone suffix");
+        }
+
+        double address = jaccard(left.addressTokens, right.addressTokens);
+        if (address > 0) {
+            reasons.append(String.format(", address %.2f", address));
+        }
+        double others = 0.4 * name + 0.25 * phone + 0.1 * address;
+        return email > 0 ? others + 0.25 * email : others / 0.75;
+    }
+
+    /**
+     * Jaro-Winkler similarity with the standard prefix scale of 0.1 over up to four characters.
+     *
+     * @return 1 for equal strings, 0 for nothing in common
+     */
+    static double jaroWinkler(String s1, String s2) {
+        if (s1.equals(s2)) {
+            return 1;
+        }
+        if (s1.isEmpty() || s2.isEmpty()) {
+            return 0;
+        }
+        int range = Math.max(0, Math.max(s1.length(), s2.length()) / 2 - 1);
+        boolean[] matched1 = new boolean[s1.length()];
+        boolean[] matched2 = new boolean[s2.length()];
+        int matches = 0;
+        for (int i = 0; i < s1.length(); i++) {
+            int from = Math.max(0, i - range);
+            int to = Math.min(s2.length() - 1, i + range);
+            for (int j = from; j <= to; j++) {
+                if (!matched2[j] && s1.charAt(i) == s2.charAt(j)) {
+                    matched1[i] = true;
+                    matched2[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < s1.length(); i++) {
+            if (matched1[i]) {
+                while (!matched2[j]) {
+                    j++;
+                }
+                if (s1.charAt(i) != s2.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / s1.length() + m / s2.length() + (m - transpositions / 2.0) / m) / 3;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(s1.length(), s2.length())) && s1.charAt(prefix) == s2.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String token : a) {
+            if (b.contains(token)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    private static List<Person> load(Connection connection, EntityType type) throws DatabaseException {
+        PersonRepository<? extends Person> repository = PersonRepository.forDisplayName(type.getDisplayName());
+        List<Person> people = new ArrayList<>();
+        String query = "SELECT " + type.getIdColumn() + ", FirstName, Surname, Telephone, Email, PhysicalAddress FROM "
+            + type.getTableName();
+        try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(query)) {
+                while (rs.next()) {
+                    people.add(repository.create(rs.getString(1), rs.getString(2), rs.getString(3),
+                                                 rs.getString(4), rs.getString(5), rs.getString(6)));
+                }
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to load " + type.getTableName() + " for deduplication", e);
+            throw new DatabaseException("Failed to load " + type.getTableName() + " records", e);
+        }
+        return people;
+    }
+
+    /**
+     * Replaces the pending candidates of one type in a single transaction. Pairs already
+     * marked Merged or Dismissed keep their status; only their score is refreshed.
+     */
+    private static void save(Connection connection, EntityType type, List<Candidate> candidates)
+            throws DatabaseException {
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM duplicate_candidate WHERE EntityType = ? AND Status = 'Pending'")) {
+                    delete.setString(1, type.name());
+                    delete.executeUpdate();
+                }
+                for (int from = 0; from < candidates.size(); from += WRITE_CHUNK) {
+                    List<Candidate> chunk = candidates.subList(from, Math.min(candidates.size(), from + WRITE_CHUNK));
+                    String insert = "INSERT INTO duplicate_candidate (EntityType, LeftID, RightID, Score, Reasons) VALUES "
+                        + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?)"))
+                        + " ON DUPLICATE KEY UPDATE Score = VALUES(Score), Reasons = VALUES(Reasons)";
+                    try (PreparedStatement pstmt = connection.prepareStatement(insert)) {
+                        int index = 1;
+                        for (Candidate candidate : chunk) {
+                            pstmt.setString(index++, type.name());
+                            pstmt.setString(index++, candidate.getLeftId());
+                            pstmt.setString(index++, candidate.getRightId());
+                            pstmt.setDouble(index++, Math.round(candidate.getScore() * 1000) / 1000.0);
+                            pstmt.setString(index++, candidate.getReasons());
+                        }
+                        pstmt.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to save duplicate candidates for " + type.getTableName(), e);
+            throw new DatabaseException("Failed to save duplicate candidates", e);
+        }
+    }
+}
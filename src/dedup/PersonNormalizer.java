@@ -0,0 +1,112 @@
+package dedup;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Normalisation and phonetic coding of people fields for duplicate matching.
+ *
+ * <p>Names lose case, accents and punctuation; telephone numbers keep only digits,
+ * with the South African {@code +27}/{@code 27} prefix rewritten to a leading 0; emails
+ * are lower-cased and lose any {@code +tag} in the local part.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class PersonNormalizer {
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    private PersonNormalizer() {
+    }
+
+    /**
+     * @return Lower-case ASCII letters and single spaces, e.g. "Zoë  O'Neil" becomes "zoe oneil"
+     */
+    public static String name(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        StringBuilder out = new StringBuilder(stripped.length());
+        boolean space = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = Character.toLowerCase(stripped.charAt(i));
+            if (c >= 'a' && c <= 'z') {
+                if (space && out.length() > 0) {
+                    out.append(' ');
+                }
+                out.append(c);
+                space = false;
+            } else if (Character.isWhitespace(c) || c == '-') {
+                space = true;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return Digits only, with a {@code +27} or {@code 27} country code replaced by 0
+     */
+    public static String phone(String value) {
+        if (value == null) {
+            return "";
+        }
+        String digits = value.replaceAll("[^0-9]", "");
+        if (digits.startsWith("27") && digits.length() == 11) {
+            return "0" + digits.substring(2);
+        }
+        return digits;
+    }
+
+    /**
+     * @return Trimmed lower-case email without a {@code +tag} before the {@code @}
+     */
+    public static String email(String value) {
+        if (value == null) {
+            return "";
+        }
+        String email = value.trim().toLowerCase(Locale.ROOT);
+        int at = email.indexOf('@');
+        int plus = email.indexOf('+');
+        if (at > 0 && plus > 0 && plus < at) {
+            email = email.substring(0, plus) + email.substring(at);
+        }
+        return email;
+    }
+
+    /**
+     * American Soundex of the first word of a normalised name, e.g. "robert" is "R163".
+     *
+     * @param normalized Output of {@link #name(String)}
+     * @return Four-character code, or an empty string for an empty name
+     */
+    public static String soundex(String normalized) {
+        if (normalized.isEmpty()) {
+            return "";
+        }
+        char[] code = {Character.toUpperCase(normalized.charAt(0)), '0', '0', '0'};
+        char last = SOUNDEX_CODES.charAt(normalized.charAt(0) - 'a');
+        int length = 1;
+        for (int i = 1; i < normalized.length() && length < 4; i++) {
+            char c = normalized.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            char digit = SOUNDEX_CODES.charAt(c - 'a');
+            if (digit != '0' && digit != last) {
+                code[length++] = digit;
+            }
+            if (c != 'h' && c != 'w') {
+                last = digit;
+            }
+        }
+        return new String(code);
+    }
+
+    /**
+     * @return Last {@code n} digits of a normalised phone number, or the whole number if shorter
+     */
+    public static String suffix(String phone, int n) {
+        return phone.length() <= n ? phone : phone.substring(phone.length() - n);
+    }
+}
@@ -31,4 +31,27 @@ public enum EntityType {
     public String getTableName() {
         return displayName.toLowerCase();
     }
+    
+    public String getIdColumn() {
+        return this == PROJECT ? "ProjectNumber" : displayName + "ID";
+    }
+    
+    /**
+     * Formats a sequence number as an identifier, e.g. 42 becomes "ARC042".
+     * 
+     * @param number Sequence number
+     * @return Prefixed identifier padded to at least three digits
+     */
+    public String formatId(long number) {
+        return String.format("%s%03d", prefix, number);
+    }
+    
+    public static EntityType fromDisplayName(String text) {
+        for (EntityType type : EntityType.values()) {
+            if (type.displayName.equalsIgnoreCase(text)) {
+                return type;
+            }
+        }
+        return null;
+    }
 }
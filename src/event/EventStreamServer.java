@@ -0,0 +1,209 @@
+package event;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves a {@link ProjectEventBus} as Server-Sent Events on the loopback interface.
+ *
+ * <p>{@code GET /events} streams events as they are published. Each event carries its
+ * offset as the SSE {@code id}, so a browser {@code EventSource} resumes after the last
+ * event it saw by sending {@code Last-Event-ID} on reconnect; other clients can pass
+ * {@code ?from=<offset>}. A client that is too far behind gets one {@code lagged} event
+ * with the oldest offset still available, and the stream ends.</p>
+ *
+ * <p>Each connection requests {@value #WINDOW} events at a time and writes them to the
+ * socket before asking for more, so a slow client holds back only its own stream and
+ * never makes the server buffer more than one window.</p>
+ *
+ * <p>While no events are published the stream sends an SSE comment line every heartbeat
+ * interval. A client that has gone away without closing the connection is only noticed
+ * when a write fails, so the heartbeat ends its subscription instead of leaving it
+ * subscribed to the bus indefinitely.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class EventStreamServer {
+    private static final int WINDOW = 64;
+
+    private final ProjectEventBus bus;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long heartbeatMillis;
+
+    /**
+     * @param bus Events to serve
+     * @param port Local port; 0 picks a free one
+     * @param heartbeatMillis Interval between heartbeat comments on each stream
+     * @throws IOException if the port cannot be bound
+     */
+    public EventStreamServer(ProjectEventBus bus, int port, long heartbeatMillis) throws IOException {
+        this.bus = bus;
+        this.heartbeatMillis = heartbeatMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "event-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/events", this::stream);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        LoggerUtil.info(Subsystem.SERVICE, "Event stream listening on http://localhost:{}/events", getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        long from;
+        try {
+            from = startOffset(exchange.getRequestHeaders().getFirst("Last-Event-ID"), exchange.getRequestURI());
+        } catch (NumberFormatException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        SseSubscriber subscriber = new SseSubscriber(exchange.getResponseBody());
+        bus.subscribe(subscriber, from);
+        try {
+            while (!subscriber.done.await(heartbeatMillis, TimeUnit.MILLISECONDS)) {
+                subscriber.heartbeat();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subscriber.cancel();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return One past {@code Last-Event-ID}, else the {@code from} query parameter, else the live end
+     */
+    private long startOffset(String lastEventId, URI uri) {
+        if (lastEventId != null && !lastEventId.isEmpty()) {
+            return Long.parseLong(lastEventId.trim()) + 1;
+        }
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.startsWith("from=")) {
+                    return Long.parseLong(pair.substring(5));
+                }
+            }
+        }
+        return bus.getNextOffset();
+    }
+
+    /**
+     * Writes events to one HTTP response, requesting the next window as each half is sent.
+     */
+    private static final class SseSubscriber implements Flow.Subscriber<ProjectEvent> {
+        private final OutputStream out;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private int sinceRequest;
+
+        SseSubscriber(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(WINDOW);
+        }
+
+        @Override
+        public void onNext(ProjectEvent event) {
+            try {
+                write("id: " + event.getOffset() + "\nevent: " + event.getType().name().toLowerCase()
+                      + "\ndata: " + event.toJson() + "\n\n");
+            } catch (IOException e) {
+                LoggerUtil.debug(Subsystem.SERVICE, "Event stream client went away: {}", e.getMessage());
+                cancel();
+                return;
+            }
+            if (++sinceRequest == WINDOW / 2) {
+                sinceRequest = 0;
+                subscription.request(WINDOW / 2);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            if (error instanceof ProjectEventBus.LaggedException) {
+                try {
+                    write("event: lagged\ndata: {\"oldestOffset\":"
+                          + ((ProjectEventBus.LaggedException) error).getOldestOffset() + "}\n\n");
+                } catch (IOException e) {
+                    LoggerUtil.debug(Subsystem.SERVICE, "Event stream client went away: {}", e.getMessage());
+                }
+            }
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        /**
+         * Writes an SSE comment, cancelling the subscription if the client has gone.
+         */
+        void heartbeat() {
+            try {
+                write(":\n\n");
+            } catch (IOException e) {
+                LoggerUtil.debug(Subsystem.SERVICE, "Event stream client went away: {}", e.getMessage());
+                cancel();
+            }
+        }
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            done.countDown();
+        }
+
+        private synchronized void write(String text) throws IOException {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package event;
+
+import java.time.Instant;
+
+/**
+ * A change to a project, as published on the {@link ProjectEventBus}.
+ *
+ * <p>Offsets are assigned by the bus in publication order, starting at 0 when the
+ * process starts; a subscriber that remembers the last offset it handled can resume
+ * just after it.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class ProjectEvent {
+
+    /**
+     * Kinds of change.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        FINALISED,
+        DELETED,
+        PAYMENT_CHANGED,
+        /** Moved from {@code project} to {@code project_archive}. */
+        ARCHIVED,
+        /** Every project replaced from a backup; published without a project number. */
+        RESTORED
+    }
+
+    private final long offset;
+    private final Type type;
+    private final String projectNumber;
+    private final Instant occurredAt;
+    private final Double previousPaid;
+    private final Double totalPaid;
+
+    ProjectEvent(long offset, Type type, String projectNumber, Instant occurredAt, Double previousPaid,
+                 Double totalPaid) {
+        this.offset = offset;
+        this.type = type;
+        this.projectNumber = projectNumber;
+        this.occurredAt = occurredAt;
+        this.previousPaid = previousPaid;
+        this.totalPaid = totalPaid;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Project that changed, or null if the change affects every project
+     */
+    public String getProjectNumber() {
+        return projectNumber;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    /**
+     * @return Total paid before a {@link Type#PAYMENT_CHANGED}, otherwise null
+     */
+    public Double getPreviousPaid() {
+        return previousPaid;
+    }
+
+    /**
+     * @return Total paid after the change, or null if the publisher did not know it
+     */
+    public Double getTotalPaid() {
+        return totalPaid;
+    }
+
+    /**
+     * @return The event as a single-line JSON object
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"offset\":").append(offset)
+            .append(",\"type\":\"").append(type.name().toLowerCase()).append('"')
+            .append(",\"projectNumber\":")
+            .append(projectNumber == null ? "null" : '"' + escape(projectNumber) + '"')
+            .append(",\"occurredAt\":\"").append(occurredAt).append('"');
+        if (previousPaid != null) {
+            json.append(",\"previousPaid\":").append(previousPaid);
+        }
+        if (totalPaid != null) {
+            json.append(",\"totalPaid\":").append(totalPaid);
+        }
+        return json.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "#" + offset + " " + type + " " + projectNumber;
+    }
+}
@@ -0,0 +1,250 @@
+package event;
+
+import config.AppConfig;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-process change feed of {@link ProjectEvent}s, implementing {@link Flow.Publisher}.
+ *
+ * <p>Events are kept in one fixed-size ring of the last {@code events.buffer.size}
+ * events, shared by all subscribers; nothing is queued per subscriber. Each
+ * subscription only holds the offset of the next event it wants and the demand it has
+ * requested, and events are delivered on the dispatch executor only while demand is
+ * outstanding. Publishing therefore never blocks and memory use does not depend on how
+ * slow subscribers are. A subscriber that falls more than the ring size behind, or
+ * asks to resume from an offset that is no longer held, receives
+ * {@link LaggedException} and should reload its state before subscribing again.</p>
+ *
+ * <p>Events are published after the statement that made the change succeeds. Callers
+ * that manage their own transaction may publish a change that is later rolled back.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class ProjectEventBus implements Flow.Publisher<ProjectEvent> {
+    private static final ProjectEventBus DEFAULT = new ProjectEventBus(
+        AppConfig.getIntProperty("events.buffer.size", 4096),
+        Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "event-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        }));
+
+    /**
+     * Signalled to a subscriber whose next event has already left the ring.
+     */
+    public static final class LaggedException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+        private final long requestedOffset;
+        private final long oldestOffset;
+
+        LaggedException(long requestedOffset, long oldestOffset, long nextOffset) {
+            super("Event " + requestedOffset + " is not available; the feed holds " + oldestOffset + " to "
+                  + (nextOffset - 1));
+            this.requestedOffset = requestedOffset;
+            this.oldestOffset = oldestOffset;
+        }
+
+        public long getRequestedOffset() {
+            return requestedOffset;
+        }
+
+        public long getOldestOffset() {
+            return oldestOffset;
+        }
+    }
+
+    private final int capacity;
+    private final Executor executor;
+    private final AtomicReferenceArray<ProjectEvent> ring;
+    private final List<RingSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile long nextOffset;
+
+    /**
+     * @param capacity Events kept for slow or resuming subscribers
+     * @param executor Runs delivery to subscribers; a subscriber that blocks holds one of its threads
+     */
+    public ProjectEventBus(int capacity, Executor executor) {
+        this.capacity = Math.max(1, capacity);
+        this.executor = executor;
+        this.ring = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /**
+     * @return The application-wide bus
+     */
+    public static ProjectEventBus getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Publishes a change without payment amounts.
+     *
+     * @return Offset of the event
+     */
+    public long publish(ProjectEvent.Type type, String projectNumber) {
+        return publish(type, projectNumber, null, null);
+    }
+
+    /**
+     * Publishes a change.
+     *
+     * @param type Kind of change
+     * @param projectNumber Project that changed, or null for every project
+     * @param previousPaid Total paid before the change, or null
+     * @param totalPaid Total paid after the change, or null
+     * @return Offset of the event
+     */
+    public long publish(ProjectEvent.Type type, String projectNumber, Double previousPaid, Double totalPaid) {
+        long offset;
+        synchronized (this) {
+            offset = nextOffset;
+            ring.set((int) (offset % capacity),
+                     new ProjectEvent(offset, type, projectNumber, Instant.now(), previousPaid, totalPaid));
+            nextOffset = offset + 1;
+        }
+        for (RingSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+        LoggerUtil.debug(Subsystem.SERVICE, "Published event {} {} {}", offset, type, projectNumber);
+        return offset;
+    }
+
+    /**
+     * Subscribes from the next event published.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ProjectEvent> subscriber) {
+        subscribe(subscriber, nextOffset);
+    }
+
+    /**
+     * Subscribes from a given offset, e.g. one past the last event the subscriber handled.
+     *
+     * @param subscriber Subscriber
+     * @param fromOffset First offset to deliver
+     */
+    public void subscribe(Flow.Subscriber<? super ProjectEvent> subscriber, long fromOffset) {
+        RingSubscription subscription = new RingSubscription(subscriber, fromOffset);
+        subscription.wip.set(1);
+        subscriber.onSubscribe(subscription);
+        subscriptions.add(subscription);
+        executor.execute(subscription);
+    }
+
+    /**
+     * @return Offset the next published event will get
+     */
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * @return Oldest offset still held in the ring
+     */
+    public long getOldestOffset() {
+        return Math.max(0, nextOffset - capacity);
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * A subscriber's position and demand. Delivery is serialised by the work-in-progress
+     * counter: whoever raises it from zero schedules one drain, and the drain loops until
+     * every signal raised meanwhile has been handled.
+     */
+    private final class RingSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super ProjectEvent> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private long next;
+
+        RingSubscription(Flow.Subscriber<? super ProjectEvent> subscriber, long next) {
+            this.subscriber = subscriber;
+            this.next = next;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("request(" + n + "): demand must be positive");
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void signal() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (cancelled) {
+                return;
+            }
+            if (invalidRequest != null) {
+                fail(invalidRequest);
+                return;
+            }
+            while (!cancelled && demand.get() > 0) {
+                long published = nextOffset;
+                if (next == published) {
+                    return;
+                }
+                ProjectEvent event = next < published ? ring.get((int) (next % capacity)) : null;
+                if (event == null || event.getOffset() != next) {
+                    fail(new LaggedException(next, getOldestOffset(), published));
+                    return;
+                }
+                try {
+                    subscriber.onNext(event);
+                } catch (RuntimeException e) {
+                    LoggerUtil.warning(Subsystem.SERVICE, "Event subscriber failed on {}: {}", event, e.getMessage());
+                    cancel();
+                    return;
+                }
+                next++;
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+            }
+        }
+
+        private void fail(Throwable error) {
+            cancel();
+            subscriber.onError(error);
+        }
+    }
+}
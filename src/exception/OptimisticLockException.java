@@ -0,0 +1,30 @@
+package exception;
+
+/**
+ * Exception thrown when a compare-and-set update finds that the row was changed
+ * by another user since it was read.
+ * 
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class OptimisticLockException extends PoiseDMSException {
+    
+    private static final long serialVersionUID = 1L;
+    private final String entityId;
+    private final int expectedVersion;
+    
+    public OptimisticLockException(String entityId, int expectedVersion) {
+        super(String.format("Project '%s' was modified by another user (expected version %d)",
+                            entityId, expectedVersion), null, "PDMS-CON-409");
+        this.entityId = entityId;
+        this.expectedVersion = expectedVersion;
+    }
+    
+    public String getEntityId() {
+        return entityId;
+    }
+    
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+}
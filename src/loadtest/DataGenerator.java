@@ -0,0 +1,293 @@
+package loadtest;
+
+import config.AppConfig;
+import enums.EntityType;
+import exception.DatabaseException;
+import service.IdAllocator;
+import service.ProjectNumberRegistry;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the database with synthetic architects, contractors, customers and projects
+ * at production scale for capacity planning.
+ *
+ * <p>Volumes and distributions come from the {@code loadtest.*} settings in
+ * application.properties and are chosen to look like real data rather than uniform noise:</p>
+ * <ul>
+ *   <li>contractor load is Zipf-distributed, so a few contractors carry most projects;</li>
+ *   <li>deadlines are spread from {@code loadtest.years.back} years before to
+ *       {@code loadtest.years.ahead} years after today;</li>
+ *   <li>a configurable fraction of projects is finalised, with past deadlines and a
+ *       completion date shortly after;</li>
+ *   <li>the amount paid on each project is recorded in the payment ledger as one to
+ *       three instalments.</li>
+ * </ul>
+ *
+ * <p>Identifiers come from {@link IdAllocator}, so generated rows never collide with
+ * rows created by the application. Rows are written in batches, one transaction per
+ * batch. Use a scratch database: nothing is cleaned up afterwards.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class DataGenerator {
+    private static final String[] FIRST_NAMES = {
+        "Thabo", "Sipho", "Naledi", "Ayanda", "Pieter", "Johan", "Priya", "Rajesh", "Lerato", "Zanele",
+        "Michael", "Sarah", "David", "Fatima", "Kagiso", "Anele", "Lindiwe", "Ruan", "Megan", "Yusuf"
+    };
+    private static final String[] SURNAMES = {
+        "Nkosi", "Dlamini", "Naidoo", "van der Merwe", "Botha", "Mokoena", "Pillay", "Smith", "Khumalo",
+        "Govender", "Jacobs", "Ndlovu", "Pretorius", "Mthembu", "Reddy", "Fourie", "Zulu", "Adams"
+    };
+    private static final String[] CITIES = {
+        "Durban", "Johannesburg", "Cape Town", "Pretoria", "Port Elizabeth", "Bloemfontein", "Pietermaritzburg"
+    };
+    private static final String[] STREETS = {
+        "Main Road", "Church Street", "Beach Road", "Oak Avenue", "Market Street", "Station Road", "Hill Street"
+    };
+    private static final String[] BUILDING_TYPES = {"House", "Apartment", "Office", "Warehouse", "Retail", "School"};
+    private static final double[] BUILDING_TYPE_WEIGHTS = {0.45, 0.2, 0.15, 0.08, 0.08, 0.04};
+
+    private final int architects;
+    private final int contractors;
+    private final int customers;
+    private final long projects;
+    private final double finalisedFraction;
+    private final double contractorSkew;
+    private final int yearsBack;
+    private final int yearsAhead;
+    private final int batchSize;
+    private final Random random = new Random(42);
+
+    private static final String SQL_INSERT_PAYMENT =
+        "INSERT INTO payment (ProjectNumber, Amount, PaymentDate, Reference) VALUES (?, ?, ?, 'Generated')";
+
+    /**
+     * Creates a generator with the volumes and distributions from the {@code loadtest.*}
+     * settings in application.properties.
+     */
+    public DataGenerator() {
+        this(AppConfig.getIntProperty("loadtest.projects", 1_000_000),
+             AppConfig.getDoubleProperty("loadtest.finalised.fraction", 0.7));
+    }
+
+    /**
+     * Creates a generator for the given number of projects; people volumes and the
+     * remaining distributions come from the {@code loadtest.*} settings.
+     *
+     * @param projects          Number of projects to insert
+     * @param finalisedFraction Share of projects that are finalised, between 0 and 1
+     */
+    public DataGenerator(long projects, double finalisedFraction) {
+        this.architects = AppConfig.getIntProperty("loadtest.architects", 10_000);
+        this.contractors = AppConfig.getIntProperty("loadtest.contractors", 10_000);
+        this.customers = AppConfig.getIntProperty("loadtest.customers", 200_000);
+        this.projects = projects;
+        this.finalisedFraction = finalisedFraction;
+        this.contractorSkew = AppConfig.getDoubleProperty("loadtest.contractor.skew", 1.1);
+        this.yearsBack = Math.max(1, AppConfig.getIntProperty("loadtest.years.back", 5));
+        this.yearsAhead = Math.max(0, AppConfig.getIntProperty("loadtest.years.ahead", 3));
+        this.batchSize = Math.max(1, AppConfig.getIntProperty("loadtest.batch.size", 1_000));
+    }
+
+    /**
+     * Generates the people first and then the projects that reference them.
+     *
+     * @param connection Database connection; auto-commit is restored afterwards
+     * @return Number of projects inserted
+     * @throws DatabaseException if a batch fails
+     */
+    public long generate(Connection connection) throws DatabaseException {
+        long started = System.currentTimeMillis();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            // Projects are inserted with their balance, so the payment trigger must not add the instalments again
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("SET @poisedms_bulk_load = 1");
+            }
+            try {
+                List<String> architectIds = generatePeople(connection, EntityType.ARCHITECT, architects);
+                List<String> contractorIds = generatePeople(connection, EntityType.CONTRACTOR, contractors);
+                List<String> customerIds = generatePeople(connection, EntityType.CUSTOMER, customers);
+                long inserted = generateProjects(connection, architectIds, contractorIds, customerIds);
+                LoggerUtil.info(Subsystem.SERVICE, "Generated {} projects in {} ms",
+                                inserted, System.currentTimeMillis() - started);
+                return inserted;
+            } finally {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("SET @poisedms_bulk_load = NULL");
+                }
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Synthetic data generation failed", e);
+            throw new DatabaseException("Synthetic data generation failed", e);
+        }
+    }
+
+    private List<String> generatePeople(Connection connection, EntityType type, int count)
+            throws SQLException, DatabaseException {
+        List<String> ids = new ArrayList<>(count);
+        String sql = "INSERT INTO " + type.getTableName() + " (" + type.getIdColumn()
+                   + ", FirstName, Surname, Telephone, Email, PhysicalAddress) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                String id = IdAllocator.nextId(type);
+                String firstName = pick(FIRST_NAMES);
+                String surname = pick(SURNAMES);
+                pstmt.setString(1, id);
+                pstmt.setString(2, firstName);
+                pstmt.setString(3, surname);
+                pstmt.setString(4, String.format("0%d%08d", 6 + random.nextInt(3), random.nextInt(100_000_000)));
+                pstmt.setString(5, (firstName + "." + surname).toLowerCase().replace(' ', '-')
+                                   + "." + id.toLowerCase() + "@example.com");
+                pstmt.setString(6, randomAddress());
+                pstmt.addBatch();
+                ids.add(id);
+                if (ids.size() % batchSize == 0) {
+                    flush(connection, pstmt);
+                }
+            }
+            flush(connection, pstmt);
+        }
+        LoggerUtil.info(Subsystem.SERVICE, "Generated {} {} rows", count, type.getTableName());
+        return ids;
+    }
+
+    private long generateProjects(Connection connection, List<String> architectIds, List<String> contractorIds,
+                                  List<String> customerIds) throws SQLException, DatabaseException {
+        ZipfSampler contractorLoad = new ZipfSampler(contractorIds.size(), contractorSkew);
+        LocalDate today = LocalDate.now();
+        int pastDays = yearsBack * 365;
+        int futureDays = yearsAhead * 365;
+        String sql = "INSERT INTO project (ProjectNumber, ProjectName, Deadline, BuildingType, PhysicalAddress, "
+                   + "ERFNumber, TotalFee, TotalPaid, ArchitectID, ContractorID, CustomerID, Finalised, CompletionDate) "
+                   + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        long inserted = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             PreparedStatement paymentStmt = connection.prepareStatement(SQL_INSERT_PAYMENT)) {
+            for (long i = 0; i < projects; i++) {
+                String number = IdAllocator.nextId(EntityType.PROJECT);
+                String customer = customerIds.get(random.nextInt(customerIds.size()));
+                String buildingType = pickWeighted(BUILDING_TYPES, BUILDING_TYPE_WEIGHTS);
+                boolean finalised = random.nextDouble() < finalisedFraction;
+                LocalDate deadline = finalised
+                    ? today.minusDays(1 + random.nextInt(pastDays))
+                    : today.plusDays(random.nextInt(pastDays + futureDays) - pastDays);
+                double fee = Math.round(50_000 + Math.abs(random.nextGaussian()) * 750_000);
+                double paid = finalised ? fee : Math.round(fee * random.nextDouble());
+
+                pstmt.setString(1, number);
+                pstmt.setString(2, buildingType + " " + pick(SURNAMES) + " " + number);
+                pstmt.setDate(3, Date.valueOf(deadline));
+                pstmt.setString(4, buildingType);
+                pstmt.setString(5, randomAddress());
+                pstmt.setString(6, "ERF" + (1000 + random.nextInt(9_000_000)));
+                pstmt.setDouble(7, fee);
+                pstmt.setDouble(8, paid);
+                pstmt.setString(9, architectIds.get(random.nextInt(architectIds.size())));
+                pstmt.setString(10, contractorIds.get(contractorLoad.next(random)));
+                pstmt.setString(11, customer);
+                pstmt.setString(12, finalised ? "Yes" : "No");
+                LocalDate completion = deadline.plusDays(random.nextInt(90) - 30);
+                pstmt.setDate(13, finalised ? Date.valueOf(completion.isAfter(today) ? today : completion) : null);
+                pstmt.addBatch();
+                ProjectNumberRegistry.record(number);
+                addInstalments(paymentStmt, number, paid, deadline.isAfter(today) ? today : deadline);
+
+                if (++inserted % batchSize == 0) {
+                    flush(connection, pstmt, paymentStmt);
+                    if (inserted % (batchSize * 100L) == 0) {
+                        LoggerUtil.info(Subsystem.SERVICE, "Generated {} of {} projects", inserted, projects);
+                    }
+                }
+            }
+            flush(connection, pstmt, paymentStmt);
+        }
+        return inserted;
+    }
+
+    /**
+     * Splits the amount paid into one to three payments made in the months before {@code lastDate}.
+     */
+    private void addInstalments(PreparedStatement paymentStmt, String number, double paid, LocalDate lastDate)
+            throws SQLException {
+        int instalments = 1 + random.nextInt(3);
+        double remaining = paid;
+        for (int i = instalments; i > 0 && remaining > 0; i--) {
+            double amount = i == 1 ? remaining : Math.round(remaining * (0.2 + random.nextDouble() * 0.6));
+            if (amount <= 0) {
+                continue;
+            }
+            remaining -= amount;
+            paymentStmt.setString(1, number);
+            paymentStmt.setDouble(2, amount);
+            paymentStmt.setDate(3, Date.valueOf(lastDate.minusDays(30L * i + random.nextInt(30))));
+            paymentStmt.addBatch();
+        }
+    }
+
+    private static void flush(Connection connection, PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement pstmt : statements) {
+            pstmt.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private String randomAddress() {
+        return (1 + random.nextInt(500)) + " " + pick(STREETS) + ", " + pick(CITIES) + ", South Africa";
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private String pickWeighted(String[] values, double[] weights) {
+        double r = random.nextDouble();
+        for (int i = 0; i < values.length - 1; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to {@code 1 / (rank + 1)^skew}.
+     */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, skew);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+        }
+    }
+}
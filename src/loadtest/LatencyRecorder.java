@@ -0,0 +1,102 @@
+package loadtest;
+
+/**
+ * Fixed-size latency histogram with log-scaled buckets.
+ *
+ * <p>Each power of two is split into {@value #SUB_BUCKETS} buckets, so a reported
+ * percentile is within 12.5% of the true value while the histogram stays a few
+ * kilobytes regardless of how many samples it holds. Not thread-safe: give each worker
+ * its own recorder and {@link #merge} them at the end.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class LatencyRecorder {
+    private static final int SUB_BUCKETS = 8;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long max;
+    private long sum;
+
+    /**
+     * Records one latency sample.
+     *
+     * @param micros Latency in microseconds
+     */
+    public void record(long micros) {
+        long value = Math.max(1, micros);
+        counts[bucketOf(value)]++;
+        total++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds another recorder's samples to this one.
+     *
+     * @param other Recorder to merge in
+     */
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of the bucket holding that percentile, in microseconds, or 0 if empty
+     */
+    public long getPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(max, upperBoundOf(i));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * Values below 8 get a bucket each; above that the bucket is the exponent plus the
+     * three bits after the leading one.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int fraction = (int) ((value >>> (exponent - 3)) & (SUB_BUCKETS - 1));
+        return exponent * SUB_BUCKETS + fraction;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS;
+        int fraction = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + fraction + 1) << (exponent - 3)) - 1;
+    }
+}
@@ -0,0 +1,286 @@
+package loadtest;
+
+import config.AppConfig;
+import config.DatabaseConfig;
+import enums.EntityType;
+import exception.DatabaseException;
+import model.Project;
+import service.IdAllocator;
+import service.PaymentService;
+import service.ProjectService;
+import util.ConnectionPool;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs a weighted mix of {@link ProjectService} reads and writes from several threads
+ * and reports throughput and latency percentiles per operation.
+ *
+ * <p>Each operation borrows its own connection from {@link ConnectionPool}, exactly as
+ * an interactive user would, so the measured latency includes time spent waiting for
+ * the pool. Running with more threads than {@code db.pool.size} therefore shows how the
+ * pool size limits throughput. Writes change data: use the database filled by
+ * {@link DataGenerator}.</p>
+ *
+ * <p>The mix is given as {@code name=weight} pairs, e.g.
+ * {@code find=60,search=15,overdue=2,update=18,create=5}. {@code payment} posts R100 to
+ * the ledger; it fails, and is counted as an error, on projects already paid in full.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class WorkloadDriver {
+    private static final int SAMPLE_SIZE = 10_000;
+
+    /**
+     * Operations the driver can run.
+     */
+    public enum Operation {
+        FIND,
+        SEARCH,
+        OVERDUE,
+        UPDATE,
+        CREATE,
+        PAYMENT
+    }
+
+    private final ProjectService projectService = new ProjectService();
+    private final PaymentService paymentService = new PaymentService();
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final List<String> projectNumbers = new ArrayList<>();
+    private final List<String[]> people = new ArrayList<>();
+
+    /**
+     * @param mix Comma-separated {@code operation=weight} pairs
+     * @throws IllegalArgumentException if the mix names an unknown operation or has no positive weight
+     */
+    public WorkloadDriver(String mix) {
+        this.mix = parseMix(mix);
+        this.totalWeight = this.mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Creates a driver with the {@code loadtest.mix} setting.
+     */
+    public WorkloadDriver() {
+        this(AppConfig.getProperty("loadtest.mix", "find=60,search=15,overdue=2,update=18,create=5"));
+    }
+
+    /**
+     * Runs the workload.
+     *
+     * @param threads         Number of concurrent workers
+     * @param durationSeconds How long to run
+     * @return Per-operation results
+     * @throws DatabaseException if the sample of existing projects cannot be loaded
+     */
+    public Report run(int threads, int durationSeconds) throws DatabaseException {
+        loadSample();
+        long deadline = System.nanoTime() + durationSeconds * 1_000_000_000L;
+        LoggerUtil.info(Subsystem.SERVICE, "Running workload {} with {} threads for {} s (pool size {})",
+                        mix, threads, durationSeconds, DatabaseConfig.getPoolSize());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Worker>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> new Worker().runUntil(deadline)));
+        }
+
+        Report report = new Report(threads);
+        try {
+            for (Future<Worker> future : futures) {
+                report.add(future.get());
+            }
+        } catch (Exception e) {
+            throw new DatabaseException("Workload worker failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        report.elapsedNanos = System.nanoTime() - started;
+        report.poolStats = ConnectionPool.getPoolStats();
+        return report;
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix has no operations: " + mix);
+        }
+        return weights;
+    }
+
+    private Operation pick(Random random) {
+        int r = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            r -= entry.getValue();
+            if (r < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    /**
+     * Loads a random sample of project numbers and people to aim the operations at.
+     */
+    private void loadSample() throws DatabaseException {
+        try (Connection connection = ConnectionPool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT ProjectNumber, ArchitectID, ContractorID, CustomerID "
+                                                  + "FROM project ORDER BY RAND() LIMIT " + SAMPLE_SIZE)) {
+                while (rs.next()) {
+                    projectNumbers.add(rs.getString(1));
+                    people.add(new String[] {rs.getString(2), rs.getString(3), rs.getString(4)});
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to sample projects for the workload", e);
+        }
+        if (projectNumbers.isEmpty()) {
+            throw new DatabaseException("No projects to run the workload against; run the generator first");
+        }
+    }
+
+    /**
+     * One workload thread with its own latency recorders.
+     */
+    private final class Worker {
+        private final Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+        Worker runUntil(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                Operation operation = pick(random);
+                long start = System.nanoTime();
+                try (Connection connection = ConnectionPool.getConnection()) {
+                    execute(operation, connection, random);
+                    latencies.computeIfAbsent(operation, o -> new LatencyRecorder())
+                             .record((System.nanoTime() - start) / 1_000);
+                } catch (Exception e) {
+                    errors.merge(operation, 1L, Long::sum);
+                    LoggerUtil.debug(Subsystem.SERVICE, "Workload {} failed: {}", operation, e.getMessage());
+                }
+            }
+            return this;
+        }
+
+        private void execute(Operation operation, Connection connection, Random random) throws Exception {
+            String number = projectNumbers.get(random.nextInt(projectNumbers.size()));
+            switch (operation) {
+                case FIND:
+                    projectService.findProject(connection, number);
+                    break;
+                case SEARCH:
+                    projectService.searchProjects(connection, number.substring(0, Math.max(4, number.length() - 2)), false);
+                    break;
+                case OVERDUE:
+                    projectService.getOverdueProjects(connection);
+                    break;
+                case UPDATE:
+                    projectService.updateProjectWithRetry(connection, number,
+                        project -> project.setTotalPaid(Math.min(project.getTotalFee(), project.getTotalPaid() + 100)));
+                    break;
+                case CREATE:
+                    String[] refs = people.get(random.nextInt(people.size()));
+                    String newNumber = IdAllocator.nextId(EntityType.PROJECT);
+                    projectService.createProject(connection, new Project(newNumber, "Load test " + newNumber,
+                        LocalDate.now().plusDays(30 + random.nextInt(700)), "House",
+                        "1 Load Test Road, Durban, South Africa", "ERF" + random.nextInt(1_000_000),
+                        250_000, 0, refs[0], refs[1], refs[2]));
+                    break;
+                case PAYMENT:
+                    paymentService.recordPayment(connection, number, 100, LocalDate.now(), "Load test");
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+    }
+
+    /**
+     * Throughput and latency percentiles per operation, merged over all workers.
+     */
+    public static final class Report {
+        private final int threads;
+        private final Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        private long elapsedNanos;
+        private String poolStats;
+
+        Report(int threads) {
+            this.threads = threads;
+        }
+
+        private void add(Worker worker) {
+            worker.latencies.forEach((operation, recorder) ->
+                latencies.computeIfAbsent(operation, o -> new LatencyRecorder()).merge(recorder));
+            worker.errors.forEach((operation, count) -> errors.merge(operation, count, Long::sum));
+        }
+
+        public LatencyRecorder getLatency(Operation operation) {
+            return latencies.getOrDefault(operation, new LatencyRecorder());
+        }
+
+        public long getErrors(Operation operation) {
+            return errors.getOrDefault(operation, 0L);
+        }
+
+        /**
+         * @return Successful operations per second across all threads
+         */
+        public double getThroughput() {
+            long total = latencies.values().stream().mapToLong(LatencyRecorder::getCount).sum();
+            return elapsedNanos == 0 ? 0 : total * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("Threads: %d, elapsed: %.1f s, throughput: %.1f ops/s%n",
+                                     threads, elapsedNanos / 1e9, getThroughput()));
+            out.append(String.format("%-8s %10s %8s %10s %10s %10s %10s %10s%n",
+                                     "Op", "Count", "Errors", "ops/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+            for (Operation operation : Operation.values()) {
+                LatencyRecorder recorder = getLatency(operation);
+                if (recorder.getCount() == 0 && getErrors(operation) == 0) {
+                    continue;
+                }
+                out.append(String.format("%-8s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    operation, recorder.getCount(), getErrors(operation),
+                    recorder.getCount() * 1e9 / Math.max(1, elapsedNanos),
+                    recorder.getPercentile(50) / 1000.0, recorder.getPercentile(95) / 1000.0,
+                    recorder.getPercentile(99) / 1000.0, recorder.getMax() / 1000.0));
+            }
+            out.append("Pool: ").append(poolStats);
+            return out.toString();
+        }
+    }
+}
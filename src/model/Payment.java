@@ -0,0 +1,52 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * One entry in the append-only payment ledger. Negative amounts record refunds and
+ * corrections; the project's total paid is the sum of its payments.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class Payment {
+    private final long paymentId;
+    private final String projectNumber;
+    private final double amount;
+    private final LocalDate paymentDate;
+    private final String reference;
+
+    public Payment(long paymentId, String projectNumber, double amount, LocalDate paymentDate, String reference) {
+        this.paymentId = paymentId;
+        this.projectNumber = projectNumber;
+        this.amount = amount;
+        this.paymentDate = paymentDate;
+        this.reference = reference;
+    }
+
+    public long getPaymentId() {
+        return paymentId;
+    }
+
+    public String getProjectNumber() {
+        return projectNumber;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public LocalDate getPaymentDate() {
+        return paymentDate;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Payment[%d: %s R%,.2f on %s%s]", paymentId, projectNumber, amount, paymentDate,
+                             reference == null ? "" : " (" + reference + ")");
+    }
+}
@@ -23,6 +23,8 @@ public class Project {
     private String customerId;
     private String finalised;
     private LocalDate completionDate;
+    private int version;
+    private Double totalPaidAsRead;
     
     // Constructors
     public Project() {}
@@ -150,6 +152,28 @@ public class Project {
         this.completionDate = completionDate;
     }
     
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
+    /**
+     * Gets the total paid stored when the project was read, so an edit to total paid can
+     * be recorded as the difference the user made rather than overwriting payments posted
+     * since.
+     * @return Total paid as read, or null if the project was not read from the database
+     */
+    public Double getTotalPaidAsRead() {
+        return totalPaidAsRead;
+    }
+    
+    public void setTotalPaidAsRead(Double totalPaidAsRead) {
+        this.totalPaidAsRead = totalPaidAsRead;
+    }
+    
     // Business methods
     public double getOutstandingAmount() {
         return totalFee - totalPaid;
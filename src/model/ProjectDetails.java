@@ -0,0 +1,51 @@
+package model;
+
+/**
+ * A project together with the architect, contractor and customer it references,
+ * as read in a single joined or batched lookup.
+ *
+ * <p>The people carry only their ID and names; any of them may be null if the
+ * referenced row no longer exists.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class ProjectDetails {
+    private final Project project;
+    private final Architect architect;
+    private final Contractor contractor;
+    private final Customer customer;
+
+    public ProjectDetails(Project project, Architect architect, Contractor contractor, Customer customer) {
+        this.project = project;
+        this.architect = architect;
+        this.contractor = contractor;
+        this.customer = customer;
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    public Architect getArchitect() {
+        return architect;
+    }
+
+    public Contractor getContractor() {
+        return contractor;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [Architect: %s, Contractor: %s, Customer: %s]",
+                           project, nameOf(architect), nameOf(contractor), nameOf(customer));
+    }
+
+    private static String nameOf(Person person) {
+        return person == null ? "N/A" : person.getFirstName() + " " + person.getSurname();
+    }
+}
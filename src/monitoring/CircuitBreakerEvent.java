@@ -0,0 +1,33 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a state change of a {@code resilience.CircuitBreaker}.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+@Name("poisedms.CircuitBreaker")
+@Label("Circuit Breaker Transition")
+@Category({"PoiseDMS", "Database"})
+@Description("The database circuit breaker opened, started probing or closed")
+@StackTrace(false)
+public class CircuitBreakerEvent extends Event {
+    @Label("Breaker")
+    public String breaker;
+
+    @Label("From State")
+    public String fromState;
+
+    @Label("To State")
+    public String toState;
+
+    @Label("Consecutive Failures")
+    public int consecutiveFailures;
+}
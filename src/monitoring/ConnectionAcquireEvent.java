@@ -0,0 +1,34 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning a wait for a pooled connection in
+ * {@link util.ConnectionPool#getConnection()}.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+@Name("poisedms.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"PoiseDMS", "Database"})
+@Description("Time spent borrowing a connection from the HikariCP pool")
+@StackTrace(false)
+public class ConnectionAcquireEvent extends Event {
+    @Label("Active Connections")
+    public int active;
+
+    @Label("Idle Connections")
+    public int idle;
+
+    @Label("Waiting Threads")
+    public int waiting;
+
+    @Label("Operation ID")
+    public String operationId;
+}
@@ -0,0 +1,43 @@
+package monitoring;
+
+import config.AppConfig;
+
+import java.sql.Connection;
+
+/**
+ * Decides whether pooled connections are instrumented, for slow query recording, Flight
+ * Recorder events or both.
+ *
+ * <p>Flight Recorder events cost almost nothing while no recording is running, so
+ * {@code jfr.events.enabled} defaults to true; which events are actually recorded is
+ * chosen by the recording's settings, e.g. {@code config/poisedms.jfc}.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class JdbcMonitor {
+    private static final boolean JFR_ENABLED = Boolean.parseBoolean(AppConfig.getProperty("jfr.events.enabled", "true"));
+
+    private JdbcMonitor() {
+    }
+
+    /**
+     * @return true if statements should emit {@link SqlExecutionEvent}s
+     */
+    static boolean isJfrEnabled() {
+        return JFR_ENABLED;
+    }
+
+    /**
+     * Wraps a pooled connection when any monitoring is enabled or its statements need a
+     * default timeout.
+     *
+     * @param connection Pooled connection
+     * @param queryTimeout Seconds each statement may run unless it sets its own timeout; 0 for no limit
+     * @return The instrumented connection, or {@code connection} itself
+     */
+    public static Connection instrument(Connection connection, int queryTimeout) {
+        return JFR_ENABLED || SlowQueryRecorder.isEnabled() || queryTimeout > 0
+            ? StatementInterceptor.wrap(connection, queryTimeout) : connection;
+    }
+}
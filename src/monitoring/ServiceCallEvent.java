@@ -0,0 +1,72 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import util.LoggerUtil;
+
+/**
+ * Flight Recorder event spanning one non-interactive service operation, such as a project
+ * lookup or write, a bulk change, a payment or an index query. Use with try-with-resources; closing the event
+ * commits it.
+ *
+ * <p>Operations that prompt at the console are not spanned, since their duration would
+ * be mostly the operator's typing; {@link UserActionEvent} covers them. Component and
+ * operation names are constants so that a disabled event costs nothing to create.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+@Name("poisedms.ServiceCall")
+@Label("Service Call")
+@Category({"PoiseDMS", "Application"})
+@Description("A non-interactive service operation")
+@StackTrace(false)
+public class ServiceCallEvent extends Event implements AutoCloseable {
+    @Label("Component")
+    public String component;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Rows")
+    @Description("Rows returned or written, or -1 when not known")
+    public long rows = -1;
+
+    @Label("Operation ID")
+    public String operationId;
+
+    /**
+     * Starts timing an operation.
+     *
+     * @param component Class name, e.g. "PaymentService"
+     * @param operation Method name, as a constant
+     * @return The started event
+     */
+    public static ServiceCallEvent begin(String component, String operation) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.component = component;
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param rows Rows the operation returned or wrote
+     */
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public void close() {
+        end();
+        if (shouldCommit()) {
+            operationId = LoggerUtil.currentOperationId();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package monitoring;
+
+import config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.ConnectionPool;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Records statements that run longer than {@code slowquery.threshold.ms}.
+ *
+ * <p>Connections from {@link ConnectionPool} are wrapped by {@link JdbcMonitor} when
+ * {@code slowquery.enabled} is set. A slow execution is written to the
+ * {@code PoiseDMS.slowquery} logger, which logback.xml sends to its own rotating file,
+ * with the SQL shape (literals replaced by {@code ?} and repeated value lists folded),
+ * the bound parameters, the first application method on the call stack and the output
+ * of {@code EXPLAIN} for the same statement and parameters. EXPLAIN runs on one background thread with its own pooled connection, so
+ * the slow caller is not delayed further; when that thread is busy the entry is written
+ * without a plan.</p>
+ *
+ * <p>Parameters of statements whose SQL matches {@code slowquery.redact.pattern} are
+ * written as {@code <redacted>}, and long strings are truncated.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class SlowQueryRecorder {
+    private static final Logger SLOW_LOG = LoggerFactory.getLogger("PoiseDMS.slowquery");
+    private static final boolean ENABLED = Boolean.parseBoolean(AppConfig.getProperty("slowquery.enabled", "true"));
+    private static final long THRESHOLD_NANOS =
+        TimeUnit.MILLISECONDS.toNanos(AppConfig.getIntProperty("slowquery.threshold.ms", 500));
+    private static final boolean EXPLAIN = Boolean.parseBoolean(AppConfig.getProperty("slowquery.explain", "true"));
+    private static final Pattern REDACT = Pattern.compile(
+        AppConfig.getProperty("slowquery.redact.pattern", "(?i)password|passwd|secret|token|api_?key"));
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)^\\s*(SELECT|INSERT|UPDATE|DELETE|REPLACE)\\b.*");
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    /** Marks the explain thread so its own queries are never recorded. */
+    private static final ThreadLocal<Boolean> EXPLAINING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private static final ThreadPoolExecutor EXPLAINER = new ThreadPoolExecutor(
+        1, 1, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(AppConfig.getIntProperty("slowquery.explain.queue", 32)),
+        runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        },
+        (task, executor) -> ((Entry) task).write("skipped, explain queue full"));
+
+    private SlowQueryRecorder() {
+    }
+
+    /**
+     * @return true if pooled connections should be wrapped
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Called by {@link StatementInterceptor} after every execution.
+     *
+     * @param sql Statement text
+     * @param parameters Bound parameters by index, or null for a plain statement
+     * @param rows Rows in the batch, 1 for a single execution
+     * @param elapsedNanos Time spent in the driver
+     */
+    static void record(String sql, Map<Integer, Object> parameters, int rows, long elapsedNanos) {
+        if (!ENABLED || elapsedNanos < THRESHOLD_NANOS || sql == null || EXPLAINING.get()) {
+            return;
+        }
+        Entry entry = new Entry(sql, parameters == null ? Map.of() : new TreeMap<>(parameters), rows,
+                                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), caller());
+        LoggerUtil.warning(Subsystem.SQL, "Slow query ({} ms) from {}: {}", entry.millis, entry.caller, entry.shape);
+        if (EXPLAIN && EXPLAINABLE.matcher(sql).matches()) {
+            EXPLAINER.execute(entry);
+        } else {
+            entry.write(null);
+        }
+    }
+
+    /**
+     * Normalises SQL so that executions differing only in literal values look alike.
+     *
+     * @return Single-line SQL with literals as {@code ?}, placeholder lists as {@code (?, ...)}
+     *         and repeated {@code VALUES} rows folded into the first
+     */
+    public static String shape(String sql) {
+        String shape = sql.replaceAll("'(?:[^'\\\\]|\\\\.|'')*'", "?")
+            .replaceAll("\\b\\d+(?:\\.\\d+)?\\b", "?")
+            .replaceAll("\\s+", " ")
+            .trim()
+            .replaceAll("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)", "(?, ...)");
+        return shape.replaceAll("(\\([^()]*\\))(?:\\s*,\\s*\\([^()]*\\))+", "$1, ...");
+    }
+
+    /**
+     * Formats bound parameters for the log.
+     *
+     * @param sql Statement the parameters belong to
+     * @param parameters Parameters by index
+     * @return e.g. {@code 1='Smith', 2=42}, with values hidden if the SQL looks sensitive
+     */
+    public static String describe(String sql, Map<Integer, Object> parameters) {
+        boolean redact = REDACT.matcher(sql).find();
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (out.length() > 0) {
+                out.append(", ");
+            }
+            out.append(parameter.getKey()).append('=');
+            Object value = parameter.getValue();
+            if (value == null) {
+                out.append("NULL");
+            } else if (redact) {
+                out.append("<redacted>");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                out.append(value);
+            } else {
+                String text = String.valueOf(value);
+                if (text.length() > MAX_VALUE_LENGTH) {
+                    text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+                }
+                out.append('\'').append(text.replace("'", "''")).append('\'');
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Reads the most recent entries from the slow query log and its rotated files.
+     *
+     * @param file Current log file, e.g. {@code logs/slow-queries.log}
+     * @param count Entries to return
+     * @return Up to {@code count} entries, oldest first
+     * @throws IOException if a file cannot be read
+     */
+    public static List<String> readRecent(Path file, int count) throws IOException {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        List<Path> files = new ArrayList<>();
+        for (int i = 1; ; i++) {
+            Path rotated = file.resolveSibling(dot < 0 ? name + "." + i : name.substring(0, dot) + "." + i + name.substring(dot));
+            if (!Files.exists(rotated)) {
+                break;
+            }
+            files.add(0, rotated);
+        }
+        files.add(file);
+
+        Deque<String> recent = new ArrayDeque<>(count);
+        for (Path path : files) {
+            if (!Files.exists(path)) {
+                continue;
+            }
+            StringBuilder current = null;
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.startsWith("--- ")) {
+                    keep(recent, current, count);
+                    current = new StringBuilder();
+                }
+                if (current != null) {
+                    current.append(line).append(System.lineSeparator());
+                }
+            }
+            keep(recent, current, count);
+        }
+        return new ArrayList<>(recent);
+    }
+
+    private static void keep(Deque<String> recent, StringBuilder entry, int count) {
+        if (entry == null || count <= 0) {
+            return;
+        }
+        if (recent.size() == count) {
+            recent.removeFirst();
+        }
+        recent.addLast(entry.toString());
+    }
+
+    /**
+     * @return First frame outside the JDK, the pool, the driver and this package
+     */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+            .filter(frame -> !isInfrastructure(frame.getClassName()))
+            .findFirst()
+            .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+            .orElse("unknown"));
+    }
+
+    private static boolean isInfrastructure(String className) {
+        return className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.")
+               || className.startsWith("com.sun.") || className.startsWith("com.zaxxer.")
+               || className.startsWith("com.mysql.") || className.startsWith("monitoring.")
+               || className.contains("$Proxy");
+    }
+
+    /**
+     * One slow execution, explained and written on the explain thread.
+     */
+    private static final class Entry implements Runnable {
+        private final String sql;
+        private final String shape;
+        private final Map<Integer, Object> parameters;
+        private final int rows;
+        private final long millis;
+        private final String caller;
+        private final Instant at = Instant.now();
+
+        Entry(String sql, Map<Integer, Object> parameters, int rows, long millis, String caller) {
+            this.sql = sql;
+            this.shape = shape(sql);
+            this.parameters = parameters;
+            this.rows = rows;
+            this.millis = millis;
+            this.caller = caller;
+        }
+
+        @Override
+        public void run() {
+            EXPLAINING.set(Boolean.TRUE);
+            String plan;
+            try (Connection connection = ConnectionPool.getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                    pstmt.setObject(parameter.getKey(), parameter.getValue());
+                }
+                plan = explain(pstmt);
+            } catch (SQLException e) {
+                plan = "failed: " + e.getMessage();
+            } finally {
+                EXPLAINING.set(Boolean.FALSE);
+            }
+            write(plan);
+        }
+
+        private String explain(PreparedStatement pstmt) throws SQLException {
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    plan.append(System.lineSeparator()).append("  ");
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        plan.append(i > 1 ? " " : "").append(meta.getColumnLabel(i)).append('=').append(rs.getString(i));
+                    }
+                }
+            }
+            return plan.toString();
+        }
+
+        /**
+         * @param plan EXPLAIN output, a reason it is missing, or null when not applicable
+         */
+        void write(String plan) {
+            StringBuilder out = new StringBuilder(256);
+            out.append("--- ").append(at).append(' ').append(millis).append(" ms ").append(caller);
+            if (rows > 1) {
+                out.append(" (batch of ").append(rows).append(')');
+            }
+            out.append(System.lineSeparator()).append("sql: ").append(shape);
+            if (!parameters.isEmpty()) {
+                out.append(System.lineSeparator()).append("params: ").append(describe(sql, parameters));
+            }
+            if (plan != null) {
+                out.append(System.lineSeparator()).append("explain:").append(plan.startsWith(System.lineSeparator()) ? "" : " ")
+                    .append(plan);
+            }
+            SLOW_LOG.info(out.toString());
+        }
+    }
+}
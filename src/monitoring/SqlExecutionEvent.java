@@ -0,0 +1,37 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one statement execution in the driver. Stack traces are
+ * on by default so each execution can be traced to the code that issued it.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+@Name("poisedms.SqlExecution")
+@Label("SQL Execution")
+@Category({"PoiseDMS", "Database"})
+@Description("One JDBC execute, executeQuery, executeUpdate or executeBatch call")
+public class SqlExecutionEvent extends Event {
+    @Label("SQL Shape")
+    @Description("Statement with literals replaced by ? and value lists folded")
+    public String sql;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Rows")
+    @Description("Rows affected by an update or batch, or -1 for queries")
+    public long rows;
+
+    @Label("Batch Size")
+    public int batchSize;
+
+    @Label("Operation ID")
+    public String operationId;
+}
@@ -0,0 +1,196 @@
+package monitoring;
+
+import resilience.CircuitBreaker;
+import util.LoggerUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dynamic proxies that time statement execution for {@link SlowQueryRecorder} and
+ * {@link SqlExecutionEvent}, and report its outcome to the database circuit breaker.
+ *
+ * <p>The connection proxy only wraps the statements it creates, giving each the default
+ * query timeout first. Prepared statements
+ * remember their SQL and the last value bound to each parameter, so a slow execution
+ * can be reported, and explained, with the values that made it slow. Everything else is
+ * passed straight through.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+final class StatementInterceptor implements InvocationHandler {
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final int MAX_SHAPES = 1024;
+    private static final Map<String, String> SHAPES = new ConcurrentHashMap<>();
+
+    private final Statement target;
+    private final String sql;
+    private final TreeMap<Integer, Object> parameters = new TreeMap<>();
+    private String batchSql;
+    private int batchSize;
+
+    private StatementInterceptor(Statement target, String sql) {
+        this.target = target;
+        this.sql = sql;
+    }
+
+    static Connection wrap(Connection connection, int queryTimeout) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                                                   new Class<?>[] {Connection.class},
+                                                   new ConnectionHandler(connection, queryTimeout));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (EXECUTE_METHODS.contains(name)) {
+            String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                : name.endsWith("Batch") && batchSql != null ? batchSql : sql;
+            int rows = name.endsWith("Batch") ? batchSize : 1;
+            SqlExecutionEvent event = JdbcMonitor.isJfrEnabled() ? new SqlExecutionEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = call(method, args);
+                CircuitBreaker.database().onSuccess();
+                return result;
+            } catch (SQLException e) {
+                CircuitBreaker.database().onFailure(e);
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (event != null) {
+                    commit(event, name, executed, rows, result);
+                }
+                SlowQueryRecorder.record(executed, args == null || args.length == 0 ? parameters : null, rows, elapsed);
+                if (name.endsWith("Batch")) {
+                    batchSql = null;
+                    batchSize = 0;
+                }
+            }
+        }
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+            parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+        } else if (name.equals("clearParameters")) {
+            parameters.clear();
+        } else if (name.equals("addBatch")) {
+            if (args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            }
+            batchSize++;
+        } else if (name.equals("clearBatch")) {
+            batchSql = null;
+            batchSize = 0;
+        }
+        return call(method, args);
+    }
+
+    private static void commit(SqlExecutionEvent event, String method, String sql, int batchSize, Object result) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.method = method;
+        event.sql = sql == null ? null : shapeOf(sql);
+        event.batchSize = batchSize;
+        event.rows = rowCount(result);
+        event.operationId = LoggerUtil.currentOperationId();
+        event.commit();
+    }
+
+    /**
+     * @return Update count or summed batch counts, or -1 for a query or failed call
+     */
+    private static long rowCount(Object result) {
+        if (result instanceof Integer || result instanceof Long) {
+            return ((Number) result).longValue();
+        }
+        long total = -1;
+        if (result instanceof int[]) {
+            total = 0;
+            for (int count : (int[]) result) {
+                total += Math.max(0, count);
+            }
+        } else if (result instanceof long[]) {
+            total = 0;
+            for (long count : (long[]) result) {
+                total += Math.max(0, count);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Shapes are cached because most statements are prepared from a few constant strings;
+     * the cache is simply emptied if ad hoc SQL fills it.
+     */
+    private static String shapeOf(String sql) {
+        String shape = SHAPES.get(sql);
+        if (shape == null) {
+            if (SHAPES.size() >= MAX_SHAPES) {
+                SHAPES.clear();
+            }
+            shape = SlowQueryRecorder.shape(sql);
+            SHAPES.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wraps the statements a connection creates and forwards everything else.
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final int queryTimeout;
+
+        ConnectionHandler(Connection target, int queryTimeout) {
+            this.target = target;
+            this.queryTimeout = queryTimeout;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                if (queryTimeout > 0) {
+                    ((Statement) result).setQueryTimeout(queryTimeout);
+                }
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {type},
+                                              new StatementInterceptor((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+}
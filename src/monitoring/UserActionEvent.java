@@ -0,0 +1,30 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning one menu choice or administrative command, emitted by
+ * {@link util.LoggerUtil.OperationContext}. Other PoiseDMS events on the same thread carry
+ * the same operation ID.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+@Name("poisedms.UserAction")
+@Label("User Action")
+@Category({"PoiseDMS", "Application"})
+@Description("A menu choice in the interactive application or an administrative command")
+@StackTrace(false)
+public class UserActionEvent extends Event {
+    @Label("Operation")
+    @Description("e.g. menu.5 or cli.backup")
+    public String operation;
+
+    @Label("Operation ID")
+    public String operationId;
+}
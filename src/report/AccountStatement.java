@@ -0,0 +1,110 @@
+package report;
+
+import model.Person;
+import model.Project;
+import model.ProjectDetails;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statement for one customer or contractor: their projects, amounts owed and
+ * overdue days as of a given date.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class AccountStatement {
+
+    /**
+     * Who a statement is addressed to.
+     */
+    public enum Party {
+        CUSTOMER,
+        CONTRACTOR
+    }
+
+    private final Party party;
+    private final String partyId;
+    private final Person person;
+    private final LocalDate asOf;
+    private final List<ProjectDetails> projects;
+
+    /**
+     * @param party    Customer or contractor
+     * @param partyId  ID of the customer or contractor
+     * @param person   Names of the party, or null if unknown
+     * @param asOf     Statement date used for overdue days
+     * @param projects The party's projects
+     */
+    public AccountStatement(Party party, String partyId, Person person, LocalDate asOf, List<ProjectDetails> projects) {
+        this.party = party;
+        this.partyId = partyId;
+        this.person = person;
+        this.asOf = asOf;
+        this.projects = Collections.unmodifiableList(projects);
+    }
+
+    public Party getParty() {
+        return party;
+    }
+
+    public String getPartyId() {
+        return partyId;
+    }
+
+    /**
+     * @return "First Surname", or the ID if the names are unknown
+     */
+    public String getPartyName() {
+        return person == null ? partyId : person.getFirstName() + " " + person.getSurname();
+    }
+
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    public List<ProjectDetails> getProjects() {
+        return projects;
+    }
+
+    public double getTotalFee() {
+        return projects.stream().mapToDouble(d -> d.getProject().getTotalFee()).sum();
+    }
+
+    public double getTotalPaid() {
+        return projects.stream().mapToDouble(d -> d.getProject().getTotalPaid()).sum();
+    }
+
+    public double getTotalOutstanding() {
+        return projects.stream().mapToDouble(d -> outstanding(d.getProject())).sum();
+    }
+
+    /**
+     * @return Number of open projects past their deadline
+     */
+    public long getOverdueCount() {
+        return projects.stream().filter(d -> overdueDays(d.getProject()) > 0).count();
+    }
+
+    /**
+     * @param project One of this statement's projects
+     * @return Amount still owed, never negative
+     */
+    public static double outstanding(Project project) {
+        return Math.max(0, project.getTotalFee() - project.getTotalPaid());
+    }
+
+    /**
+     * @param project One of this statement's projects
+     * @return Days past the deadline for an open project, otherwise 0
+     */
+    public long overdueDays(Project project) {
+        if ("Yes".equalsIgnoreCase(project.getFinalised()) || project.getDeadline() == null) {
+            return 0;
+        }
+        return Math.max(0, ChronoUnit.DAYS.between(project.getDeadline(), asOf));
+    }
+}
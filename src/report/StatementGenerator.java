@@ -0,0 +1,187 @@
+package report;
+
+import config.AppConfig;
+import exception.DatabaseException;
+import model.Person;
+import model.ProjectDetails;
+import service.ProjectService;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Produces text and HTML statements for every customer or contractor.
+ *
+ * <p>All projects are read once with their people in a single joined query and
+ * grouped by customer or contractor in memory; no query is issued per party. The
+ * parties are then split recursively across a {@link ForkJoinPool} and each leaf renders
+ * and writes its statements, so a month-end run scales with the number of cores rather
+ * than with database round trips.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class StatementGenerator {
+    /** Parties rendered by one fork/join leaf before it stops splitting. */
+    private static final int LEAF_SIZE = 64;
+
+    private final ProjectService projectService = new ProjectService();
+    private final StatementRenderer renderer = new StatementRenderer();
+
+    /**
+     * Summary of a statement run.
+     */
+    public static final class Result {
+        private final int statements;
+        private final int projects;
+        private final long elapsedMillis;
+
+        Result(int statements, int projects, long elapsedMillis) {
+            this.statements = statements;
+            this.projects = projects;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public int getProjects() {
+            return projects;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Wrote %d statements covering %d projects (%d ms)", statements, projects, elapsedMillis);
+        }
+    }
+
+    /**
+     * Writes {@code <id>.txt} and {@code <id>.html} for every party with at least one project.
+     *
+     * @param connection Database connection used for the single bulk read
+     * @param party Customer or contractor statements
+     * @param outputDir Directory for the files; created if missing
+     * @param asOf Statement date
+     * @return Summary of the run
+     * @throws DatabaseException if the projects cannot be read
+     * @throws IOException if a statement cannot be written
+     */
+    public Result generate(Connection connection, AccountStatement.Party party, Path outputDir, LocalDate asOf)
+            throws DatabaseException, IOException {
+        long started = System.currentTimeMillis();
+        List<ProjectDetails> all = projectService.getAllProjectDetails(connection);
+        List<AccountStatement> statements = partition(all, party, asOf);
+        Files.createDirectories(outputDir);
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, AppConfig.getIntProperty("report.parallelism",
+                                                                                  Runtime.getRuntime().availableProcessors())));
+        try {
+            pool.invoke(new RenderTask(statements, 0, statements.size(), outputDir));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+
+        Result result = new Result(statements.size(), all.size(), System.currentTimeMillis() - started);
+        LoggerUtil.info(Subsystem.SERVICE, "{} {} statements: {}", party, asOf, result);
+        return result;
+    }
+
+    /**
+     * Groups projects by customer or contractor, in ID order, with each party's projects
+     * ordered by deadline.
+     *
+     * @param projects All projects with their people
+     * @param party Grouping key
+     * @param asOf Statement date
+     * @return One statement per party
+     */
+    static List<AccountStatement> partition(List<ProjectDetails> projects, AccountStatement.Party party, LocalDate asOf) {
+        Map<String, List<ProjectDetails>> byParty = new LinkedHashMap<>();
+        Map<String, Person> people = new LinkedHashMap<>();
+        for (ProjectDetails details : projects) {
+            String id = party == AccountStatement.Party.CUSTOMER
+                ? details.getProject().getCustomerId() : details.getProject().getContractorId();
+            byParty.computeIfAbsent(id, k -> new ArrayList<>()).add(details);
+            Person person = party == AccountStatement.Party.CUSTOMER ? details.getCustomer() : details.getContractor();
+            if (person != null) {
+                people.putIfAbsent(id, person);
+            }
+        }
+
+        List<AccountStatement> statements = new ArrayList<>(byParty.size());
+        byParty.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> {
+                entry.getValue().sort(Comparator.comparing(d -> d.getProject().getDeadline(),
+                                                           Comparator.nullsLast(Comparator.naturalOrder())));
+                statements.add(new AccountStatement(party, entry.getKey(), people.get(entry.getKey()), asOf, entry.getValue()));
+            });
+        return statements;
+    }
+
+    /**
+     * Renders and writes a range of statements, splitting in half while the range is large.
+     */
+    private final class RenderTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final List<AccountStatement> statements;
+        private final int from;
+        private final int to;
+        private final Path outputDir;
+
+        RenderTask(List<AccountStatement> statements, int from, int to, Path outputDir) {
+            this.statements = statements;
+            this.from = from;
+            this.to = to;
+            this.outputDir = outputDir;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    write(statements.get(i));
+                }
+                return to - from;
+            }
+            int middle = (from + to) >>> 1;
+            RenderTask left = new RenderTask(statements, from, middle, outputDir);
+            left.fork();
+            int right = new RenderTask(statements, middle, to, outputDir).compute();
+            return left.join() + right;
+        }
+
+        private void write(AccountStatement statement) {
+            String name = statement.getPartyId().replaceAll("[^A-Za-z0-9_-]", "_");
+            try {
+                Files.write(outputDir.resolve(name + ".txt"),
+                            renderer.renderText(statement).getBytes(StandardCharsets.UTF_8));
+                Files.write(outputDir.resolve(name + ".html"),
+                            renderer.renderHtml(statement).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write statement for " + statement.getPartyId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package report;
+
+import model.Project;
+import model.ProjectDetails;
+
+/**
+ * Renders a {@link AccountStatement} as plain text or as a self-contained HTML page.
+ *
+ * <p>Stateless and thread-safe; one instance is shared by all report workers.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class StatementRenderer {
+    private static final String TEXT_ROW = "%-10s %-30s %-10s %-9s %14s %14s %14s %8s%n";
+
+    /**
+     * @param statement Statement to render
+     * @return Fixed-width text statement
+     */
+    public String renderText(AccountStatement statement) {
+        StringBuilder out = new StringBuilder(256 + statement.getProjects().size() * 128);
+        out.append("POISE DMS - ").append(title(statement)).append('\n');
+        out.append(statement.getPartyName()).append(" (").append(statement.getPartyId()).append(")\n");
+        out.append("Statement date: ").append(statement.getAsOf()).append("\n\n");
+        out.append(String.format(TEXT_ROW, "Project", "Name", "Deadline", "Status", "Fee", "Paid",
+                                 "Outstanding", "Overdue"));
+        out.append("-".repeat(116)).append('\n');
+        for (ProjectDetails details : statement.getProjects()) {
+            Project project = details.getProject();
+            long overdue = statement.overdueDays(project);
+            out.append(String.format(TEXT_ROW, project.getProjectNumber(), truncate(project.getProjectName(), 30),
+                project.getDeadline(), status(project), money(project.getTotalFee()), money(project.getTotalPaid()),
+                money(AccountStatement.outstanding(project)), overdue > 0 ? overdue + "d" : ""));
+        }
+        out.append("-".repeat(116)).append('\n');
+        out.append(String.format(TEXT_ROW, "Total", statement.getProjects().size() + " projects", "", "",
+            money(statement.getTotalFee()), money(statement.getTotalPaid()),
+            money(statement.getTotalOutstanding()), statement.getOverdueCount() + " late"));
+        return out.toString();
+    }
+
+    /**
+     * @param statement Statement to render
+     * @return HTML document with inline styles
+     */
+    public String renderHtml(AccountStatement statement) {
+        StringBuilder out = new StringBuilder(1024 + statement.getProjects().size() * 256);
+        out.append("<!DOCTYPE html>\n<html><head><meta charset=\"UTF-8\"><title>")
+           .append(escape(title(statement))).append(" - ").append(escape(statement.getPartyName()))
+           .append("</title>\n<style>body{font-family:sans-serif}table{border-collapse:collapse}"
+                   + "td,th{border:1px solid #ccc;padding:4px 8px}td.num{text-align:right}tr.overdue{background:#fde}"
+                   + "</style></head><body>\n");
+        out.append("<h1>").append(escape(title(statement))).append("</h1>\n");
+        out.append("<p><strong>").append(escape(statement.getPartyName())).append("</strong> (")
+           .append(escape(statement.getPartyId())).append(")<br>Statement date: ")
+           .append(statement.getAsOf()).append("</p>\n");
+        out.append("<table>\n<tr><th>Project</th><th>Name</th><th>Deadline</th><th>Status</th><th>Fee</th>"
+                   + "<th>Paid</th><th>Outstanding</th><th>Days overdue</th></tr>\n");
+        for (ProjectDetails details : statement.getProjects()) {
+            Project project = details.getProject();
+            long overdue = statement.overdueDays(project);
+            out.append(overdue > 0 ? "<tr class=\"overdue\">" : "<tr>")
+               .append("<td>").append(escape(project.getProjectNumber())).append("</td>")
+               .append("<td>").append(escape(project.getProjectName())).append("</td>")
+               .append("<td>").append(project.getDeadline()).append("</td>")
+               .append("<td>").append(status(project)).append("</td>")
+               .append("<td class=\"num\">").append(money(project.getTotalFee())).append("</td>")
+               .append("<td class=\"num\">").append(money(project.getTotalPaid())).append("</td>")
+               .append("<td class=\"num\">").append(money(AccountStatement.outstanding(project))).append("</td>")
+               .append("<td class=\"num\">").append(overdue > 0 ? String.valueOf(overdue) : "").append("</td></tr>\n");
+        }
+        out.append("<tr><th colspan=\"4\">Total (").append(statement.getProjects().size()).append(" projects)</th>")
+           .append("<th class=\"num\">").append(money(statement.getTotalFee())).append("</th>")
+           .append("<th class=\"num\">").append(money(statement.getTotalPaid())).append("</th>")
+           .append("<th class=\"num\">").append(money(statement.getTotalOutstanding())).append("</th>")
+           .append("<th class=\"num\">").append(statement.getOverdueCount()).append(" late</th></tr>\n");
+        out.append("</table>\n</body></html>\n");
+        return out.toString();
+    }
+
+    private static String title(AccountStatement statement) {
+        return statement.getParty() == AccountStatement.Party.CUSTOMER ? "Customer Statement" : "Contractor Statement";
+    }
+
+    private static String status(Project project) {
+        return "Yes".equalsIgnoreCase(project.getFinalised()) ? "Finalised" : "Open";
+    }
+
+    private static String money(double amount) {
+        return String.format("R%,.2f", amount);
+    }
+
+    private static String truncate(String value, int width) {
+        if (value == null) {
+            return "";
+        }
+        return value.length() <= width ? value : value.substring(0, width - 1) + "~";
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '"':
+                    out.append("&quot;");
+                    break;
+                case '\'':
+                    out.append("&#39;");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
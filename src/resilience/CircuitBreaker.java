@@ -0,0 +1,201 @@
+package resilience;
+
+import config.AppConfig;
+import monitoring.CircuitBreakerEvent;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker that stops callers from queueing on the connection pool while the
+ * database is down.
+ *
+ * <p>While CLOSED every call goes through. After {@code failureThreshold} consecutive
+ * connection failures (see {@link SqlStateClassifier.Kind#CONNECTION}) the breaker
+ * opens and {@link #acquirePermission()} fails immediately with
+ * {@link CircuitOpenException} instead of letting each caller wait out the pool
+ * timeout. Once {@code openMillis} have passed, a single caller is let through as a
+ * probe (HALF_OPEN): its success closes the breaker, its failure opens it again. If a
+ * probe never reports back, another is allowed after a further {@code openMillis}.</p>
+ *
+ * <p>State changes are logged, recorded as {@link CircuitBreakerEvent}s and readable
+ * over JMX through {@link CircuitBreakerMXBean}.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class CircuitBreaker implements CircuitBreakerMXBean {
+    private static final CircuitBreaker DATABASE = register(new CircuitBreaker(
+        "database",
+        AppConfig.getIntProperty("db.breaker.failure.threshold", 3),
+        AppConfig.getIntProperty("db.breaker.open.ms", 10000),
+        System::nanoTime));
+
+    /**
+     * Breaker states.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong stateSince = new AtomicLong();
+    private final AtomicLong openedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private volatile String lastFailure;
+
+    /**
+     * @param name Name used in logs, JMX and events
+     * @param failureThreshold Consecutive connection failures that open the breaker
+     * @param openMillis Time to stay open before probing
+     * @param clock Nanosecond clock, e.g. {@code System::nanoTime}
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, LongSupplier clock) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @return The breaker guarding the application's connection pool
+     */
+    public static CircuitBreaker database() {
+        return DATABASE;
+    }
+
+    /**
+     * Lets a call through or rejects it.
+     *
+     * @throws CircuitOpenException if the breaker is open, or half-open with a probe in progress
+     */
+    public void acquirePermission() throws CircuitOpenException {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return;
+        }
+        long since = stateSince.get();
+        long now = clock.getAsLong();
+        if (now - since >= openNanos && stateSince.compareAndSet(since, now)) {
+            if (current == State.OPEN && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                transition(State.OPEN, State.HALF_OPEN);
+            }
+            return;
+        }
+        rejectedCount.incrementAndGet();
+        throw new CircuitOpenException(name, TimeUnit.NANOSECONDS.toMillis(Math.max(0, openNanos - (now - since))));
+    }
+
+    /**
+     * Records a successful call, closing the breaker if it was probing. A success while
+     * OPEN, e.g. a statement on a connection borrowed before the breaker opened, does not
+     * close it; only a probe let through once {@code openMillis} have passed can.
+     */
+    public void onSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+        if (state.get() == State.HALF_OPEN && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            transition(State.HALF_OPEN, State.CLOSED);
+        }
+    }
+
+    /**
+     * Records a failed call. Only connection failures count towards opening the breaker.
+     *
+     * @param e The failure
+     */
+    public void onFailure(SQLException e) {
+        if (SqlStateClassifier.classify(e) != SqlStateClassifier.Kind.CONNECTION) {
+            return;
+        }
+        lastFailure = e.getMessage();
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            stateSince.set(clock.getAsLong());
+            if (state.compareAndSet(current, State.OPEN)) {
+                openedCount.incrementAndGet();
+                transition(current, State.OPEN);
+            }
+        }
+    }
+
+    public State currentState() {
+        return state.get();
+    }
+
+    @Override
+    public String getState() {
+        return state.get().name();
+    }
+
+    @Override
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    @Override
+    public long getOpenedCount() {
+        return openedCount.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public String getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Breaker %s: %s, failures %d, opened %d, rejected %d",
+                             name, getState(), getConsecutiveFailures(), getOpenedCount(), getRejectedCount());
+    }
+
+    private void transition(State from, State to) {
+        if (to == State.OPEN) {
+            LoggerUtil.warning(Subsystem.POOL, "Circuit {} opened after {} connection failures: {}",
+                               name, consecutiveFailures.get(), lastFailure);
+        } else {
+            LoggerUtil.info(Subsystem.POOL, "Circuit {} {} -> {}", name, from, to);
+        }
+        CircuitBreakerEvent event = new CircuitBreakerEvent();
+        if (event.shouldCommit()) {
+            event.breaker = name;
+            event.fromState = from.name();
+            event.toState = to.name();
+            event.consecutiveFailures = consecutiveFailures.get();
+            event.commit();
+        }
+    }
+
+    private static CircuitBreaker register(CircuitBreaker breaker) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                breaker, new ObjectName("poisedms:type=CircuitBreaker,name=" + breaker.name));
+        } catch (JMException e) {
+            LoggerUtil.warning(Subsystem.POOL, "Circuit {} not registered with JMX: {}", breaker.name, e.getMessage());
+        }
+        return breaker;
+    }
+}
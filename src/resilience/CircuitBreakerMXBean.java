@@ -0,0 +1,26 @@
+package resilience;
+
+/**
+ * JMX view of a {@link CircuitBreaker}, registered as
+ * {@code poisedms:type=CircuitBreaker,name=<name>}.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public interface CircuitBreakerMXBean {
+    /**
+     * @return CLOSED, OPEN or HALF_OPEN
+     */
+    String getState();
+
+    int getConsecutiveFailures();
+
+    long getOpenedCount();
+
+    long getRejectedCount();
+
+    /**
+     * @return Message of the most recent failure, or null
+     */
+    String getLastFailure();
+}
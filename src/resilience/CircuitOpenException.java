@@ -0,0 +1,20 @@
+package resilience;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown instead of waiting for a connection while the {@link CircuitBreaker} is open.
+ * It is a {@link java.sql.SQLException}, so existing handlers report it like any other
+ * connection failure.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class CircuitOpenException extends SQLTransientConnectionException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String name, long retryInMillis) {
+        super("Database circuit '" + name + "' is open after repeated connection failures; next attempt in "
+              + retryInMillis + " ms", "08000");
+    }
+}
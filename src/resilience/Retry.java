@@ -0,0 +1,99 @@
+package resilience;
+
+import config.AppConfig;
+import util.ConnectionPool;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries idempotent reads on a fresh pooled connection.
+ *
+ * <p>Each attempt borrows its own connection, so a read that failed because the server
+ * failed over runs again against the new one. Only {@link SqlStateClassifier#isTransient
+ * transient} errors are retried, at most {@code connection.retry.count} times in all,
+ * sleeping a random time up to {@code connection.retry.delay} doubled per attempt ("full
+ * jitter", so that many callers do not retry in step). No retry is started that would end
+ * after {@code db.retry.deadline.ms}, and a {@link CircuitOpenException} is never retried,
+ * so a caller waits a bounded time even during an outage.</p>
+ *
+ * <p>Only use this for work that is safe to repeat: reads, or writes that are idempotent
+ * as a whole.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class Retry {
+    private static final int ATTEMPTS = Math.max(1, AppConfig.getIntProperty("connection.retry.count", 3));
+    private static final long BASE_DELAY_MS = AppConfig.getIntProperty("connection.retry.delay", 200);
+    private static final long MAX_DELAY_MS = AppConfig.getIntProperty("db.retry.max.delay.ms", 2000);
+    private static final long DEADLINE_MS = AppConfig.getIntProperty("db.retry.deadline.ms", 5000);
+
+    /**
+     * Work run against a borrowed connection.
+     *
+     * @param <T> Result type
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private Retry() {
+    }
+
+    /**
+     * Runs idempotent work, retrying transient failures on a new connection.
+     *
+     * @param label Name for the log, e.g. "viewAllProjects"
+     * @param work Work to run; it must not keep the connection
+     * @return Result of the first successful attempt
+     * @throws SQLException the last failure, or the first permanent one
+     */
+    public static <T> T read(String label, SqlWork<T> work) throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MS);
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = ConnectionPool.getConnection()) {
+                return work.apply(connection);
+            } catch (SQLException e) {
+                if (e instanceof CircuitOpenException || !SqlStateClassifier.isTransient(e) || attempt >= ATTEMPTS) {
+                    throw e;
+                }
+                long delay = backoffMillis(attempt, BASE_DELAY_MS, MAX_DELAY_MS, ThreadLocalRandom.current().nextDouble());
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) >= deadline) {
+                    throw e;
+                }
+                LoggerUtil.warning(Subsystem.POOL, "{} failed ({}); retry {} of {} in {} ms",
+                                   label, e.getMessage(), attempt, ATTEMPTS - 1, delay);
+                sleep(delay, e);
+            }
+        }
+    }
+
+    /**
+     * Full-jitter exponential backoff.
+     *
+     * @param attempt Attempt that just failed, from 1
+     * @param baseMillis Upper bound of the first delay
+     * @param maxMillis Cap on the upper bound
+     * @param random Uniform value in [0, 1)
+     * @return Delay before the next attempt
+     */
+    static long backoffMillis(int attempt, long baseMillis, long maxMillis, double random) {
+        long bound = Math.min(maxMillis, baseMillis << Math.min(attempt - 1, 20));
+        return (long) (bound * random);
+    }
+
+    private static void sleep(long millis, SQLException failure) throws SQLException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package resilience;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.Set;
+
+/**
+ * Sorts database errors into those worth retrying and those that are not.
+ *
+ * <p>{@link Kind#CONNECTION} errors mean the connection or server is gone: SQLState class
+ * {@code 08}, the driver's communication errors, a killed connection, or a server that
+ * has turned read-only during a failover. They are retried on a new connection and feed
+ * the {@link CircuitBreaker}. {@link Kind#TRANSIENT} errors, such as deadlocks, lock wait
+ * timeouts and query timeouts, leave the connection usable and are worth retrying.
+ * A server refusing connections because it has too many is overloaded rather than
+ * down, so that is {@link Kind#TRANSIENT} too, even when the driver or pool reports it
+ * as a connection failure: it is retried with backoff but does not open the breaker.
+ * Everything else, e.g. syntax errors or constraint violations, is
+ * {@link Kind#PERMANENT}.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class SqlStateClassifier {
+    /** MySQL error codes that mean the connection or server is unusable. */
+    private static final Set<Integer> CONNECTION_CODES = Set.of(
+        1053,  // ER_SERVER_SHUTDOWN
+        1290,  // ER_OPTION_PREVENTS_STATEMENT: --read-only, e.g. a demoted primary
+        1836,  // ER_READ_ONLY_MODE
+        1927,  // ER_CONNECTION_KILLED
+        2002, 2003, 2006, 2013);  // client: cannot connect, server gone away, lost connection
+
+    /** MySQL error codes for a server that is up but refusing new connections. */
+    private static final Set<Integer> OVERLOAD_CODES = Set.of(
+        1040,  // ER_CON_COUNT_ERROR: too many connections
+        1203); // ER_TOO_MANY_USER_CONNECTIONS
+
+    /** MySQL error codes for failures that leave the connection usable. */
+    private static final Set<Integer> TRANSIENT_CODES = Set.of(
+        1205,  // ER_LOCK_WAIT_TIMEOUT
+        1213,  // ER_LOCK_DEADLOCK
+        1317,  // ER_QUERY_INTERRUPTED
+        3024); // ER_QUERY_TIMEOUT: MAX_EXECUTION_TIME exceeded
+
+    /**
+     * How an error should be handled.
+     */
+    public enum Kind {
+        CONNECTION,
+        TRANSIENT,
+        PERMANENT
+    }
+
+    private SqlStateClassifier() {
+    }
+
+    /**
+     * Classifies an error by the most serious kind found in it, its causes and chained
+     * exceptions, unless one of them reports an overloaded server.
+     *
+     * @param e Error to classify
+     * @return Kind of the error
+     */
+    public static Kind classify(SQLException e) {
+        if (isOverload(e)) {
+            return Kind.TRANSIENT;
+        }
+        Kind result = Kind.PERMANENT;
+        int depth = 0;
+        for (Throwable t = e; t != null && depth < 10; depth++) {
+            if (t instanceof SQLException) {
+                Kind kind = classifyOne((SQLException) t);
+                if (kind == Kind.CONNECTION) {
+                    return kind;
+                }
+                if (kind == Kind.TRANSIENT) {
+                    result = kind;
+                }
+                SQLException next = ((SQLException) t).getNextException();
+                t = next != null ? next : t.getCause();
+            } else {
+                t = t.getCause();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true for {@link Kind#CONNECTION} and {@link Kind#TRANSIENT} errors
+     */
+    public static boolean isTransient(SQLException e) {
+        return classify(e) != Kind.PERMANENT;
+    }
+
+    /**
+     * Tells a pool borrow that timed out because every connection was in use from one that
+     * failed to reach the database. HikariCP reports both as an
+     * {@link SQLTransientConnectionException} ("Connection is not available"), but attaches
+     * the last error from opening a connection as the cause only when there was one. A busy
+     * pool says nothing about the server, so it should not feed the {@link CircuitBreaker}.
+     *
+     * @param e Error from borrowing a pooled connection
+     * @return true if the pool was exhausted and no connection had failed to open
+     */
+    public static boolean isPoolExhausted(SQLException e) {
+        return e instanceof SQLTransientConnectionException && e.getCause() == null && e.getNextException() == null;
+    }
+
+    private static boolean isOverload(SQLException e) {
+        int depth = 0;
+        for (Throwable t = e; t != null && depth < 10; depth++) {
+            if (t instanceof SQLException) {
+                if (OVERLOAD_CODES.contains(((SQLException) t).getErrorCode())) {
+                    return true;
+                }
+                SQLException next = ((SQLException) t).getNextException();
+                t = next != null ? next : t.getCause();
+            } else {
+                t = t.getCause();
+            }
+        }
+        return false;
+    }
+
+    private static Kind classifyOne(SQLException e) {
+        String state = e.getSQLState();
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLRecoverableException
+            || e instanceof SQLNonTransientConnectionException || CONNECTION_CODES.contains(e.getErrorCode())
+            || (state != null && state.startsWith("08"))) {
+            return Kind.CONNECTION;
+        }
+        if (e instanceof SQLTransientException || TRANSIENT_CODES.contains(e.getErrorCode())
+            || (state != null && state.startsWith("40"))) {
+            return Kind.TRANSIENT;
+        }
+        return Kind.PERMANENT;
+    }
+}
@@ -0,0 +1,265 @@
+package schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of closed intervals of whole days, each carrying a value, that answers "which
+ * intervals contain this day" and "which intervals overlap this period".
+ *
+ * <p>The intervals are held in an AVL tree ordered by start, then end, then value, and
+ * every node also records the latest end in its subtree. A search skips any subtree whose
+ * latest end is before the period and everything to the right of a node that starts after
+ * it, so each match is reached through O(log n) nodes and a search costs
+ * O(min(n, (k + 1) log n)) for k matches. For spans that do not nest, such as one
+ * contractor's projects, the matches are adjacent in the tree and the cost falls to
+ * O(log n + k). A centered interval tree would keep that bound for nested spans too, but
+ * it is built once for a fixed set, while schedules change one project at a time, which
+ * this tree handles in O(log n).</p>
+ *
+ * <p>Days are counted as in {@link java.time.LocalDate#toEpochDay()}. The tree is not
+ * thread-safe.</p>
+ *
+ * @param <T> Value type; values break ties between equal intervals, so an interval and
+ *            value pair is held at most once
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class IntervalTree<T extends Comparable<? super T>> {
+
+    /**
+     * One interval and its value.
+     */
+    public static final class Interval<T> {
+        private final long start;
+        private final long end;
+        private final T value;
+
+        Interval(long start, long end, T value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * @return Last day of the interval, inclusive
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + "] " + value;
+        }
+    }
+
+    private static final class Node<T> {
+        final Interval<T> interval;
+        Node<T> left;
+        Node<T> right;
+        int height = 1;
+        long maxEnd;
+
+        Node(Interval<T> interval) {
+            this.interval = interval;
+            this.maxEnd = interval.end;
+        }
+    }
+
+    private Node<T> root;
+    private int size;
+
+    /**
+     * Adds an interval.
+     *
+     * @param start First day
+     * @param end Last day, inclusive; not before {@code start}
+     * @param value Value carried by the interval
+     * @return false if the same interval with the same value is already held
+     */
+    public boolean insert(long start, long end, T value) {
+        if (end < start) {
+            throw new IllegalArgumentException("Interval ends before it starts: [" + start + ", " + end + "]");
+        }
+        int before = size;
+        root = insert(root, new Interval<>(start, end, value));
+        return size > before;
+    }
+
+    /**
+     * Removes an interval added with the same start, end and value.
+     *
+     * @return false if it was not held
+     */
+    public boolean remove(long start, long end, T value) {
+        int before = size;
+        root = remove(root, start, end, value);
+        return size < before;
+    }
+
+    /**
+     * @param day Day to look up
+     * @return Intervals containing the day, in start order
+     */
+    public List<Interval<T>> stab(long day) {
+        return overlapping(day, day);
+    }
+
+    /**
+     * @param from First day of the period
+     * @param to Last day of the period, inclusive
+     * @return Intervals sharing at least one day with the period, in start order
+     */
+    public List<Interval<T>> overlapping(long from, long to) {
+        List<Interval<T>> found = new ArrayList<>();
+        collect(root, from, to, found);
+        return found;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private void collect(Node<T> node, long from, long to, List<Interval<T>> found) {
+        while (node != null && node.maxEnd >= from) {
+            collect(node.left, from, to, found);
+            if (node.interval.start > to) {
+                return;
+            }
+            if (node.interval.end >= from) {
+                found.add(node.interval);
+            }
+            node = node.right;
+        }
+    }
+
+    private Node<T> insert(Node<T> node, Interval<T> interval) {
+        if (node == null) {
+            size++;
+            return new Node<>(interval);
+        }
+        int cmp = compare(interval.start, interval.end, interval.value, node.interval);
+        if (cmp < 0) {
+            node.left = insert(node.left, interval);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, interval);
+        } else {
+            return node;
+        }
+        return balance(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, long end, T value) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, end, value, node.interval);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, end, value);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, end, value);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node<T> replacement = new Node<>(successor.interval);
+            replacement.right = removeMin(node.right);
+            replacement.left = node.left;
+            node = replacement;
+        }
+        return balance(node);
+    }
+
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private int compare(long start, long end, T value, Interval<T> other) {
+        int cmp = Long.compare(start, other.start);
+        if (cmp == 0) {
+            cmp = Long.compare(end, other.end);
+        }
+        return cmp != 0 ? cmp : value.compareTo(other.value);
+    }
+
+    private Node<T> balance(Node<T> node) {
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.interval.end;
+        if (node.left != null && node.left.maxEnd > node.maxEnd) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > node.maxEnd) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+}
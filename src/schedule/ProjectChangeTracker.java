@@ -0,0 +1,100 @@
+package schedule;
+
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Flow;
+
+/**
+ * Collects the numbers of projects changed on the {@link ProjectEventBus} so an
+ * in-memory index can re-read just those rows before its next query.
+ *
+ * <p>Every write path publishes an event after its change, so an index fed by the
+ * tracker sees changes from the interactive menu, the services, bulk operations and
+ * payments alike without any of them knowing it exists. Delivery only adds a number to a
+ * set; the database is read later on the querying thread's own connection. If the
+ * tracker falls behind the bus it asks for a full reload instead.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+final class ProjectChangeTracker implements Flow.Subscriber<ProjectEvent> {
+    private final ProjectEventBus bus;
+    private final Set<ProjectEvent.Type> types;
+    private Set<String> changed = new HashSet<>();
+    private boolean lagged;
+
+    /**
+     * @param bus Bus to follow
+     * @param types Event types that change what the index holds
+     */
+    ProjectChangeTracker(ProjectEventBus bus, Set<ProjectEvent.Type> types) {
+        this.bus = bus;
+        this.types = EnumSet.copyOf(types);
+    }
+
+    /**
+     * Starts following the bus from its live end. Call before the index first loads so
+     * no change made during the load is missed.
+     */
+    void start() {
+        bus.subscribe(this);
+    }
+
+    /**
+     * Hands over the changes collected since the last call.
+     *
+     * @return Numbers of the projects changed, or null if they are unknown and the
+     *         index must reload everything
+     */
+    synchronized Set<String> takeChanged() {
+        if (lagged) {
+            lagged = false;
+            changed.clear();
+            return null;
+        }
+        Set<String> taken = changed;
+        changed = new HashSet<>();
+        return taken;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ProjectEvent event) {
+        if (types.contains(event.getType())) {
+            synchronized (this) {
+                if (event.getProjectNumber() == null) {
+                    // A change to every project, e.g. a restore, is caught up by reloading
+                    lagged = true;
+                } else {
+                    changed.add(event.getProjectNumber());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        LoggerUtil.warning(Subsystem.SERVICE, "Project index fell behind the change feed: {}", error.getMessage());
+        synchronized (this) {
+            lagged = true;
+        }
+        bus.subscribe(this);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            lagged = true;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package schedule;
+
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import exception.DatabaseException;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Base of the in-memory indexes built from the project table and kept current through
+ * the change feed.
+ *
+ * <p>An index loads in full on first use and then, before each query, re-reads only the
+ * projects named in events since the last one, by primary key on the querying thread's
+ * connection. It loads in full again when it falls behind the feed and on the first query
+ * of each day. Subclasses say which columns they read and how a row changes what they
+ * hold; callers hold the index's lock around {@link #refresh(Connection)} and the query.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+abstract class ProjectIndex {
+    private static final int REFRESH_BATCH = 500;
+
+    private final String name;
+    private final ProjectChangeTracker changes;
+    private LocalDate loadedOn;
+
+    /**
+     * @param name Name used in log and error messages, e.g. "schedule index"
+     * @param bus Change feed the write paths publish to
+     * @param types Event types that change what the index holds
+     */
+    ProjectIndex(String name, ProjectEventBus bus, Set<ProjectEvent.Type> types) {
+        this.name = name;
+        this.changes = new ProjectChangeTracker(bus, types);
+    }
+
+    /**
+     * Creates an index that is filled directly and never reads the database.
+     */
+    ProjectIndex(String name) {
+        this.name = name;
+        this.changes = null;
+        this.loadedOn = LocalDate.MAX;
+    }
+
+    /**
+     * @return Query for the rows the index is built from, without a WHERE clause
+     */
+    abstract String selectSql();
+
+    /**
+     * @return Condition limiting a full load, or null to read every project
+     */
+    String loadFilter() {
+        return null;
+    }
+
+    /**
+     * Adds what one row of {@link #selectSql()} contributes. Rows of projects already
+     * held have been {@link #remove(String) removed} first.
+     */
+    abstract void read(ResultSet rs, LocalDate today) throws SQLException;
+
+    /**
+     * Removes what a project contributes, if anything.
+     */
+    abstract void remove(String projectNumber);
+
+    /**
+     * Empties the index before a full load.
+     */
+    abstract void clear();
+
+    /**
+     * Reads anything a full load needs besides the projects. Called after
+     * {@link #clear()} and before the projects are read.
+     */
+    void loadOther(Connection connection) throws SQLException {
+    }
+
+    /**
+     * Catches up with the change feed, or loads everything on first use, after falling
+     * behind or when the day has changed.
+     *
+     * @param connection Database connection to read from
+     * @throws DatabaseException if database error occurs
+     */
+    final void refresh(Connection connection) throws DatabaseException {
+        if (changes == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        if (loadedOn == null) {
+            changes.start();
+        }
+        Set<String> changed = changes.takeChanged();
+        try {
+            if (changed == null || !today.equals(loadedOn)) {
+                clear();
+                loadOther(connection);
+                int rows = load(connection, null, today);
+                loadedOn = today;
+                LoggerUtil.info(Subsystem.SERVICE, "Loaded {} with {} projects", name, rows);
+            } else if (!changed.isEmpty()) {
+                for (String projectNumber : changed) {
+                    remove(projectNumber);
+                }
+                List<String> numbers = new ArrayList<>(changed);
+                for (int i = 0; i < numbers.size(); i += REFRESH_BATCH) {
+                    load(connection, numbers.subList(i, Math.min(numbers.size(), i + REFRESH_BATCH)), today);
+                }
+                LoggerUtil.debug(Subsystem.SERVICE, "Refreshed {} projects in the {}", numbers.size(), name);
+            }
+        } catch (SQLException e) {
+            loadedOn = LocalDate.MIN;
+            LoggerUtil.error("Failed to load the " + name, e);
+            throw new DatabaseException("Failed to load the " + name, e);
+        }
+    }
+
+    /**
+     * @param projectNumbers Projects to read, or null for a full load
+     * @return Number of rows read
+     */
+    private int load(Connection connection, Collection<String> projectNumbers, LocalDate today) throws SQLException {
+        String sql = selectSql();
+        if (projectNumbers != null) {
+            sql += " WHERE ProjectNumber IN (" + String.join(", ", Collections.nCopies(projectNumbers.size(), "?")) + ")";
+        } else if (loadFilter() != null) {
+            sql += " WHERE " + loadFilter();
+        }
+        int rows = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            if (projectNumbers != null) {
+                int index = 1;
+                for (String projectNumber : projectNumbers) {
+                    pstmt.setString(index++, projectNumber);
+                }
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    read(rs, today);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+}
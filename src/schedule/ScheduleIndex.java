@@ -0,0 +1,504 @@
+package schedule;
+
+import enums.EntityType;
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import exception.DatabaseException;
+import monitoring.ServiceCallEvent;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of when each project runs, per contractor and per architect, for
+ * "which projects are active this week" and "is this contractor double-booked".
+ *
+ * <p>A project's span starts on the day it was created. A finalised project ends on its
+ * completion date; an open one ends on its deadline, or today if it is overdue, since it
+ * is still being worked on. Spans are held in one {@link IntervalTree} for all projects
+ * and one per contractor and architect, so a query touches only the spans it returns
+ * plus a logarithmic search rather than scanning the project table.</p>
+ *
+ * <p>The index loads the project table on first use and then follows the change feed:
+ * projects created, updated, finalised or deleted through any write path are re-read by
+ * project number before the next query, and archived projects are dropped the same way.
+ * It reloads in full when the day changes, when it falls behind the feed and after a
+ * restore from a backup.</p>
+ *
+ * <p>A project without a contractor or architect is counted among the active projects
+ * but has no per-person span for the missing role.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class ScheduleIndex extends ProjectIndex {
+    static final String SQL_SELECT_SPANS =
+        "SELECT ProjectNumber, ContractorID, ArchitectID, DATE(created_at) AS StartDate, Deadline, Finalised, "
+        + "CompletionDate FROM project";
+
+    private static ScheduleIndex defaultIndex;
+
+    /**
+     * The time span of one project.
+     */
+    public static final class ProjectSpan {
+        private final String projectNumber;
+        private final String contractorId;
+        private final String architectId;
+        private final LocalDate start;
+        private final LocalDate end;
+        private final boolean finalised;
+
+        ProjectSpan(String projectNumber, String contractorId, String architectId, LocalDate start, LocalDate end,
+                    boolean finalised) {
+            this.projectNumber = projectNumber;
+            this.contractorId = contractorId;
+            this.architectId = architectId;
+            this.start = start;
+            this.end = end.isBefore(start) ? start : end;
+            this.finalised = finalised;
+        }
+
+        public String getProjectNumber() {
+            return projectNumber;
+        }
+
+        public String getContractorId() {
+            return contractorId;
+        }
+
+        public String getArchitectId() {
+            return architectId;
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        /**
+         * @return Last day of the span, inclusive
+         */
+        public LocalDate getEnd() {
+            return end;
+        }
+
+        public boolean isFinalised() {
+            return finalised;
+        }
+
+        String personId(EntityType role) {
+            return role == EntityType.ARCHITECT ? architectId : contractorId;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s to %s (contractor %s, architect %s%s)", projectNumber, start, end,
+                                 contractorId, architectId, finalised ? ", finalised" : "");
+        }
+    }
+
+    /**
+     * A period in which one person has more projects running than they can take on.
+     */
+    public static final class Conflict {
+        private final EntityType role;
+        private final String personId;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final int peak;
+        private final List<String> projectNumbers;
+
+        Conflict(EntityType role, String personId, LocalDate from, LocalDate to, int peak, List<String> projectNumbers) {
+            this.role = role;
+            this.personId = personId;
+            this.from = from;
+            this.to = to;
+            this.peak = peak;
+            this.projectNumbers = Collections.unmodifiableList(projectNumbers);
+        }
+
+        public EntityType getRole() {
+            return role;
+        }
+
+        public String getPersonId() {
+            return personId;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        /**
+         * @return Last day of the conflict, inclusive
+         */
+        public LocalDate getTo() {
+            return to;
+        }
+
+        /**
+         * @return Most projects running on any one day of the period
+         */
+        public int getPeak() {
+            return peak;
+        }
+
+        /**
+         * @return Projects running at some point in the period, in start order
+         */
+        public List<String> getProjectNumbers() {
+            return projectNumbers;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %d projects at once between %s and %s: %s", role.getDisplayName(), personId,
+                                 peak, from, to, String.join(", ", projectNumbers));
+        }
+    }
+
+    /**
+     * Projects running in one week.
+     */
+    public static final class WeekLoad {
+        private final LocalDate weekStart;
+        private final int activeProjects;
+        private final int people;
+        private final String busiestId;
+        private final int busiestCount;
+
+        WeekLoad(LocalDate weekStart, int activeProjects, int people, String busiestId, int busiestCount) {
+            this.weekStart = weekStart;
+            this.activeProjects = activeProjects;
+            this.people = people;
+            this.busiestId = busiestId;
+            this.busiestCount = busiestCount;
+        }
+
+        public LocalDate getWeekStart() {
+            return weekStart;
+        }
+
+        public int getActiveProjects() {
+            return activeProjects;
+        }
+
+        /**
+         * @return Number of people with at least one project running in the week
+         */
+        public int getPeople() {
+            return people;
+        }
+
+        /**
+         * @return Person with the most projects running in the week, or null if none are
+         */
+        public String getBusiestId() {
+            return busiestId;
+        }
+
+        public int getBusiestCount() {
+            return busiestCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Week of %s: %d projects, %d people%s", weekStart, activeProjects, people,
+                                 busiestId == null ? "" : ", busiest " + busiestId + " (" + busiestCount + ")");
+        }
+    }
+
+    private final Map<String, ProjectSpan> spans = new HashMap<>();
+    private final IntervalTree<String> all = new IntervalTree<>();
+    private final Map<String, IntervalTree<String>> byContractor = new HashMap<>();
+    private final Map<String, IntervalTree<String>> byArchitect = new HashMap<>();
+
+    /**
+     * @param bus Change feed the write paths publish to
+     */
+    public ScheduleIndex(ProjectEventBus bus) {
+        super("schedule index", bus, EnumSet.of(ProjectEvent.Type.CREATED, ProjectEvent.Type.UPDATED,
+                                                ProjectEvent.Type.FINALISED, ProjectEvent.Type.DELETED,
+                                                ProjectEvent.Type.ARCHIVED, ProjectEvent.Type.RESTORED));
+    }
+
+    /**
+     * Creates an index that is filled by {@link #put(ProjectSpan)} and never reads the database.
+     */
+    ScheduleIndex() {
+        super("schedule index");
+    }
+
+    /**
+     * @return Index following the default change feed, created on first use
+     */
+    public static synchronized ScheduleIndex getDefault() {
+        if (defaultIndex == null) {
+            defaultIndex = new ScheduleIndex(ProjectEventBus.getDefault());
+        }
+        return defaultIndex;
+    }
+
+    /**
+     * @param connection Database connection used to catch up with changes
+     * @param day Day to look up
+     * @return Projects running on the day, in start order
+     * @throws DatabaseException if database error occurs
+     */
+    public synchronized List<ProjectSpan> activeOn(Connection connection, LocalDate day) throws DatabaseException {
+        return activeBetween(connection, day, day);
+    }
+
+    /**
+     * @param connection Database connection used to catch up with changes
+     * @param from First day of the period
+     * @param to Last day of the period, inclusive
+     * @return Projects running on at least one day of the period, in start order
+     * @throws DatabaseException if database error occurs
+     */
+    public synchronized List<ProjectSpan> activeBetween(Connection connection, LocalDate from, LocalDate to)
+            throws DatabaseException {
+        refresh(connection);
+        return spansOf(all, from, to);
+    }
+
+    /**
+     * @param connection Database connection used to catch up with changes
+     * @param role Contractor or architect
+     * @param personId Person to look up
+     * @param from First day of the period
+     * @param to Last day of the period, inclusive
+     * @return The person's projects running in the period, in start order
+     * @throws DatabaseException if database error occurs
+     */
+    public synchronized List<ProjectSpan> activeFor(Connection connection, EntityType role, String personId,
+                                                    LocalDate from, LocalDate to) throws DatabaseException {
+        refresh(connection);
+        IntervalTree<String> tree = trees(role).get(personId);
+        return tree == null ? new ArrayList<>() : spansOf(tree, from, to);
+    }
+
+    /**
+     * Finds the periods in which a contractor or architect has more than
+     * {@code capacity} projects running at once.
+     *
+     * @param connection Database connection used to catch up with changes
+     * @param role Contractor or architect
+     * @param from First day to check
+     * @param to Last day to check, inclusive
+     * @param capacity Projects one person can run at once; 1 reports any overlap
+     * @return Conflicts ordered by person, then date
+     * @throws DatabaseException if database error occurs
+     */
+    public synchronized List<Conflict> findConflicts(Connection connection, EntityType role, LocalDate from,
+                                                     LocalDate to, int capacity) throws DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ScheduleIndex", "findConflicts")) {
+            refresh(connection);
+            List<Conflict> conflicts = new ArrayList<>();
+            for (Map.Entry<String, IntervalTree<String>> entry : new TreeMap<>(trees(role)).entrySet()) {
+                if (entry.getValue().size() > capacity) {
+                    conflicts.addAll(conflictsOf(role, entry.getKey(), entry.getValue().overlapping(
+                        from.toEpochDay(), to.toEpochDay()), from.toEpochDay(), to.toEpochDay(), capacity));
+                }
+            }
+            event.setRows(conflicts.size());
+            return conflicts;
+        }
+    }
+
+    /**
+     * Counts the projects running in each of a run of weeks, Monday to Sunday.
+     *
+     * @param connection Database connection used to catch up with changes
+     * @param role Contractor or architect, for the busiest person of each week
+     * @param from A day in the first week
+     * @param weeks Number of weeks
+     * @return One entry per week, in date order
+     * @throws DatabaseException if database error occurs
+     */
+    public synchronized List<WeekLoad> weeklyLoad(Connection connection, EntityType role, LocalDate from, int weeks)
+            throws DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ScheduleIndex", "weeklyLoad")) {
+            refresh(connection);
+            List<WeekLoad> load = new ArrayList<>(weeks);
+            LocalDate monday = from.with(DayOfWeek.MONDAY);
+            for (int week = 0; week < weeks; week++, monday = monday.plusWeeks(1)) {
+                List<IntervalTree.Interval<String>> active = all.overlapping(monday.toEpochDay(),
+                                                                             monday.toEpochDay() + 6);
+                Map<String, Integer> perPerson = new HashMap<>();
+                String busiest = null;
+                int busiestCount = 0;
+                for (IntervalTree.Interval<String> interval : active) {
+                    String person = spans.get(interval.getValue()).personId(role);
+                    if (person == null) {
+                        continue;
+                    }
+                    int count = perPerson.merge(person, 1, Integer::sum);
+                    if (count > busiestCount || count == busiestCount && person.compareTo(busiest) < 0) {
+                        busiest = person;
+                        busiestCount = count;
+                    }
+                }
+                load.add(new WeekLoad(monday, active.size(), perPerson.size(), busiest, busiestCount));
+            }
+            event.setRows(load.size());
+            return load;
+        }
+    }
+
+    /**
+     * @return Number of projects in the index
+     */
+    public synchronized int size() {
+        return spans.size();
+    }
+
+    /**
+     * Adds or replaces a project's span.
+     */
+    synchronized void put(ProjectSpan span) {
+        remove(span.getProjectNumber());
+        long start = span.getStart().toEpochDay();
+        long end = span.getEnd().toEpochDay();
+        spans.put(span.getProjectNumber(), span);
+        all.insert(start, end, span.getProjectNumber());
+        if (span.getContractorId() != null) {
+            byContractor.computeIfAbsent(span.getContractorId(), id -> new IntervalTree<>())
+                .insert(start, end, span.getProjectNumber());
+        }
+        if (span.getArchitectId() != null) {
+            byArchitect.computeIfAbsent(span.getArchitectId(), id -> new IntervalTree<>())
+                .insert(start, end, span.getProjectNumber());
+        }
+    }
+
+    @Override
+    synchronized void remove(String projectNumber) {
+        ProjectSpan span = spans.remove(projectNumber);
+        if (span == null) {
+            return;
+        }
+        long start = span.getStart().toEpochDay();
+        long end = span.getEnd().toEpochDay();
+        all.remove(start, end, projectNumber);
+        removeFrom(byContractor, span.getContractorId(), start, end, projectNumber);
+        removeFrom(byArchitect, span.getArchitectId(), start, end, projectNumber);
+    }
+
+    /**
+     * Sweeps one person's spans in start order, keeping those still running in a queue
+     * by end day, and reports each stretch of days on which more than {@code capacity}
+     * run at once together with every span that takes part in it.
+     */
+    static List<Conflict> conflictsOf(EntityType role, String personId, List<IntervalTree.Interval<String>> spans,
+                                      long from, long to, int capacity) {
+        List<Conflict> conflicts = new ArrayList<>();
+        PriorityQueue<IntervalTree.Interval<String>> running =
+            new PriorityQueue<>(Comparator.comparingLong(IntervalTree.Interval::getEnd));
+        List<String> involved = null;
+        long conflictStart = 0;
+        int peak = 0;
+        for (int i = 0; i <= spans.size(); i++) {
+            long next = i < spans.size() ? Math.max(from, spans.get(i).getStart()) : Long.MAX_VALUE;
+            while (!running.isEmpty() && running.peek().getEnd() < next) {
+                long ended = running.poll().getEnd();
+                if (involved != null && running.size() <= capacity
+                    && (running.isEmpty() || running.peek().getEnd() > ended)) {
+                    conflicts.add(new Conflict(role, personId, LocalDate.ofEpochDay(conflictStart),
+                                               LocalDate.ofEpochDay(Math.min(ended, to)), peak, involved));
+                    involved = null;
+                }
+            }
+            if (i == spans.size()) {
+                break;
+            }
+            IntervalTree.Interval<String> span = spans.get(i);
+            running.add(span);
+            if (involved != null) {
+                involved.add(span.getValue());
+                peak = Math.max(peak, running.size());
+            } else if (running.size() > capacity) {
+                List<IntervalTree.Interval<String>> current = new ArrayList<>(running);
+                current.sort(Comparator.comparingLong(IntervalTree.Interval::getStart));
+                involved = new ArrayList<>();
+                for (IntervalTree.Interval<String> interval : current) {
+                    involved.add(interval.getValue());
+                }
+                conflictStart = next;
+                peak = running.size();
+            }
+        }
+        return conflicts;
+    }
+
+    @Override
+    String selectSql() {
+        return SQL_SELECT_SPANS;
+    }
+
+    @Override
+    void read(ResultSet rs, LocalDate today) throws SQLException {
+        put(readSpan(rs, today));
+    }
+
+    private static ProjectSpan readSpan(ResultSet rs, LocalDate today) throws SQLException {
+        LocalDate deadline = rs.getDate("Deadline").toLocalDate();
+        Date created = rs.getDate("StartDate");
+        Date completed = rs.getDate("CompletionDate");
+        boolean finalised = "Yes".equals(rs.getString("Finalised"));
+        LocalDate end = finalised ? (completed != null ? completed.toLocalDate() : deadline)
+            : deadline.isBefore(today) ? today : deadline;
+        return new ProjectSpan(rs.getString("ProjectNumber"), rs.getString("ContractorID"), rs.getString("ArchitectID"),
+                               created != null ? created.toLocalDate() : deadline, end, finalised);
+    }
+
+    @Override
+    void clear() {
+        spans.clear();
+        all.clear();
+        byContractor.clear();
+        byArchitect.clear();
+    }
+
+    private Map<String, IntervalTree<String>> trees(EntityType role) {
+        if (role == EntityType.CONTRACTOR) {
+            return byContractor;
+        }
+        if (role == EntityType.ARCHITECT) {
+            return byArchitect;
+        }
+        throw new IllegalArgumentException("Schedules are kept for contractors and architects, not " + role);
+    }
+
+    private List<ProjectSpan> spansOf(IntervalTree<String> tree, LocalDate from, LocalDate to) {
+        List<ProjectSpan> found = new ArrayList<>();
+        for (IntervalTree.Interval<String> interval : tree.overlapping(from.toEpochDay(), to.toEpochDay())) {
+            found.add(spans.get(interval.getValue()));
+        }
+        return found;
+    }
+
+    private static void removeFrom(Map<String, IntervalTree<String>> trees, String personId, long start, long end,
+                                   String projectNumber) {
+        IntervalTree<String> tree = trees.get(personId);
+        if (tree != null) {
+            tree.remove(start, end, projectNumber);
+            if (tree.isEmpty()) {
+                trees.remove(personId);
+            }
+        }
+    }
+}
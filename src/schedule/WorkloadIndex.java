@@ -0,0 +1,278 @@
+package schedule;
+
+import enums.EntityType;
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import exception.DatabaseException;
+import monitoring.ServiceCallEvent;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Live workload of every contractor and architect: how many open projects they have and
+ * how much of those projects' fees is still to be paid.
+ *
+ * <p>Each role keeps its people in a {@link TreeSet} ordered by open projects, then
+ * outstanding value, then ID, next to a map from ID to the entry in the set. A change to
+ * one project moves its contractor and architect by removing and re-adding their entries,
+ * so it costs O(log n), and the least-loaded people are read from the front of the set
+ * in O(log n + k). People without any open project are held too, since they are the
+ * first to suggest.</p>
+ *
+ * <p>The index follows the change feed like {@link ScheduleIndex}, including payments,
+ * which change the outstanding value. People added through {@code PersonRepository} are
+ * registered as they are inserted; people added any other way appear at the next daily
+ * reload, or as soon as a project is assigned to them.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class WorkloadIndex extends ProjectIndex {
+
+    static final String SQL_SELECT_OPEN_FEES =
+        "SELECT ProjectNumber, ContractorID, ArchitectID, TotalFee - TotalPaid AS Outstanding, Finalised FROM project";
+
+    static final String SQL_SELECT_PEOPLE =
+        "SELECT 'Contractor', ContractorID FROM contractor UNION ALL SELECT 'Architect', ArchitectID FROM architect";
+
+    private static final Comparator<Load> LEAST_LOADED = Comparator.comparingInt(Load::getOpenProjects)
+        .thenComparingLong(load -> load.outstandingCents)
+        .thenComparing(Load::getPersonId);
+
+    private static WorkloadIndex defaultIndex;
+
+    /**
+     * One person's current workload.
+     */
+    public static final class Load {
+        private final String personId;
+        private final int openProjects;
+        private final long outstandingCents;
+
+        Load(String personId, int openProjects, long outstandingCents) {
+            this.personId = personId;
+            this.openProjects = openProjects;
+            this.outstandingCents = outstandingCents;
+        }
+
+        public String getPersonId() {
+            return personId;
+        }
+
+        public int getOpenProjects() {
+            return openProjects;
+        }
+
+        /**
+         * @return Fees still to be paid on the person's open projects
+         */
+        public double getOutstanding() {
+            return outstandingCents / 100.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d open projects, R%,.2f outstanding", personId, openProjects, getOutstanding());
+        }
+    }
+
+    /**
+     * What one open project adds to its contractor's and architect's workload.
+     */
+    private static final class Assignment {
+        final String contractorId;
+        final String architectId;
+        final long outstandingCents;
+
+        Assignment(String contractorId, String architectId, long outstandingCents) {
+            this.contractorId = contractorId;
+            this.architectId = architectId;
+            this.outstandingCents = outstandingCents;
+        }
+    }
+
+    private final Map<String, Assignment> assignments = new HashMap<>();
+    private final Map<EntityType, Map<String, Load>> loads = new EnumMap<>(EntityType.class);
+    private final Map<EntityType, TreeSet<Load>> ranked = new EnumMap<>(EntityType.class);
+
+    /**
+     * @param bus Change feed the write paths publish to
+     */
+    public WorkloadIndex(ProjectEventBus bus) {
+        super("workload index", bus, EnumSet.of(ProjectEvent.Type.CREATED, ProjectEvent.Type.UPDATED,
+                                                ProjectEvent.Type.FINALISED, ProjectEvent.Type.DELETED,
+                                                ProjectEvent.Type.PAYMENT_CHANGED,
+                                                ProjectEvent.Type.ARCHIVED, ProjectEvent.Type.RESTORED));
+        initRoles();
+    }
+
+    /**
+     * Creates an index that is filled directly and never reads the database.
+     */
+    WorkloadIndex() {
+        super("workload index");
+        initRoles();
+    }
+
+    /**
+     * @return Index following the default change feed, created on first use
+     */
+    public static synchronized WorkloadIndex getDefault() {
+        if (defaultIndex == null) {
+            defaultIndex = new WorkloadIndex(ProjectEventBus.getDefault());
+        }
+        return defaultIndex;
+    }
+
+    /**
+     * @param connection Database connection used to catch up with changes
+     * @param role Contractor or architect
+     * @param count Number of people wanted
+     * @return Up to {@code count} people with the fewest open projects, ties broken by
+     *         the least outstanding value
+     * @throws DatabaseException if database error occurs
+     */
+    public synchronized List<Load> leastLoaded(Connection connection, EntityType role, int count)
+            throws DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("WorkloadIndex", "leastLoaded")) {
+            refresh(connection);
+            List<Load> found = new ArrayList<>(count);
+            Iterator<Load> it = ranked(role).iterator();
+            while (found.size() < count && it.hasNext()) {
+                found.add(it.next());
+            }
+            event.setRows(found.size());
+            return found;
+        }
+    }
+
+    /**
+     * @param connection Database connection used to catch up with changes
+     * @param role Contractor or architect
+     * @param personId Person to look up
+     * @return The person's workload, or null if they are not known
+     * @throws DatabaseException if database error occurs
+     */
+    public synchronized Load loadOf(Connection connection, EntityType role, String personId) throws DatabaseException {
+        refresh(connection);
+        return loads.get(checkRole(role)).get(personId);
+    }
+
+    /**
+     * Adds newly inserted people with no projects. People already held are left as they are.
+     *
+     * @param role Any role; only contractors and architects are tracked
+     * @param personIds IDs of the new people
+     */
+    public synchronized void addPeople(EntityType role, Collection<String> personIds) {
+        if (role == EntityType.CONTRACTOR || role == EntityType.ARCHITECT) {
+            for (String personId : personIds) {
+                adjust(role, personId, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces what a project contributes; a finalised project contributes nothing.
+     */
+    synchronized void assign(String projectNumber, String contractorId, String architectId, double outstanding,
+                             boolean finalised) {
+        remove(projectNumber);
+        if (finalised) {
+            return;
+        }
+        Assignment assignment = new Assignment(contractorId, architectId, Math.round(outstanding * 100));
+        assignments.put(projectNumber, assignment);
+        adjust(EntityType.CONTRACTOR, contractorId, 1, assignment.outstandingCents);
+        adjust(EntityType.ARCHITECT, architectId, 1, assignment.outstandingCents);
+    }
+
+    @Override
+    synchronized void remove(String projectNumber) {
+        Assignment assignment = assignments.remove(projectNumber);
+        if (assignment != null) {
+            adjust(EntityType.CONTRACTOR, assignment.contractorId, -1, -assignment.outstandingCents);
+            adjust(EntityType.ARCHITECT, assignment.architectId, -1, -assignment.outstandingCents);
+        }
+    }
+
+    @Override
+    String selectSql() {
+        return SQL_SELECT_OPEN_FEES;
+    }
+
+    @Override
+    String loadFilter() {
+        return "Finalised = 'No'";
+    }
+
+    @Override
+    void read(ResultSet rs, LocalDate today) throws SQLException {
+        assign(rs.getString("ProjectNumber"), rs.getString("ContractorID"), rs.getString("ArchitectID"),
+               rs.getDouble("Outstanding"), "Yes".equals(rs.getString("Finalised")));
+    }
+
+    @Override
+    void loadOther(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(SQL_SELECT_PEOPLE)) {
+            while (rs.next()) {
+                adjust(EntityType.fromDisplayName(rs.getString(1)), rs.getString(2), 0, 0);
+            }
+        }
+    }
+
+    @Override
+    void clear() {
+        assignments.clear();
+        initRoles();
+    }
+
+    private void initRoles() {
+        for (EntityType role : new EntityType[] {EntityType.CONTRACTOR, EntityType.ARCHITECT}) {
+            loads.put(role, new HashMap<>());
+            ranked.put(role, new TreeSet<>(LEAST_LOADED));
+        }
+    }
+
+    /**
+     * Moves a person to their new place in the ranking, adding them if they are new.
+     */
+    private void adjust(EntityType role, String personId, int projects, long outstandingCents) {
+        Load current = loads.get(role).get(personId);
+        if (current != null) {
+            if (projects == 0 && outstandingCents == 0) {
+                return;
+            }
+            ranked.get(role).remove(current);
+        }
+        Load updated = current == null ? new Load(personId, projects, outstandingCents)
+            : new Load(personId, current.openProjects + projects, current.outstandingCents + outstandingCents);
+        loads.get(role).put(personId, updated);
+        ranked.get(role).add(updated);
+    }
+
+    private TreeSet<Load> ranked(EntityType role) {
+        return ranked.get(checkRole(role));
+    }
+
+    private static EntityType checkRole(EntityType role) {
+        if (role != EntityType.CONTRACTOR && role != EntityType.ARCHITECT) {
+            throw new IllegalArgumentException("Workloads are kept for contractors and architects, not " + role);
+        }
+        return role;
+    }
+}
@@ -0,0 +1,216 @@
+package service;
+
+import config.AppConfig;
+import constants.AppConstants;
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import exception.DatabaseException;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves projects finalised long ago from {@code project} into the compressed
+ * {@code project_archive} table.
+ *
+ * <p>Work is done in small chunks ordered by primary key. Each chunk is its own short
+ * transaction that copies and deletes at most {@code chunkSize} rows, so the hot table is
+ * never locked for long and the job can be stopped and restarted at any point. The
+ * chunk's keys are found with a plain read and only then locked by primary key, with the
+ * filter checked again: a locking read of the range would lock every row it scanned on
+ * the way, not just the {@code chunkSize} rows it returned.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class ArchiveService {
+
+    static final String SQL_SELECT_CHUNK =
+        "SELECT ProjectNumber FROM project "
+        + "WHERE Finalised = 'Yes' AND CompletionDate < ? AND ProjectNumber > ? "
+        + "ORDER BY ProjectNumber LIMIT ?";
+
+    static final String SQL_LOCK_CHUNK_PREFIX =
+        "SELECT ProjectNumber FROM project FORCE INDEX (PRIMARY) "
+        + "WHERE Finalised = 'Yes' AND CompletionDate < ? AND ProjectNumber IN (";
+
+    /**
+     * Summary of an archival run.
+     */
+    public static final class ArchiveResult {
+        private final int chunks;
+        private final int rows;
+        private final long elapsedMillis;
+
+        ArchiveResult(int chunks, int rows, long elapsedMillis) {
+            this.chunks = chunks;
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Archived %d projects in %d chunks (%d ms)", rows, chunks, elapsedMillis);
+        }
+    }
+
+    /**
+     * Archives projects using the configured age, chunk size and pause
+     * ({@code archive.after.days}, {@code archive.chunk.size}, {@code archive.chunk.pause.ms}).
+     *
+     * @param connection Database connection
+     * @return Summary of the run
+     * @throws DatabaseException if a chunk fails; earlier chunks stay archived
+     */
+    public ArchiveResult archiveFinalisedProjects(Connection connection) throws DatabaseException {
+        return archiveFinalisedProjects(connection,
+            AppConfig.getIntProperty("archive.after.days", 365),
+            AppConfig.getIntProperty("archive.chunk.size", 500),
+            AppConfig.getIntProperty("archive.chunk.pause.ms", 50));
+    }
+
+    /**
+     * Archives projects finalised more than {@code olderThanDays} days ago.
+     *
+     * @param connection Database connection
+     * @param olderThanDays Minimum age of the completion date in days
+     * @param chunkSize Maximum rows per transaction
+     * @param pauseMillis Pause between chunks to leave room for other writers
+     * @return Summary of the run
+     * @throws DatabaseException if a chunk fails; earlier chunks stay archived
+     */
+    public ArchiveResult archiveFinalisedProjects(Connection connection, int olderThanDays, int chunkSize,
+                                                  int pauseMillis) throws DatabaseException {
+        Date cutoff = Date.valueOf(LocalDate.now().minusDays(olderThanDays));
+        long started = System.currentTimeMillis();
+        int chunks = 0;
+        int rows = 0;
+        String lastKey = "";
+
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                while (true) {
+                    List<String> candidates = selectChunk(connection, cutoff, lastKey, chunkSize);
+                    if (candidates.isEmpty()) {
+                        connection.commit();
+                        break;
+                    }
+                    lastKey = candidates.get(candidates.size() - 1);
+                    List<String> keys = lockChunk(connection, cutoff, candidates);
+                    if (!keys.isEmpty()) {
+                        moveChunk(connection, keys);
+                    }
+                    connection.commit();
+                    for (String key : keys) {
+                        ProjectEventBus.getDefault().publish(ProjectEvent.Type.ARCHIVED, key);
+                    }
+
+                    chunks++;
+                    rows += keys.size();
+                    LoggerUtil.debug(Subsystem.SERVICE, "Archived chunk {} ({} rows, up to {})", chunks, keys.size(), lastKey);
+                    if (pauseMillis > 0) {
+                        Thread.sleep(pauseMillis);
+                    }
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Archival failed after " + rows + " projects", e);
+            throw new DatabaseException("Archival failed after " + rows + " projects", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LoggerUtil.warning(Subsystem.SERVICE, "Archival interrupted after {} projects", rows);
+        }
+
+        ArchiveResult result = new ArchiveResult(chunks, rows, System.currentTimeMillis() - started);
+        LoggerUtil.info(Subsystem.SERVICE, "{}", result);
+        return result;
+    }
+
+    List<String> selectChunk(Connection connection, Date cutoff, String afterKey, int chunkSize)
+            throws SQLException {
+        List<String> keys = new ArrayList<>(chunkSize);
+        try (PreparedStatement pstmt = connection.prepareStatement(SQL_SELECT_CHUNK)) {
+            pstmt.setDate(1, cutoff);
+            pstmt.setString(2, afterKey);
+            pstmt.setInt(3, chunkSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString(1));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Locks the candidates that still match, by primary key, so only those rows are locked.
+     *
+     * @return The locked keys in key order; candidates changed since they were read are left out
+     */
+    List<String> lockChunk(Connection connection, Date cutoff, List<String> candidates) throws SQLException {
+        List<String> keys = new ArrayList<>(candidates.size());
+        String placeholders = String.join(",", Collections.nCopies(candidates.size(), "?"));
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                SQL_LOCK_CHUNK_PREFIX + placeholders + ") ORDER BY ProjectNumber FOR UPDATE")) {
+            pstmt.setDate(1, cutoff);
+            for (int i = 0; i < candidates.size(); i++) {
+                pstmt.setString(i + 2, candidates.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString(1));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private void moveChunk(Connection connection, List<String> keys) throws SQLException {
+        String placeholders = String.join(",", Collections.nCopies(keys.size(), "?"));
+        String copy = "INSERT INTO project_archive (" + AppConstants.PROJECT_COLUMNS + ") "
+                    + "SELECT " + AppConstants.PROJECT_COLUMNS + " FROM project WHERE ProjectNumber IN (" + placeholders + ")";
+        String delete = "DELETE FROM project WHERE ProjectNumber IN (" + placeholders + ")";
+
+        try (PreparedStatement copyStmt = connection.prepareStatement(copy);
+             PreparedStatement deleteStmt = connection.prepareStatement(delete)) {
+            for (int i = 0; i < keys.size(); i++) {
+                copyStmt.setString(i + 1, keys.get(i));
+                deleteStmt.setString(i + 1, keys.get(i));
+            }
+            int copied = copyStmt.executeUpdate();
+            int deleted = deleteStmt.executeUpdate();
+            if (copied != keys.size() || deleted != keys.size()) {
+                throw new SQLException(String.format(
+                    "Archive chunk mismatch: locked %d, copied %d, deleted %d", keys.size(), copied, deleted));
+            }
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package service;
+
+import config.AppConfig;
+import enums.EntityType;
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import exception.DatabaseException;
+import exception.EntityNotFoundException;
+import exception.ValidationException;
+import monitoring.ServiceCallEvent;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Applies one change to every project matching a filter: finalise, reassign a person
+ * or shift deadlines.
+ *
+ * <p>Like {@link ArchiveService}, the work is split into chunks ordered by project
+ * number. Each chunk reads the next {@code chunkSize} matching keys without locking,
+ * locks those rows by primary key with {@code SELECT ... FOR UPDATE}, checking the
+ * filter again, and changes them with a single
+ * {@code UPDATE ... WHERE ProjectNumber IN (...)}, then commits, so no lock is held for
+ * longer than one chunk, only the chunk's own rows are locked, and a failed run leaves
+ * earlier chunks applied. Every changed
+ * row has its {@code Version} bumped, so editors holding an older copy get an
+ * optimistic lock conflict rather than overwriting the bulk change.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class BulkProjectService {
+
+    /**
+     * Which projects an operation applies to. Conditions are combined with {@code AND}.
+     */
+    public static final class Filter {
+        private final List<String> conditions;
+        private final List<Object> parameters;
+
+        private Filter(List<String> conditions, List<Object> parameters) {
+            this.conditions = conditions;
+            this.parameters = parameters;
+        }
+
+        /**
+         * @return Filter matching every project
+         */
+        public static Filter all() {
+            return new Filter(List.of(), List.of());
+        }
+
+        /**
+         * @return Projects whose fee has been paid in full
+         */
+        public Filter fullyPaid() {
+            return and("TotalPaid >= TotalFee");
+        }
+
+        /**
+         * @param role Architect, contractor or customer
+         * @param personId Person assigned in that role
+         * @return Projects assigned to the person
+         */
+        public Filter assignedTo(EntityType role, String personId) {
+            return and(personColumn(role) + " = ?", personId);
+        }
+
+        /**
+         * @param projectNumbers Project numbers to restrict the operation to
+         * @return Projects with one of the given numbers
+         */
+        public Filter projectNumbers(Collection<String> projectNumbers) {
+            if (projectNumbers.isEmpty()) {
+                return and("1 = 0");
+            }
+            return and("ProjectNumber IN (" + String.join(", ", Collections.nCopies(projectNumbers.size(), "?")) + ")",
+                       projectNumbers.toArray());
+        }
+
+        Filter and(String condition, Object... values) {
+            List<String> moreConditions = new ArrayList<>(conditions);
+            moreConditions.add(condition);
+            List<Object> moreParameters = new ArrayList<>(parameters);
+            Collections.addAll(moreParameters, values);
+            return new Filter(moreConditions, moreParameters);
+        }
+
+        List<Object> getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public String toString() {
+            return conditions.isEmpty() ? "all projects" : String.join(" AND ", conditions);
+        }
+    }
+
+    /**
+     * One change that can be applied to many projects.
+     */
+    public static final class Operation {
+        private final String name;
+        private final String assignments;
+        private final List<Object> parameters;
+        private final String precondition;
+        private final ProjectEvent.Type eventType;
+        private final EntityType targetRole;
+
+        private Operation(String name, String assignments, List<Object> parameters, String precondition,
+                          ProjectEvent.Type eventType, EntityType targetRole) {
+            this.name = name;
+            this.assignments = assignments;
+            this.parameters = parameters;
+            this.precondition = precondition;
+            this.eventType = eventType;
+            this.targetRole = targetRole;
+        }
+
+        /**
+         * @return Marks open projects as finalised with today's completion date
+         */
+        public static Operation finalise() {
+            return new Operation("Finalised", "Finalised = 'Yes', CompletionDate = CURRENT_DATE", List.of(),
+                                 "Finalised = 'No'", ProjectEvent.Type.FINALISED, null);
+        }
+
+        /**
+         * @param role Architect, contractor or customer
+         * @param toPersonId Person taking over the projects
+         * @return Assigns projects to another person in the same role
+         */
+        public static Operation reassign(EntityType role, String toPersonId) {
+            String column = personColumn(role);
+            return new Operation("Reassigned", column + " = ?", List.of(toPersonId), column + " <> ?",
+                                 ProjectEvent.Type.UPDATED, role);
+        }
+
+        /**
+         * @param days Days to move the deadline by; negative values bring it forward
+         * @return Moves the deadline of open projects
+         */
+        public static Operation shiftDeadlines(int days) {
+            return new Operation("Shifted deadlines of", "Deadline = DATE_ADD(Deadline, INTERVAL ? DAY)", List.of(days),
+                                 "Finalised = 'No'", ProjectEvent.Type.UPDATED, null);
+        }
+
+        /**
+         * Parameters bound to the precondition; only a reassignment has one, the target itself.
+         */
+        List<Object> getPreconditionParameters() {
+            return targetRole != null ? parameters : List.of();
+        }
+    }
+
+    /**
+     * Outcome of one chunk, reported as soon as it commits.
+     */
+    public static final class ChunkSummary {
+        private final int chunk;
+        private final int rows;
+        private final String firstKey;
+        private final String lastKey;
+        private final long elapsedMillis;
+
+        ChunkSummary(int chunk, int rows, String firstKey, String lastKey, long elapsedMillis) {
+            this.chunk = chunk;
+            this.rows = rows;
+            this.firstKey = firstKey;
+            this.lastKey = lastKey;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getChunk() {
+            return chunk;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Chunk %d: %d projects (%s..%s) in %d ms", chunk, rows, firstKey, lastKey, elapsedMillis);
+        }
+    }
+
+    /**
+     * Summary of a bulk run.
+     */
+    public static final class BulkResult {
+        private final String operation;
+        private final int chunks;
+        private final int rows;
+        private final long elapsedMillis;
+
+        BulkResult(String operation, int chunks, int rows, long elapsedMillis) {
+            this.operation = operation;
+            this.chunks = chunks;
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %d projects in %d chunks (%d ms)", operation, rows, chunks, elapsedMillis);
+        }
+    }
+
+    /**
+     * Applies an operation using the configured chunk size and pause
+     * ({@code bulk.chunk.size}, {@code bulk.chunk.pause.ms}).
+     *
+     * @param connection Database connection
+     * @param operation Change to apply
+     * @param filter Projects to apply it to
+     * @param listener Receives a summary after each chunk commits
+     * @return Summary of the run
+     * @throws EntityNotFoundException if a reassignment targets an unknown person
+     * @throws DatabaseException if a chunk fails; earlier chunks stay applied
+     */
+    public BulkResult apply(Connection connection, Operation operation, Filter filter, Consumer<ChunkSummary> listener)
+            throws EntityNotFoundException, DatabaseException {
+        return apply(connection, operation, filter, AppConfig.getIntProperty("bulk.chunk.size", 500),
+                     AppConfig.getIntProperty("bulk.chunk.pause.ms", 20), listener);
+    }
+
+    /**
+     * Applies an operation to every matching project, one chunk per transaction.
+     *
+     * @param connection Database connection
+     * @param operation Change to apply
+     * @param filter Projects to apply it to
+     * @param chunkSize Maximum rows per transaction
+     * @param pauseMillis Pause between chunks to leave room for other writers
+     * @param listener Receives a summary after each chunk commits
+     * @return Summary of the run
+     * @throws EntityNotFoundException if a reassignment targets an unknown person
+     * @throws DatabaseException if a chunk fails; earlier chunks stay applied
+     */
+    public BulkResult apply(Connection connection, Operation operation, Filter filter, int chunkSize, int pauseMillis,
+                            Consumer<ChunkSummary> listener) throws EntityNotFoundException, DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("BulkProjectService", "apply")) {
+            Filter effective = filter.and(operation.precondition, operation.getPreconditionParameters().toArray());
+            String selectSql = buildSelectChunkSql(effective);
+            long started = System.currentTimeMillis();
+            int chunks = 0;
+            int rows = 0;
+            String lastKey = "";
+
+            try {
+                requireTarget(connection, operation);
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    while (true) {
+                        long chunkStarted = System.currentTimeMillis();
+                        List<String> candidates = selectChunk(connection, selectSql, effective, lastKey, chunkSize);
+                        if (candidates.isEmpty()) {
+                            connection.commit();
+                            break;
+                        }
+                        lastKey = candidates.get(candidates.size() - 1);
+                        List<String> keys = lockChunk(connection, effective, candidates);
+                        if (keys.isEmpty()) {
+                            connection.commit();
+                            continue;
+                        }
+                        updateChunk(connection, operation, keys);
+                        connection.commit();
+
+                        chunks++;
+                        rows += keys.size();
+                        for (String key : keys) {
+                            ProjectEventBus.getDefault().publish(operation.eventType, key);
+                        }
+                        ChunkSummary summary = new ChunkSummary(chunks, keys.size(), keys.get(0),
+                                                                keys.get(keys.size() - 1),
+                                                                System.currentTimeMillis() - chunkStarted);
+                        LoggerUtil.debug(Subsystem.SERVICE, "{} {}", operation.name, summary);
+                        if (listener != null) {
+                            listener.accept(summary);
+                        }
+                        if (pauseMillis > 0) {
+                            Thread.sleep(pauseMillis);
+                        }
+                    }
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                String message = operation.name + " failed after " + rows + " projects";
+                LoggerUtil.error(message, e);
+                throw new DatabaseException(message, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LoggerUtil.warning(Subsystem.SERVICE, "{} interrupted after {} projects", operation.name, rows);
+            }
+
+            event.setRows(rows);
+            BulkResult result = new BulkResult(operation.name, chunks, rows, System.currentTimeMillis() - started);
+            LoggerUtil.info(Subsystem.SERVICE, "{} where {}", result, filter);
+            return result;
+        }
+    }
+
+    /**
+     * Parses a role name as typed on the command line.
+     *
+     * @param text "architect", "contractor" or "customer"
+     * @return The matching role
+     * @throws ValidationException if the text names no role
+     */
+    public static EntityType parseRole(String text) throws ValidationException {
+        EntityType role = EntityType.fromDisplayName(text);
+        if (role == null || role == EntityType.PROJECT) {
+            throw new ValidationException("Role must be architect, contractor or customer", "role");
+        }
+        return role;
+    }
+
+    static String buildSelectChunkSql(Filter filter) {
+        StringBuilder sql = new StringBuilder("SELECT ProjectNumber FROM project WHERE ");
+        for (String condition : filter.conditions) {
+            sql.append(condition).append(" AND ");
+        }
+        return sql.append("ProjectNumber > ? ORDER BY ProjectNumber LIMIT ?").toString();
+    }
+
+    static String buildLockChunkSql(Filter filter, int keys) {
+        StringBuilder sql = new StringBuilder("SELECT ProjectNumber FROM project FORCE INDEX (PRIMARY) WHERE ");
+        for (String condition : filter.conditions) {
+            sql.append(condition).append(" AND ");
+        }
+        return sql.append("ProjectNumber IN (").append(String.join(", ", Collections.nCopies(keys, "?")))
+                  .append(") ORDER BY ProjectNumber FOR UPDATE").toString();
+    }
+
+    static String buildUpdateSql(Operation operation, int keys) {
+        return "UPDATE project SET " + operation.assignments + ", Version = Version + 1 WHERE ProjectNumber IN ("
+               + String.join(", ", Collections.nCopies(keys, "?")) + ")";
+    }
+
+    private static String personColumn(EntityType role) {
+        if (role == EntityType.PROJECT) {
+            throw new IllegalArgumentException("Projects are not assigned to projects");
+        }
+        return role.getIdColumn();
+    }
+
+    /**
+     * Checks a reassignment target up front; the update trigger would otherwise reject
+     * the first chunk row by row.
+     */
+    private void requireTarget(Connection connection, Operation operation)
+            throws SQLException, EntityNotFoundException {
+        if (operation.targetRole == null) {
+            return;
+        }
+        EntityType role = operation.targetRole;
+        String personId = (String) operation.parameters.get(0);
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT 1 FROM " + role.getTableName() + " WHERE " + role.getIdColumn() + " = ?")) {
+            pstmt.setString(1, personId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new EntityNotFoundException(role.getDisplayName(), personId);
+                }
+            }
+        }
+    }
+
+    List<String> selectChunk(Connection connection, String sql, Filter filter, String afterKey, int chunkSize)
+            throws SQLException {
+        List<String> keys = new ArrayList<>(chunkSize);
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (Object parameter : filter.getParameters()) {
+                pstmt.setObject(index++, parameter);
+            }
+            pstmt.setString(index++, afterKey);
+            pstmt.setInt(index, chunkSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString(1));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Locks the candidates that still match the filter, by primary key, so only those rows are locked.
+     *
+     * @return The locked keys in key order; candidates changed since they were read are left out
+     */
+    List<String> lockChunk(Connection connection, Filter filter, List<String> candidates) throws SQLException {
+        List<String> keys = new ArrayList<>(candidates.size());
+        try (PreparedStatement pstmt = connection.prepareStatement(buildLockChunkSql(filter, candidates.size()))) {
+            int index = 1;
+            for (Object parameter : filter.getParameters()) {
+                pstmt.setObject(index++, parameter);
+            }
+            for (String candidate : candidates) {
+                pstmt.setString(index++, candidate);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString(1));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private void updateChunk(Connection connection, Operation operation, List<String> keys) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(buildUpdateSql(operation, keys.size()))) {
+            int index = 1;
+            for (Object parameter : operation.parameters) {
+                pstmt.setObject(index++, parameter);
+            }
+            for (String key : keys) {
+                pstmt.setString(index++, key);
+            }
+            int updated = pstmt.executeUpdate();
+            if (updated != keys.size()) {
+                throw new SQLException(String.format(
+                    "Bulk chunk mismatch: locked %d, updated %d", keys.size(), updated));
+            }
+        }
+    }
+}
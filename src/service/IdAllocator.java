@@ -0,0 +1,158 @@
+package service;
+
+import enums.EntityType;
+import exception.DatabaseException;
+import util.ConnectionPool;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hi/lo identifier allocator for architects, contractors, customers and projects.
+ *
+ * <p>Each {@link EntityType} has a row in {@code id_sequence} holding the next "hi"
+ * value and a block size. Reserving a block is one atomic
+ * {@code UPDATE ... SET NextHi = LAST_INSERT_ID(NextHi + 1)}, which gives this
+ * instance the exclusive range {@code [hi * BlockSize, (hi + 1) * BlockSize)}. IDs are
+ * then handed out from memory until the block runs out, so most allocations need no
+ * round trip and several application instances never receive the same ID.</p>
+ *
+ * <p>IDs can also be typed in by hand, so a reserved block may already contain some.
+ * Reserving looks the whole block up in one indexed {@code IN (...)} query (for projects
+ * in {@code project_number_key}, which also holds archived numbers) and skips the IDs
+ * found there.</p>
+ *
+ * <p>Unused IDs in a block are lost on shutdown; identifiers are unique, not gapless.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class IdAllocator {
+    static final String SQL_RESERVE =
+        "UPDATE id_sequence SET NextHi = LAST_INSERT_ID(NextHi + 1) WHERE EntityType = ?";
+    private static final String SQL_READ_RESERVED =
+        "SELECT LAST_INSERT_ID(), BlockSize FROM id_sequence WHERE EntityType = ?";
+
+    private static final Map<EntityType, Block> blocks = new EnumMap<>(EntityType.class);
+
+    static {
+        for (EntityType type : EntityType.values()) {
+            blocks.put(type, new Block());
+        }
+    }
+
+    private IdAllocator() {
+    }
+
+    /**
+     * Allocates the next identifier for an entity type, e.g. "ARC1400" or "PRJ2301".
+     *
+     * @param type Entity type
+     * @return A new identifier, unique across all application instances
+     * @throws DatabaseException if a new block cannot be reserved
+     */
+    public static String nextId(EntityType type) throws DatabaseException {
+        return type.formatId(nextNumber(type));
+    }
+
+    /**
+     * Allocates the next sequence number for an entity type.
+     *
+     * @param type Entity type
+     * @return A new sequence number
+     * @throws DatabaseException if a new block cannot be reserved
+     */
+    public static long nextNumber(EntityType type) throws DatabaseException {
+        Block block = blocks.get(type);
+        synchronized (block) {
+            while (true) {
+                if (block.next >= block.limit) {
+                    reserve(type, block);
+                }
+                long number = block.next++;
+                if (!block.taken.contains(number)) {
+                    return number;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserves a fresh block on a dedicated pooled connection so the reservation is
+     * committed immediately and never joins the caller's transaction.
+     */
+    private static void reserve(EntityType type, Block block) throws DatabaseException {
+        try (Connection connection = ConnectionPool.getConnection()) {
+            try (PreparedStatement update = connection.prepareStatement(SQL_RESERVE)) {
+                update.setString(1, type.name());
+                if (update.executeUpdate() == 0) {
+                    throw new DatabaseException("No id_sequence row for " + type.name());
+                }
+            }
+            try (PreparedStatement select = connection.prepareStatement(SQL_READ_RESERVED)) {
+                select.setString(1, type.name());
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    long hi = rs.getLong(1) - 1;
+                    int blockSize = rs.getInt(2);
+                    block.next = hi * blockSize;
+                    block.limit = block.next + blockSize;
+                }
+            }
+            block.taken = findTaken(connection, type, block.next, block.limit);
+            LoggerUtil.debug(Subsystem.SERVICE, "Reserved {} IDs {}-{}, {} already taken", type, block.next,
+                             block.limit - 1, block.taken.size());
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to reserve ID block for " + type, e);
+            throw new DatabaseException("Failed to allocate " + type.getDisplayName() + " ID", e);
+        }
+    }
+
+    /**
+     * Finds the sequence numbers in {@code [from, to)} whose identifiers are already in use.
+     */
+    static Set<Long> findTaken(Connection connection, EntityType type, long from, long to) throws SQLException {
+        String table = type == EntityType.PROJECT ? "project_number_key" : type.getTableName();
+        Set<Long> taken = new HashSet<>();
+        final int chunk = 1000;
+        for (long start = from; start < to; start += chunk) {
+            List<String> ids = new ArrayList<>();
+            for (long number = start; number < Math.min(to, start + chunk); number++) {
+                ids.add(type.formatId(number));
+            }
+            String query = "SELECT " + type.getIdColumn() + " FROM " + table + " WHERE " + type.getIdColumn()
+                + " IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+            try (PreparedStatement select = connection.prepareStatement(query)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    select.setString(i + 1, ids.get(i));
+                }
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        taken.add(Long.parseLong(rs.getString(1).substring(type.getPrefix().length())));
+                    }
+                }
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Range of IDs reserved by this instance. Guarded by its own monitor.
+     */
+    private static final class Block {
+        private long next;
+        private long limit;
+        private Set<Long> taken = Collections.emptySet();
+    }
+}
@@ -0,0 +1,104 @@
+package service;
+
+import exception.DatabaseException;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the yearly open-project partitions of {@code project} ahead of the calendar.
+ *
+ * <p>The table is partitioned by {@code RANGE COLUMNS (Finalised, Deadline)}: one
+ * {@code p_open_YYYY} partition per deadline year for open projects, a catch-all
+ * {@code p_open_future} and {@code p_final} for finalised projects. This class splits
+ * {@code p_open_future} so that a partition exists for every year up to
+ * {@code yearsAhead} years from now. Splitting the catch-all only rewrites the rows in
+ * it, which are projects with deadlines far in the future.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class PartitionMaintenance {
+    static final String OPEN_PREFIX = "p_open_";
+    static final String OPEN_FUTURE = "p_open_future";
+
+    private static final String SQL_OPEN_PARTITIONS =
+        "SELECT PARTITION_NAME FROM INFORMATION_SCHEMA.PARTITIONS "
+        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'project' AND PARTITION_NAME LIKE 'p\\_open\\_%'";
+
+    /**
+     * Adds any missing yearly partitions up to {@code yearsAhead} years after the current year.
+     *
+     * @param connection Database connection
+     * @param yearsAhead Number of future years that must have their own partition
+     * @return Number of partitions added
+     * @throws DatabaseException if the partition layout cannot be read or changed
+     */
+    public int ensureFuturePartitions(Connection connection, int yearsAhead) throws DatabaseException {
+        try {
+            int lastYear = findLastOpenYear(connection);
+            String ddl = buildReorganizeSql(lastYear, LocalDate.now().getYear() + yearsAhead);
+            if (ddl == null) {
+                LoggerUtil.info(Subsystem.SERVICE, "Project partitions already cover {} years ahead", yearsAhead);
+                return 0;
+            }
+            try (Statement stmt = connection.createStatement()) {
+                // Rewrites the catch-all partition, which can outlast db.query.timeout
+                stmt.setQueryTimeout(0);
+                stmt.execute(ddl);
+            }
+            int added = LocalDate.now().getYear() + yearsAhead - lastYear;
+            LoggerUtil.info(Subsystem.SERVICE, "Added {} project partitions", added);
+            return added;
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to maintain project partitions", e);
+            throw new DatabaseException("Failed to maintain project partitions", e);
+        }
+    }
+
+    /**
+     * Builds the {@code REORGANIZE PARTITION} statement that splits {@code p_open_future}
+     * into one partition per year after {@code lastYear} up to {@code targetYear}.
+     *
+     * @param lastYear   Last year that already has a partition
+     * @param targetYear Last year that should have a partition
+     * @return The DDL, or null if nothing needs to be added
+     */
+    static String buildReorganizeSql(int lastYear, int targetYear) {
+        if (targetYear <= lastYear) {
+            return null;
+        }
+        List<String> partitions = new ArrayList<>();
+        for (int year = lastYear + 1; year <= targetYear; year++) {
+            partitions.add(String.format("PARTITION %s%d VALUES LESS THAN ('No', '%d-01-01')",
+                                         OPEN_PREFIX, year, year + 1));
+        }
+        partitions.add("PARTITION " + OPEN_FUTURE + " VALUES LESS THAN ('No', MAXVALUE)");
+        return "ALTER TABLE project REORGANIZE PARTITION " + OPEN_FUTURE + " INTO ("
+            + String.join(", ", partitions) + ")";
+    }
+
+    private int findLastOpenYear(Connection connection) throws SQLException, DatabaseException {
+        int lastYear = -1;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SQL_OPEN_PARTITIONS)) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                if (!OPEN_FUTURE.equals(name)) {
+                    lastYear = Math.max(lastYear, Integer.parseInt(name.substring(OPEN_PREFIX.length())));
+                }
+            }
+        }
+        if (lastYear < 0) {
+            throw new DatabaseException("project is not partitioned; apply migration V7 first");
+        }
+        return lastYear;
+    }
+}
@@ -0,0 +1,268 @@
+package service;
+
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import exception.DatabaseException;
+import exception.EntityNotFoundException;
+import exception.ValidationException;
+import model.Payment;
+import monitoring.ServiceCallEvent;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records payments in the append-only {@code payment} ledger and queries it.
+ *
+ * <p>A payment is a single {@code INSERT}; the {@code after_payment_insert} trigger adds
+ * the amount to {@code project.TotalPaid} in the same statement, so the balance is never
+ * read, changed and written back by the application and concurrent postings to one
+ * project cannot lose each other's amounts. The balance rules of the project table still
+ * apply: a payment that would take the total above the fee, or below zero, is rejected
+ * with the row it would have added. Payments do not change the project's version, so
+ * they never force someone editing the project to start again.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class PaymentService {
+
+    /** Error raised by the payment trigger for an unknown project number. */
+    private static final int ER_NO_REFERENCED_ROW = 1452;
+    /** Error raised when a CHECK constraint such as {@code TotalPaid >= 0} fails. */
+    private static final int ER_CHECK_CONSTRAINT_VIOLATED = 3819;
+    private static final int MAX_REFERENCE_LENGTH = 100;
+
+    /** Reference of the payment that carries the amount already paid when a project is created. */
+    public static final String OPENING_BALANCE = "Opening balance";
+
+    static final String SQL_INSERT_PAYMENT =
+        "INSERT INTO payment (ProjectNumber, Amount, PaymentDate, Reference) VALUES (?, ?, ?, ?)";
+
+    static final String SQL_SELECT_BALANCE = "SELECT TotalPaid FROM project WHERE ProjectNumber = ?";
+
+    static final String SQL_PAYMENTS_FOR_PROJECT =
+        "SELECT PaymentID, ProjectNumber, Amount, PaymentDate, Reference FROM payment "
+        + "WHERE ProjectNumber = ? ORDER BY PaymentDate, PaymentID";
+
+    static final String SQL_PAYMENTS_BETWEEN =
+        "SELECT PaymentID, ProjectNumber, Amount, PaymentDate, Reference FROM payment "
+        + "WHERE PaymentDate BETWEEN ? AND ? ORDER BY PaymentDate, PaymentID";
+
+    /** Answered from idx_payment_date alone. */
+    static final String SQL_TOTALS_BETWEEN =
+        "SELECT ProjectNumber, SUM(Amount) FROM payment "
+        + "WHERE PaymentDate BETWEEN ? AND ? GROUP BY ProjectNumber ORDER BY ProjectNumber";
+
+    /**
+     * Records a payment and returns the project's new balance. Runs in its own
+     * transaction unless the connection is already in one, in which case the caller
+     * commits and, once committed, publishes {@link ProjectEvent.Type#PAYMENT_CHANGED};
+     * publishing earlier would announce a payment that may still be rolled back.
+     *
+     * @param connection Database connection
+     * @param projectNumber Project paid for
+     * @param amount Amount received; negative for a refund or correction
+     * @param paymentDate Date the payment was made
+     * @param reference Optional note, e.g. an invoice or bank reference
+     * @return Total paid on the project including this payment
+     * @throws ValidationException if the payment is invalid or would overpay or overdraw the project
+     * @throws EntityNotFoundException if the project does not exist or has been archived
+     * @throws DatabaseException if database error occurs
+     */
+    public double recordPayment(Connection connection, String projectNumber, double amount, LocalDate paymentDate,
+                                String reference) throws ValidationException, EntityNotFoundException, DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("PaymentService", "recordPayment")) {
+            validatePayment(amount, paymentDate, reference);
+            double totalPaid;
+            boolean autoCommit;
+            try {
+                autoCommit = connection.getAutoCommit();
+                if (autoCommit) {
+                    connection.setAutoCommit(false);
+                }
+                try {
+                    totalPaid = postPayment(connection, projectNumber, amount, paymentDate, reference);
+                    if (autoCommit) {
+                        connection.commit();
+                    }
+                } catch (SQLException e) {
+                    if (autoCommit) {
+                        connection.rollback();
+                    }
+                    throw e;
+                } finally {
+                    if (autoCommit) {
+                        connection.setAutoCommit(true);
+                    }
+                }
+            } catch (SQLException e) {
+                throw translate(e, projectNumber, "Failed to record payment for project " + projectNumber);
+            }
+            event.setRows(1);
+            LoggerUtil.debug(Subsystem.SERVICE, "Recorded payment of {} on project {}; total paid {}",
+                             amount, projectNumber, totalPaid);
+            if (autoCommit) {
+                ProjectEventBus.getDefault().publish(ProjectEvent.Type.PAYMENT_CHANGED, projectNumber,
+                                                     totalPaid - amount, totalPaid);
+            }
+            return totalPaid;
+        }
+    }
+
+    /**
+     * Inserts a payment and reads back the balance it produced, within the caller's
+     * transaction. The trigger's update holds the project row lock until the caller
+     * commits, so the balance read here is exactly the one this payment made.
+     *
+     * @return Total paid including the payment
+     */
+    static double postPayment(Connection connection, String projectNumber, double amount, LocalDate paymentDate,
+                              String reference) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(SQL_INSERT_PAYMENT);
+             PreparedStatement balance = connection.prepareStatement(SQL_SELECT_BALANCE)) {
+            insert.setString(1, projectNumber);
+            insert.setDouble(2, amount);
+            insert.setDate(3, Date.valueOf(paymentDate));
+            insert.setString(4, reference);
+            insert.executeUpdate();
+
+            balance.setString(1, projectNumber);
+            try (ResultSet rs = balance.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Project " + projectNumber + " disappeared while recording a payment");
+                }
+                return rs.getDouble(1);
+            }
+        }
+    }
+
+    /**
+     * Explains a failed posting: the trigger's unknown-project error and the balance
+     * rules are thrown as such, anything else is logged and returned for the caller to throw.
+     */
+    static DatabaseException translate(SQLException e, String projectNumber, String message)
+            throws ValidationException, EntityNotFoundException {
+        if (e.getErrorCode() == ER_NO_REFERENCED_ROW) {
+            throw new EntityNotFoundException("Project", projectNumber);
+        }
+        if (e.getErrorCode() == ER_CHECK_CONSTRAINT_VIOLATED) {
+            throw new ValidationException("Total paid cannot be negative", "amount");
+        }
+        if ("45000".equals(e.getSQLState())) {
+            throw new ValidationException(e.getMessage(), "amount");
+        }
+        LoggerUtil.error(message, e);
+        return new DatabaseException(message, e);
+    }
+
+    /**
+     * Lists a project's payments, oldest first.
+     *
+     * @param connection Database connection
+     * @param projectNumber Project number
+     * @return Payments of the project; empty if there are none
+     * @throws DatabaseException if database error occurs
+     */
+    public List<Payment> findPayments(Connection connection, String projectNumber) throws DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("PaymentService", "findPayments")) {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_PAYMENTS_FOR_PROJECT)) {
+                pstmt.setString(1, projectNumber);
+                List<Payment> payments = readPayments(pstmt);
+                event.setRows(payments.size());
+                return payments;
+            } catch (SQLException e) {
+                LoggerUtil.error("Failed to load payments for project " + projectNumber, e);
+                throw new DatabaseException("Failed to load payments", e);
+            }
+        }
+    }
+
+    /**
+     * Lists all payments made in a period, oldest first.
+     *
+     * @param connection Database connection
+     * @param from First day of the period
+     * @param to Last day of the period, inclusive
+     * @return Payments in the period
+     * @throws DatabaseException if database error occurs
+     */
+    public List<Payment> findPaymentsBetween(Connection connection, LocalDate from, LocalDate to)
+            throws DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("PaymentService", "findPaymentsBetween")) {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_PAYMENTS_BETWEEN)) {
+                pstmt.setDate(1, Date.valueOf(from));
+                pstmt.setDate(2, Date.valueOf(to));
+                List<Payment> payments = readPayments(pstmt);
+                event.setRows(payments.size());
+                return payments;
+            } catch (SQLException e) {
+                LoggerUtil.error("Failed to load payments between " + from + " and " + to, e);
+                throw new DatabaseException("Failed to load payments", e);
+            }
+        }
+    }
+
+    /**
+     * Sums the payments made in a period per project.
+     *
+     * @param connection Database connection
+     * @param from First day of the period
+     * @param to Last day of the period, inclusive
+     * @return Net amount received per project number, in project number order
+     * @throws DatabaseException if database error occurs
+     */
+    public Map<String, Double> totalsByProject(Connection connection, LocalDate from, LocalDate to)
+            throws DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("PaymentService", "totalsByProject")) {
+            Map<String, Double> totals = new LinkedHashMap<>();
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_TOTALS_BETWEEN)) {
+                pstmt.setDate(1, Date.valueOf(from));
+                pstmt.setDate(2, Date.valueOf(to));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        totals.put(rs.getString(1), rs.getDouble(2));
+                    }
+                }
+            } catch (SQLException e) {
+                LoggerUtil.error("Failed to total payments between " + from + " and " + to, e);
+                throw new DatabaseException("Failed to total payments", e);
+            }
+            event.setRows(totals.size());
+            return totals;
+        }
+    }
+
+    static void validatePayment(double amount, LocalDate paymentDate, String reference) throws ValidationException {
+        if (amount == 0 || Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new ValidationException("Payment amount must be a non-zero number", "amount");
+        }
+        if (paymentDate == null) {
+            throw new ValidationException("Payment date is required", "paymentDate");
+        }
+        if (reference != null && reference.length() > MAX_REFERENCE_LENGTH) {
+            throw new ValidationException("Reference cannot exceed " + MAX_REFERENCE_LENGTH + " characters", "reference");
+        }
+    }
+
+    private static List<Payment> readPayments(PreparedStatement pstmt) throws SQLException {
+        List<Payment> payments = new ArrayList<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                payments.add(new Payment(rs.getLong("PaymentID"), rs.getString("ProjectNumber"), rs.getDouble("Amount"),
+                                         rs.getDate("PaymentDate").toLocalDate(), rs.getString("Reference")));
+            }
+        }
+        return payments;
+    }
+}
@@ -0,0 +1,411 @@
+package service;
+
+import enums.EntityType;
+import exception.DatabaseException;
+import exception.ValidationException;
+import model.Architect;
+import model.Contractor;
+import model.Customer;
+import model.Person;
+import schedule.WorkloadIndex;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+import util.ValidationEngine;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Data access for architects, contractors and customers, driven by {@link EntityType}.
+ *
+ * <p>The three people tables share the same columns, so one repository serves all of
+ * them; only the table, ID column and model class differ. Writes go out as multi-row
+ * {@code INSERT} statements of up to {@value #CHUNK_SIZE} rows, so syncing a directory
+ * of N people costs about N / {@value #CHUNK_SIZE} round trips. {@link #upsertAll}
+ * matches on the unique {@code Email} alone: in one transaction it looks the emails up
+ * with a locking read, updates the people found and inserts the rest, so running the same
+ * sync twice leaves the table unchanged. The locking read also holds off a concurrent
+ * sync of the same emails until this one commits, instead of letting both insert. It
+ * does not use {@code ON DUPLICATE KEY UPDATE}, which would also fire on an ID that
+ * belongs to someone else and overwrite them.</p>
+ *
+ * @param <T> Person subclass stored in the table
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class PersonRepository<T extends Person> {
+    private static final int CHUNK_SIZE = 500;
+    private static final String COLUMNS = "FirstName, Surname, Telephone, Email, PhysicalAddress";
+
+    /**
+     * Creates a model instance from a row.
+     *
+     * @param <T> Person subclass
+     */
+    @FunctionalInterface
+    public interface Factory<T extends Person> {
+        T create(String id, String firstName, String surname, String telephone, String email, String physicalAddress);
+    }
+
+    private final EntityType type;
+    private final Factory<T> factory;
+
+    /**
+     * @param type    Entity type whose table this repository reads and writes
+     * @param factory Constructor for the model class, e.g. {@code Architect::new}
+     */
+    public PersonRepository(EntityType type, Factory<T> factory) {
+        if (type == EntityType.PROJECT) {
+            throw new IllegalArgumentException("PersonRepository does not handle projects");
+        }
+        this.type = type;
+        this.factory = factory;
+    }
+
+    public static PersonRepository<Architect> architects() {
+        return new PersonRepository<>(EntityType.ARCHITECT, Architect::new);
+    }
+
+    public static PersonRepository<Contractor> contractors() {
+        return new PersonRepository<>(EntityType.CONTRACTOR, Contractor::new);
+    }
+
+    public static PersonRepository<Customer> customers() {
+        return new PersonRepository<>(EntityType.CUSTOMER, Customer::new);
+    }
+
+    /**
+     * Returns the repository for a display name such as "Architect".
+     *
+     * @param displayName Entity display name
+     * @return The repository
+     * @throws IllegalArgumentException if the name is not a person type
+     */
+    public static PersonRepository<? extends Person> forDisplayName(String displayName) {
+        EntityType type = EntityType.fromDisplayName(displayName);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown entity type: " + displayName);
+        }
+        switch (type) {
+            case ARCHITECT:
+                return architects();
+            case CONTRACTOR:
+                return contractors();
+            case CUSTOMER:
+                return customers();
+            default:
+                throw new IllegalArgumentException("Not a person type: " + displayName);
+        }
+    }
+
+    public EntityType getType() {
+        return type;
+    }
+
+    /**
+     * Creates a model instance of this repository's type.
+     */
+    public T create(String id, String firstName, String surname, String telephone, String email,
+                    String physicalAddress) {
+        return factory.create(id, firstName, surname, telephone, email, physicalAddress);
+    }
+
+    /**
+     * Inserts one person.
+     *
+     * @param connection Database connection
+     * @param person Person to insert; an ID is allocated if it has none
+     * @throws ValidationException if the person is invalid
+     * @throws DatabaseException if the insert fails, e.g. on a duplicate ID or email
+     */
+    public void insert(Connection connection, T person) throws ValidationException, DatabaseException {
+        insertAll(connection, Collections.singletonList(person));
+    }
+
+    /**
+     * Inserts people in multi-row batches. Fails on the first duplicate ID or email.
+     *
+     * @param connection Database connection
+     * @param people People to insert; IDs are allocated for those without one
+     * @return Number of rows inserted
+     * @throws ValidationException if any person is invalid; nothing is written
+     * @throws DatabaseException if a batch fails; earlier batches stay written unless the caller rolls back
+     */
+    public int insertAll(Connection connection, List<T> people) throws ValidationException, DatabaseException {
+        validate(people);
+        int written = write(connection, people);
+        List<String> ids = new ArrayList<>(people.size());
+        for (T person : people) {
+            ids.add(person.getId());
+        }
+        WorkloadIndex.getDefault().addPeople(type, ids);
+        return written;
+    }
+
+    /**
+     * Inserts new people and updates existing ones, matching on {@code Email}. A person
+     * whose email already exists keeps the stored ID, which is set on the given object;
+     * names, telephone and address are overwritten. Safe to repeat. When the same email
+     * appears more than once, ignoring case, the last entry wins and the earlier ones are
+     * given its ID.
+     *
+     * <p>All of it is one transaction, unless the connection is already in one, in which
+     * case the caller commits.</p>
+     *
+     * @param connection Database connection
+     * @param people People to sync; IDs are allocated for new people without one
+     * @return The stored ID of each person, in the order given
+     * @throws ValidationException if any person is invalid, or a new person's ID belongs to
+     *         someone with another email; nothing is written
+     * @throws DatabaseException if a batch fails; nothing is written
+     */
+    public List<String> upsertAll(Connection connection, List<T> people) throws ValidationException, DatabaseException {
+        validate(people);
+        Map<String, T> latest = latestByEmail(people);
+
+        boolean autoCommit;
+        List<T> inserts;
+        try {
+            autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                inserts = upsertLocked(connection, new ArrayList<>(latest.values()));
+                if (autoCommit) {
+                    connection.commit();
+                }
+            } catch (SQLException | ValidationException | DatabaseException e) {
+                if (autoCommit) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to sync " + type.getTableName() + " rows", e);
+            throw new DatabaseException("Failed to sync " + type.getTableName() + " records", e);
+        }
+
+        List<String> inserted = new ArrayList<>(inserts.size());
+        for (T person : inserts) {
+            inserted.add(person.getId());
+        }
+        WorkloadIndex.getDefault().addPeople(type, inserted);
+        LoggerUtil.info(Subsystem.SERVICE, "Synced {} {} rows: {} inserted, {} updated", people.size(),
+                        type.getTableName(), inserts.size(), latest.size() - inserts.size());
+
+        List<String> ids = new ArrayList<>(people.size());
+        for (T person : people) {
+            person.setId(latest.get(person.getEmail().toLowerCase(Locale.ROOT)).getId());
+            ids.add(person.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Keeps the last entry for each email, ignoring case, in the order the emails first appear.
+     */
+    static <T extends Person> Map<String, T> latestByEmail(List<T> people) {
+        Map<String, T> latest = new LinkedHashMap<>();
+        for (T person : people) {
+            latest.put(person.getEmail().toLowerCase(Locale.ROOT), person);
+        }
+        return latest;
+    }
+
+    /**
+     * Locks the rows of the given emails, updates those found and inserts the rest.
+     * @return The people inserted
+     */
+    private List<T> upsertLocked(Connection connection, List<T> people)
+            throws ValidationException, DatabaseException {
+        List<String> emails = new ArrayList<>(people.size());
+        for (T person : people) {
+            emails.add(person.getEmail());
+        }
+        Map<String, T> existing = new LinkedHashMap<>();
+        for (T person : findBy(connection, "Email", emails, true)) {
+            existing.put(person.getEmail().toLowerCase(Locale.ROOT), person);
+        }
+        List<T> updates = new ArrayList<>();
+        List<T> inserts = new ArrayList<>();
+        List<String> givenIds = new ArrayList<>();
+        for (T person : people) {
+            T stored = existing.get(person.getEmail().toLowerCase(Locale.ROOT));
+            if (stored != null) {
+                person.setId(stored.getId());
+                updates.add(person);
+            } else {
+                inserts.add(person);
+                if (person.getId() != null && !person.getId().isEmpty()) {
+                    givenIds.add(person.getId());
+                }
+            }
+        }
+        if (!givenIds.isEmpty()) {
+            Map<String, T> taken = findByIds(connection, givenIds);
+            if (!taken.isEmpty()) {
+                T owner = taken.values().iterator().next();
+                throw new ValidationException(taken.size() + " new " + type.getTableName() + " record(s) reuse an "
+                    + "existing ID; first: " + owner.getId() + " belongs to " + owner.getEmail(), "id");
+            }
+        }
+
+        update(connection, updates);
+        write(connection, inserts);
+        return inserts;
+    }
+
+    /**
+     * Loads people by ID.
+     *
+     * @param connection Database connection
+     * @param ids IDs to look up
+     * @return Found people keyed by ID; missing IDs are absent
+     * @throws DatabaseException if database error occurs
+     */
+    public Map<String, T> findByIds(Connection connection, Collection<String> ids) throws DatabaseException {
+        Map<String, T> found = new LinkedHashMap<>();
+        for (T person : findBy(connection, type.getIdColumn(), ids, false)) {
+            found.put(person.getId(), person);
+        }
+        return found;
+    }
+
+    /**
+     * Loads people by email, ignoring case.
+     *
+     * @param connection Database connection
+     * @param emails Emails to look up
+     * @return Found people keyed by lower-case email; missing emails are absent
+     * @throws DatabaseException if database error occurs
+     */
+    public Map<String, T> findByEmails(Connection connection, Collection<String> emails) throws DatabaseException {
+        Map<String, T> found = new LinkedHashMap<>();
+        for (T person : findBy(connection, "Email", emails, false)) {
+            found.put(person.getEmail().toLowerCase(Locale.ROOT), person);
+        }
+        return found;
+    }
+
+    private void validate(List<T> people) throws ValidationException {
+        ValidationEngine.Report report = ValidationEngine.validatePeople(people.toArray(new Person[0]));
+        if (!report.isValid()) {
+            ValidationEngine.Violation first = report.getViolations().get(0);
+            throw new ValidationException(report.getInvalidRowCount() + " invalid " + type.getTableName()
+                + " record(s); first: row " + first.getRow() + " " + first.getMessage(), first.getField());
+        }
+    }
+
+    /**
+     * Inserts people already validated, allocating IDs for those without one.
+     */
+    private int write(Connection connection, List<T> people) throws DatabaseException {
+        int written = 0;
+        try {
+            for (T person : people) {
+                if (person.getId() == null || person.getId().isEmpty()) {
+                    person.setId(IdAllocator.nextId(type));
+                }
+            }
+            for (int from = 0; from < people.size(); from += CHUNK_SIZE) {
+                List<T> chunk = people.subList(from, Math.min(people.size(), from + CHUNK_SIZE));
+                try (PreparedStatement pstmt = connection.prepareStatement(buildInsert(chunk.size()))) {
+                    int index = 1;
+                    for (T person : chunk) {
+                        pstmt.setString(index++, person.getId());
+                        pstmt.setString(index++, person.getFirstName());
+                        pstmt.setString(index++, person.getSurname());
+                        pstmt.setString(index++, person.getTelephone());
+                        pstmt.setString(index++, person.getEmail());
+                        pstmt.setString(index++, person.getPhysicalAddress());
+                    }
+                    pstmt.executeUpdate();
+                }
+                written += chunk.size();
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to write " + type.getTableName() + " rows after " + written, e);
+            throw new DatabaseException("Failed to write " + type.getTableName() + " records", e);
+        }
+        LoggerUtil.debug(Subsystem.SERVICE, "Wrote {} {} rows", written, type.getTableName());
+        return written;
+    }
+
+    /**
+     * Overwrites the names, telephone and address of people already stored, by email.
+     */
+    private void update(Connection connection, List<T> people) throws DatabaseException {
+        if (people.isEmpty()) {
+            return;
+        }
+        String query = "UPDATE " + type.getTableName()
+            + " SET FirstName = ?, Surname = ?, Telephone = ?, PhysicalAddress = ? WHERE Email = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (int from = 0; from < people.size(); from += CHUNK_SIZE) {
+                for (T person : people.subList(from, Math.min(people.size(), from + CHUNK_SIZE))) {
+                    pstmt.setString(1, person.getFirstName());
+                    pstmt.setString(2, person.getSurname());
+                    pstmt.setString(3, person.getTelephone());
+                    pstmt.setString(4, person.getPhysicalAddress());
+                    pstmt.setString(5, person.getEmail());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to update " + type.getTableName() + " rows", e);
+            throw new DatabaseException("Failed to update " + type.getTableName() + " records", e);
+        }
+        LoggerUtil.debug(Subsystem.SERVICE, "Updated {} {} rows", people.size(), type.getTableName());
+    }
+
+    String buildInsert(int rows) {
+        return "INSERT INTO " + type.getTableName() + " (" + type.getIdColumn() + ", " + COLUMNS + ") VALUES "
+            + String.join(", ", Collections.nCopies(rows, "(?, ?, ?, ?, ?, ?)"));
+    }
+
+    private List<T> findBy(Connection connection, String column, Collection<String> keys, boolean forUpdate)
+            throws DatabaseException {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<T> people = new ArrayList<>();
+        final int chunk = 1000;
+        try {
+            for (int from = 0; from < distinct.size(); from += chunk) {
+                List<String> slice = distinct.subList(from, Math.min(distinct.size(), from + chunk));
+                String query = "SELECT " + type.getIdColumn() + ", " + COLUMNS + " FROM " + type.getTableName()
+                    + " WHERE " + column + " IN (" + String.join(",", Collections.nCopies(slice.size(), "?")) + ")"
+                    + (forUpdate ? " FOR UPDATE" : "");
+                try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                    for (int i = 0; i < slice.size(); i++) {
+                        pstmt.setString(i + 1, slice.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            people.add(factory.create(rs.getString(1), rs.getString(2), rs.getString(3),
+                                                      rs.getString(4), rs.getString(5), rs.getString(6)));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to look up " + type.getTableName() + " by " + column, e);
+            throw new DatabaseException("Failed to look up " + type.getTableName() + " records", e);
+        }
+        return people;
+    }
+}
@@ -0,0 +1,99 @@
+package service;
+
+import util.BloomFilter;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory Bloom filter of project numbers that exist in the database.
+ *
+ * <p>A negative answer from {@link #mightExist(String)} is definitive, so the create
+ * paths can skip the existence probe and insert straight away. A positive answer is
+ * only a hint and must be confirmed against the database, since it is a false positive
+ * for about one new number in a hundred. Until {@link #warmUp(Connection)} has run every
+ * number is reported as possibly existing.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class ProjectNumberRegistry {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_CAPACITY = 100_000;
+
+    private static volatile BloomFilter filter;
+    private static final AtomicLong recorded = new AtomicLong();
+
+    private ProjectNumberRegistry() {
+    }
+
+    /**
+     * Loads every existing project number into a fresh filter sized with headroom for growth.
+     *
+     * @param connection Database connection
+     * @throws SQLException if the project numbers cannot be read
+     */
+    public static void warmUp(Connection connection) throws SQLException {
+        long started = System.currentTimeMillis();
+        long count;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM project")) {
+            rs.next();
+            count = rs.getLong(1);
+        }
+
+        BloomFilter fresh = new BloomFilter(Math.max(MIN_CAPACITY, count * 2), FALSE_POSITIVE_RATE);
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT ProjectNumber FROM project")) {
+            while (rs.next()) {
+                fresh.put(rs.getString(1));
+            }
+        }
+
+        filter = fresh;
+        recorded.set(count);
+        LoggerUtil.info(Subsystem.SERVICE, "Project number filter warmed with {} entries in {} ms",
+                        count, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Tests whether a project number may already exist.
+     *
+     * @param projectNumber Project number
+     * @return false only if the number is certainly not in use
+     */
+    public static boolean mightExist(String projectNumber) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(projectNumber);
+    }
+
+    /**
+     * Records a project number that now exists, e.g. after a successful insert.
+     *
+     * @param projectNumber Project number
+     */
+    public static void record(String projectNumber) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        current.put(projectNumber);
+        if (recorded.incrementAndGet() == current.getExpectedInsertions()) {
+            LoggerUtil.warning(Subsystem.SERVICE,
+                "Project number filter reached its capacity of {}; false positives will rise until the next warm-up",
+                current.getExpectedInsertions());
+        }
+    }
+
+    /**
+     * @return true once the filter has been loaded
+     */
+    public static boolean isWarm() {
+        return filter != null;
+    }
+}
@@ -1,14 +1,37 @@
 package service;
 
+import constants.AppConstants;
+import event.ProjectEvent;
+import event.ProjectEventBus;
 import exception.DatabaseException;
+import exception.EntityNotFoundException;
+import exception.OptimisticLockException;
 import exception.ValidationException;
+import model.Architect;
+import model.Contractor;
+import model.Customer;
 import model.Project;
+import model.ProjectDetails;
+import monitoring.ServiceCallEvent;
+import util.AddressParser;
 import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+import util.ValidationEngine;
 import util.ValidationUtil;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Service layer for Project-related business logic.
@@ -19,6 +42,49 @@ import java.util.List;
  */
 public class ProjectService {
     
+    /** MySQL error code for a duplicate primary or unique key. */
+    private static final int ER_DUP_ENTRY = 1062;
+    
+    private static final String SQL_INSERT_PROJECT =
+        "INSERT INTO project (ProjectNumber, ProjectName, Deadline, BuildingType, PhysicalAddress, "
+        + "ERFNumber, TotalFee, TotalPaid, ArchitectID, ContractorID, CustomerID, Finalised) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'No')";
+    
+    static final String SQL_FIND_NUMBERS_PREFIX = "SELECT ProjectNumber FROM project WHERE ProjectNumber IN (";
+    
+    static final String SQL_UPDATE_PROJECT =
+        "UPDATE project SET ProjectName = ?, Deadline = ?, Version = Version + 1 "
+        + "WHERE ProjectNumber = ? AND Version = ?";
+    
+    static final String SQL_SELECT_BY_ERF =
+        "SELECT " + AppConstants.PROJECT_COLUMNS + " FROM project WHERE ERFNumber = ? ORDER BY ProjectNumber";
+    
+    static final String SQL_SELECT_IN_CITY =
+        "SELECT p.* FROM region r "
+        + "JOIN property pr ON pr.RegionID = r.RegionID "
+        + "JOIN project p ON p.ERFNumber = pr.ERFNumber "
+        + "WHERE r.City = ? ORDER BY p.ProjectNumber";
+    
+    static final String SQL_SELECT_IN_REGION =
+        "SELECT p.* FROM region r "
+        + "JOIN property pr ON pr.RegionID = r.RegionID "
+        + "JOIN project p ON p.ERFNumber = pr.ERFNumber "
+        + "WHERE r.City = ? AND r.Country = ? ORDER BY p.ProjectNumber";
+    
+    static final String SQL_FINALISE_PROJECT =
+        "UPDATE project SET Finalised = 'Yes', CompletionDate = CURRENT_DATE, Version = Version + 1 "
+        + "WHERE ProjectNumber = ? AND Version = ?";
+    
+    /**
+     * Outcome of creating a single project.
+     */
+    public enum CreateResult {
+        CREATED,
+        ALREADY_EXISTS,
+        INVALID,
+        FAILED
+    }
+    
     /**
      * Validates project data before database operations.
      * 
@@ -34,8 +100,8 @@ public class ProjectService {
         if (projectNumber == null || projectNumber.trim().isEmpty()) {
             throw new ValidationException("Project number is required");
         }
-        if (!ValidationUtil.isNumeric(projectNumber)) {
-            throw new ValidationException("Project number must be numeric");
+        if (!ValidationEngine.isProjectNumber(projectNumber)) {
+            throw new ValidationException("Project number must be numeric or PRJ followed by digits");
         }
         
         if (project.getTotalFee() < 0) {
@@ -54,22 +120,23 @@ public class ProjectService {
             throw new ValidationException("Deadline is required");
         }
         
-        LoggerUtil.debug("Project validation successful for project: " + project.getProjectNumber());
+        LoggerUtil.debug(Subsystem.SERVICE, "Project validation successful for project: {}", projectNumber);
     }
     
     /**
      * Checks if a project exists by number.
      * 
      * @param connection Database connection
-     * @param projectNumber Project number to check
+     * @param projectNumber Project number to check, e.g. PRJ001
      * @return true if exists, false otherwise
      * @throws DatabaseException if database error occurs
      */
-    public boolean projectExists(Connection connection, int projectNumber) throws DatabaseException {
-        String query = "SELECT COUNT(*) FROM project WHERE ProjectNumber = ?";
+    public boolean projectExists(Connection connection, String projectNumber) throws DatabaseException {
+        String query = AppConstants.SQL_PROJECT_EXISTS;
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, projectNumber);
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "projectExists");
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, projectNumber);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -84,6 +151,287 @@ public class ProjectService {
         return false;
     }
     
+    /**
+     * Creates a project with a single INSERT. There is no separate existence probe:
+     * a duplicate project number is detected from the duplicate-key error, which is
+     * also what keeps concurrent creators from both succeeding.
+     * 
+     * <p>The project is inserted with nothing paid and any amount already paid is posted
+     * to the ledger as an opening balance in the same transaction, so the ledger always
+     * adds up to {@code TotalPaid}. Runs in its own transaction unless the connection is
+     * already in one, in which case the caller commits and then publishes
+     * {@link ProjectEvent.Type#CREATED}.</p>
+     * 
+     * @param connection Database connection
+     * @param project Project to create
+     * @return CREATED, or ALREADY_EXISTS if the project number is taken
+     * @throws ValidationException if the project is invalid
+     * @throws DatabaseException if any other database error occurs
+     */
+    public CreateResult createProject(Connection connection, Project project)
+            throws ValidationException, DatabaseException {
+        validateProject(project);
+        
+        boolean autoCommit;
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "createProject")) {
+            autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                try (PreparedStatement pstmt = connection.prepareStatement(SQL_INSERT_PROJECT)) {
+                    bindInsert(pstmt, project);
+                    event.setRows(pstmt.executeUpdate());
+                }
+                if (project.getTotalPaid() > 0) {
+                    PaymentService.postPayment(connection, project.getProjectNumber(), project.getTotalPaid(),
+                                               LocalDate.now(), PaymentService.OPENING_BALANCE);
+                }
+                if (autoCommit) {
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                if (autoCommit) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            if (isDuplicateKey(e)) {
+                ProjectNumberRegistry.record(project.getProjectNumber());
+                return CreateResult.ALREADY_EXISTS;
+            }
+            LoggerUtil.error("Failed to create project " + project.getProjectNumber(), e);
+            throw new DatabaseException("Failed to create project", e);
+        }
+        
+        if (autoCommit) {
+            ProjectNumberRegistry.record(project.getProjectNumber());
+            ProjectEventBus.getDefault().publish(ProjectEvent.Type.CREATED, project.getProjectNumber());
+        }
+        return CreateResult.CREATED;
+    }
+    
+    /**
+     * Creates many projects in one batch for bulk import and API callers.
+     * 
+     * <p>Records are validated first without touching the database. Project numbers
+     * the {@link ProjectNumberRegistry} filter reports as possibly taken are confirmed
+     * with one {@code IN (...)} lookup and skipped if they exist; all other rows go
+     * straight into a single batched INSERT. Rows that still fail are checked once more
+     * to tell duplicates (e.g. from a concurrent writer) from genuine errors. Opening
+     * balances of the created rows are posted to the ledger in one more batch, in the
+     * same transaction as the inserts; as with {@link #createProject}, a caller-owned
+     * transaction is left for the caller to commit and publish.</p>
+     * 
+     * @param connection Database connection
+     * @param projects Projects to create
+     * @return One result per input project, in input order
+     * @throws DatabaseException if the batch cannot be executed at all
+     */
+    public CreateResult[] createProjects(Connection connection, List<Project> projects) throws DatabaseException {
+        CreateResult[] results = new CreateResult[projects.size()];
+        ValidationEngine.Report report = ValidationEngine.validateProjects(projects.toArray(new Project[0]));
+        for (ValidationEngine.Violation violation : report.getViolations()) {
+            results[violation.getRow()] = CreateResult.INVALID;
+        }
+        
+        List<String> suspects = new ArrayList<>();
+        Set<String> inBatch = new HashSet<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            String number = projects.get(i).getProjectNumber();
+            if (!inBatch.add(number)) {
+                results[i] = CreateResult.ALREADY_EXISTS;
+            } else if (ProjectNumberRegistry.mightExist(number)) {
+                suspects.add(number);
+            }
+        }
+        
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "createProjects")) {
+            Set<String> existing = findExistingNumbers(connection, suspects);
+            List<Integer> pending = new ArrayList<>();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    if (existing.contains(projects.get(i).getProjectNumber())) {
+                        results[i] = CreateResult.ALREADY_EXISTS;
+                    } else {
+                        pending.add(i);
+                    }
+                }
+            }
+            if (!pending.isEmpty()) {
+                boolean autoCommit = connection.getAutoCommit();
+                if (autoCommit) {
+                    connection.setAutoCommit(false);
+                }
+                try {
+                    insertBatch(connection, projects, pending, results);
+                    postOpeningBalances(connection, projects, pending, results);
+                    event.setRows(pending.stream().filter(i -> results[i] == CreateResult.CREATED).count());
+                    if (autoCommit) {
+                        connection.commit();
+                    }
+                } catch (SQLException e) {
+                    if (autoCommit) {
+                        connection.rollback();
+                    }
+                    throw e;
+                } finally {
+                    if (autoCommit) {
+                        connection.setAutoCommit(true);
+                    }
+                }
+                if (autoCommit) {
+                    for (int index : pending) {
+                        if (results[index] == CreateResult.CREATED) {
+                            String number = projects.get(index).getProjectNumber();
+                            ProjectNumberRegistry.record(number);
+                            ProjectEventBus.getDefault().publish(ProjectEvent.Type.CREATED, number);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Bulk project creation failed", e);
+            throw new DatabaseException("Bulk project creation failed", e);
+        }
+        
+        LoggerUtil.info(Subsystem.SERVICE, "Bulk create of {} projects: {}", projects.size(), summarize(results));
+        return results;
+    }
+    
+    private void insertBatch(Connection connection, List<Project> projects, List<Integer> pending,
+                             CreateResult[] results) throws SQLException {
+        int[] counts;
+        try (PreparedStatement pstmt = connection.prepareStatement(SQL_INSERT_PROJECT)) {
+            for (int index : pending) {
+                bindInsert(pstmt, projects.get(index));
+                pstmt.addBatch();
+            }
+            try {
+                counts = pstmt.executeBatch();
+            } catch (BatchUpdateException e) {
+                counts = e.getUpdateCounts();
+                LoggerUtil.warning(Subsystem.SERVICE, "Bulk insert reported errors: {}", e.getMessage());
+            }
+        }
+        
+        List<String> failed = new ArrayList<>();
+        for (int j = 0; j < pending.size(); j++) {
+            int index = pending.get(j);
+            String number = projects.get(index).getProjectNumber();
+            boolean inserted = j < counts.length && counts[j] != Statement.EXECUTE_FAILED;
+            if (inserted) {
+                results[index] = CreateResult.CREATED;
+            } else {
+                failed.add(number);
+            }
+        }
+        if (!failed.isEmpty()) {
+            Set<String> nowExisting = findExistingNumbers(connection, failed);
+            for (int index : pending) {
+                if (results[index] == null) {
+                    results[index] = nowExisting.contains(projects.get(index).getProjectNumber())
+                        ? CreateResult.ALREADY_EXISTS : CreateResult.FAILED;
+                }
+            }
+        }
+    }
+    
+    private static void postOpeningBalances(Connection connection, List<Project> projects, List<Integer> pending,
+                                            CreateResult[] results) throws SQLException {
+        Date today = Date.valueOf(LocalDate.now());
+        int posted = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(PaymentService.SQL_INSERT_PAYMENT)) {
+            for (int index : pending) {
+                Project project = projects.get(index);
+                if (results[index] == CreateResult.CREATED && project.getTotalPaid() > 0) {
+                    pstmt.setString(1, project.getProjectNumber());
+                    pstmt.setDouble(2, project.getTotalPaid());
+                    pstmt.setDate(3, today);
+                    pstmt.setString(4, PaymentService.OPENING_BALANCE);
+                    pstmt.addBatch();
+                    posted++;
+                }
+            }
+            if (posted > 0) {
+                pstmt.executeBatch();
+            }
+        }
+    }
+    
+    private Set<String> findExistingNumbers(Connection connection, List<String> numbers) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        final int chunk = 1000;
+        for (int from = 0; from < numbers.size(); from += chunk) {
+            List<String> slice = numbers.subList(from, Math.min(numbers.size(), from + chunk));
+            String placeholders = String.join(",", Collections.nCopies(slice.size(), "?"));
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    SQL_FIND_NUMBERS_PREFIX + placeholders + ")")) {
+                for (int i = 0; i < slice.size(); i++) {
+                    pstmt.setString(i + 1, slice.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+    
+    private static void bindInsert(PreparedStatement pstmt, Project project) throws SQLException {
+        pstmt.setString(1, project.getProjectNumber());
+        pstmt.setString(2, project.getProjectName());
+        pstmt.setDate(3, Date.valueOf(project.getDeadline()));
+        pstmt.setString(4, project.getBuildingType());
+        pstmt.setString(5, project.getPhysicalAddress());
+        pstmt.setString(6, project.getErfNumber());
+        pstmt.setDouble(7, project.getTotalFee());
+        pstmt.setDouble(8, 0);  // the opening balance is posted to the ledger
+        pstmt.setString(9, project.getArchitectId());
+        pstmt.setString(10, project.getContractorId());
+        pstmt.setString(11, project.getCustomerId());
+    }
+    
+    private static String summarize(CreateResult[] results) {
+        int[] totals = new int[CreateResult.values().length];
+        for (CreateResult result : results) {
+            totals[result.ordinal()]++;
+        }
+        StringBuilder summary = new StringBuilder();
+        for (CreateResult result : CreateResult.values()) {
+            if (summary.length() > 0) {
+                summary.append(", ");
+            }
+            summary.append(result).append('=').append(totals[result.ordinal()]);
+        }
+        return summary.toString();
+    }
+    
+    /**
+     * Checks whether an exception (or any exception chained to it) is a duplicate-key error.
+     * 
+     * @param e Exception to inspect
+     * @return true for MySQL error 1062
+     */
+    public static boolean isDuplicateKey(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == ER_DUP_ENTRY) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Retrieves all overdue and incomplete projects.
      * 
@@ -93,16 +441,18 @@ public class ProjectService {
      */
     public List<Project> getOverdueProjects(Connection connection) throws DatabaseException {
         List<Project> projects = new ArrayList<>();
-        String query = "SELECT * FROM project WHERE Deadline < CURDATE() AND (Finalised IS NULL OR Finalised = 'No')";
+        String query = AppConstants.SQL_SELECT_OVERDUE;
         
-        try (Statement stmt = connection.createStatement();
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "getOverdueProjects");
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
             
             while (rs.next()) {
                 projects.add(mapResultSetToProject(rs));
             }
+            event.setRows(projects.size());
             
-            LoggerUtil.info("Retrieved " + projects.size() + " overdue projects");
+            LoggerUtil.debug(Subsystem.SERVICE, "Retrieved {} overdue projects", projects.size());
         } catch (SQLException e) {
             LoggerUtil.error("Failed to retrieve overdue projects", e);
             throw new DatabaseException("Failed to retrieve overdue projects", e);
@@ -111,6 +461,596 @@ public class ProjectService {
         return projects;
     }
     
+    /**
+     * Loads a single project, including its current version.
+     * 
+     * @param connection Database connection
+     * @param projectNumber Project number
+     * @return The project
+     * @throws EntityNotFoundException if no such project exists
+     * @throws DatabaseException if database error occurs
+     */
+    public Project findProject(Connection connection, String projectNumber)
+            throws EntityNotFoundException, DatabaseException {
+        String query = AppConstants.SQL_SELECT_PROJECT;
+        
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "findProject");
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, projectNumber);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToProject(rs);
+                }
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to load project " + projectNumber, e);
+            throw new DatabaseException("Failed to load project", e);
+        }
+        
+        throw new EntityNotFoundException("Project", projectNumber);
+    }
+    
+    /**
+     * Loads a single project with the names of its architect, contractor and customer
+     * in one joined query.
+     * 
+     * @param connection Database connection
+     * @param projectNumber Project number
+     * @return The project and its people
+     * @throws EntityNotFoundException if no such project exists
+     * @throws DatabaseException if database error occurs
+     */
+    public ProjectDetails findProjectDetails(Connection connection, String projectNumber)
+            throws EntityNotFoundException, DatabaseException {
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "findProjectDetails");
+             PreparedStatement pstmt = connection.prepareStatement(AppConstants.SQL_SELECT_PROJECT_DETAILS)) {
+            pstmt.setString(1, projectNumber);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToDetails(rs);
+                }
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to load project details " + projectNumber, e);
+            throw new DatabaseException("Failed to load project details", e);
+        }
+        
+        throw new EntityNotFoundException("Project", projectNumber);
+    }
+    
+    /**
+     * Retrieves every project with its people in one joined query, e.g. for bulk reporting.
+     * 
+     * @param connection Database connection
+     * @return All projects and their people
+     * @throws DatabaseException if database error occurs
+     */
+    public List<ProjectDetails> getAllProjectDetails(Connection connection) throws DatabaseException {
+        return queryDetails(connection, AppConstants.SQL_SELECT_ALL_DETAILS, "all");
+    }
+    
+    /**
+     * Retrieves all incomplete projects with their people in one joined query.
+     * 
+     * @param connection Database connection
+     * @return Incomplete projects and their people
+     * @throws DatabaseException if database error occurs
+     */
+    public List<ProjectDetails> getIncompleteProjectDetails(Connection connection) throws DatabaseException {
+        return queryDetails(connection, AppConstants.SQL_SELECT_INCOMPLETE_DETAILS, "incomplete");
+    }
+    
+    /**
+     * Retrieves all overdue projects with their people in one joined query.
+     * 
+     * @param connection Database connection
+     * @return Overdue projects and their people
+     * @throws DatabaseException if database error occurs
+     */
+    public List<ProjectDetails> getOverdueProjectDetails(Connection connection) throws DatabaseException {
+        return queryDetails(connection, AppConstants.SQL_SELECT_OVERDUE_DETAILS, "overdue");
+    }
+    
+    /**
+     * Attaches people to projects that were already loaded, e.g. a page of search results.
+     * 
+     * <p>The distinct architect, contractor and customer IDs of the whole list are fetched
+     * with one {@code UNION ALL} of three {@code IN (...)} lookups, so a page of N projects
+     * costs one round trip instead of 3N.</p>
+     * 
+     * @param connection Database connection
+     * @param projects Projects to complete
+     * @return One entry per project, in input order
+     * @throws DatabaseException if database error occurs
+     */
+    public List<ProjectDetails> attachPeople(Connection connection, List<Project> projects) throws DatabaseException {
+        Set<String> architectIds = new LinkedHashSet<>();
+        Set<String> contractorIds = new LinkedHashSet<>();
+        Set<String> customerIds = new LinkedHashSet<>();
+        for (Project project : projects) {
+            addIfPresent(architectIds, project.getArchitectId());
+            addIfPresent(contractorIds, project.getContractorId());
+            addIfPresent(customerIds, project.getCustomerId());
+        }
+        
+        Map<String, String[]> names = new HashMap<>();
+        List<String> architects = new ArrayList<>(architectIds);
+        List<String> contractors = new ArrayList<>(contractorIds);
+        List<String> customers = new ArrayList<>(customerIds);
+        final int chunk = 1000;
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "attachPeople")) {
+            event.setRows(projects.size());
+            for (int from = 0; from < Math.max(architects.size(), Math.max(contractors.size(), customers.size()));
+                 from += chunk) {
+                loadNames(connection, slice(architects, from, chunk), slice(contractors, from, chunk),
+                          slice(customers, from, chunk), names);
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to load people for " + projects.size() + " projects", e);
+            throw new DatabaseException("Failed to load project people", e);
+        }
+        
+        List<ProjectDetails> details = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            String[] architect = names.get("ARC:" + project.getArchitectId());
+            String[] contractor = names.get("CON:" + project.getContractorId());
+            String[] customer = names.get("CUS:" + project.getCustomerId());
+            details.add(new ProjectDetails(project,
+                architect == null ? null : new Architect(project.getArchitectId(), architect[0], architect[1], null, null, null),
+                contractor == null ? null : new Contractor(project.getContractorId(), contractor[0], contractor[1], null, null, null),
+                customer == null ? null : new Customer(project.getCustomerId(), customer[0], customer[1], null, null, null)));
+        }
+        return details;
+    }
+    
+    private List<ProjectDetails> queryDetails(Connection connection, String query, String label)
+            throws DatabaseException {
+        List<ProjectDetails> details = new ArrayList<>();
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "queryDetails");
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                details.add(mapResultSetToDetails(rs));
+            }
+            event.setRows(details.size());
+            LoggerUtil.debug(Subsystem.SERVICE, "Retrieved {} {} project details", details.size(), label);
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to retrieve " + label + " project details", e);
+            throw new DatabaseException("Failed to retrieve " + label + " project details", e);
+        }
+        return details;
+    }
+    
+    /**
+     * Runs one UNION ALL over the three people tables for the given IDs and adds
+     * {@code "ARC:<id>" -> {firstName, surname}} style entries to {@code names}.
+     */
+    private void loadNames(Connection connection, List<String> architects, List<String> contractors,
+                           List<String> customers, Map<String, String[]> names) throws SQLException {
+        List<String> parts = new ArrayList<>();
+        List<String> parameters = new ArrayList<>();
+        addNameQuery(parts, parameters, "ARC", "architect", "ArchitectID", architects);
+        addNameQuery(parts, parameters, "CON", "contractor", "ContractorID", contractors);
+        addNameQuery(parts, parameters, "CUS", "customer", "CustomerID", customers);
+        if (parts.isEmpty()) {
+            return;
+        }
+        
+        try (PreparedStatement pstmt = connection.prepareStatement(String.join(" UNION ALL ", parts))) {
+            for (int i = 0; i < parameters.size(); i++) {
+                pstmt.setString(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    names.put(rs.getString(1) + ":" + rs.getString(2), new String[] {rs.getString(3), rs.getString(4)});
+                }
+            }
+        }
+    }
+    
+    private static void addNameQuery(List<String> parts, List<String> parameters, String kind, String table,
+                                     String idColumn, List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        parts.add("SELECT '" + kind + "', " + idColumn + ", FirstName, Surname FROM " + table
+                  + " WHERE " + idColumn + " IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")");
+        parameters.addAll(ids);
+    }
+    
+    private static List<String> slice(List<String> list, int from, int size) {
+        return from >= list.size() ? Collections.emptyList() : list.subList(from, Math.min(list.size(), from + size));
+    }
+    
+    private static void addIfPresent(Set<String> ids, String id) {
+        if (id != null && !id.isEmpty()) {
+            ids.add(id);
+        }
+    }
+    
+    /**
+     * Writes the editable fields of a project (name, deadline, total paid) using
+     * compare-and-set on its version. On success the project's version is advanced.
+     * Total paid is not overwritten: the change the caller made to it since the project
+     * was read ({@link Project#getTotalPaidAsRead()}) is recorded as an {@code Adjustment}
+     * payment in the same transaction. Payments do not advance the version, so comparing
+     * with the balance as read rather than the stored one is what keeps a payment posted
+     * while the project was being edited. A project that was not read from the database
+     * is compared with the stored balance.
+     * 
+     * @param connection Database connection
+     * @param project Project holding the new values and the version it was read at
+     * @throws ValidationException if the project is invalid or the adjustment breaks the balance rules
+     * @throws OptimisticLockException if the row changed since it was read
+     * @throws DatabaseException if database error occurs
+     */
+    public void updateProject(Connection connection, Project project)
+            throws ValidationException, OptimisticLockException, DatabaseException {
+        validateEditableFields(project);
+        String query = SQL_UPDATE_PROJECT;
+        double totalPaid;
+        
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "updateProject")) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement pstmt = connection.prepareStatement(query);
+                 PreparedStatement balance = connection.prepareStatement(PaymentService.SQL_SELECT_BALANCE)) {
+                pstmt.setString(1, project.getProjectName());
+                pstmt.setDate(2, Date.valueOf(project.getDeadline()));
+                pstmt.setString(3, project.getProjectNumber());
+                pstmt.setInt(4, project.getVersion());
+                
+                if (pstmt.executeUpdate() == 0) {
+                    connection.rollback();
+                    throw new OptimisticLockException(project.getProjectNumber(), project.getVersion());
+                }
+                // The row is locked by the update above, so no payment can slip in between
+                balance.setString(1, project.getProjectNumber());
+                try (ResultSet rs = balance.executeQuery()) {
+                    rs.next();
+                    totalPaid = rs.getDouble(1);
+                }
+                double base = project.getTotalPaidAsRead() != null ? project.getTotalPaidAsRead() : totalPaid;
+                double adjustment = Math.round((project.getTotalPaid() - base) * 100) / 100.0;
+                if (adjustment != 0) {
+                    totalPaid = PaymentService.postPayment(connection, project.getProjectNumber(), adjustment,
+                                                           LocalDate.now(), "Adjustment");
+                }
+                connection.commit();
+                event.setRows(1);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            try {
+                throw PaymentService.translate(e, project.getProjectNumber(),
+                                               "Failed to update project " + project.getProjectNumber());
+            } catch (EntityNotFoundException notFound) {
+                // Deleted since it was read, like any other concurrent change
+                throw new OptimisticLockException(project.getProjectNumber(), project.getVersion());
+            }
+        }
+        project.setVersion(project.getVersion() + 1);
+        project.setTotalPaid(totalPaid);
+        project.setTotalPaidAsRead(totalPaid);
+        ProjectEventBus.getDefault().publish(ProjectEvent.Type.UPDATED, project.getProjectNumber(),
+                                             null, totalPaid);
+    }
+    
+    /**
+     * Applies a change to the latest copy of a project and writes it back, re-reading
+     * and re-applying the change when another writer got there first. Intended for
+     * non-interactive callers; the change must be safe to apply more than once.
+     * 
+     * @param connection Database connection
+     * @param projectNumber Project number
+     * @param change Mutation applied to the freshly loaded project
+     * @return The project as written
+     * @throws EntityNotFoundException if no such project exists
+     * @throws ValidationException if the changed project is invalid
+     * @throws OptimisticLockException if every attempt conflicted
+     * @throws DatabaseException if database error occurs
+     */
+    public Project updateProjectWithRetry(Connection connection, String projectNumber, Consumer<Project> change)
+            throws EntityNotFoundException, ValidationException, OptimisticLockException, DatabaseException {
+        OptimisticLockException lastConflict = null;
+        for (int attempt = 1; attempt <= AppConstants.MAX_UPDATE_ATTEMPTS; attempt++) {
+            Project project = findProject(connection, projectNumber);
+            double previousPaid = project.getTotalPaid();
+            change.accept(project);
+            try {
+                updateProject(connection, project);
+                if (project.getTotalPaid() != previousPaid) {
+                    ProjectEventBus.getDefault().publish(ProjectEvent.Type.PAYMENT_CHANGED, projectNumber,
+                                                         previousPaid, project.getTotalPaid());
+                }
+                return project;
+            } catch (OptimisticLockException e) {
+                lastConflict = e;
+                LoggerUtil.debug(Subsystem.SERVICE, "Update conflict on project {} (attempt {})", projectNumber, attempt);
+                backOff(attempt);
+            }
+        }
+        LoggerUtil.warning(Subsystem.SERVICE, "Giving up updating project {} after {} conflicts",
+                           projectNumber, AppConstants.MAX_UPDATE_ATTEMPTS);
+        throw lastConflict;
+    }
+    
+    /**
+     * Marks a project as finalised with today's completion date, provided it is still
+     * at the given version. As with {@link #createProject}, {@link ProjectEvent.Type#FINALISED}
+     * is published after the commit, or left to the caller when the connection is already
+     * in a transaction.
+     * 
+     * @param connection Database connection
+     * @param projectNumber Project number
+     * @param expectedVersion Version the caller read
+     * @throws OptimisticLockException if the row changed since it was read
+     * @throws DatabaseException if database error occurs
+     */
+    public void finaliseProject(Connection connection, String projectNumber, int expectedVersion)
+            throws OptimisticLockException, DatabaseException {
+        String query = SQL_FINALISE_PROJECT;
+        boolean autoCommit;
+        
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "finaliseProject")) {
+            autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setString(1, projectNumber);
+                pstmt.setInt(2, expectedVersion);
+                
+                if (pstmt.executeUpdate() == 0) {
+                    throw new OptimisticLockException(projectNumber, expectedVersion);
+                }
+                event.setRows(1);
+                if (autoCommit) {
+                    connection.commit();
+                }
+            } catch (SQLException | OptimisticLockException e) {
+                if (autoCommit) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to finalise project " + projectNumber, e);
+            throw new DatabaseException("Failed to finalise project", e);
+        }
+        
+        if (autoCommit) {
+            ProjectEventBus.getDefault().publish(ProjectEvent.Type.FINALISED, projectNumber);
+        }
+    }
+    
+    /**
+     * Finalises a project, retrying on concurrent modification.
+     * 
+     * @param connection Database connection
+     * @param projectNumber Project number
+     * @throws EntityNotFoundException if no such project exists
+     * @throws OptimisticLockException if every attempt conflicted
+     * @throws DatabaseException if database error occurs
+     */
+    public void finaliseProjectWithRetry(Connection connection, String projectNumber)
+            throws EntityNotFoundException, OptimisticLockException, DatabaseException {
+        OptimisticLockException lastConflict = null;
+        for (int attempt = 1; attempt <= AppConstants.MAX_UPDATE_ATTEMPTS; attempt++) {
+            Project project = findProject(connection, projectNumber);
+            try {
+                finaliseProject(connection, projectNumber, project.getVersion());
+                return;
+            } catch (OptimisticLockException e) {
+                lastConflict = e;
+                backOff(attempt);
+            }
+        }
+        throw lastConflict;
+    }
+    
+    /**
+     * Validates the fields that {@link #updateProject(Connection, Project)} writes.
+     * The project number is not re-validated because existing rows may predate the
+     * numeric rule.
+     */
+    private void validateEditableFields(Project project) throws ValidationException {
+        if (!ValidationUtil.isNotEmpty(project.getProjectName())) {
+            throw new ValidationException("Project name is required", "projectName");
+        }
+        if (project.getDeadline() == null) {
+            throw new ValidationException("Deadline is required", "deadline");
+        }
+        if (project.getTotalPaid() < 0) {
+            throw new ValidationException("Total paid cannot be negative", "totalPaid");
+        }
+        if (project.getTotalPaid() > project.getTotalFee()) {
+            throw new ValidationException("Total paid cannot exceed total fee", "totalPaid");
+        }
+    }
+    
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(AppConstants.UPDATE_RETRY_BACKOFF_MS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Searches projects by number or name, optionally including archived projects.
+     * 
+     * @param connection Database connection
+     * @param term Text to match anywhere in the project number or name
+     * @param includeArchived true to also search {@code project_archive}
+     * @return Matching projects
+     * @throws DatabaseException if database error occurs
+     */
+    public List<Project> searchProjects(Connection connection, String term, boolean includeArchived)
+            throws DatabaseException {
+        List<Project> projects = new ArrayList<>();
+        String pattern = "%" + term + "%";
+        
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "searchProjects");
+             PreparedStatement pstmt = connection.prepareStatement(buildSearchQuery(includeArchived))) {
+            pstmt.setString(1, pattern);
+            pstmt.setString(2, pattern);
+            if (includeArchived) {
+                pstmt.setString(3, pattern);
+                pstmt.setString(4, pattern);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    projects.add(mapResultSetToProject(rs));
+                }
+            }
+            event.setRows(projects.size());
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to search projects", e);
+            throw new DatabaseException("Failed to search projects", e);
+        }
+        
+        return projects;
+    }
+    
+    /**
+     * Lists the projects on one ERF (property), using {@code idx_project_erf}.
+     * 
+     * @param connection Database connection
+     * @param erfNumber ERF number as stored on the projects
+     * @return Projects on the property, by project number
+     * @throws DatabaseException if database error occurs
+     */
+    public List<Project> findProjectsByErf(Connection connection, String erfNumber) throws DatabaseException {
+        return queryProjects(connection, "findProjectsByErf", SQL_SELECT_BY_ERF, erfNumber.trim());
+    }
+    
+    /**
+     * Lists the projects in a city through the property registry: the region is found
+     * by its unique key and its properties and projects by index, so no address is
+     * compared as text.
+     * 
+     * @param connection Database connection
+     * @param city City as it appears in project addresses; case and extra spaces are ignored
+     * @param country Country to restrict to, or null for the city in any country
+     * @return Projects in the region, by project number
+     * @throws DatabaseException if database error occurs
+     */
+    public List<Project> findProjectsInRegion(Connection connection, String city, String country)
+            throws DatabaseException {
+        return country == null
+            ? queryProjects(connection, "findProjectsInRegion", SQL_SELECT_IN_CITY, AddressParser.normalise(city))
+            : queryProjects(connection, "findProjectsInRegion", SQL_SELECT_IN_REGION, AddressParser.normalise(city),
+                            AddressParser.normalise(country));
+    }
+    
+    private List<Project> queryProjects(Connection connection, String operation, String query, String... parameters)
+            throws DatabaseException {
+        List<Project> projects = new ArrayList<>();
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", operation);
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (int i = 0; i < parameters.length; i++) {
+                pstmt.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    projects.add(mapResultSetToProject(rs));
+                }
+            }
+            event.setRows(projects.size());
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to look up projects for " + String.join(", ", parameters), e);
+            throw new DatabaseException("Failed to look up projects", e);
+        }
+        return projects;
+    }
+    
+    /**
+     * Builds the search statement used by {@link #searchProjects} and the interactive search.
+     * The result has the {@link AppConstants#PROJECT_COLUMNS} plus an {@code Archived} flag.
+     * 
+     * @param includeArchived true to append the archive with UNION ALL
+     * @return SQL with two (or four) LIKE placeholders
+     */
+    public static String buildSearchQuery(boolean includeArchived) {
+        String hot = "SELECT " + AppConstants.PROJECT_COLUMNS + ", 'No' AS Archived FROM project "
+                   + "WHERE ProjectNumber LIKE ? OR ProjectName LIKE ?";
+        if (!includeArchived) {
+            return hot;
+        }
+        return hot + " UNION ALL SELECT " + AppConstants.PROJECT_COLUMNS + ", 'Yes' AS Archived FROM project_archive "
+                   + "WHERE ProjectNumber LIKE ? OR ProjectName LIKE ?";
+    }
+    
+    /**
+     * Streams every project to CSV, optionally including archived projects.
+     * Rows are read with a streaming result set so memory use does not grow with the table.
+     * 
+     * @param connection Database connection
+     * @param out Destination
+     * @param includeArchived true to also export {@code project_archive}
+     * @return Number of rows written
+     * @throws DatabaseException if database or write error occurs
+     */
+    public long exportProjectsCsv(Connection connection, Writer out, boolean includeArchived) throws DatabaseException {
+        String query = "SELECT " + AppConstants.PROJECT_COLUMNS + ", 'No' AS Archived FROM project";
+        if (includeArchived) {
+            query += " UNION ALL SELECT " + AppConstants.PROJECT_COLUMNS + ", 'Yes' AS Archived FROM project_archive";
+        }
+        long rows = 0;
+        
+        try (ServiceCallEvent event = ServiceCallEvent.begin("ProjectService", "exportProjectsCsv");
+             Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(query)) {
+                int columns = rs.getMetaData().getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    out.write(i > 1 ? "," : "");
+                    out.write(rs.getMetaData().getColumnLabel(i));
+                }
+                out.write("\n");
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        if (i > 1) {
+                            out.write(',');
+                        }
+                        out.write(csvEscape(rs.getString(i)));
+                    }
+                    out.write('\n');
+                    rows++;
+                }
+            }
+            out.flush();
+            event.setRows(rows);
+        } catch (SQLException | IOException e) {
+            LoggerUtil.error("Failed to export projects", e);
+            throw new DatabaseException("Failed to export projects", e);
+        }
+        
+        LoggerUtil.info(Subsystem.SERVICE, "Exported {} projects (archived included: {})", rows, includeArchived);
+        return rows;
+    }
+    
+    private static String csvEscape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
     /**
      * Maps a ResultSet row to a Project object.
      * 
@@ -120,21 +1060,44 @@ public class ProjectService {
      */
     private Project mapResultSetToProject(ResultSet rs) throws SQLException {
         Project project = new Project();
-        project.setProjectNumber(String.valueOf(rs.getInt("ProjectNumber")));
+        project.setProjectNumber(rs.getString("ProjectNumber"));
         project.setProjectName(rs.getString("ProjectName"));
         project.setBuildingType(rs.getString("BuildingType"));
         project.setPhysicalAddress(rs.getString("PhysicalAddress"));
         project.setErfNumber(rs.getString("ERFNumber"));
         project.setTotalFee(rs.getDouble("TotalFee"));
         project.setTotalPaid(rs.getDouble("TotalPaid"));
+        project.setTotalPaidAsRead(project.getTotalPaid());
         Date date = rs.getDate("Deadline");
         if (date != null) {
             project.setDeadline(date.toLocalDate());
         }
         project.setFinalised(rs.getString("Finalised"));
+        project.setArchitectId(rs.getString("ArchitectID"));
+        project.setContractorId(rs.getString("ContractorID"));
+        project.setCustomerId(rs.getString("CustomerID"));
+        Date completion = rs.getDate("CompletionDate");
+        if (completion != null) {
+            project.setCompletionDate(completion.toLocalDate());
+        }
+        project.setVersion(rs.getInt("Version"));
         return project;
     }
     
+    /**
+     * Maps a row of {@code view_project_details} (or a view with the same people columns).
+     */
+    private ProjectDetails mapResultSetToDetails(ResultSet rs) throws SQLException {
+        Project project = mapResultSetToProject(rs);
+        return new ProjectDetails(project,
+            rs.getString("ArchitectSurname") == null ? null : new Architect(project.getArchitectId(),
+                rs.getString("ArchitectFirstName"), rs.getString("ArchitectSurname"), null, null, null),
+            rs.getString("ContractorSurname") == null ? null : new Contractor(project.getContractorId(),
+                rs.getString("ContractorFirstName"), rs.getString("ContractorSurname"), null, null, null),
+            rs.getString("CustomerSurname") == null ? null : new Customer(project.getCustomerId(),
+                rs.getString("CustomerFirstName"), rs.getString("CustomerSurname"), null, null, null));
+    }
+    
     /**
      * Calculates outstanding amount for a project.
      * 
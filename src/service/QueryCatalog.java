@@ -0,0 +1,136 @@
+package service;
+
+import constants.AppConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registry of the statements the application runs, with the plan each one is
+ * expected to get.
+ *
+ * <p>The plan regression suite runs {@code EXPLAIN FORMAT=JSON} on every entry against
+ * a synthetic dataset and fails if a statement falls back to a full table scan or
+ * expects to examine more rows than its budget. Budgets are sized for that dataset
+ * (about 50,000 projects and 1,000 people of each kind). A new hot-path query should be
+ * registered here alongside the code that runs it.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class QueryCatalog {
+
+    /** Budget for statements that are allowed to read a whole table. */
+    public static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private static final List<Entry> ENTRIES = Collections.unmodifiableList(Arrays.asList(
+        // Point lookups by project number: PRIMARY prefix, one index dive per partition
+        new Entry("project.exists", AppConstants.SQL_PROJECT_EXISTS, 10, false, "PRJ000123"),
+        new Entry("project.find", AppConstants.SQL_SELECT_PROJECT, 10, false, "PRJ000123"),
+        new Entry("project.findNumbers", ProjectService.SQL_FIND_NUMBERS_PREFIX + "?, ?, ?)", 30, false,
+                  "PRJ000001", "PRJ000002", "PRJ000003"),
+        new Entry("project.update", ProjectService.SQL_UPDATE_PROJECT, 10, false,
+                  "Renamed", "2030-01-01", "PRJ000123", 0),
+        new Entry("project.finalise", ProjectService.SQL_FINALISE_PROJECT, 10, false, "PRJ000123", 0),
+
+        // Open-project lists: pruned to the p_open_* partitions
+        new Entry("project.incomplete", AppConstants.SQL_SELECT_INCOMPLETE, 15_000, false),
+        new Entry("project.overdue", AppConstants.SQL_SELECT_OVERDUE, 10_000, false),
+
+        // Listings with people names: one eq_ref join per person table
+        new Entry("project.details", AppConstants.SQL_SELECT_PROJECT_DETAILS, 20, false, "PRJ000123"),
+        new Entry("project.incompleteDetails", AppConstants.SQL_SELECT_INCOMPLETE_DETAILS, 15_003, false),
+        new Entry("project.overdueDetails", AppConstants.SQL_SELECT_OVERDUE_DETAILS, 10_003, false),
+
+        // Property registry: ERF index, and region unique key -> property -> project by index
+        new Entry("project.byErf", ProjectService.SQL_SELECT_BY_ERF, 20, false, "ERF1001"),
+        new Entry("project.inCity", ProjectService.SQL_SELECT_IN_CITY, 20_000, false, "Durban"),
+        new Entry("project.inRegion", ProjectService.SQL_SELECT_IN_REGION, 20_000, false, "Durban", "South Africa"),
+
+        // Archival chunk: idx_project_completion range in p_final, stopped early by LIMIT
+        new Entry("archive.selectChunk", ArchiveService.SQL_SELECT_CHUNK, 50_000, false, "2025-01-01", "", 500),
+        // Locking a chunk's keys: primary key lookups in p_final only
+        new Entry("archive.lockChunk", ArchiveService.SQL_LOCK_CHUNK_PREFIX + "?, ?) ORDER BY ProjectNumber FOR UPDATE",
+                  10, false, "2025-01-01", "PRJ000123", "PRJ000124"),
+
+        // Reference checks against the people tables
+        new Entry("architect.exists", "SELECT 1 FROM architect WHERE ArchitectID = ?", 1, false, "ARC001"),
+        new Entry("contractor.exists", "SELECT 1 FROM contractor WHERE ContractorID = ?", 1, false, "CON001"),
+        new Entry("customer.exists", "SELECT 1 FROM customer WHERE CustomerID = ?", 1, false, "CUS001"),
+        // Reference check run by the before_customer_delete trigger
+        new Entry("project.byCustomer", "SELECT 1 FROM project WHERE CustomerID = ?", 500, false, "CUS001"),
+
+        // Payment ledger: history of one project, and a period answered from idx_payment_date
+        new Entry("payment.byProject", PaymentService.SQL_PAYMENTS_FOR_PROJECT, 10, false, "PRJ000123"),
+        new Entry("payment.totalsBetween", PaymentService.SQL_TOTALS_BETWEEN, 20_000, false, "2025-01-01", "2025-01-31"),
+
+        new Entry("idSequence.reserve", IdAllocator.SQL_RESERVE, 1, false, "PROJECT"),
+
+        // Whole-table reads by design
+        new Entry("project.all", AppConstants.SQL_SELECT_ALL_PROJECTS, UNBOUNDED, true),
+        new Entry("project.search", ProjectService.buildSearchQuery(true), UNBOUNDED, true,
+                  "%smith%", "%smith%", "%smith%", "%smith%")
+    ));
+
+    private QueryCatalog() {
+    }
+
+    /**
+     * @return Every registered statement
+     */
+    public static List<Entry> entries() {
+        return ENTRIES;
+    }
+
+    /**
+     * A registered statement with sample parameters and its plan budget.
+     */
+    public static final class Entry {
+        private final String name;
+        private final String sql;
+        private final long maxRowsExamined;
+        private final boolean fullScanAllowed;
+        private final List<Object> parameters;
+
+        Entry(String name, String sql, long maxRowsExamined, boolean fullScanAllowed, Object... parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.maxRowsExamined = maxRowsExamined;
+            this.fullScanAllowed = fullScanAllowed;
+            this.parameters = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(parameters)));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return Upper bound on the rows the optimizer may expect to examine, summed over all tables
+         */
+        public long getMaxRowsExamined() {
+            return maxRowsExamined;
+        }
+
+        /**
+         * @return true if a scan of a whole, unpruned table is acceptable
+         */
+        public boolean isFullScanAllowed() {
+            return fullScanAllowed;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package snapshot;
+
+import enums.EntityType;
+import model.Architect;
+import model.Contractor;
+import model.Customer;
+import model.Person;
+import model.Project;
+import model.ProjectDetails;
+import service.PersonRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a snapshot file written by {@link SnapshotWriter}.
+ *
+ * <p>The file is memory-mapped, so opening it costs only the header checks regardless
+ * of its size and the operating system pages data in as it is touched. Numeric fields
+ * and references are read straight from the mapping by record index without creating
+ * objects; strings are decoded only when asked for, and {@link #findProject} compares
+ * project numbers byte by byte in place. Tools that scan millions of projects for
+ * totals or counts therefore put no load on the garbage collector.</p>
+ *
+ * <p>Instances are safe to share between threads. The mapping is released when the
+ * buffers are garbage collected, not by {@link #close()}; do not overwrite a snapshot
+ * in place while it is open ({@link SnapshotWriter} replaces it with a rename).</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class Snapshot implements Closeable {
+    private final FileChannel channel;
+    private final long createdMillis;
+    private final int[] counts = new int[SnapshotFormat.PEOPLE.length + 1];
+    private final Region[] people = new Region[SnapshotFormat.PEOPLE.length];
+    private final Region projects;
+    private final Region strings;
+
+    private Snapshot(FileChannel channel) throws IOException {
+        this.channel = channel;
+        if (channel.size() < SnapshotFormat.HEADER_SIZE) {
+            throw new IOException("Not a PoiseDMS snapshot: file too short");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SnapshotFormat.HEADER_SIZE)
+                                   .order(SnapshotFormat.ORDER);
+        if (header.getInt(SnapshotFormat.H_MAGIC) != SnapshotFormat.MAGIC) {
+            throw new IOException("Not a PoiseDMS snapshot: bad magic number");
+        }
+        int version = header.getInt(SnapshotFormat.H_VERSION);
+        if (version != SnapshotFormat.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + "; expected " + SnapshotFormat.VERSION);
+        }
+        this.createdMillis = header.getLong(SnapshotFormat.H_CREATED);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = header.getInt(SnapshotFormat.H_COUNTS + i * 4);
+        }
+        long stringsOffset = header.getLong(SnapshotFormat.H_STRINGS_OFFSET);
+        long stringsLength = header.getLong(SnapshotFormat.H_STRINGS_LENGTH);
+        if (stringsOffset + stringsLength > channel.size()) {
+            throw new IOException("Snapshot truncated: expected " + (stringsOffset + stringsLength)
+                                  + " bytes, found " + channel.size());
+        }
+
+        long offset = SnapshotFormat.HEADER_SIZE;
+        for (int i = 0; i < people.length; i++) {
+            people[i] = new Region(channel, offset, (long) counts[i] * SnapshotFormat.PERSON_RECORD_SIZE,
+                                   SnapshotFormat.PERSON_RECORD_SIZE);
+            offset += people[i].length;
+        }
+        this.projects = new Region(channel, offset, (long) getProjectCount() * SnapshotFormat.PROJECT_RECORD_SIZE,
+                                   SnapshotFormat.PROJECT_RECORD_SIZE);
+        if (offset + projects.length != stringsOffset) {
+            throw new IOException("Snapshot corrupt: record sections do not match the header");
+        }
+        this.strings = new Region(channel, stringsOffset, stringsLength, 1);
+    }
+
+    /**
+     * Opens and maps a snapshot file.
+     *
+     * @param file Snapshot written by {@link SnapshotWriter}
+     * @return The open snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of this version
+     */
+    public static Snapshot open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new Snapshot(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Instant getCreatedAt() {
+        return Instant.ofEpochMilli(createdMillis);
+    }
+
+    public int getProjectCount() {
+        return counts[SnapshotFormat.PEOPLE.length];
+    }
+
+    public int getPersonCount(EntityType type) {
+        return counts[SnapshotFormat.section(type)];
+    }
+
+    /**
+     * Finds a project by number with a binary search over the sorted records.
+     *
+     * @param projectNumber Project number
+     * @return Record index, or -1 if absent
+     */
+    public int findProject(String projectNumber) {
+        byte[] key = projectNumber.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = getProjectCount() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int cmp = compareString(projectLong(middle, SnapshotFormat.J_NUMBER), key);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    public String getProjectNumber(int index) {
+        return string(projectLong(index, SnapshotFormat.J_NUMBER));
+    }
+
+    public String getProjectName(int index) {
+        return string(projectLong(index, SnapshotFormat.J_NAME));
+    }
+
+    public double getTotalFee(int index) {
+        return projects.getDouble(projectPosition(index) + SnapshotFormat.J_TOTAL_FEE);
+    }
+
+    public double getTotalPaid(int index) {
+        return projects.getDouble(projectPosition(index) + SnapshotFormat.J_TOTAL_PAID);
+    }
+
+    /**
+     * @return Deadline as epoch days, or {@link Integer#MIN_VALUE} if none
+     */
+    public int getDeadlineEpochDay(int index) {
+        return projects.getInt(projectPosition(index) + SnapshotFormat.J_DEADLINE);
+    }
+
+    public boolean isFinalised(int index) {
+        return projects.get(projectPosition(index) + SnapshotFormat.J_FINALISED) != 0;
+    }
+
+    /**
+     * @param index Project record index
+     * @param type Architect, contractor or customer
+     * @return Record index of the referenced person, or -1 if none
+     */
+    public int getPersonIndex(int index, EntityType type) {
+        int field;
+        switch (type) {
+            case ARCHITECT:
+                field = SnapshotFormat.J_ARCHITECT;
+                break;
+            case CONTRACTOR:
+                field = SnapshotFormat.J_CONTRACTOR;
+                break;
+            case CUSTOMER:
+                field = SnapshotFormat.J_CUSTOMER;
+                break;
+            default:
+                throw new IllegalArgumentException("Not a person type: " + type);
+        }
+        return projects.getInt(projectPosition(index) + field);
+    }
+
+    /**
+     * Decodes a project record into a model object.
+     *
+     * @param index Project record index
+     * @return The project
+     */
+    public Project getProject(int index) {
+        long position = projectPosition(index);
+        Project project = new Project(
+            string(projects.getLong(position + SnapshotFormat.J_NUMBER)),
+            string(projects.getLong(position + SnapshotFormat.J_NAME)),
+            date(projects.getInt(position + SnapshotFormat.J_DEADLINE)),
+            string(projects.getLong(position + SnapshotFormat.J_BUILDING_TYPE)),
+            string(projects.getLong(position + SnapshotFormat.J_ADDRESS)),
+            string(projects.getLong(position + SnapshotFormat.J_ERF)),
+            projects.getDouble(position + SnapshotFormat.J_TOTAL_FEE),
+            projects.getDouble(position + SnapshotFormat.J_TOTAL_PAID),
+            personId(EntityType.ARCHITECT, projects.getInt(position + SnapshotFormat.J_ARCHITECT)),
+            personId(EntityType.CONTRACTOR, projects.getInt(position + SnapshotFormat.J_CONTRACTOR)),
+            personId(EntityType.CUSTOMER, projects.getInt(position + SnapshotFormat.J_CUSTOMER)));
+        project.setFinalised(projects.get(position + SnapshotFormat.J_FINALISED) != 0 ? "Yes" : "No");
+        project.setCompletionDate(date(projects.getInt(position + SnapshotFormat.J_COMPLETION)));
+        project.setVersion(projects.getInt(position + SnapshotFormat.J_VERSION));
+        return project;
+    }
+
+    /**
+     * Decodes a person record into a model object of the matching subclass.
+     *
+     * @param type Architect, contractor or customer
+     * @param index Person record index
+     * @return The person
+     */
+    public Person getPerson(EntityType type, int index) {
+        Region region = people[SnapshotFormat.section(type)];
+        long position = recordPosition(index, getPersonCount(type), SnapshotFormat.PERSON_RECORD_SIZE);
+        return PersonRepository.forDisplayName(type.getDisplayName()).create(
+            string(region.getLong(position + SnapshotFormat.P_ID)),
+            string(region.getLong(position + SnapshotFormat.P_FIRST_NAME)),
+            string(region.getLong(position + SnapshotFormat.P_SURNAME)),
+            string(region.getLong(position + SnapshotFormat.P_TELEPHONE)),
+            string(region.getLong(position + SnapshotFormat.P_EMAIL)),
+            string(region.getLong(position + SnapshotFormat.P_ADDRESS)));
+    }
+
+    /**
+     * @param index Project record index
+     * @return The project with its architect, contractor and customer
+     */
+    public ProjectDetails getProjectDetails(int index) {
+        return new ProjectDetails(getProject(index),
+            (Architect) personOrNull(EntityType.ARCHITECT, getPersonIndex(index, EntityType.ARCHITECT)),
+            (Contractor) personOrNull(EntityType.CONTRACTOR, getPersonIndex(index, EntityType.CONTRACTOR)),
+            (Customer) personOrNull(EntityType.CUSTOMER, getPersonIndex(index, EntityType.CUSTOMER)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Person personOrNull(EntityType type, int index) {
+        return index < 0 ? null : getPerson(type, index);
+    }
+
+    private String personId(EntityType type, int index) {
+        if (index < 0) {
+            return null;
+        }
+        Region region = people[SnapshotFormat.section(type)];
+        return string(region.getLong((long) index * SnapshotFormat.PERSON_RECORD_SIZE + SnapshotFormat.P_ID));
+    }
+
+    private long projectPosition(int index) {
+        return recordPosition(index, getProjectCount(), SnapshotFormat.PROJECT_RECORD_SIZE);
+    }
+
+    private long projectLong(int index, int field) {
+        return projects.getLong(projectPosition(index) + field);
+    }
+
+    private static long recordPosition(int index, int count, int recordSize) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + count);
+        }
+        return (long) index * recordSize;
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == SnapshotFormat.NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private String string(long ref) {
+        if (ref == SnapshotFormat.NULL_REF) {
+            return null;
+        }
+        ByteBuffer segment = strings.window(ref);
+        int offset = strings.offsetInWindow(ref);
+        byte[] bytes = new byte[segment.getInt(offset)];
+        ByteBuffer view = segment.duplicate();
+        view.position(offset + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a stored string with UTF-8 bytes, as unsigned bytes, without decoding it.
+     */
+    private int compareString(long ref, byte[] key) {
+        ByteBuffer segment = strings.window(ref);
+        int offset = strings.offsetInWindow(ref);
+        int length = segment.getInt(offset);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(segment.get(offset + 4 + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    /**
+     * Compares two byte arrays as unsigned bytes, the order in which projects are stored.
+     */
+    static int compareBytes(byte[] a, byte[] b) {
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * A section of the file mapped as one or more read-only windows of at most 1 GiB.
+     * Windows hold whole records, so no field is split between two of them.
+     */
+    private static final class Region {
+        private final long length;
+        private final long windowSize;
+        private final ByteBuffer[] windows;
+
+        Region(FileChannel channel, long offset, long length, int recordSize) throws IOException {
+            this.length = length;
+            this.windowSize = SnapshotFormat.SEGMENT_SIZE / recordSize * recordSize;
+            int count = (int) ((length + windowSize - 1) / windowSize);
+            this.windows = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = i * windowSize;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start,
+                                         Math.min(windowSize, length - start)).order(SnapshotFormat.ORDER);
+            }
+        }
+
+        ByteBuffer window(long position) {
+            return windows[(int) (position / windowSize)];
+        }
+
+        int offsetInWindow(long position) {
+            return (int) (position % windowSize);
+        }
+
+        byte get(long position) {
+            return window(position).get(offsetInWindow(position));
+        }
+
+        int getInt(long position) {
+            return window(position).getInt(offsetInWindow(position));
+        }
+
+        long getLong(long position) {
+            return window(position).getLong(offsetInWindow(position));
+        }
+
+        double getDouble(long position) {
+            return window(position).getDouble(offsetInWindow(position));
+        }
+    }
+}
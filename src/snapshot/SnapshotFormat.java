@@ -0,0 +1,89 @@
+package snapshot;
+
+import enums.EntityType;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the binary snapshot file shared by {@link SnapshotWriter} and {@link Snapshot}.
+ *
+ * <pre>
+ * header      64 bytes   magic, version, created millis, counts, string table offset and length
+ * architects  48 bytes each, ordered by ID
+ * contractors 48 bytes each, ordered by ID
+ * customers   48 bytes each, ordered by ID
+ * projects    88 bytes each, ordered by the bytes of ProjectNumber
+ * strings     [int length][UTF-8 bytes] entries; none crosses a 1 GiB boundary
+ * </pre>
+ *
+ * <p>Strings in records are 8-byte offsets into the string table ({@code -1} for null).
+ * Projects refer to people by record index ({@code -1} if absent). Dates are epoch days
+ * ({@link Integer#MIN_VALUE} for null). All values are little-endian. Readers must reject
+ * a version newer than {@link #VERSION}; any change to the layout bumps it.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x534D4450; // "PDMS" little-endian
+    static final int VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 64;
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 4;
+    static final int H_CREATED = 8;
+    static final int H_COUNTS = 16; // int per section: architects, contractors, customers, projects
+    static final int H_STRINGS_OFFSET = 32;
+    static final int H_STRINGS_LENGTH = 40;
+
+    static final int PERSON_RECORD_SIZE = 48;
+    static final int P_ID = 0;
+    static final int P_FIRST_NAME = 8;
+    static final int P_SURNAME = 16;
+    static final int P_TELEPHONE = 24;
+    static final int P_EMAIL = 32;
+    static final int P_ADDRESS = 40;
+
+    static final int PROJECT_RECORD_SIZE = 88;
+    static final int J_NUMBER = 0;
+    static final int J_NAME = 8;
+    static final int J_BUILDING_TYPE = 16;
+    static final int J_ADDRESS = 24;
+    static final int J_ERF = 32;
+    static final int J_TOTAL_FEE = 40;
+    static final int J_TOTAL_PAID = 48;
+    static final int J_DEADLINE = 56;
+    static final int J_COMPLETION = 60;
+    static final int J_ARCHITECT = 64;
+    static final int J_CONTRACTOR = 68;
+    static final int J_CUSTOMER = 72;
+    static final int J_VERSION = 76;
+    static final int J_FINALISED = 80;
+
+    /** Strings never straddle a segment, so each can be read from one mapping. */
+    static final int SEGMENT_BITS = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    static final long NULL_REF = -1;
+    static final int NULL_DATE = Integer.MIN_VALUE;
+
+    /** People sections in file order. */
+    static final EntityType[] PEOPLE = {EntityType.ARCHITECT, EntityType.CONTRACTOR, EntityType.CUSTOMER};
+
+    private SnapshotFormat() {
+    }
+
+    /**
+     * @return Position of a people type in {@link #PEOPLE}
+     * @throws IllegalArgumentException for {@link EntityType#PROJECT}
+     */
+    static int section(EntityType type) {
+        for (int i = 0; i < PEOPLE.length; i++) {
+            if (PEOPLE[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not a person type: " + type);
+    }
+}
@@ -0,0 +1,367 @@
+package snapshot;
+
+import constants.AppConstants;
+import enums.EntityType;
+import exception.DatabaseException;
+import model.Person;
+import model.Project;
+import service.PersonRepository;
+import util.LoggerUtil;
+import util.LoggerUtil.Subsystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the binary snapshot described in {@link SnapshotFormat}.
+ *
+ * <p>{@link #write(Connection, Path)} reads every person and project inside one
+ * {@code START TRANSACTION WITH CONSISTENT SNAPSHOT}, streaming each table row by row,
+ * so the file reflects a single point in time without locking writers out. Records and
+ * strings go to two temporary files that are joined at the end; the target is only
+ * replaced once the whole file is on disk, so readers never see a partial snapshot.</p>
+ *
+ * <p>Repeated strings such as building types and cities are stored once, up to
+ * {@value #INTERN_LIMIT} distinct values; the rest are written as they come.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class SnapshotWriter implements Closeable {
+    private static final int INTERN_LIMIT = 100_000;
+    private static final int INTERN_MAX_LENGTH = 64;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Summary of a snapshot run.
+     */
+    public static final class Result {
+        private final int[] counts;
+        private final long bytes;
+        private final long elapsedMillis;
+
+        Result(int[] counts, long bytes, long elapsedMillis) {
+            this.counts = counts.clone();
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getProjects() {
+            return counts[SnapshotFormat.PEOPLE.length];
+        }
+
+        public int getPeople() {
+            return counts[0] + counts[1] + counts[2];
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Wrote snapshot of %d projects and %d people, %.1f MB (%d ms)",
+                                 getProjects(), getPeople(), bytes / 1e6, elapsedMillis);
+        }
+    }
+
+    private final Path target;
+    private final Path recordsFile;
+    private final Path stringsFile;
+    private final FileChannel records;
+    private final FileChannel strings;
+    private final ByteBuffer recordBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(SnapshotFormat.ORDER);
+    private final ByteBuffer stringBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(SnapshotFormat.ORDER);
+    private final Map<String, Long> interned = new HashMap<>();
+    private final Map<EntityType, Map<String, Integer>> personIndex = new EnumMap<>(EntityType.class);
+    private final int[] counts = new int[SnapshotFormat.PEOPLE.length + 1];
+    private long stringsLength;
+    private int section;
+    private byte[] lastProjectNumber;
+    private boolean finished;
+
+    /**
+     * Opens temporary files next to {@code target}.
+     *
+     * @param target Snapshot file to create or replace
+     * @throws IOException if the temporary files cannot be created
+     */
+    SnapshotWriter(Path target) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        this.target = target;
+        this.recordsFile = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        this.stringsFile = Files.createTempFile(dir, target.getFileName().toString(), ".strings");
+        this.records = FileChannel.open(recordsFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.strings = FileChannel.open(stringsFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        records.position(SnapshotFormat.HEADER_SIZE);
+        for (EntityType type : SnapshotFormat.PEOPLE) {
+            personIndex.put(type, new HashMap<>());
+        }
+    }
+
+    /**
+     * Writes a snapshot of all people and projects from one consistent read.
+     *
+     * @param connection Database connection; its transaction settings are restored afterwards
+     * @param target Snapshot file to create or replace
+     * @return Summary of the run
+     * @throws DatabaseException if the data cannot be read
+     * @throws IOException if the file cannot be written
+     */
+    public static Result write(Connection connection, Path target) throws DatabaseException, IOException {
+        long started = System.currentTimeMillis();
+        try (SnapshotWriter writer = new SnapshotWriter(target)) {
+            boolean autoCommit = connection.getAutoCommit();
+            int isolation = connection.getTransactionIsolation();
+            try {
+                connection.setAutoCommit(false);
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+                }
+                for (EntityType type : SnapshotFormat.PEOPLE) {
+                    writer.readPeople(connection, type);
+                }
+                writer.readProjects(connection);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setTransactionIsolation(isolation);
+                connection.setAutoCommit(autoCommit);
+            }
+            long bytes = writer.finish();
+            Result result = new Result(writer.counts, bytes, System.currentTimeMillis() - started);
+            LoggerUtil.info(Subsystem.SERVICE, "{} to {}", result, target);
+            return result;
+        } catch (SQLException e) {
+            LoggerUtil.error("Failed to read data for snapshot " + target, e);
+            throw new DatabaseException("Failed to read data for snapshot", e);
+        }
+    }
+
+    private void readPeople(Connection connection, EntityType type) throws SQLException, IOException {
+        PersonRepository<? extends Person> repository = PersonRepository.forDisplayName(type.getDisplayName());
+        String query = "SELECT " + type.getIdColumn() + ", FirstName, Surname, Telephone, Email, PhysicalAddress FROM "
+            + type.getTableName() + " ORDER BY " + type.getIdColumn();
+        try (Statement stmt = streaming(connection); ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                addPerson(type, repository.create(rs.getString(1), rs.getString(2), rs.getString(3),
+                                                  rs.getString(4), rs.getString(5), rs.getString(6)));
+            }
+        }
+    }
+
+    private void readProjects(Connection connection) throws SQLException, IOException {
+        String query = "SELECT " + AppConstants.PROJECT_COLUMNS + " FROM project ORDER BY BINARY ProjectNumber";
+        try (Statement stmt = streaming(connection); ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                Project project = new Project(rs.getString("ProjectNumber"), rs.getString("ProjectName"),
+                    toLocalDate(rs.getDate("Deadline")), rs.getString("BuildingType"), rs.getString("PhysicalAddress"),
+                    rs.getString("ERFNumber"), rs.getDouble("TotalFee"), rs.getDouble("TotalPaid"),
+                    rs.getString("ArchitectID"), rs.getString("ContractorID"), rs.getString("CustomerID"));
+                project.setFinalised(rs.getString("Finalised"));
+                project.setCompletionDate(toLocalDate(rs.getDate("CompletionDate")));
+                project.setVersion(rs.getInt("Version"));
+                addProject(project);
+            }
+        }
+    }
+
+    private static Statement streaming(Connection connection) throws SQLException {
+        Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        return stmt;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    /**
+     * Appends a person. People must be added grouped by type in the order architects,
+     * contractors, customers, and before any project.
+     */
+    void addPerson(EntityType type, Person person) throws IOException {
+        enterSection(SnapshotFormat.section(type));
+        Map<String, Integer> index = personIndex.get(type);
+        index.put(person.getId(), index.size());
+
+        ensureRecordSpace(SnapshotFormat.PERSON_RECORD_SIZE);
+        recordBuffer.putLong(string(person.getId()));
+        recordBuffer.putLong(string(person.getFirstName()));
+        recordBuffer.putLong(string(person.getSurname()));
+        recordBuffer.putLong(string(person.getTelephone()));
+        recordBuffer.putLong(string(person.getEmail()));
+        recordBuffer.putLong(string(person.getPhysicalAddress()));
+        counts[section]++;
+    }
+
+    /**
+     * Appends a project. Projects must come after all people, in ascending byte order of
+     * their project number, so readers can binary search them.
+     *
+     * @throws IllegalStateException if the project number is not greater than the previous one
+     */
+    void addProject(Project project) throws IOException {
+        enterSection(SnapshotFormat.PEOPLE.length);
+        byte[] number = project.getProjectNumber().getBytes(StandardCharsets.UTF_8);
+        if (lastProjectNumber != null && Snapshot.compareBytes(lastProjectNumber, number) >= 0) {
+            throw new IllegalStateException("Projects out of order at " + project.getProjectNumber());
+        }
+        lastProjectNumber = number;
+
+        ensureRecordSpace(SnapshotFormat.PROJECT_RECORD_SIZE);
+        int start = recordBuffer.position();
+        recordBuffer.putLong(string(project.getProjectNumber()));
+        recordBuffer.putLong(string(project.getProjectName()));
+        recordBuffer.putLong(string(project.getBuildingType()));
+        recordBuffer.putLong(string(project.getPhysicalAddress()));
+        recordBuffer.putLong(string(project.getErfNumber()));
+        recordBuffer.putDouble(project.getTotalFee());
+        recordBuffer.putDouble(project.getTotalPaid());
+        recordBuffer.putInt(epochDay(project.getDeadline()));
+        recordBuffer.putInt(epochDay(project.getCompletionDate()));
+        recordBuffer.putInt(personIndex.get(EntityType.ARCHITECT).getOrDefault(project.getArchitectId(), -1));
+        recordBuffer.putInt(personIndex.get(EntityType.CONTRACTOR).getOrDefault(project.getContractorId(), -1));
+        recordBuffer.putInt(personIndex.get(EntityType.CUSTOMER).getOrDefault(project.getCustomerId(), -1));
+        recordBuffer.putInt(project.getVersion());
+        recordBuffer.put((byte) ("Yes".equalsIgnoreCase(project.getFinalised()) ? 1 : 0));
+        recordBuffer.position(start + SnapshotFormat.PROJECT_RECORD_SIZE);
+        counts[section]++;
+    }
+
+    /**
+     * Writes the header, joins the string table to the records and moves the file into place.
+     *
+     * @return Size of the snapshot in bytes
+     */
+    long finish() throws IOException {
+        flush(recordBuffer, records);
+        flush(stringBuffer, strings);
+        long stringsOffset = records.position();
+
+        strings.position(0);
+        long copied = 0;
+        while (copied < stringsLength) {
+            copied += records.transferFrom(strings, stringsOffset + copied, stringsLength - copied);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.HEADER_SIZE).order(SnapshotFormat.ORDER);
+        header.putInt(SnapshotFormat.H_MAGIC, SnapshotFormat.MAGIC);
+        header.putInt(SnapshotFormat.H_VERSION, SnapshotFormat.VERSION);
+        header.putLong(SnapshotFormat.H_CREATED, System.currentTimeMillis());
+        for (int i = 0; i < counts.length; i++) {
+            header.putInt(SnapshotFormat.H_COUNTS + i * 4, counts[i]);
+        }
+        header.putLong(SnapshotFormat.H_STRINGS_OFFSET, stringsOffset);
+        header.putLong(SnapshotFormat.H_STRINGS_LENGTH, stringsLength);
+        while (header.hasRemaining()) {
+            records.write(header, header.position());
+        }
+        records.force(true);
+        records.close();
+        Files.move(recordsFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+        return stringsOffset + stringsLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.close();
+        strings.close();
+        Files.deleteIfExists(stringsFile);
+        if (!finished) {
+            Files.deleteIfExists(recordsFile);
+        }
+    }
+
+    private void enterSection(int next) {
+        if (next < section) {
+            throw new IllegalStateException("Snapshot sections must be written in order");
+        }
+        section = next;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? SnapshotFormat.NULL_DATE : (int) date.toEpochDay();
+    }
+
+    /**
+     * Appends a string to the string table and returns its offset.
+     */
+    private long string(String value) throws IOException {
+        if (value == null) {
+            return SnapshotFormat.NULL_REF;
+        }
+        boolean internable = value.length() <= INTERN_MAX_LENGTH;
+        if (internable) {
+            Long existing = interned.get(value);
+            if (existing != null) {
+                return existing;
+            }
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = 4 + bytes.length;
+        long used = stringsLength & (SnapshotFormat.SEGMENT_SIZE - 1);
+        if (used + size > SnapshotFormat.SEGMENT_SIZE) {
+            long padding = SnapshotFormat.SEGMENT_SIZE - used;
+            flush(stringBuffer, strings);
+            strings.position(strings.position() + padding);
+            stringsLength += padding;
+        }
+        if (stringBuffer.remaining() < size) {
+            flush(stringBuffer, strings);
+        }
+
+        long offset = stringsLength;
+        if (size > stringBuffer.capacity()) {
+            ByteBuffer large = ByteBuffer.allocate(size).order(SnapshotFormat.ORDER);
+            large.putInt(bytes.length).put(bytes).flip();
+            while (large.hasRemaining()) {
+                strings.write(large);
+            }
+        } else {
+            stringBuffer.putInt(bytes.length).put(bytes);
+        }
+        stringsLength += size;
+
+        if (internable && interned.size() < INTERN_LIMIT) {
+            interned.put(value, offset);
+        }
+        return offset;
+    }
+
+    private void ensureRecordSpace(int size) throws IOException {
+        if (recordBuffer.remaining() < size) {
+            flush(recordBuffer, records);
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
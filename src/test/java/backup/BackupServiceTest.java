@@ -0,0 +1,59 @@
+package backup;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for backup literals and the manifest.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class BackupServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Values are written as MySQL literals")
+    void testLiteral() {
+        assertEquals("NULL", BackupService.literal(null, Types.VARCHAR));
+        assertEquals("1250.50", BackupService.literal("1250.50", Types.DECIMAL));
+        assertEquals("'2025-01-31'", BackupService.literal("2025-01-31", Types.DATE));
+        assertEquals("'O\\'Neil \\\\ Sons\\nLine 2'", BackupService.literal("O'Neil \\ Sons\nLine 2", Types.VARCHAR));
+        assertEquals("'\\0\\r\\Z'", BackupService.literal("\0\r\u001A", Types.VARCHAR));
+    }
+
+    @Test
+    @DisplayName("Manifest round-trips tables, chunks and row counts")
+    void testManifest() throws IOException {
+        BackupManifest manifest = new BackupManifest(Instant.parse("2025-03-01T10:15:30Z"));
+        manifest.addTable("architect");
+        manifest.addTable("project");
+        manifest.addChunk("project", "project.00001.sql", 20);
+        manifest.addChunk("project", "project.00000.sql", 30);
+        manifest.addChunk("architect", "architect.00000.sql", 3);
+        manifest.write(dir);
+
+        BackupManifest read = BackupManifest.read(dir);
+        assertEquals(Instant.parse("2025-03-01T10:15:30Z"), read.getCreatedAt());
+        assertEquals(Arrays.asList("architect", "project"), read.getTables());
+        assertEquals(Arrays.asList("project.00000.sql", "project.00001.sql"), read.getChunks("project"));
+        assertEquals(50, read.getRows("project"));
+        assertEquals(3, read.getRows("architect"));
+    }
+
+    @Test
+    @DisplayName("A directory without a manifest is not a backup")
+    void testMissingManifest() {
+        assertThrows(IOException.class, () -> BackupManifest.read(dir));
+    }
+}
@@ -0,0 +1,90 @@
+package config;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for reloading when a configuration file is saved.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class ConfigFileWatcherTest {
+    private static final String URL = "db.url=jdbc:mysql://localhost:3306/test\n";
+
+    @Test
+    @DisplayName("A burst of writes to the file runs the action once; other files are ignored")
+    void testReloadOnChange(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("database.properties");
+        Files.write(file, "db.pool.size=10\n".getBytes(StandardCharsets.UTF_8));
+        Semaphore reloads = new Semaphore(0);
+
+        try (ConfigFileWatcher watcher = ConfigFileWatcher.start(file, reloads::release)) {
+            Files.write(dir.resolve("other.properties"), "x=1\n".getBytes(StandardCharsets.UTF_8));
+            assertFalse(reloads.tryAcquire(1500, TimeUnit.MILLISECONDS));
+
+            for (int size = 11; size <= 13; size++) {
+                Files.write(file, ("db.pool.size=" + size + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            assertTrue(reloads.tryAcquire(10, TimeUnit.SECONDS));
+            assertFalse(reloads.tryAcquire(1500, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("A file named by poisedms.db.config is read and reloaded instead of the classpath copy")
+    void testExternalConfigFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("db.properties");
+        Files.write(file, (URL + "db.pool.size=7\n").getBytes(StandardCharsets.UTF_8));
+        System.setProperty("poisedms.db.config", file.toString());
+        try {
+            assertEquals(file.toAbsolutePath(), DatabaseConfig.getConfigFile());
+            DatabaseConfig.reload();
+            assertEquals(7, DatabaseConfig.getPoolSize());
+        } finally {
+            System.clearProperty("poisedms.db.config");
+            DatabaseConfig.reload();
+        }
+    }
+
+    @Test
+    @DisplayName("A reload with a bad setting or a missing file keeps the current settings")
+    void testRejectedReload(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("db.properties");
+        Files.write(file, (URL + "db.pool.size=7\ndb.query.timeout=30\n").getBytes(StandardCharsets.UTF_8));
+        System.setProperty("poisedms.db.config", file.toString());
+        try {
+            DatabaseConfig.reload();
+            assertEquals(7, DatabaseConfig.getPoolSize());
+
+            Files.write(file, (URL + "db.pool.size=seven\ndb.query.timeout=5\n").getBytes(StandardCharsets.UTF_8));
+            DatabaseConfig.reload();
+            assertEquals(7, DatabaseConfig.getPoolSize());
+            assertEquals(30, DatabaseConfig.getQueryTimeout());
+
+            Files.write(file, (URL + "db.pool.size=0\n").getBytes(StandardCharsets.UTF_8));
+            DatabaseConfig.reload();
+            assertEquals(7, DatabaseConfig.getPoolSize());
+
+            Files.write(file, "db.pool.size=8\n".getBytes(StandardCharsets.UTF_8));
+            DatabaseConfig.reload();
+            assertEquals(7, DatabaseConfig.getPoolSize());
+
+            Files.delete(file);
+            DatabaseConfig.reload();
+            assertEquals(7, DatabaseConfig.getPoolSize());
+            assertEquals("jdbc:mysql://localhost:3306/test", DatabaseConfig.getUrl());
+        } finally {
+            System.clearProperty("poisedms.db.config");
+            DatabaseConfig.reload();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dedup;
+
+import enums.EntityType;
+import model.Customer;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for normalisation, Soundex and duplicate scoring.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class DuplicateDetectorTest {
+
+    @Test
+    @DisplayName("Names, phones and emails are normalised")
+    void testNormalize() {
+        assertEquals("zoe oneil", PersonNormalizer.name("  Zoë  O'Neil "));
+        assertEquals("mary jane", PersonNormalizer.name("Mary-Jane"));
+        assertEquals("0821234567", PersonNormalizer.phone("+27 (82) 123-4567"));
+        assertEquals("0821234567", PersonNormalizer.phone("082 123 4567"));
+        assertEquals("john.smith@arch.com", PersonNormalizer.email(" John.Smith+quotes@Arch.com "));
+    }
+
+    @Test
+    @DisplayName("Soundex matches the standard codes")
+    void testSoundex() {
+        assertEquals("R163", PersonNormalizer.soundex("robert"));
+        assertEquals("R163", PersonNormalizer.soundex("rupert"));
+        assertEquals("A261", PersonNormalizer.soundex("ashcraft"));
+        assertEquals("T522", PersonNormalizer.soundex("tymczak"));
+        assertEquals("P236", PersonNormalizer.soundex("pfister"));
+        assertEquals("L000", PersonNormalizer.soundex("lee"));
+        assertEquals("", PersonNormalizer.soundex(""));
+    }
+
+    @Test
+    @DisplayName("Jaro-Winkler gives the textbook values")
+    void testJaroWinkler() {
+        assertEquals(0.961, DuplicateDetector.jaroWinkler("martha", "marhta"), 0.001);
+        assertEquals(0.840, DuplicateDetector.jaroWinkler("dwayne", "duane"), 0.001);
+        assertEquals(1.0, DuplicateDetector.jaroWinkler("same", "same"));
+        assertEquals(0.0, DuplicateDetector.jaroWinkler("abc", "xyz"));
+    }
+
+    @Test
+    @DisplayName("Re-entered people are paired once and strangers are not")
+    void testFindCandidates() {
+        List<Customer> people = Arrays.asList(
+            new Customer("CUS001", "Robert", "Taylor", "0123456795", "robert.taylor@email.com", "111 Home St, Johannesburg"),
+            new Customer("CUS007", "Rob", "Tayler", "+27 12 345 6795", "Robert.Taylor+new@email.com", "111 Home Street, Johannesburg"),
+            new Customer("CUS002", "Linda", "Anderson", "0123456796", "linda.anderson@email.com", "222 Residence Ave, Cape Town"),
+            new Customer("CUS003", "Lynda", "Andersen", "0829990000", "l.andersen@mail.com", "9 Other Rd, Durban"));
+
+        List<DuplicateDetector.Candidate> candidates =
+            new DuplicateDetector(0.8, 500, 50, 2).findCandidates(EntityType.CUSTOMER, people);
+
+        assertEquals(1, candidates.size());
+        DuplicateDetector.Candidate candidate = candidates.get(0);
+        assertEquals("CUS001", candidate.getLeftId());
+        assertEquals("CUS007", candidate.getRightId());
+        assertTrue(candidate.getReasons().contains("email"));
+        assertTrue(candidate.getReasons().contains("phone"));
+    }
+
+    @Test
+    @DisplayName("A re-entered person with a new email is still paired")
+    void testDifferentEmails() {
+        List<Customer> people = Arrays.asList(
+            new Customer("CUS001", "Robert", "Taylor", "0123456795", "robert.taylor@email.com", "111 Home St, Johannesburg"),
+            new Customer("CUS008", "Robert", "Taylor", "012 345 6795", "rtaylor@work.co.za", "111 Home St, Johannesburg"),
+            new Customer("CUS009", "Robert", "Taylor", "0829990000", "bob@mail.com", "111 Home St, Johannesburg"));
+
+        List<DuplicateDetector.Candidate> candidates =
+            new DuplicateDetector(0.8, 500, 50, 2).findCandidates(EntityType.CUSTOMER, people);
+
+        assertEquals(1, candidates.size());
+        DuplicateDetector.Candidate candidate = candidates.get(0);
+        assertEquals("CUS001", candidate.getLeftId());
+        assertEquals("CUS008", candidate.getRightId());
+        assertEquals(1.0, candidate.getScore(), 0.001);
+        assertFalse(candidate.getReasons().contains("email"));
+    }
+}
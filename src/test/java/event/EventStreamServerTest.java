@@ -0,0 +1,52 @@
+package event;
+
+import org.junit.jupiter.api.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for heartbeats on idle event streams.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class EventStreamServerTest {
+
+    @Test
+    @DisplayName("Idle streams get heartbeats and a vanished client is unsubscribed")
+    void testHeartbeat() throws Exception {
+        ProjectEventBus bus = new ProjectEventBus(16, Runnable::run);
+        EventStreamServer server = new EventStreamServer(bus, 0, 50);
+        server.start();
+        try {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                OutputStream out = socket.getOutputStream();
+                out.write("GET /events HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                                                                             StandardCharsets.UTF_8));
+                String line;
+                do {
+                    line = in.readLine();
+                    assertNotNull(line, "stream ended before a heartbeat");
+                } while (!line.endsWith(":"));
+                assertEquals(1, bus.getSubscriberCount());
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (bus.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, bus.getSubscriberCount());
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package event;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for demand-driven delivery, resume and lag handling of the change feed.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class ProjectEventBusTest {
+
+    /** Records what it receives and requests only what the test asks for. */
+    private static final class Recorder implements Flow.Subscriber<ProjectEvent> {
+        final List<ProjectEvent> events = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        private final long initial;
+
+        Recorder(long initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initial != 0) {
+                subscription.request(initial);
+            }
+        }
+
+        @Override
+        public void onNext(ProjectEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private ProjectEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new ProjectEventBus(4, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Events are delivered only as far as requested")
+    void testDemand() {
+        Recorder recorder = new Recorder(2);
+        bus.subscribe(recorder);
+        bus.publish(ProjectEvent.Type.CREATED, "1001");
+        bus.publish(ProjectEvent.Type.UPDATED, "1001", null, 500.0);
+        bus.publish(ProjectEvent.Type.FINALISED, "1001");
+        assertEquals(2, recorder.events.size());
+
+        recorder.subscription.request(5);
+        assertEquals(3, recorder.events.size());
+        assertEquals(ProjectEvent.Type.FINALISED, recorder.events.get(2).getType());
+        assertEquals(2, recorder.events.get(2).getOffset());
+        assertNull(recorder.error);
+    }
+
+    @Test
+    @DisplayName("A subscriber can resume from an offset still in the ring")
+    void testResume() {
+        for (int i = 0; i < 3; i++) {
+            bus.publish(ProjectEvent.Type.CREATED, "100" + i);
+        }
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        bus.subscribe(recorder, 1);
+        assertEquals(2, recorder.events.size());
+        assertEquals("1001", recorder.events.get(0).getProjectNumber());
+        assertEquals(1, bus.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Falling behind the ring signals LaggedException")
+    void testLagged() {
+        Recorder recorder = new Recorder(0);
+        bus.subscribe(recorder);
+        for (int i = 0; i < 6; i++) {
+            bus.publish(ProjectEvent.Type.CREATED, "100" + i);
+        }
+        recorder.subscription.request(1);
+        assertTrue(recorder.events.isEmpty());
+        assertInstanceOf(ProjectEventBus.LaggedException.class, recorder.error);
+        assertEquals(2, ((ProjectEventBus.LaggedException) recorder.error).getOldestOffset());
+        assertEquals(0, bus.getSubscriberCount());
+
+        Recorder stale = new Recorder(1);
+        bus.subscribe(stale, 0);
+        assertInstanceOf(ProjectEventBus.LaggedException.class, stale.error);
+    }
+
+    @Test
+    @DisplayName("Non-positive requests are rejected through onError")
+    void testInvalidRequest() {
+        Recorder recorder = new Recorder(0);
+        bus.subscribe(recorder);
+        recorder.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, recorder.error);
+    }
+
+    @Test
+    @DisplayName("Payment events carry both amounts as JSON")
+    void testJson() {
+        Recorder recorder = new Recorder(1);
+        bus.subscribe(recorder);
+        bus.publish(ProjectEvent.Type.PAYMENT_CHANGED, "1001", 100.0, 250.5);
+        String json = recorder.events.get(0).toJson();
+        assertTrue(json.contains("\"type\":\"payment_changed\""), json);
+        assertTrue(json.contains("\"previousPaid\":100.0"), json);
+        assertTrue(json.contains("\"totalPaid\":250.5"), json);
+    }
+}
@@ -0,0 +1,62 @@
+package loadtest;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyRecorder.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class LatencyRecorderTest {
+
+    @Test
+    @DisplayName("Percentiles are within one bucket of the exact value")
+    void testPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 1; i <= 10_000; i++) {
+            recorder.record(i);
+        }
+
+        assertEquals(10_000, recorder.getCount());
+        assertEquals(10_000, recorder.getMax());
+        assertEquals(5_000, recorder.getPercentile(50), 5_000 * 0.125);
+        assertEquals(9_900, recorder.getPercentile(99), 9_900 * 0.125);
+        assertTrue(recorder.getPercentile(50) >= 5_000);
+        assertEquals(10_000, recorder.getPercentile(100));
+    }
+
+    @Test
+    @DisplayName("Bucket upper bounds are at most 12.5% above the value")
+    void testBuckets() {
+        for (long value = 1; value < 1_000_000; value = value * 3 / 2 + 1) {
+            int bucket = LatencyRecorder.bucketOf(value);
+            assertTrue(value <= LatencyRecorder.upperBoundOf(bucket), "value " + value);
+            assertTrue(LatencyRecorder.upperBoundOf(bucket) <= value * 1.125 + 1, "value " + value);
+        }
+    }
+
+    @Test
+    @DisplayName("Merging recorders combines counts and maxima")
+    void testMerge() {
+        LatencyRecorder a = new LatencyRecorder();
+        LatencyRecorder b = new LatencyRecorder();
+        a.record(100);
+        b.record(50_000);
+
+        a.merge(b);
+
+        assertEquals(2, a.getCount());
+        assertEquals(50_000, a.getMax());
+        assertEquals(25_050, a.getMean(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Workload mix parsing ignores zero weights and rejects unknown operations")
+    void testMixParsing() {
+        assertEquals(2, WorkloadDriver.parseMix("find=3, update=1, create=0").size());
+        assertThrows(IllegalArgumentException.class, () -> WorkloadDriver.parseMix("delete=5"));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadDriver.parseMix("find=0"));
+    }
+}
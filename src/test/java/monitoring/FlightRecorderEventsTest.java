@@ -0,0 +1,63 @@
+package monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import util.LoggerUtil;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PoiseDMS Flight Recorder events and the shipped settings file.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class FlightRecorderEventsTest {
+
+    @Test
+    @DisplayName("Service calls are recorded with rows and the enclosing operation ID")
+    void testServiceCallRecorded(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("test.jfr");
+        String operationId;
+        try (Recording recording = new Recording()) {
+            recording.enable(UserActionEvent.class);
+            recording.enable(ServiceCallEvent.class);
+            recording.start();
+            try (LoggerUtil.OperationContext operation = LoggerUtil.beginOperation("menu.1")) {
+                operationId = operation.getOperationId();
+                try (ServiceCallEvent event = ServiceCallEvent.begin("PaymentService", "findPayments")) {
+                    event.setRows(7);
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent call = events.stream()
+            .filter(e -> e.getEventType().getName().equals("poisedms.ServiceCall")).findFirst().orElseThrow();
+        assertEquals("findPayments", call.getString("operation"));
+        assertEquals(7, call.getLong("rows"));
+        assertEquals(operationId, call.getString("operationId"));
+        RecordedEvent action = events.stream()
+            .filter(e -> e.getEventType().getName().equals("poisedms.UserAction")).findFirst().orElseThrow();
+        assertEquals("menu.1", action.getString("operation"));
+    }
+
+    @Test
+    @DisplayName("poisedms.jfc is a valid settings file that enables every PoiseDMS event")
+    void testSettingsFile() throws Exception {
+        Configuration configuration = Configuration.create(Paths.get("config", "poisedms.jfc"));
+        for (String event : new String[] {"UserAction", "ServiceCall", "ConnectionAcquire", "SqlExecution"}) {
+            assertEquals("true", configuration.getSettings().get("poisedms." + event + "#enabled"), event);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package monitoring;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SQL shaping, parameter formatting and reading back the slow query log.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class SlowQueryRecorderTest {
+
+    @Test
+    @DisplayName("Literals, IN lists and VALUES rows are folded")
+    void testShape() {
+        assertEquals("SELECT * FROM project WHERE ProjectNumber = ? AND ProjectName LIKE ?",
+                     SlowQueryRecorder.shape("SELECT *\n  FROM project WHERE ProjectNumber = 1001 AND ProjectName LIKE 'O''Neil%'"));
+        assertEquals("SELECT * FROM people WHERE ID IN (?, ...)",
+                     SlowQueryRecorder.shape("SELECT * FROM people WHERE ID IN (?, ?, ?)"));
+        assertEquals("INSERT INTO t (a, b) VALUES (?, ...), ...",
+                     SlowQueryRecorder.shape("INSERT INTO t (a, b) VALUES (1, 'x'), (2, 'y'), (3, 'z')"));
+    }
+
+    @Test
+    @DisplayName("Parameters are quoted, truncated and redacted for sensitive SQL")
+    void testDescribe() {
+        Map<Integer, Object> parameters = new LinkedHashMap<>();
+        parameters.put(1, "Smith");
+        parameters.put(2, 42);
+        parameters.put(3, null);
+        parameters.put(4, "x".repeat(100));
+        String described = SlowQueryRecorder.describe("SELECT * FROM people WHERE Surname = ?", parameters);
+        assertTrue(described.startsWith("1='Smith', 2=42, 3=NULL, 4='xxxx"), described);
+        assertTrue(described.endsWith("...'"), described);
+
+        assertEquals("1=<redacted>",
+                     SlowQueryRecorder.describe("UPDATE account SET password = ?", Map.of(1, "hunter2")));
+    }
+
+    @Test
+    @DisplayName("Recent entries are read across rotated files, oldest first")
+    void testReadRecent(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("slow-queries.2.log"), "--- a\nsql: A\n");
+        Files.writeString(dir.resolve("slow-queries.1.log"), "--- b\nsql: B\n--- c\nsql: C\n");
+        Files.writeString(dir.resolve("slow-queries.log"), "--- d\nsql: D\n");
+
+        List<String> entries = SlowQueryRecorder.readRecent(dir.resolve("slow-queries.log"), 3);
+        assertEquals(3, entries.size());
+        assertTrue(entries.get(0).startsWith("--- b"));
+        assertTrue(entries.get(2).startsWith("--- d"));
+        assertTrue(SlowQueryRecorder.readRecent(dir.resolve("missing.log"), 5).isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package report;
+
+import model.Customer;
+import model.Project;
+import model.ProjectDetails;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for statement grouping and totals.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class StatementGeneratorTest {
+    private static final LocalDate AS_OF = LocalDate.of(2025, 6, 30);
+
+    private static ProjectDetails project(String number, LocalDate deadline, double fee, double paid,
+                                          String contractorId, String customerId) {
+        Project project = new Project(number, "Project " + number, deadline, "House", "1 Road", "ERF1",
+                                      fee, paid, "ARC1", contractorId, customerId);
+        Customer customer = new Customer(customerId, "First" + customerId, "Last", null, null, null);
+        return new ProjectDetails(project, null, null, customer);
+    }
+
+    @Test
+    @DisplayName("Projects are grouped by customer in ID order and sorted by deadline")
+    void testPartitionByCustomer() {
+        List<ProjectDetails> projects = Arrays.asList(
+            project("P3", LocalDate.of(2025, 9, 1), 100, 0, "CON1", "CUS2"),
+            project("P1", LocalDate.of(2025, 8, 1), 100, 0, "CON1", "CUS1"),
+            project("P2", LocalDate.of(2025, 7, 1), 100, 0, "CON2", "CUS1"));
+
+        List<AccountStatement> statements =
+            StatementGenerator.partition(projects, AccountStatement.Party.CUSTOMER, AS_OF);
+
+        assertEquals(2, statements.size());
+        assertEquals("CUS1", statements.get(0).getPartyId());
+        assertEquals("FirstCUS1 Last", statements.get(0).getPartyName());
+        assertEquals("P2", statements.get(0).getProjects().get(0).getProject().getProjectNumber());
+        assertEquals("P1", statements.get(0).getProjects().get(1).getProject().getProjectNumber());
+
+        List<AccountStatement> byContractor =
+            StatementGenerator.partition(projects, AccountStatement.Party.CONTRACTOR, AS_OF);
+        assertEquals(2, byContractor.size());
+        assertEquals(2, byContractor.get(0).getProjects().size());
+        assertEquals("CON1", byContractor.get(0).getPartyName());
+    }
+
+    @Test
+    @DisplayName("Totals and overdue days ignore overpayment and finalised projects")
+    void testTotals() {
+        ProjectDetails late = project("P1", AS_OF.minusDays(10), 1000, 400, "CON1", "CUS1");
+        ProjectDetails overpaid = project("P2", AS_OF.plusDays(5), 500, 600, "CON1", "CUS1");
+        ProjectDetails finalised = project("P3", AS_OF.minusDays(30), 200, 0, "CON1", "CUS1");
+        finalised.getProject().setFinalised("Yes");
+
+        AccountStatement statement = new AccountStatement(AccountStatement.Party.CUSTOMER, "CUS1", null, AS_OF,
+                                                          Arrays.asList(late, overpaid, finalised));
+
+        assertEquals(1700, statement.getTotalFee(), 0.001);
+        assertEquals(1000, statement.getTotalPaid(), 0.001);
+        assertEquals(800, statement.getTotalOutstanding(), 0.001);
+        assertEquals(1, statement.getOverdueCount());
+        assertEquals(10, statement.overdueDays(late.getProject()));
+        assertEquals(0, statement.overdueDays(finalised.getProject()));
+        assertEquals("CUS1", statement.getPartyName());
+    }
+
+    @Test
+    @DisplayName("HTML output escapes markup in names")
+    void testEscape() {
+        assertEquals("&lt;b&gt;O&#39;Neil &amp; Sons&lt;/b&gt;", StatementRenderer.escape("<b>O'Neil & Sons</b>"));
+        assertEquals("", StatementRenderer.escape(null));
+    }
+}
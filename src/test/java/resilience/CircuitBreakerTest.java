@@ -0,0 +1,85 @@
+package resilience;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for circuit breaker transitions, driven by a manual clock.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final SQLException connectionLost = new SQLTransientConnectionException("Communications link failure", "08S01");
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker("test", 2, 1000, now::get);
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    @DisplayName("Opens after consecutive connection failures and rejects immediately")
+    void testOpens() throws Exception {
+        breaker.onFailure(connectionLost);
+        breaker.acquirePermission();
+        breaker.onFailure(connectionLost);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.currentState());
+        assertThrows(CircuitOpenException.class, breaker::acquirePermission);
+        assertEquals(1, breaker.getRejectedCount());
+        assertEquals(1, breaker.getOpenedCount());
+    }
+
+    @Test
+    @DisplayName("Permanent errors and interleaved successes do not open the breaker")
+    void testIgnoresPermanentErrors() throws Exception {
+        breaker.onFailure(new SQLException("Duplicate entry", "23000", 1062));
+        breaker.onFailure(connectionLost);
+        breaker.onSuccess();
+        breaker.onFailure(connectionLost);
+        breaker.acquirePermission();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.currentState());
+    }
+
+    @Test
+    @DisplayName("After the open period one probe is allowed; its result decides the state")
+    void testHalfOpenProbe() throws Exception {
+        breaker.onFailure(connectionLost);
+        breaker.onFailure(connectionLost);
+        advanceMillis(1000);
+        breaker.acquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.currentState());
+        assertThrows(CircuitOpenException.class, breaker::acquirePermission);
+
+        breaker.onFailure(connectionLost);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.currentState());
+        assertThrows(CircuitOpenException.class, breaker::acquirePermission);
+
+        advanceMillis(1000);
+        breaker.acquirePermission();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.currentState());
+        breaker.acquirePermission();
+    }
+
+    @Test
+    @DisplayName("A success while open, before any probe, leaves the breaker open")
+    void testSuccessWhileOpen() {
+        breaker.onFailure(connectionLost);
+        breaker.onFailure(connectionLost);
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.currentState());
+        assertThrows(CircuitOpenException.class, breaker::acquirePermission);
+    }
+}
@@ -0,0 +1,71 @@
+package resilience;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static resilience.SqlStateClassifier.Kind.*;
+
+/**
+ * Unit tests for SQLState classification and retry backoff.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class SqlStateClassifierTest {
+
+    @Test
+    @DisplayName("Connection, transient and permanent errors are told apart")
+    void testClassify() {
+        assertEquals(CONNECTION, SqlStateClassifier.classify(new SQLException("Communications link failure", "08S01")));
+        assertEquals(CONNECTION, SqlStateClassifier.classify(new SQLTransientConnectionException("pool timeout")));
+        assertEquals(CONNECTION, SqlStateClassifier.classify(new SQLException("read-only", "HY000", 1290)));
+        assertEquals(TRANSIENT, SqlStateClassifier.classify(new SQLException("Deadlock found", "40001", 1213)));
+        assertEquals(TRANSIENT, SqlStateClassifier.classify(new SQLException("Lock wait timeout", "HY000", 1205)));
+        assertEquals(TRANSIENT, SqlStateClassifier.classify(new SQLTimeoutException("Statement cancelled")));
+        assertEquals(PERMANENT, SqlStateClassifier.classify(new SQLException("Duplicate entry", "23000", 1062)));
+        assertEquals(PERMANENT, SqlStateClassifier.classify(new SQLException("Syntax error", "42000", 1064)));
+    }
+
+    @Test
+    @DisplayName("A connection failure in the cause chain wins")
+    void testCauseChain() {
+        SQLException wrapped = new SQLException("Batch failed", "HY000", 0,
+                                                new SQLException("Communications link failure", "08S01"));
+        assertEquals(CONNECTION, SqlStateClassifier.classify(wrapped));
+        assertTrue(SqlStateClassifier.isTransient(wrapped));
+    }
+
+    @Test
+    @DisplayName("Too many connections is an overload, not an outage")
+    void testOverload() {
+        SQLException tooMany = new SQLNonTransientConnectionException("Too many connections", "08004", 1040);
+        assertEquals(TRANSIENT, SqlStateClassifier.classify(tooMany));
+        assertEquals(TRANSIENT, SqlStateClassifier.classify(new SQLTransientConnectionException(
+            "HikariPool-1 - Connection is not available, request timed out after 5000ms.", "08004", tooMany)));
+        assertEquals(TRANSIENT, SqlStateClassifier.classify(new SQLException("User has too many connections", "42000", 1203)));
+    }
+
+    @Test
+    @DisplayName("A busy pool is told apart from an unreachable database")
+    void testPoolExhausted() {
+        String timeout = "HikariPool-1 - Connection is not available, request timed out after 30000ms.";
+        SQLException refused = new SQLException("Communications link failure", "08S01");
+        assertTrue(SqlStateClassifier.isPoolExhausted(new SQLTransientConnectionException(timeout)));
+        assertFalse(SqlStateClassifier.isPoolExhausted(new SQLTransientConnectionException(timeout, "08S01", refused)));
+        assertFalse(SqlStateClassifier.isPoolExhausted(refused));
+    }
+
+    @Test
+    @DisplayName("Backoff is full jitter under a doubling, capped bound")
+    void testBackoff() {
+        assertEquals(0, Retry.backoffMillis(1, 250, 2000, 0.0));
+        assertEquals(125, Retry.backoffMillis(1, 250, 2000, 0.5));
+        assertEquals(499, Retry.backoffMillis(2, 250, 2000, 0.999));
+        assertEquals(1998, Retry.backoffMillis(10, 250, 2000, 0.999));
+    }
+}
@@ -0,0 +1,139 @@
+package schedule;
+
+import enums.EntityType;
+import event.ProjectEvent;
+import event.ProjectEventBus;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the interval tree and the schedule queries built on it.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class ScheduleIndexTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    @Test
+    @DisplayName("Overlap queries match a scan through inserts and removals")
+    void testTreeMatchesScan() {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        List<long[]> held = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (!held.isEmpty() && random.nextInt(3) == 0) {
+                long[] interval = held.remove(random.nextInt(held.size()));
+                assertTrue(tree.remove(interval[0], interval[1], (int) interval[2]));
+            } else {
+                long start = random.nextInt(1000);
+                long[] interval = {start, start + random.nextInt(60), i};
+                assertTrue(tree.insert(interval[0], interval[1], i));
+                held.add(interval);
+            }
+            if (i % 50 == 0) {
+                long from = random.nextInt(1000);
+                long to = from + random.nextInt(20);
+                long expected = held.stream().filter(interval -> interval[0] <= to && interval[1] >= from).count();
+                List<IntervalTree.Interval<Integer>> found = tree.overlapping(from, to);
+                assertEquals(expected, found.size());
+                for (int j = 1; j < found.size(); j++) {
+                    assertTrue(found.get(j - 1).getStart() <= found.get(j).getStart());
+                }
+            }
+        }
+        assertEquals(held.size(), tree.size());
+        assertFalse(tree.remove(5000, 5001, -1));
+        assertThrows(IllegalArgumentException.class, () -> tree.insert(10, 9, 0));
+    }
+
+    @Test
+    @DisplayName("Active projects are found per day and per person")
+    void testActive() throws Exception {
+        ScheduleIndex index = new ScheduleIndex();
+        index.put(span("P1", "CON001", DAY, DAY.plusDays(10)));
+        index.put(span("P2", "CON002", DAY.plusDays(5), DAY.plusDays(20)));
+        index.put(span("P3", "CON001", DAY.plusDays(30), DAY.plusDays(40)));
+
+        assertEquals(List.of("P1", "P2"), numbers(index.activeOn(null, DAY.plusDays(7))));
+        assertEquals(List.of("P3"), numbers(index.activeFor(null, EntityType.CONTRACTOR, "CON001",
+                                                            DAY.plusDays(11), DAY.plusDays(60))));
+
+        index.put(span("P1", "CON002", DAY, DAY.plusDays(2)));
+        assertEquals(List.of("P2"), numbers(index.activeOn(null, DAY.plusDays(7))));
+        index.remove("P2");
+        assertTrue(index.activeOn(null, DAY.plusDays(7)).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Conflicts cover the days a person has more projects than capacity")
+    void testConflicts() throws Exception {
+        ScheduleIndex index = new ScheduleIndex();
+        index.put(span("P1", "CON001", DAY, DAY.plusDays(10)));
+        index.put(span("P2", "CON001", DAY.plusDays(5), DAY.plusDays(15)));
+        index.put(span("P3", "CON001", DAY.plusDays(8), DAY.plusDays(9)));
+        index.put(span("P4", "CON001", DAY.plusDays(20), DAY.plusDays(25)));
+        index.put(span("P5", "CON002", DAY, DAY.plusDays(25)));
+
+        List<ScheduleIndex.Conflict> conflicts = index.findConflicts(null, EntityType.CONTRACTOR, DAY,
+                                                                     DAY.plusDays(60), 1);
+        assertEquals(1, conflicts.size());
+        ScheduleIndex.Conflict conflict = conflicts.get(0);
+        assertEquals("CON001", conflict.getPersonId());
+        assertEquals(DAY.plusDays(5), conflict.getFrom());
+        assertEquals(DAY.plusDays(10), conflict.getTo());
+        assertEquals(3, conflict.getPeak());
+        assertEquals(List.of("P1", "P2", "P3"), conflict.getProjectNumbers());
+
+        assertTrue(index.findConflicts(null, EntityType.CONTRACTOR, DAY, DAY.plusDays(60), 3).isEmpty());
+
+        List<ScheduleIndex.WeekLoad> load = index.weeklyLoad(null, EntityType.CONTRACTOR, DAY.plusDays(2), 4);
+        assertEquals(DAY, load.get(0).getWeekStart());
+        assertEquals(4, load.get(1).getActiveProjects());
+        assertEquals("CON001", load.get(1).getBusiestId());
+        assertEquals(3, load.get(1).getBusiestCount());
+        assertEquals(2, load.get(3).getPeople());
+
+        index.put(span("P6", null, DAY, DAY.plusDays(3)));
+        load = index.weeklyLoad(null, EntityType.CONTRACTOR, DAY, 1);
+        assertEquals(4, load.get(0).getActiveProjects());
+        assertEquals(2, load.get(0).getPeople());
+        assertEquals(1, index.findConflicts(null, EntityType.CONTRACTOR, DAY, DAY.plusDays(60), 1).size());
+    }
+
+    @Test
+    @DisplayName("Archived projects are re-read and a restore reloads everything")
+    void testTrackerTypes() {
+        ProjectEventBus bus = new ProjectEventBus(16, Runnable::run);
+        ProjectChangeTracker tracker = new ProjectChangeTracker(bus, EnumSet.of(ProjectEvent.Type.ARCHIVED,
+                                                                                ProjectEvent.Type.RESTORED));
+        tracker.start();
+        bus.publish(ProjectEvent.Type.ARCHIVED, "1001");
+        bus.publish(ProjectEvent.Type.PAYMENT_CHANGED, "1002");
+        assertEquals(Set.of("1001"), tracker.takeChanged());
+
+        bus.publish(ProjectEvent.Type.ARCHIVED, "1003");
+        bus.publish(ProjectEvent.Type.RESTORED, null);
+        assertNull(tracker.takeChanged());
+        assertEquals(Set.of(), tracker.takeChanged());
+    }
+
+    private static ScheduleIndex.ProjectSpan span(String number, String contractorId, LocalDate start, LocalDate end) {
+        return new ScheduleIndex.ProjectSpan(number, contractorId, "ARC001", start, end, false);
+    }
+
+    private static List<String> numbers(List<ScheduleIndex.ProjectSpan> spans) {
+        List<String> numbers = new ArrayList<>();
+        spans.forEach(span -> numbers.add(span.getProjectNumber()));
+        return numbers;
+    }
+}
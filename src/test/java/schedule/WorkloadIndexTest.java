@@ -0,0 +1,66 @@
+package schedule;
+
+import enums.EntityType;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ranking contractors and architects by workload.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class WorkloadIndexTest {
+
+    @Test
+    @DisplayName("People are ranked by open projects, then outstanding value")
+    void testLeastLoaded() throws Exception {
+        WorkloadIndex index = new WorkloadIndex();
+        index.addPeople(EntityType.CONTRACTOR, List.of("CON001", "CON002", "CON003", "CON004"));
+        index.addPeople(EntityType.CUSTOMER, List.of("CUS001"));
+        index.assign("P1", "CON001", "ARC001", 1000, false);
+        index.assign("P2", "CON001", "ARC001", 500, false);
+        index.assign("P3", "CON002", "ARC002", 800, false);
+        index.assign("P4", "CON003", "ARC002", 200, false);
+
+        assertEquals(List.of("CON004", "CON003", "CON002"), ids(index.leastLoaded(null, EntityType.CONTRACTOR, 3)));
+        assertEquals(List.of("ARC002", "ARC001"), ids(index.leastLoaded(null, EntityType.ARCHITECT, 5)));
+        WorkloadIndex.Load load = index.loadOf(null, EntityType.ARCHITECT, "ARC001");
+        assertEquals(2, load.getOpenProjects());
+        assertEquals(1500.0, load.getOutstanding(), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> index.leastLoaded(null, EntityType.CUSTOMER, 1));
+    }
+
+    @Test
+    @DisplayName("Payments, reassignment and finalising move people in the ranking")
+    void testUpdates() throws Exception {
+        WorkloadIndex index = new WorkloadIndex();
+        index.assign("P1", "CON001", "ARC001", 1000, false);
+        index.assign("P2", "CON002", "ARC001", 600, false);
+        assertEquals("CON002", index.leastLoaded(null, EntityType.CONTRACTOR, 1).get(0).getPersonId());
+
+        index.assign("P1", "CON001", "ARC001", 100.10, false);
+        assertEquals("CON001", index.leastLoaded(null, EntityType.CONTRACTOR, 1).get(0).getPersonId());
+        assertEquals(700.10, index.loadOf(null, EntityType.ARCHITECT, "ARC001").getOutstanding(), 0.001);
+
+        index.assign("P2", "CON001", "ARC001", 600, false);
+        assertEquals(2, index.loadOf(null, EntityType.CONTRACTOR, "CON001").getOpenProjects());
+        assertEquals(0, index.loadOf(null, EntityType.CONTRACTOR, "CON002").getOpenProjects());
+
+        index.assign("P1", "CON001", "ARC001", 0, true);
+        index.remove("P2");
+        WorkloadIndex.Load load = index.loadOf(null, EntityType.ARCHITECT, "ARC001");
+        assertEquals(0, load.getOpenProjects());
+        assertEquals(0.0, load.getOutstanding(), 0.001);
+    }
+
+    private static List<String> ids(List<WorkloadIndex.Load> loads) {
+        List<String> ids = new ArrayList<>();
+        loads.forEach(load -> ids.add(load.getPersonId()));
+        return ids;
+    }
+}
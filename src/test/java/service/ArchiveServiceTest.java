@@ -0,0 +1,94 @@
+package service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Database tests for the row locks taken by archival chunks; see {@link TestDatabase}
+ * for how to run them.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class ArchiveServiceTest {
+    /** ER_LOCK_NOWAIT: the row is locked by another transaction. */
+    private static final int ER_LOCK_NOWAIT = 3572;
+
+    private static final String SQL_INSERT_FINALISED =
+        "INSERT INTO project (ProjectNumber, ProjectName, Deadline, BuildingType, PhysicalAddress, ERFNumber, "
+        + "TotalFee, TotalPaid, ArchitectID, ContractorID, CustomerID, Finalised, CompletionDate) "
+        + "VALUES (?, 'Archive lock test', '2000-01-01', 'House', '1 Test St, Johannesburg, South Africa', "
+        + "'ERF1001', 1000, 0, 'ARC001', 'CON001', 'CUS001', 'Yes', ?)";
+
+    @Test
+    @DisplayName("A chunk locks only the rows it archives, not the rows scanned past")
+    void testChunkLocksOnlyItsRows() throws Exception {
+        String base = TestDatabase.newProjectNumber();
+        List<String> numbers = Arrays.asList(base + "1", base + "2", base + "3", base + "4");
+        Date cutoff = Date.valueOf("2001-01-01");
+
+        try (Connection archiver = TestDatabase.connect(); Connection other = TestDatabase.connect()) {
+            try (PreparedStatement insert = archiver.prepareStatement(SQL_INSERT_FINALISED)) {
+                for (String number : numbers) {
+                    insert.setString(1, number);
+                    // The second project was completed recently and is not due for archival
+                    insert.setDate(2, number.endsWith("2") ? Date.valueOf(LocalDate.now()) : Date.valueOf("2000-06-30"));
+                    insert.executeUpdate();
+                }
+            }
+            try {
+                archiver.setAutoCommit(false);
+                ArchiveService archiveService = new ArchiveService();
+                List<String> candidates = archiveService.selectChunk(archiver, cutoff, base, 2);
+                assertEquals(Arrays.asList(base + "1", base + "3"), candidates);
+                assertEquals(candidates, archiveService.lockChunk(archiver, cutoff, candidates));
+
+                other.setAutoCommit(false);
+                other.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                assertTrue(tryLock(other, base + "2"), "row scanned past but not archived is locked");
+                assertTrue(tryLock(other, base + "4"), "row after the chunk is locked");
+                assertFalse(tryLock(other, base + "1"), "row in the chunk is not locked");
+                other.rollback();
+            } finally {
+                archiver.rollback();
+                archiver.setAutoCommit(true);
+                try (PreparedStatement delete = archiver.prepareStatement(
+                        "DELETE FROM project WHERE ProjectNumber LIKE ?")) {
+                    delete.setString(1, base + "_");
+                    delete.executeUpdate();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the row could be locked at once, false if another transaction holds it
+     */
+    static boolean tryLock(Connection connection, String projectNumber) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT ProjectNumber FROM project WHERE ProjectNumber = ? FOR UPDATE NOWAIT")) {
+            pstmt.setString(1, projectNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next(), "no project " + projectNumber);
+                return true;
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ER_LOCK_NOWAIT) {
+                return false;
+            }
+            throw e;
+        }
+    }
+}
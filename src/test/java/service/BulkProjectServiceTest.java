@@ -0,0 +1,106 @@
+package service;
+
+import enums.EntityType;
+import exception.ValidationException;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the chunk SQL built by BulkProjectService, and database tests of the
+ * rows its chunks lock; see {@link TestDatabase} for how to run those.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class BulkProjectServiceTest {
+
+    @Test
+    @DisplayName("Filters and the operation's precondition are combined in the chunk read and lock")
+    void testSelectChunkSql() {
+        BulkProjectService.Filter filter = BulkProjectService.Filter.all()
+            .fullyPaid()
+            .assignedTo(EntityType.ARCHITECT, "ARC007")
+            .projectNumbers(List.of("1001", "1002"))
+            .and("Finalised = 'No'");
+
+        assertEquals("SELECT ProjectNumber FROM project WHERE TotalPaid >= TotalFee AND ArchitectID = ? "
+            + "AND ProjectNumber IN (?, ?) AND Finalised = 'No' AND ProjectNumber > ? "
+            + "ORDER BY ProjectNumber LIMIT ?", BulkProjectService.buildSelectChunkSql(filter));
+        assertEquals("SELECT ProjectNumber FROM project FORCE INDEX (PRIMARY) WHERE TotalPaid >= TotalFee "
+            + "AND ArchitectID = ? AND ProjectNumber IN (?, ?) AND Finalised = 'No' AND ProjectNumber IN (?, ?, ?) "
+            + "ORDER BY ProjectNumber FOR UPDATE", BulkProjectService.buildLockChunkSql(filter, 3));
+        assertEquals(List.of("ARC007", "1001", "1002"), filter.getParameters());
+    }
+
+    @Test
+    @DisplayName("Each chunk is one UPDATE that also bumps the version")
+    void testUpdateSql() {
+        assertEquals("UPDATE project SET ContractorID = ?, Version = Version + 1 WHERE ProjectNumber IN (?, ?, ?)",
+            BulkProjectService.buildUpdateSql(BulkProjectService.Operation.reassign(EntityType.CONTRACTOR, "CON002"), 3));
+        assertEquals("UPDATE project SET Deadline = DATE_ADD(Deadline, INTERVAL ? DAY), Version = Version + 1 "
+            + "WHERE ProjectNumber IN (?)", BulkProjectService.buildUpdateSql(BulkProjectService.Operation.shiftDeadlines(7), 1));
+    }
+
+    @Test
+    @DisplayName("Only people roles can be reassigned")
+    void testParseRole() throws ValidationException {
+        assertEquals(EntityType.CUSTOMER, BulkProjectService.parseRole("Customer"));
+        assertThrows(ValidationException.class, () -> BulkProjectService.parseRole("project"));
+        assertThrows(ValidationException.class, () -> BulkProjectService.parseRole("builder"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+    @DisplayName("A chunk locks only the rows it changes, not the rows scanned past")
+    void testChunkLocksOnlyItsRows() throws Exception {
+        String base = TestDatabase.newProjectNumber();
+        List<String> numbers = Arrays.asList(base + "1", base + "2", base + "3", base + "4");
+        BulkProjectService.Filter filter = BulkProjectService.Filter.all()
+            .assignedTo(EntityType.ARCHITECT, "ARC002")
+            .and("Finalised = 'No'");
+
+        try (Connection bulk = TestDatabase.connect(); Connection other = TestDatabase.connect()) {
+            try (PreparedStatement insert = bulk.prepareStatement(
+                    "INSERT INTO project (ProjectNumber, ProjectName, Deadline, BuildingType, PhysicalAddress, "
+                    + "ERFNumber, TotalFee, TotalPaid, ArchitectID, ContractorID, CustomerID) "
+                    + "VALUES (?, 'Bulk lock test', CURRENT_DATE, 'House', '1 Test St, Johannesburg, South Africa', "
+                    + "'ERF1001', 1000, 0, ?, 'CON001', 'CUS001')")) {
+                for (String number : numbers) {
+                    insert.setString(1, number);
+                    // The second project has another architect and does not match
+                    insert.setString(2, number.endsWith("2") ? "ARC001" : "ARC002");
+                    insert.executeUpdate();
+                }
+            }
+            try {
+                bulk.setAutoCommit(false);
+                BulkProjectService bulkService = new BulkProjectService();
+                List<String> candidates = bulkService.selectChunk(
+                    bulk, BulkProjectService.buildSelectChunkSql(filter), filter, base, 2);
+                assertEquals(Arrays.asList(base + "1", base + "3"), candidates);
+                assertEquals(candidates, bulkService.lockChunk(bulk, filter, candidates));
+
+                other.setAutoCommit(false);
+                other.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                assertTrue(ArchiveServiceTest.tryLock(other, base + "2"), "row scanned past but not changed is locked");
+                assertTrue(ArchiveServiceTest.tryLock(other, base + "4"), "row after the chunk is locked");
+                assertFalse(ArchiveServiceTest.tryLock(other, base + "3"), "row in the chunk is not locked");
+                other.rollback();
+            } finally {
+                bulk.rollback();
+                bulk.setAutoCommit(true);
+                try (PreparedStatement delete = bulk.prepareStatement("DELETE FROM project WHERE ProjectNumber LIKE ?")) {
+                    delete.setString(1, base + "_");
+                    delete.executeUpdate();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+
+import enums.EntityType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Database tests for skipping hand-entered IDs in a reserved block; see {@link TestDatabase}
+ * for how to run them.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class IdAllocatorTest {
+
+    @Test
+    @DisplayName("IDs already typed in by hand are reported as taken")
+    void testFindTaken() throws Exception {
+        long number = ThreadLocalRandom.current().nextLong(5_000_000, 9_000_000);
+        String id = EntityType.ARCHITECT.formatId(number);
+
+        try (Connection connection = TestDatabase.connect()) {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO architect (ArchitectID, FirstName, Surname, Telephone, Email, PhysicalAddress) "
+                    + "VALUES (?, 'Hand', 'Entered', '0123456789', ?, '1 Main St, City, Country')")) {
+                insert.setString(1, id);
+                insert.setString(2, id.toLowerCase() + "@idallocator.test");
+                insert.executeUpdate();
+            }
+            try {
+                assertEquals(Collections.singleton(number),
+                             IdAllocator.findTaken(connection, EntityType.ARCHITECT, number - 50, number + 50));
+                assertEquals(Collections.emptySet(),
+                             IdAllocator.findTaken(connection, EntityType.ARCHITECT, number + 1, number + 100));
+            } finally {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM architect WHERE ArchitectID = ?")) {
+                    delete.setString(1, id);
+                    delete.executeUpdate();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package service;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the partition DDL built by PartitionMaintenance.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class PartitionMaintenanceTest {
+
+    @Test
+    @DisplayName("Splits p_open_future into the missing years")
+    void testReorganizeSql() {
+        String ddl = PartitionMaintenance.buildReorganizeSql(2028, 2030);
+
+        assertEquals("ALTER TABLE project REORGANIZE PARTITION p_open_future INTO ("
+            + "PARTITION p_open_2029 VALUES LESS THAN ('No', '2030-01-01'), "
+            + "PARTITION p_open_2030 VALUES LESS THAN ('No', '2031-01-01'), "
+            + "PARTITION p_open_future VALUES LESS THAN ('No', MAXVALUE))", ddl);
+    }
+
+    @Test
+    @DisplayName("Nothing to do when the partitions already cover the target year")
+    void testUpToDate() {
+        assertNull(PartitionMaintenance.buildReorganizeSql(2028, 2028));
+        assertNull(PartitionMaintenance.buildReorganizeSql(2028, 2026));
+    }
+}
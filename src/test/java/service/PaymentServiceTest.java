@@ -0,0 +1,51 @@
+package service;
+
+import exception.DatabaseException;
+import exception.EntityNotFoundException;
+import exception.ValidationException;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for payment validation and the translation of ledger trigger errors.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class PaymentServiceTest {
+
+    @Test
+    @DisplayName("Zero, non-finite and undated payments are rejected; refunds are allowed")
+    void testValidatePayment() throws ValidationException {
+        LocalDate today = LocalDate.now();
+        PaymentService.validatePayment(-250, today, "Refund");
+        assertThrows(ValidationException.class, () -> PaymentService.validatePayment(0, today, null));
+        assertThrows(ValidationException.class, () -> PaymentService.validatePayment(Double.NaN, today, null));
+        assertThrows(ValidationException.class, () -> PaymentService.validatePayment(100, null, null));
+        assertThrows(ValidationException.class, () -> PaymentService.validatePayment(100, today, "x".repeat(101)));
+    }
+
+    @Test
+    @DisplayName("Trigger and constraint errors become validation or not-found errors")
+    void testTranslate() {
+        assertThrows(EntityNotFoundException.class, () -> PaymentService.translate(
+            new SQLException("Unknown ProjectNumber", "23000", 1452), "PRJ999", "failed"));
+        ValidationException overpaid = assertThrows(ValidationException.class, () -> PaymentService.translate(
+            new SQLException("Total paid cannot exceed total fee", "45000", 1644), "PRJ001", "failed"));
+        assertEquals("amount", overpaid.getFieldName());
+        assertThrows(ValidationException.class, () -> PaymentService.translate(
+            new SQLException("Check constraint violated", "HY000", 3819), "PRJ001", "failed"));
+    }
+
+    @Test
+    @DisplayName("Other errors are returned as database errors")
+    void testTranslateOther() throws Exception {
+        DatabaseException failure = PaymentService.translate(
+            new SQLException("Lock wait timeout", "40001", 1205), "PRJ001", "Failed to record payment");
+        assertEquals("Failed to record payment", failure.getMessage());
+    }
+}
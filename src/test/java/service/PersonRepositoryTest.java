@@ -0,0 +1,103 @@
+package service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import enums.EntityType;
+import exception.DatabaseException;
+import exception.ValidationException;
+import model.Architect;
+import model.Customer;
+
+/**
+ * Unit tests for PersonRepository statement building and validation. The upsert test
+ * needs a database; see {@link TestDatabase}.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class PersonRepositoryTest {
+
+    @Test
+    @DisplayName("Multi-row insert targets the entity's table and ID column")
+    void testBuildInsert() {
+        assertEquals("INSERT INTO customer (CustomerID, FirstName, Surname, Telephone, Email, PhysicalAddress) "
+            + "VALUES (?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?)", PersonRepository.customers().buildInsert(2));
+    }
+
+    @Test
+    @DisplayName("Repositories resolve from display names and create the right model class")
+    void testForDisplayName() {
+        assertEquals(EntityType.ARCHITECT, PersonRepository.forDisplayName("Architect").getType());
+        assertTrue(PersonRepository.customers().create("CUS001", "A", "B", null, null, null) instanceof Customer);
+        assertThrows(IllegalArgumentException.class, () -> PersonRepository.forDisplayName("Project"));
+    }
+
+    @Test
+    @DisplayName("Invalid people are rejected before any database access")
+    void testValidationFirst() {
+        Architect valid = new Architect("ARC001", "John", "Smith", "0123456789", "john@arch.com", "1 Main St, City, Country");
+        Architect invalid = new Architect("ARC002", "Jane", "Doe", "123", "jane@arch.com", "1 Main St, City, Country");
+
+        assertThrows(ValidationException.class,
+            () -> PersonRepository.architects().upsertAll(null, Arrays.asList(valid, invalid)));
+    }
+
+    @Test
+    @DisplayName("Repeated emails in one sync keep the last entry, ignoring case")
+    void testLatestByEmail() {
+        Architect first = new Architect("ARC001", "John", "Smith", "0123456789", "john@arch.com", "1 Main St, City, Country");
+        Architect other = new Architect("ARC002", "Jane", "Doe", "0123456780", "jane@arch.com", "1 Main St, City, Country");
+        Architect last = new Architect("ARC003", "Johnny", "Smith", "0123456789", "John@Arch.com", "1 Main St, City, Country");
+
+        Map<String, Architect> latest = PersonRepository.latestByEmail(Arrays.asList(first, other, last));
+        assertEquals(Arrays.asList("john@arch.com", "jane@arch.com"), new ArrayList<>(latest.keySet()));
+        assertSame(last, latest.get("john@arch.com"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+    @DisplayName("A sync writes each email once and a failed sync writes nothing")
+    void testUpsertAll() throws Exception {
+        String run = String.valueOf(ThreadLocalRandom.current().nextInt(1_000_000, 10_000_000));
+        String domain = "@upsert" + run + ".test";
+        PersonRepository<Architect> architects = PersonRepository.architects();
+
+        try (Connection connection = TestDatabase.connect()) {
+            try {
+                Architect first = architect("TST" + run, "John", "john" + domain);
+                Architect other = architect("TSU" + run, "Jane", "jane" + domain);
+                Architect last = architect("TSV" + run, "Johnny", "JOHN" + domain);
+                assertEquals(Arrays.asList("TSV" + run, "TSU" + run, "TSV" + run),
+                             architects.upsertAll(connection, Arrays.asList(first, other, last)));
+                assertEquals(2, architects.findByEmails(connection, Arrays.asList("john" + domain, "jane" + domain)).size());
+                assertEquals("Johnny", architects.findByIds(connection, Arrays.asList("TSV" + run)).get("TSV" + run).getFirstName());
+
+                // The update is applied before the insert fails on its over-long ID, and is rolled back with it
+                Architect renamed = architect("TSV" + run, "Jonathan", "john" + domain);
+                Architect invalid = architect("TSW" + run + "0000", "Ann", "ann" + domain);
+                assertThrows(DatabaseException.class,
+                             () -> architects.upsertAll(connection, Arrays.asList(renamed, invalid)));
+                assertTrue(connection.getAutoCommit());
+                assertEquals("Johnny", architects.findByIds(connection, Arrays.asList("TSV" + run)).get("TSV" + run).getFirstName());
+            } finally {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM architect WHERE Email LIKE ?")) {
+                    delete.setString(1, "%" + domain);
+                    delete.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static Architect architect(String id, String firstName, String email) {
+        return new Architect(id, firstName, "Smith", "0123456789", email, "1 Main St, City, Country");
+    }
+}
@@ -0,0 +1,87 @@
+package service;
+
+import model.Project;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Database tests for project creation; see {@link TestDatabase} for how to run them.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+@EnabledIfSystemProperty(named = TestDatabase.URL_PROPERTY, matches = ".+")
+class ProjectServiceTest {
+
+    private final ProjectService projectService = new ProjectService();
+
+    @Test
+    @DisplayName("An opening balance is posted to the ledger, which adds up to the total paid")
+    void testCreateProjectOpeningBalance() throws Exception {
+        try (Connection connection = TestDatabase.connect()) {
+            String paid = TestDatabase.newProjectNumber();
+            String unpaid = TestDatabase.newProjectNumber();
+
+            assertEquals(ProjectService.CreateResult.CREATED,
+                         projectService.createProject(connection, project(paid, 5000, 1250.50)));
+            assertEquals(ProjectService.CreateResult.CREATED,
+                         projectService.createProject(connection, project(unpaid, 5000, 0)));
+
+            assertEquals(1250.50, totalPaid(connection, paid), 0.001);
+            assertEquals(1250.50, ledgerTotal(connection, paid), 0.001);
+            assertEquals(0, totalPaid(connection, unpaid), 0.001);
+            assertEquals(0, ledgerTotal(connection, unpaid), 0.001);
+        }
+    }
+
+    @Test
+    @DisplayName("Bulk creation posts the opening balance of every created project")
+    void testCreateProjectsOpeningBalances() throws Exception {
+        try (Connection connection = TestDatabase.connect()) {
+            String first = TestDatabase.newProjectNumber();
+            String second = TestDatabase.newProjectNumber();
+
+            ProjectService.CreateResult[] results = projectService.createProjects(connection, List.of(
+                project(first, 8000, 3000), project(second, 8000, 0), project(first, 8000, 100)));
+
+            assertArrayEquals(new ProjectService.CreateResult[] {ProjectService.CreateResult.CREATED,
+                ProjectService.CreateResult.CREATED, ProjectService.CreateResult.ALREADY_EXISTS}, results);
+            assertEquals(3000, totalPaid(connection, first), 0.001);
+            assertEquals(3000, ledgerTotal(connection, first), 0.001);
+            assertEquals(0, ledgerTotal(connection, second), 0.001);
+        }
+    }
+
+    private static Project project(String number, double fee, double paid) {
+        return new Project(number, "Ledger test " + number, LocalDate.now().plusMonths(6), "House",
+                           "1 Test St, Johannesburg, South Africa", "ERF" + number.substring(3),
+                           fee, paid, "ARC001", "CON001", "CUS001");
+    }
+
+    private static double totalPaid(Connection connection, String number) throws SQLException {
+        return single(connection, "SELECT TotalPaid FROM project WHERE ProjectNumber = ?", number);
+    }
+
+    private static double ledgerTotal(Connection connection, String number) throws SQLException {
+        return single(connection, "SELECT COALESCE(SUM(Amount), 0) FROM payment WHERE ProjectNumber = ?", number);
+    }
+
+    private static double single(Connection connection, String sql, String number) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, number);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next(), "no row for " + number);
+                return rs.getDouble(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Query-plan regression suite for the statements in {@link QueryCatalog}.
+ *
+ * <p>The plan checks need a scratch MySQL database with {@code schema.sql} and all
+ * migrations applied, and are skipped unless one is given:</p>
+ * <pre>
+ * mvn test -Dpoisedms.test.db.url=jdbc:mysql://localhost:3306/PoiseDMS_test \
+ *          -Dpoisedms.test.db.user=root -Dpoisedms.test.db.password=secret
+ * </pre>
+ * <p>The database is topped up to {@link #PROJECTS} synthetic projects before the plans
+ * are taken, so do not point this at a database you care about.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class QueryPlanRegressionTest {
+
+    private static final String URL_PROPERTY = "poisedms.test.db.url";
+    private static final int PROJECTS = 50_000;
+    private static final int PEOPLE = 1_000;
+
+    private static final Pattern TABLE_NAME = Pattern.compile("\"table_name\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ACCESS_TYPE = Pattern.compile("\"access_type\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ROWS = Pattern.compile("\"rows_examined_per_scan\"\\s*:\\s*(\\d+)");
+    private static final Pattern PARTITIONS = Pattern.compile("\"partitions\"\\s*:\\s*\\[([^\\]]*)\\]");
+
+    @TestFactory
+    @EnabledIfSystemProperty(named = URL_PROPERTY, matches = ".+")
+    @DisplayName("Registered queries stay on their indexes and within their row budgets")
+    Stream<DynamicTest> testQueryPlans() throws SQLException {
+        Connection connection = DriverManager.getConnection(System.getProperty(URL_PROPERTY),
+            System.getProperty("poisedms.test.db.user", "root"),
+            System.getProperty("poisedms.test.db.password", ""));
+        seed(connection);
+        Map<String, Integer> partitionCounts = loadPartitionCounts(connection);
+
+        return QueryCatalog.entries().stream()
+            .map(entry -> DynamicTest.dynamicTest(entry.getName(), () -> checkPlan(connection, entry, partitionCounts)))
+            .onClose(() -> {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                }
+            });
+    }
+
+    @Test
+    @DisplayName("Plan parser reports pruned scans, full scans and row estimates")
+    void testPlanParser() {
+        String json = "{\"query_block\": {\"union_result\": {\"query_specifications\": ["
+            + "{\"query_block\": {\"table\": {\"table_name\": \"project\", \"partitions\": [\"p_open_2024\", \"p_open_2025\"],"
+            + " \"access_type\": \"ALL\", \"rows_examined_per_scan\": 4200}}},"
+            + "{\"query_block\": {\"table\": {\"table_name\": \"project_archive\", \"access_type\": \"ALL\","
+            + " \"rows_examined_per_scan\": 800}}}]}}}";
+
+        List<TableAccess> accesses = parsePlan(json);
+
+        assertEquals(2, accesses.size());
+        assertEquals("project", accesses.get(0).table);
+        assertEquals(2, accesses.get(0).partitions);
+        assertFalse(accesses.get(0).isFullScan(7));
+        assertTrue(accesses.get(1).isFullScan(0));
+        assertEquals(5000, accesses.stream().mapToLong(a -> a.rows).sum());
+    }
+
+    private static void checkPlan(Connection connection, QueryCatalog.Entry entry,
+                                  Map<String, Integer> partitionCounts) throws SQLException {
+        String json;
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN FORMAT=JSON " + entry.getSql())) {
+            List<Object> parameters = entry.getParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                pstmt.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                json = rs.getString(1);
+            }
+        }
+
+        List<TableAccess> accesses = parsePlan(json);
+        long rows = 0;
+        for (TableAccess access : accesses) {
+            if (!entry.isFullScanAllowed()) {
+                assertFalse(access.isFullScan(partitionCounts.getOrDefault(access.table, 0)),
+                    entry.getName() + " does a full scan of " + access.table + ":\n" + json);
+            }
+            rows += access.rows;
+        }
+        assertTrue(rows <= entry.getMaxRowsExamined(),
+            entry.getName() + " expects to examine " + rows + " rows, budget " + entry.getMaxRowsExamined() + ":\n" + json);
+    }
+
+    static List<TableAccess> parsePlan(String json) {
+        List<TableAccess> accesses = new ArrayList<>();
+        Matcher tables = TABLE_NAME.matcher(json);
+        List<Integer> starts = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        while (tables.find()) {
+            names.add(tables.group(1));
+            starts.add(tables.start());
+        }
+        // Each table's attributes run from its table_name to the next one
+        for (int i = 0; i < starts.size(); i++) {
+            int end = i + 1 < starts.size() ? starts.get(i + 1) : json.length();
+            String block = json.substring(starts.get(i), end);
+            Matcher access = ACCESS_TYPE.matcher(block);
+            Matcher rows = ROWS.matcher(block);
+            Matcher partitions = PARTITIONS.matcher(block);
+            accesses.add(new TableAccess(names.get(i),
+                access.find() ? access.group(1) : "",
+                rows.find() ? Long.parseLong(rows.group(1)) : 0,
+                partitions.find() ? partitions.group(1).split(",").length : -1));
+        }
+        return accesses;
+    }
+
+    private static Map<String, Integer> loadPartitionCounts(Connection connection) throws SQLException {
+        Map<String, Integer> counts = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT TABLE_NAME, COUNT(PARTITION_NAME) FROM INFORMATION_SCHEMA.PARTITIONS "
+                                              + "WHERE TABLE_SCHEMA = DATABASE() GROUP BY TABLE_NAME")) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Tops the database up to the synthetic dataset: 20% open projects with deadlines
+     * spread over 2024-2030, the rest finalised over the last four years.
+     */
+    private static void seed(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM project")) {
+            rs.next();
+            if (rs.getLong(1) >= PROJECTS) {
+                return;
+            }
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (String table : new String[] {"architect", "contractor", "customer"}) {
+                String prefix = table.substring(0, 3).toUpperCase();
+                String idColumn = Character.toUpperCase(table.charAt(0)) + table.substring(1) + "ID";
+                try (PreparedStatement pstmt = connection.prepareStatement("INSERT IGNORE INTO " + table + " ("
+                        + idColumn + ", FirstName, Surname, Telephone, Email, PhysicalAddress) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)")) {
+                    for (int i = 1; i <= PEOPLE; i++) {
+                        pstmt.setString(1, String.format("%s%03d", prefix, i));
+                        pstmt.setString(2, "First" + i);
+                        pstmt.setString(3, "Surname" + i);
+                        pstmt.setString(4, String.format("0%09d", i));
+                        pstmt.setString(5, table + i + "@example.com");
+                        pstmt.setString(6, i + " Main Road, Durban, South Africa");
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+            }
+
+            LocalDate openStart = LocalDate.of(2024, 1, 1);
+            LocalDate finalStart = LocalDate.now().minusYears(4);
+            try (PreparedStatement pstmt = connection.prepareStatement("INSERT IGNORE INTO project (ProjectNumber, "
+                    + "ProjectName, Deadline, BuildingType, PhysicalAddress, ERFNumber, TotalFee, TotalPaid, "
+                    + "ArchitectID, ContractorID, CustomerID, Finalised, CompletionDate) "
+                    + "VALUES (?, ?, ?, 'House', ?, ?, 100000, 50000, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= PROJECTS; i++) {
+                    boolean open = i % 5 == 0;
+                    LocalDate deadline = open
+                        ? openStart.plusDays((i * 7L) % 2555)
+                        : finalStart.plusDays((i * 13L) % 1460);
+                    int person = (i % PEOPLE) + 1;
+                    pstmt.setString(1, String.format("PRJ%06d", i));
+                    pstmt.setString(2, "House Surname" + person + " " + i);
+                    pstmt.setDate(3, Date.valueOf(deadline));
+                    pstmt.setString(4, i + " Beach Road, Durban, South Africa");
+                    pstmt.setString(5, "ERF" + i);
+                    pstmt.setString(6, String.format("ARC%03d", person));
+                    pstmt.setString(7, String.format("CON%03d", person));
+                    pstmt.setString(8, String.format("CUS%03d", person));
+                    pstmt.setString(9, open ? "No" : "Yes");
+                    pstmt.setDate(10, open ? null : Date.valueOf(deadline.plusDays(i % 30)));
+                    pstmt.addBatch();
+                    if (i % 1000 == 0) {
+                        pstmt.executeBatch();
+                        connection.commit();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ANALYZE TABLE project, architect, contractor, customer, project_archive");
+        }
+    }
+
+    static final class TableAccess {
+        final String table;
+        final String accessType;
+        final long rows;
+        final int partitions;
+
+        TableAccess(String table, String accessType, long rows, int partitions) {
+            this.table = table;
+            this.accessType = accessType;
+            this.rows = rows;
+            this.partitions = partitions;
+        }
+
+        /**
+         * A scan counts as full unless partition pruning limited it to some partitions.
+         */
+        boolean isFullScan(int tablePartitions) {
+            if (!"ALL".equals(accessType)) {
+                return false;
+            }
+            return partitions < 0 || partitions >= tablePartitions;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Connects the database-backed tests to the scratch MySQL database named by
+ * {@code -Dpoisedms.test.db.url}; tests using it are skipped when it is not set.
+ * The database needs {@code schema.sql} and all migrations applied. Projects with
+ * payments cannot be deleted again, so use a scratch database.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+final class TestDatabase {
+
+    static final String URL_PROPERTY = "poisedms.test.db.url";
+
+    private TestDatabase() {
+    }
+
+    static Connection connect() throws SQLException {
+        return DriverManager.getConnection(System.getProperty(URL_PROPERTY),
+            System.getProperty("poisedms.test.db.user", "root"),
+            System.getProperty("poisedms.test.db.password", ""));
+    }
+
+    /** A project number well above anything the sample data or the allocator hands out. */
+    static String newProjectNumber() {
+        return "PRJ9" + ThreadLocalRandom.current().nextInt(100_000_000, 1_000_000_000);
+    }
+}
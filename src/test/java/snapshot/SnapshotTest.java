@@ -0,0 +1,112 @@
+package snapshot;
+
+import enums.EntityType;
+import model.Architect;
+import model.Contractor;
+import model.Customer;
+import model.Project;
+import model.ProjectDetails;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip tests for the binary snapshot format.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class SnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private Path writeSample(int projects) throws IOException {
+        Path file = dir.resolve("sample.snapshot");
+        try (SnapshotWriter writer = new SnapshotWriter(file)) {
+            writer.addPerson(EntityType.ARCHITECT, new Architect("ARC001", "Ann", "Adams", "0111", "ann@x.co", "1 Road"));
+            writer.addPerson(EntityType.CONTRACTOR, new Contractor("CON001", "Con", "Cole", "0222", "con@x.co", null));
+            writer.addPerson(EntityType.CUSTOMER, new Customer("CUS001", "Cus", "Cruz", "0333", "cus@x.co", "3 Road"));
+            writer.addPerson(EntityType.CUSTOMER, new Customer("CUS002", "Zoë", "Ñúñez", "0444", "z@x.co", "4 Road"));
+            for (int i = 0; i < projects; i++) {
+                Project project = new Project(String.format("PRJ%05d", i), "Project " + i,
+                    i % 2 == 0 ? LocalDate.of(2025, 1, 1).plusDays(i) : null, "House", "1 Road, Durban",
+                    "ERF" + i, 1000 + i, i, "ARC001", "CON001", i % 2 == 0 ? "CUS001" : "CUS002");
+                if (i % 3 == 0) {
+                    project.setFinalised("Yes");
+                    project.setCompletionDate(LocalDate.of(2024, 12, 31));
+                }
+                project.setVersion(i % 7);
+                writer.addProject(project);
+            }
+            writer.finish();
+        }
+        return file;
+    }
+
+    @Test
+    @DisplayName("Projects and people read back exactly as written")
+    void testRoundTrip() throws IOException {
+        try (Snapshot snapshot = Snapshot.open(writeSample(1000))) {
+            assertEquals(1000, snapshot.getProjectCount());
+            assertEquals(2, snapshot.getPersonCount(EntityType.CUSTOMER));
+
+            Project project = snapshot.getProject(42);
+            assertEquals("PRJ00042", project.getProjectNumber());
+            assertEquals(LocalDate.of(2025, 1, 1).plusDays(42), project.getDeadline());
+            assertEquals(1042, project.getTotalFee(), 0.0);
+            assertEquals("Yes", project.getFinalised());
+            assertEquals(LocalDate.of(2024, 12, 31), project.getCompletionDate());
+            assertEquals(0, project.getVersion());
+            assertEquals("CUS001", project.getCustomerId());
+
+            ProjectDetails odd = snapshot.getProjectDetails(43);
+            assertNull(odd.getProject().getDeadline());
+            assertEquals("No", odd.getProject().getFinalised());
+            assertEquals("Zoë", odd.getCustomer().getFirstName());
+            assertEquals("Ñúñez", odd.getCustomer().getSurname());
+            assertNull(odd.getContractor().getPhysicalAddress());
+            assertEquals(Integer.MIN_VALUE, snapshot.getDeadlineEpochDay(43));
+        }
+    }
+
+    @Test
+    @DisplayName("Binary search finds every project and rejects unknown numbers")
+    void testFindProject() throws IOException {
+        try (Snapshot snapshot = Snapshot.open(writeSample(500))) {
+            for (int i = 0; i < 500; i++) {
+                assertEquals(i, snapshot.findProject(String.format("PRJ%05d", i)));
+            }
+            assertEquals(-1, snapshot.findProject("PRJ00500"));
+            assertEquals(-1, snapshot.findProject("PRJ"));
+            assertEquals(-1, snapshot.findProject(""));
+        }
+    }
+
+    @Test
+    @DisplayName("Writer rejects out-of-order projects and sections")
+    void testOrdering() throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(dir.resolve("bad.snapshot"))) {
+            writer.addProject(new Project("PRJ2", "B", null, "House", "", "", 0, 0, null, null, null));
+            assertThrows(IllegalStateException.class, () ->
+                writer.addProject(new Project("PRJ1", "A", null, "House", "", "", 0, 0, null, null, null)));
+            assertThrows(IllegalStateException.class, () ->
+                writer.addPerson(EntityType.ARCHITECT, new Architect("ARC1", "A", "B", null, null, null)));
+        }
+        assertFalse(Files.exists(dir.resolve("bad.snapshot")));
+    }
+
+    @Test
+    @DisplayName("Files that are not snapshots are rejected")
+    void testRejectsForeignFile() throws IOException {
+        Path file = dir.resolve("foreign.snapshot");
+        Files.write(file, new byte[128]);
+        assertThrows(IOException.class, () -> Snapshot.open(file));
+    }
+}
@@ -0,0 +1,42 @@
+package util;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for splitting addresses into street, city and country.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class AddressParserTest {
+
+    @Test
+    @DisplayName("Street, city and country are split from the right")
+    void testParse() {
+        AddressParser.Address address = AddressParser.parse("  12 Oak  Avenue, Unit 4 ,  Cape   Town , South Africa ");
+        assertEquals("12 Oak Avenue, Unit 4", address.getStreet());
+        assertEquals("Cape Town", address.getCity());
+        assertEquals("South Africa", address.getCountry());
+    }
+
+    @Test
+    @DisplayName("With one comma the country is empty")
+    void testNoCountry() {
+        AddressParser.Address address = AddressParser.parse("111 Home St, Johannesburg");
+        assertEquals("111 Home St", address.getStreet());
+        assertEquals("Johannesburg", address.getCity());
+        assertEquals("", address.getCountry());
+        assertEquals("111 Home St, Johannesburg", address.toString());
+    }
+
+    @Test
+    @DisplayName("Addresses rejected by the validation rule are not parsed")
+    void testInvalid() {
+        assertNull(AddressParser.parse("No comma here"));
+        assertNull(AddressParser.parse(null));
+        assertEquals("", AddressParser.normalise("   "));
+        assertEquals("Port Elizabeth", AddressParser.normalise("\tPort \n Elizabeth "));
+    }
+}
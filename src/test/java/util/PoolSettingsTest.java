@@ -0,0 +1,45 @@
+package util;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for deciding whether new database settings resize or replace the pool.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class PoolSettingsTest {
+    private static final String URL = "jdbc:mysql://localhost:3306/PoiseDMS";
+
+    @Test
+    @DisplayName("Size and pool timeouts can change on the running pool; credentials and network timeouts cannot")
+    void testSameConnection() {
+        PoolSettings current = new PoolSettings(URL, "poise", "old-secret", "com.mysql.cj.jdbc.Driver", 10, 30000, 120000, 5000, 600000, 60);
+        PoolSettings resized = new PoolSettings(URL, "poise", "old-secret", "com.mysql.cj.jdbc.Driver", 20, 5000, 0, 5000, 600000, 30);
+        PoolSettings rotated = new PoolSettings(URL, "poise", "new-secret", "com.mysql.cj.jdbc.Driver", 10, 30000, 120000, 5000, 600000, 60);
+
+        assertEquals(current, new PoolSettings(URL, "poise", "old-secret", "com.mysql.cj.jdbc.Driver", 10, 30000, 120000, 5000, 600000, 60));
+        assertNotEquals(current, resized);
+        assertTrue(resized.sameConnectionAs(current));
+        assertFalse(rotated.sameConnectionAs(current));
+        assertNotEquals(current, rotated);
+
+        PoolSettings slowNetwork = new PoolSettings(URL, "poise", "old-secret", "com.mysql.cj.jdbc.Driver", 10, 30000,
+                                                    120000, 5000, 30000, 60);
+        assertFalse(slowNetwork.sameConnectionAs(current));
+    }
+
+    @Test
+    @DisplayName("Settings are described without the password")
+    void testToString() {
+        PoolSettings settings = new PoolSettings(URL, "poise", "s3cret", "com.mysql.cj.jdbc.Driver", 10, 30000, 120000, 5000, 600000, 60);
+        assertFalse(settings.toString().contains("s3cret"));
+        assertEquals(10, settings.toHikariConfig().getMaximumPoolSize());
+        assertEquals("s3cret", settings.toHikariConfig().getPassword());
+        assertEquals("5000", settings.toHikariConfig().getDataSourceProperties().getProperty("connectTimeout"));
+        assertEquals("600000", settings.toHikariConfig().getDataSourceProperties().getProperty("socketTimeout"));
+        assertEquals(60, settings.getQueryTimeout());
+    }
+}
@@ -0,0 +1,92 @@
+package util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import model.Architect;
+import model.Person;
+
+/**
+ * Throughput comparison between ValidationEngine and the legacy regex/LocalDate.parse rules.
+ *
+ * <p>Not a unit test; run after {@code mvn test-compile} with:</p>
+ * <pre>
+ * java -cp target/classes:target/test-classes util.ValidationEngineBenchmark [rows]
+ * </pre>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public class ValidationEngineBenchmark {
+
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern PHONE = Pattern.compile("^[0-9]{10,15}$");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Person[] people = new Person[rows];
+        String[] dates = new String[rows];
+        Random random = new Random(42);
+        for (int i = 0; i < rows; i++) {
+            boolean bad = random.nextInt(10) == 0;
+            people[i] = new Architect("ARC" + i, "First" + i, "Surname" + i,
+                bad ? "12345" : "0" + (100000000L + random.nextInt(899999999)),
+                bad ? "broken@" : "user" + i + "@example.co.za",
+                i + " Main St, Durban, South Africa");
+            dates[i] = bad ? "2025-02-30x" : String.format("20%02d-%02d-%02d",
+                20 + random.nextInt(10), 1 + random.nextInt(12), 1 + random.nextInt(28));
+        }
+
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                Person p = people[i];
+                if (PHONE.matcher(p.getTelephone().trim()).matches()) {
+                    sink++;
+                }
+                if (EMAIL.matcher(p.getEmail().trim()).matches()) {
+                    sink++;
+                }
+                try {
+                    sink += LocalDate.parse(dates[i], DATE_FORMAT).getDayOfMonth();
+                } catch (DateTimeParseException e) {
+                    sink--;
+                }
+            }
+            long regexNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                Person p = people[i];
+                if (ValidationEngine.isPhone(p.getTelephone())) {
+                    sink++;
+                }
+                if (ValidationEngine.isEmail(p.getEmail())) {
+                    sink++;
+                }
+                sink += ValidationEngine.parseIsoDate(dates[i]) == ValidationEngine.INVALID_DATE ? -1 : 1;
+            }
+            long engineNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ValidationEngine.Report report = ValidationEngine.validatePeople(people);
+            long batchNanos = System.nanoTime() - start;
+            sink += report.getInvalidRowCount();
+
+            System.out.printf("Round %d: regex %,.0f rows/s | engine %,.0f rows/s | batch %,.0f rows/s%n",
+                round + 1, rate(rows, regexNanos), rate(rows, engineNanos), rate(rows, batchNanos));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static double rate(int rows, long nanos) {
+        return rows / (nanos / 1_000_000_000.0);
+    }
+}
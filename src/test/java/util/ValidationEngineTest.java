@@ -0,0 +1,98 @@
+package util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.regex.Pattern;
+
+import model.Architect;
+import model.Person;
+import model.Project;
+
+/**
+ * Unit tests for ValidationEngine, including parity with the legacy regex rules.
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+class ValidationEngineTest {
+
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern PHONE = Pattern.compile("^[0-9]{10,15}$");
+    private static final Pattern NUMERIC = Pattern.compile("^\\d+$");
+
+    private static final String[] SAMPLES = {
+        "", " ", "a", "1", "123", "12a45", "0123456789", "012345678901234", "0123456789012345",
+        "test@example.com", "user.name@domain.co.za", "@example.com", "test@", "a@b.c", "a@.co",
+        "a@b..co", "a@b.c0", "a+b_c-d@x-y.org", "a@b@c.com", "a b@c.com", " x@y.zz ", "x@y.zz.",
+        "ERF1234", "erf5678", "2025-12-31"
+    };
+
+    @Test
+    @DisplayName("Scanners agree with the legacy regular expressions")
+    void testRegexParity() {
+        for (String sample : SAMPLES) {
+            String trimmed = sample.trim();
+            assertEquals(EMAIL.matcher(trimmed).matches(), ValidationEngine.isEmail(sample), sample);
+            assertEquals(PHONE.matcher(trimmed).matches(), ValidationEngine.isPhone(sample), sample);
+            assertEquals(NUMERIC.matcher(trimmed).matches(), ValidationEngine.isDigits(sample), sample);
+        }
+    }
+
+    @Test
+    @DisplayName("Entity IDs need the prefix and at least three digits")
+    void testEntityIds() {
+        assertTrue(ValidationEngine.isEntityId("ARC001", "ARC"));
+        assertTrue(ValidationEngine.isEntityId("CUS1200", "CUS"));
+        assertFalse(ValidationEngine.isEntityId("ARC01", "ARC"));
+        assertFalse(ValidationEngine.isEntityId("arc001", "ARC"));
+        assertFalse(ValidationEngine.isEntityId("CON001", "ARC"));
+        assertTrue(ValidationEngine.isProjectNumber("PRJ001"));
+        assertTrue(ValidationEngine.isProjectNumber("1234"));
+        assertFalse(ValidationEngine.isProjectNumber("PRJ-X"));
+    }
+
+    @Test
+    @DisplayName("ISO dates are parsed strictly against the calendar")
+    void testIsoDates() {
+        assertEquals(LocalDate.of(2025, 12, 31).toEpochDay(), ValidationEngine.parseIsoDate("2025-12-31"));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), ValidationEngine.parseIsoDate("2024-02-29"));
+        assertEquals(LocalDate.of(1970, 1, 1).toEpochDay(), ValidationEngine.parseIsoDate("1970-01-01"));
+        assertEquals(LocalDate.of(1900, 3, 1).toEpochDay(), ValidationEngine.parseIsoDate("1900-03-01"));
+        assertEquals(ValidationEngine.INVALID_DATE, ValidationEngine.parseIsoDate("2025-02-29"));
+        assertEquals(ValidationEngine.INVALID_DATE, ValidationEngine.parseIsoDate("2025-13-01"));
+        assertEquals(ValidationEngine.INVALID_DATE, ValidationEngine.parseIsoDate("2025-1-01"));
+        assertEquals(ValidationEngine.INVALID_DATE, ValidationEngine.parseIsoDate("invalid-date"));
+        assertEquals(ValidationEngine.INVALID_DATE, ValidationEngine.parseIsoDate(null));
+    }
+
+    @Test
+    @DisplayName("Batch validation collects every violation without throwing")
+    void testBatchValidation() {
+        Project valid = new Project("1001", "House Smith", LocalDate.now().plusDays(30), "House",
+            "1 Main St, Durban, South Africa", "ERF1001", 1000, 250, "ARC001", "CON001", "CUS001");
+        Project invalid = new Project("PRJ-X", "Bad", null, "House",
+            "Nowhere", "1001", 100, 250, "ARC001", "", "CUS001");
+
+        ValidationEngine.Report report = ValidationEngine.validateProjects(new Project[] {valid, invalid, null});
+
+        assertFalse(report.isValid());
+        assertEquals(3, report.getRowCount());
+        assertEquals(2, report.getInvalidRowCount());
+        assertEquals(7, report.getViolations().size());
+        assertTrue(report.getViolations().stream().allMatch(v -> v.getRow() > 0));
+    }
+
+    @Test
+    @DisplayName("People batch validation checks phone, email and address")
+    void testPeopleValidation() {
+        Person ok = new Architect("ARC001", "John", "Smith", "0123456789", "john@arch.com", "1 Main St, City, Country");
+        Person bad = new Architect("ARC002", " ", "Smith", "123", "john@", "Short");
+
+        ValidationEngine.Report report = ValidationEngine.validatePeople(new Person[] {ok, bad});
+
+        assertEquals(1, report.getInvalidRowCount());
+        assertEquals(4, report.getViolations().size());
+    }
+}
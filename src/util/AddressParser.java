@@ -0,0 +1,103 @@
+package util;
+
+/**
+ * Splits a free-text address into street, city and country.
+ *
+ * <p>Addresses are accepted by {@link ValidationEngine#isAddress(CharSequence)} as soon
+ * as they contain a comma, so the split works from the right: with two or more commas
+ * the last part is the country, the one before it the city and everything before that
+ * the street; with one comma the address is {@code street, city} and the country is
+ * empty. Each part is trimmed and runs of whitespace are folded to one space.</p>
+ *
+ * <p>The {@code address_part} function in schema.sql applies the same rule when the
+ * database registers a project's property, so a city typed by a user and normalised
+ * with {@link #normalise(String)} matches the stored region.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class AddressParser {
+
+    /**
+     * The parts of one address.
+     */
+    public static final class Address {
+        private final String street;
+        private final String city;
+        private final String country;
+
+        Address(String street, String city, String country) {
+            this.street = street;
+            this.city = city;
+            this.country = country;
+        }
+
+        public String getStreet() {
+            return street;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        /**
+         * @return The country, or an empty string if the address has only one comma
+         */
+        public String getCountry() {
+            return country;
+        }
+
+        @Override
+        public String toString() {
+            return country.isEmpty() ? street + ", " + city : street + ", " + city + ", " + country;
+        }
+    }
+
+    private AddressParser() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+
+    /**
+     * @param address Address as entered, e.g. {@code 12 Oak Avenue, Durban, South Africa}
+     * @return Its parts, or null if the address is not valid
+     */
+    public static Address parse(String address) {
+        if (!ValidationEngine.isAddress(address)) {
+            return null;
+        }
+        int last = address.lastIndexOf(',');
+        int previous = address.lastIndexOf(',', last - 1);
+        if (previous < 0) {
+            return new Address(normalise(address.substring(0, last)), normalise(address.substring(last + 1)), "");
+        }
+        return new Address(normalise(address.substring(0, previous)), normalise(address.substring(previous + 1, last)),
+                           normalise(address.substring(last + 1)));
+    }
+
+    /**
+     * Normalises one part of an address, such as a city typed as a search term.
+     *
+     * @param part Text to normalise; null is treated as empty
+     * @return The text trimmed, with whitespace runs folded to one space
+     */
+    public static String normalise(String part) {
+        if (part == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(part.length());
+        boolean space = false;
+        for (int i = 0; i < part.length(); i++) {
+            char c = part.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = out.length() > 0;
+            } else {
+                if (space) {
+                    out.append(' ');
+                    space = false;
+                }
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
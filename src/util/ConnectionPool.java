@@ -1,21 +1,59 @@
 package util;
 
+import config.AppConfig;
 import config.DatabaseConfig;
-import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import monitoring.ConnectionAcquireEvent;
+import monitoring.JdbcMonitor;
+import resilience.CircuitBreaker;
+import resilience.SqlStateClassifier;
+import util.LoggerUtil.Subsystem;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * ConnectionPool manages database connections using HikariCP for optimal performance.
  * This ensures efficient connection management in production environments.
  * 
+ * <p>The pool follows {@link DatabaseConfig#reload()}. A new size, borrow timeout, leak
+ * threshold or statement timeout is applied to the running pool. New credentials, URL,
+ * driver or network timeouts start a
+ * second pool; once it has opened a connection, new borrows switch to it and the old pool
+ * is drained on a background thread: it closes its idle connections at once, the rest as
+ * they are returned, and shuts down when none are left in use or after
+ * {@code db.pool.drain.timeout.ms}. Requests in flight keep the connection they have. If
+ * the new pool cannot connect, for example because the password is wrong, the old one
+ * stays in use.</p>
+ * 
  * @author Demayne Govender
  * @version 2.0
  */
 public class ConnectionPool {
-    private static HikariDataSource dataSource;
+    private static final AtomicReference<Pool> POOL = new AtomicReference<>();
+    private static final Set<Pool> DRAINING = ConcurrentHashMap.newKeySet();
+
+    /**
+     * One HikariCP pool and the settings it runs with. {@code borrowers} counts threads
+     * between reading the current pool and taking a connection from it, so a pool being
+     * drained is not closed under a borrow that started just before the switch.
+     */
+    private static final class Pool {
+        final HikariDataSource dataSource;
+        final AtomicInteger borrowers = new AtomicInteger();
+        volatile PoolSettings settings;
+
+        Pool(HikariDataSource dataSource, PoolSettings settings) {
+            this.dataSource = dataSource;
+            this.settings = settings;
+        }
+    }
     
     static {
         try {
@@ -24,56 +62,150 @@ public class ConnectionPool {
             System.err.println("❌ Failed to initialize connection pool: " + e.getMessage());
             e.printStackTrace();
         }
+        DatabaseConfig.addReloadListener(ConnectionPool::reconfigure);
     }
     
     /**
      * Initializes the HikariCP connection pool with configuration settings.
      */
     private static void initializePool() {
-        HikariConfig config = new HikariConfig();
-        
-        config.setJdbcUrl(DatabaseConfig.getUrl());
-        config.setUsername(DatabaseConfig.getUsername());
-        config.setPassword(DatabaseConfig.getPassword());
-        config.setDriverClassName(DatabaseConfig.getDriver());
-        
-        // Connection pool settings
-        config.setMaximumPoolSize(DatabaseConfig.getPoolSize());
-        config.setConnectionTimeout(DatabaseConfig.getConnectionTimeout());
-        config.setIdleTimeout(600000); // 10 minutes
-        config.setMaxLifetime(1800000); // 30 minutes
-        config.setConnectionTestQuery("SELECT 1");
-        
-        // Performance optimizations
-        config.setAutoCommit(true);
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        config.addDataSourceProperty("useServerPrepStmts", "true");
-        
-        dataSource = new HikariDataSource(config);
+        PoolSettings settings = PoolSettings.current();
+        POOL.set(new Pool(new HikariDataSource(settings.toHikariConfig()), settings));
         System.out.println("✅ Connection pool initialized successfully.");
     }
+
+    /**
+     * Applies the current {@link DatabaseConfig} settings to the pool, resizing it in
+     * place or replacing it as described above. Called after each configuration reload;
+     * failures are logged and leave the running pool as it was.
+     */
+    public static synchronized void reconfigure() {
+        Pool current = POOL.get();
+        try {
+            PoolSettings wanted = PoolSettings.current();
+            if (current == null || current.dataSource.isClosed()) {
+                initializePool();
+            } else if (wanted.equals(current.settings)) {
+                LoggerUtil.debug(Subsystem.POOL, "Database settings unchanged; pool left as it is");
+            } else if (wanted.sameConnectionAs(current.settings)) {
+                HikariConfigMXBean config = current.dataSource.getHikariConfigMXBean();
+                config.setMaximumPoolSize(wanted.getPoolSize());
+                config.setMinimumIdle(wanted.getPoolSize());
+                config.setConnectionTimeout(wanted.getConnectionTimeout());
+                config.setLeakDetectionThreshold(wanted.getLeakDetectionThreshold());
+                current.settings = wanted;
+                LoggerUtil.info(Subsystem.POOL, "Connection pool resized: {}", wanted);
+            } else {
+                Pool replacement = new Pool(new HikariDataSource(wanted.toHikariConfig()), wanted);
+                POOL.set(replacement);
+                LoggerUtil.info(Subsystem.POOL, "Connection pool replaced: {}", wanted);
+                drain(current);
+            }
+        } catch (RuntimeException e) {
+            LoggerUtil.error(Subsystem.POOL, "Could not apply new database settings; keeping the current pool", e);
+        }
+    }
+
+    /**
+     * Closes a replaced pool once it has no borrowers and no connections in use, or when
+     * the drain timeout runs out.
+     */
+    private static void drain(Pool old) {
+        DRAINING.add(old);
+        long timeoutMs = AppConfig.getIntProperty("db.pool.drain.timeout.ms", 30000);
+        Thread drainer = new Thread(() -> {
+            HikariPoolMXBean stats = old.dataSource.getHikariPoolMXBean();
+            old.dataSource.getHikariConfigMXBean().setMinimumIdle(0);
+            stats.softEvictConnections();
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            try {
+                while ((old.borrowers.get() > 0 || stats.getActiveConnections() > 0)
+                       && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int active = stats.getActiveConnections();
+            if (active > 0) {
+                LoggerUtil.warning(Subsystem.POOL, "Closing replaced pool with {} connections still in use after {} ms",
+                                   active, timeoutMs);
+            }
+            old.dataSource.close();
+            DRAINING.remove(old);
+            LoggerUtil.info(Subsystem.POOL, "Replaced connection pool drained and closed");
+        }, "pool-drain");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
     
     /**
-     * Gets a connection from the pool.
+     * Gets a connection from the pool, instrumented by {@link JdbcMonitor} for slow
+     * query recording and Flight Recorder events and with the statement timeout applied.
+     * 
+     * <p>The borrow is guarded by {@link CircuitBreaker#database()}: while the database
+     * is known to be down this fails at once with a
+     * {@link resilience.CircuitOpenException} rather than waiting for the pool timeout.
+     * A timeout because every connection is in use is not counted against the database,
+     * since the server is answering; only failures to reach it are.</p>
      * 
      * @return Database connection
      * @throws SQLException if unable to get connection
      */
     public static Connection getConnection() throws SQLException {
-        if (dataSource == null) {
-            throw new SQLException("Connection pool not initialized");
+        Pool pool;
+        while (true) {
+            pool = POOL.get();
+            if (pool == null) {
+                throw new SQLException("Connection pool not initialized");
+            }
+            pool.borrowers.incrementAndGet();
+            if (POOL.get() == pool) {
+                break;
+            }
+            pool.borrowers.decrementAndGet();
+        }
+        HikariDataSource dataSource = pool.dataSource;
+        CircuitBreaker breaker = CircuitBreaker.database();
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        Connection connection;
+        try {
+            breaker.acquirePermission();
+            event.begin();
+            try {
+                connection = dataSource.getConnection();
+            } catch (SQLException e) {
+                if (!SqlStateClassifier.isPoolExhausted(e)) {
+                    breaker.onFailure(e);
+                }
+                throw e;
+            }
+        } finally {
+            pool.borrowers.decrementAndGet();
         }
-        return dataSource.getConnection();
+        breaker.onSuccess();
+        event.end();
+        if (event.shouldCommit()) {
+            HikariPoolMXBean stats = dataSource.getHikariPoolMXBean();
+            event.active = stats.getActiveConnections();
+            event.idle = stats.getIdleConnections();
+            event.waiting = stats.getThreadsAwaitingConnection();
+            event.operationId = LoggerUtil.currentOperationId();
+            event.commit();
+        }
+        return JdbcMonitor.instrument(connection, pool.settings.getQueryTimeout());
     }
     
     /**
      * Closes the connection pool and releases all resources.
      */
     public static void closePool() {
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
+        for (Pool draining : DRAINING) {
+            draining.dataSource.close();
+        }
+        Pool pool = POOL.get();
+        if (pool != null && !pool.dataSource.isClosed()) {
+            pool.dataSource.close();
             System.out.println("✅ Connection pool closed successfully.");
         }
     }
@@ -84,12 +216,15 @@ public class ConnectionPool {
      * @return Pool statistics as string
      */
     public static String getPoolStats() {
-        if (dataSource != null) {
-            return String.format("Active: %d, Idle: %d, Total: %d, Waiting: %d",
+        Pool pool = POOL.get();
+        if (pool != null) {
+            HikariDataSource dataSource = pool.dataSource;
+            return String.format("Active: %d, Idle: %d, Total: %d, Waiting: %d, Circuit: %s",
                 dataSource.getHikariPoolMXBean().getActiveConnections(),
                 dataSource.getHikariPoolMXBean().getIdleConnections(),
                 dataSource.getHikariPoolMXBean().getTotalConnections(),
-                dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection());
+                dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(),
+                CircuitBreaker.database().getState());
         }
         return "Pool not initialized";
     }
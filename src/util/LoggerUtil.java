@@ -1,56 +1,262 @@
 package util;
 
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import monitoring.UserActionEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 /**
  * LoggerUtil provides centralized logging functionality for the application.
  * Implements file and console logging with proper formatting and log levels.
- * 
+ *
+ * <p>Messages can be passed as SLF4J {@code {}} templates or as {@link Supplier}s so
+ * that no string is built unless the level is enabled. Each subsystem writes to its
+ * own child logger of "PoiseDMS" so levels can be tuned independently in logback.xml,
+ * and {@link #beginOperation(String)} tags every line of a user action with an
+ * operation ID through the MDC.</p>
+ *
  * @author Demayne Govender
- * @version 2.0
+ * @version 2.1
  */
 public class LoggerUtil {
     private static final Logger logger = LoggerFactory.getLogger("PoiseDMS");
-    
+
+    /** MDC key holding the current operation ID. */
+    public static final String MDC_OPERATION_ID = "opId";
+
+    /** MDC key holding the current operation name. */
+    public static final String MDC_OPERATION = "op";
+
+    /**
+     * Application subsystems with dedicated loggers.
+     */
+    public enum Subsystem {
+        POOL("pool"),
+        SQL("sql"),
+        UI("ui"),
+        SERVICE("service");
+
+        private final Logger subsystemLogger;
+
+        Subsystem(String name) {
+            this.subsystemLogger = LoggerFactory.getLogger("PoiseDMS." + name);
+        }
+
+        /**
+         * Gets the SLF4J logger for this subsystem.
+         *
+         * @return Subsystem logger
+         */
+        public Logger logger() {
+            return subsystemLogger;
+        }
+    }
+
     /**
      * Logs an informational message.
-     * 
+     *
      * @param message Message to log
      */
     public static void info(String message) { logger.info(message); }
-    
+
+    /**
+     * Logs a parameterized informational message.
+     *
+     * @param format Message template using {} placeholders
+     * @param args   Template arguments
+     */
+    public static void info(String format, Object... args) { logger.info(format, args); }
+
     /**
      * Logs a warning message.
-     * 
+     *
      * @param message Message to log
      */
     public static void warning(String message) { logger.warn(message); }
-    
+
+    /**
+     * Logs a parameterized warning message.
+     *
+     * @param format Message template using {} placeholders
+     * @param args   Template arguments
+     */
+    public static void warning(String format, Object... args) { logger.warn(format, args); }
+
     /**
      * Logs an error message.
-     * 
+     *
      * @param message Message to log
      */
     public static void error(String message) { logger.error(message); }
-    
+
     /**
      * Logs an error with exception details.
-     * 
+     *
      * @param message   Message to log
      * @param throwable Exception to log
      */
     public static void error(String message, Throwable throwable) { logger.error(message, throwable); }
-    
+
     /**
      * Logs a debug message.
-     * 
+     *
      * @param message Message to log
      */
     public static void debug(String message) { logger.debug(message); }
-    
+
+    /**
+     * Logs a parameterized debug message.
+     *
+     * @param format Message template using {} placeholders
+     * @param args   Template arguments
+     */
+    public static void debug(String format, Object... args) { logger.debug(format, args); }
+
     /**
-     * Custom formatter for log messages.
+     * Logs a debug message built lazily; the supplier is only invoked when debug is enabled.
+     *
+     * @param message Supplier of the message
      */
-    // SLF4J managed by logback; no custom formatter required here.
+    public static void debug(Supplier<String> message) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(message.get());
+        }
+    }
+
+    /**
+     * Logs a debug message to a subsystem logger.
+     *
+     * @param subsystem Target subsystem
+     * @param format    Message template using {} placeholders
+     * @param args      Template arguments
+     */
+    public static void debug(Subsystem subsystem, String format, Object... args) {
+        subsystem.logger().debug(format, args);
+    }
+
+    /**
+     * Logs a lazily built debug message to a subsystem logger.
+     *
+     * @param subsystem Target subsystem
+     * @param message   Supplier of the message
+     */
+    public static void debug(Subsystem subsystem, Supplier<String> message) {
+        Logger target = subsystem.logger();
+        if (target.isDebugEnabled()) {
+            target.debug(message.get());
+        }
+    }
+
+    /**
+     * Logs an informational message to a subsystem logger.
+     *
+     * @param subsystem Target subsystem
+     * @param format    Message template using {} placeholders
+     * @param args      Template arguments
+     */
+    public static void info(Subsystem subsystem, String format, Object... args) {
+        subsystem.logger().info(format, args);
+    }
+
+    /**
+     * Logs a warning to a subsystem logger.
+     *
+     * @param subsystem Target subsystem
+     * @param format    Message template using {} placeholders
+     * @param args      Template arguments
+     */
+    public static void warning(Subsystem subsystem, String format, Object... args) {
+        subsystem.logger().warn(format, args);
+    }
+
+    /**
+     * Logs an error with exception details to a subsystem logger.
+     *
+     * @param subsystem Target subsystem
+     * @param message   Message to log
+     * @param throwable Exception to log
+     */
+    public static void error(Subsystem subsystem, String message, Throwable throwable) {
+        subsystem.logger().error(message, throwable);
+    }
+
+    /**
+     * Checks whether debug logging is enabled for the given subsystem.
+     *
+     * @param subsystem Subsystem to check
+     * @return true if debug is enabled
+     */
+    public static boolean isDebugEnabled(Subsystem subsystem) {
+        return subsystem.logger().isDebugEnabled();
+    }
+
+    /**
+     * Starts a logging operation: every log line written on this thread until the
+     * returned context is closed carries the operation name and a fresh operation ID.
+     * Nested operations restore the outer operation on close.
+     *
+     * @param operation Operation name (e.g. "menu.addProject")
+     * @return Context to close when the operation ends
+     */
+    public static OperationContext beginOperation(String operation) {
+        return new OperationContext(operation);
+    }
+
+    /**
+     * Gets the operation ID bound to the current thread.
+     *
+     * @return Operation ID, or null outside an operation
+     */
+    public static String currentOperationId() {
+        return MDC.get(MDC_OPERATION_ID);
+    }
+
+    /**
+     * MDC scope for a single operation. Use with try-with-resources. The scope is also
+     * recorded as a Flight Recorder {@link UserActionEvent}.
+     */
+    public static final class OperationContext implements AutoCloseable {
+        private final String previousId;
+        private final String previousOperation;
+        private final String operationId;
+        private final UserActionEvent event = new UserActionEvent();
+
+        private OperationContext(String operation) {
+            this.previousId = MDC.get(MDC_OPERATION_ID);
+            this.previousOperation = MDC.get(MDC_OPERATION);
+            this.operationId = UUID.randomUUID().toString().substring(0, 8);
+            MDC.put(MDC_OPERATION_ID, operationId);
+            MDC.put(MDC_OPERATION, operation);
+            event.operation = operation;
+            event.operationId = operationId;
+            event.begin();
+        }
+
+        /**
+         * Gets the ID of this operation.
+         *
+         * @return Operation ID
+         */
+        public String getOperationId() {
+            return operationId;
+        }
+
+        @Override
+        public void close() {
+            event.commit();
+            restore(MDC_OPERATION_ID, previousId);
+            restore(MDC_OPERATION, previousOperation);
+        }
+
+        private static void restore(String key, String value) {
+            if (value == null) {
+                MDC.remove(key);
+            } else {
+                MDC.put(key, value);
+            }
+        }
+    }
 }
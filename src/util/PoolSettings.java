@@ -0,0 +1,150 @@
+package util;
+
+import com.zaxxer.hikari.HikariConfig;
+import config.DatabaseConfig;
+
+import java.util.Objects;
+
+/**
+ * The database settings a connection pool is built from, as read from
+ * {@link DatabaseConfig} at one moment.
+ *
+ * <p>{@link ConnectionPool} compares the settings before and after a reload: a change to
+ * the size, borrow timeout, leak threshold or statement timeout only adjusts the running
+ * pool, while a change to the URL, driver, credentials or network timeouts needs a new
+ * pool, since existing connections were opened with the old ones.</p>
+ *
+ * <p>Every wait on the database is bounded: a borrow by {@code db.pool.timeout}, opening
+ * a connection by {@code db.connect.timeout}, each read from the server by
+ * {@code db.socket.timeout} and each statement by {@code db.query.timeout}, so a hung
+ * server ties up a caller for seconds rather than indefinitely.</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+final class PoolSettings {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String driver;
+    private final int poolSize;
+    private final long connectionTimeout;
+    private final long leakDetectionThreshold;
+    private final long connectTimeout;
+    private final long socketTimeout;
+    private final int queryTimeout;
+
+    PoolSettings(String url, String username, String password, String driver, int poolSize, long connectionTimeout,
+                 long leakDetectionThreshold, long connectTimeout, long socketTimeout, int queryTimeout) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.driver = driver;
+        this.poolSize = poolSize;
+        this.connectionTimeout = connectionTimeout;
+        this.leakDetectionThreshold = leakDetectionThreshold;
+        this.connectTimeout = connectTimeout;
+        this.socketTimeout = socketTimeout;
+        this.queryTimeout = queryTimeout;
+    }
+
+    /**
+     * @return The settings currently held by {@link DatabaseConfig}
+     */
+    static PoolSettings current() {
+        return new PoolSettings(DatabaseConfig.getUrl(), DatabaseConfig.getUsername(), DatabaseConfig.getPassword(),
+                                DatabaseConfig.getDriver(), DatabaseConfig.getPoolSize(),
+                                DatabaseConfig.getConnectionTimeout(), DatabaseConfig.getLeakDetectionThreshold(),
+                                DatabaseConfig.getConnectTimeout(), DatabaseConfig.getSocketTimeout(),
+                                DatabaseConfig.getQueryTimeout());
+    }
+
+    /**
+     * @return true if connections opened with these settings are still valid under {@code other}
+     */
+    boolean sameConnectionAs(PoolSettings other) {
+        return Objects.equals(url, other.url) && Objects.equals(username, other.username)
+            && Objects.equals(password, other.password) && Objects.equals(driver, other.driver)
+            && connectTimeout == other.connectTimeout && socketTimeout == other.socketTimeout;
+    }
+
+    int getPoolSize() {
+        return poolSize;
+    }
+
+    long getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    long getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    /**
+     * @return Seconds each statement may run before the driver cancels it; 0 for no limit
+     */
+    int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * @return HikariCP configuration for a new pool with these settings
+     */
+    HikariConfig toHikariConfig() {
+        HikariConfig config = new HikariConfig();
+
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName(driver);
+
+        // Connection pool settings
+        config.setMaximumPoolSize(poolSize);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setIdleTimeout(600000); // 10 minutes
+        config.setMaxLifetime(1800000); // 30 minutes
+        config.setConnectionTestQuery("SELECT 1");
+        // Logs the borrowing stack trace of any connection held longer than this
+        config.setLeakDetectionThreshold(leakDetectionThreshold);
+
+        // Performance optimizations
+        config.setAutoCommit(true);
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+
+        // Network timeouts (ms) of MySQL Connector/J, so a hung server fails the call
+        config.addDataSourceProperty("connectTimeout", String.valueOf(connectTimeout));
+        config.addDataSourceProperty("socketTimeout", String.valueOf(socketTimeout));
+        return config;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PoolSettings)) {
+            return false;
+        }
+        PoolSettings other = (PoolSettings) o;
+        return sameConnectionAs(other) && poolSize == other.poolSize && connectionTimeout == other.connectionTimeout
+            && leakDetectionThreshold == other.leakDetectionThreshold && queryTimeout == other.queryTimeout;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(url, username, driver, poolSize, connectionTimeout, leakDetectionThreshold, connectTimeout,
+                            socketTimeout, queryTimeout);
+    }
+
+    /**
+     * Describes the settings without the password.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s as %s, %d connections, %d ms timeout, %d s statement timeout", url, username, poolSize,
+                             connectionTimeout, queryTimeout);
+    }
+}
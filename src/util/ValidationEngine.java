@@ -0,0 +1,569 @@
+package util;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import model.Person;
+import model.Project;
+
+/**
+ * ValidationEngine is the single home of the field rules used across PoiseDMS.
+ *
+ * <p>Each format is checked by a hand-written scanner over a {@link CharSequence}:
+ * no regex matcher, no substring allocation and no exceptions for invalid input.
+ * The batch methods validate whole arrays of records and collect every violation
+ * in a {@link Report}, which makes them suitable for bulk import where an invalid
+ * row must be reported rather than abort the run.</p>
+ *
+ * <p>The rules match the regular expressions historically declared in
+ * {@code AppConstants}, except that ISO dates are checked strictly against the
+ * calendar (for example 2025-02-30 is rejected instead of being resolved to the
+ * last day of the month).</p>
+ *
+ * @author Demayne Govender
+ * @version 2.1
+ */
+public final class ValidationEngine {
+
+    /** Returned by {@link #parseIsoDate(CharSequence)} when the input is not a valid date. */
+    public static final long INVALID_DATE = Long.MIN_VALUE;
+
+    private static final int MIN_PHONE_DIGITS = 10;
+    private static final int MAX_PHONE_DIGITS = 15;
+    private static final int MIN_ADDRESS_LENGTH = 6;
+
+    private static final String FIELD_PROJECT_NUMBER = "projectNumber";
+    private static final String FIELD_DEADLINE = "deadline";
+    private static final String FIELD_ERF = "erfNumber";
+    private static final String FIELD_ADDRESS = "physicalAddress";
+    private static final String FIELD_TOTAL_FEE = "totalFee";
+    private static final String FIELD_TOTAL_PAID = "totalPaid";
+    private static final String FIELD_ARCHITECT = "architectId";
+    private static final String FIELD_CONTRACTOR = "contractorId";
+    private static final String FIELD_CUSTOMER = "customerId";
+    private static final String FIELD_FIRST_NAME = "firstName";
+    private static final String FIELD_SURNAME = "surname";
+    private static final String FIELD_TELEPHONE = "telephone";
+    private static final String FIELD_EMAIL = "email";
+
+    private ValidationEngine() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+
+    // ---------------------------------------------------------------------
+    // Scanners
+    // ---------------------------------------------------------------------
+
+    /**
+     * Checks that the value is one or more ASCII digits, ignoring surrounding whitespace.
+     *
+     * @param value Value to check
+     * @return true if numeric
+     */
+    public static boolean isDigits(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        return end > start && allDigits(value, start, end);
+    }
+
+    /**
+     * Checks that the value is an entity identifier: the given prefix followed by at
+     * least three digits, e.g. ARC001 or CUS1200.
+     *
+     * @param value  Value to check
+     * @param prefix Identifier prefix (see {@code enums.EntityType})
+     * @return true if valid
+     */
+    public static boolean isEntityId(CharSequence value, String prefix) {
+        if (value == null) {
+            return false;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        int digitsStart = start + prefix.length();
+        if (end - digitsStart < 3) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (value.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return allDigits(value, digitsStart, end);
+    }
+
+    /**
+     * Checks that the value is a project number: either all digits (entered by hand)
+     * or PRJ followed by digits (allocated by {@code service.IdAllocator}).
+     *
+     * @param value Value to check
+     * @return true if valid
+     */
+    public static boolean isProjectNumber(CharSequence value) {
+        return isDigits(value) || isEntityId(value, "PRJ");
+    }
+
+    /**
+     * Checks that the value is a telephone number of 10 to 15 digits.
+     *
+     * @param value Value to check
+     * @return true if valid
+     */
+    public static boolean isPhone(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        int length = end - start;
+        return length >= MIN_PHONE_DIGITS && length <= MAX_PHONE_DIGITS && allDigits(value, start, end);
+    }
+
+    /**
+     * Checks that the value is letters, digits and spaces only.
+     *
+     * @param value Value to check
+     * @return true if alphanumeric
+     */
+    public static boolean isAlphanumeric(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        if (end == start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (!isAsciiLetter(c) && !isDigit(c) && c != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the value is an ERF number, i.e. starts with "ERF" in any case.
+     *
+     * @param value Value to check
+     * @return true if valid
+     */
+    public static boolean isErf(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        return end - start >= 3
+            && (value.charAt(start) | 0x20) == 'e'
+            && (value.charAt(start + 1) | 0x20) == 'r'
+            && (value.charAt(start + 2) | 0x20) == 'f';
+    }
+
+    /**
+     * Checks that the value is an email address of the form {@code local@domain.tld},
+     * where the local part uses {@code [A-Za-z0-9+_.-]}, the domain {@code [A-Za-z0-9.-]}
+     * and the top-level domain at least two letters.
+     *
+     * @param value Value to check
+     * @return true if valid
+     */
+    public static boolean isEmail(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+
+        int at = -1;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '@') {
+                at = i;
+                break;
+            }
+            if (!isAsciiLetter(c) && !isDigit(c) && c != '+' && c != '_' && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        if (at <= start) {
+            return false;
+        }
+
+        int lastDot = -1;
+        for (int i = at + 1; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+            } else if (!isAsciiLetter(c) && !isDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        if (lastDot <= at + 1 || end - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!isAsciiLetter(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the value is an address with at least six characters and a comma
+     * separating its parts.
+     *
+     * @param value Value to check
+     * @return true if valid
+     */
+    public static boolean isAddress(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        if (end - start < MIN_ADDRESS_LENGTH) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == ',') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} date without throwing.
+     *
+     * @param value Value to parse
+     * @return Epoch day of the date, or {@link #INVALID_DATE}
+     */
+    public static long parseIsoDate(CharSequence value) {
+        if (value == null) {
+            return INVALID_DATE;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        if (end - start != 10 || value.charAt(start + 4) != '-' || value.charAt(start + 7) != '-') {
+            return INVALID_DATE;
+        }
+        int year = parseFixed(value, start, 4);
+        int month = parseFixed(value, start + 5, 2);
+        int day = parseFixed(value, start + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_DATE;
+        }
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Checks that the value is a valid {@code yyyy-MM-dd} date.
+     *
+     * @param value Value to check
+     * @return true if valid
+     */
+    public static boolean isIsoDate(CharSequence value) {
+        return parseIsoDate(value) != INVALID_DATE;
+    }
+
+    /**
+     * Checks that the value is a valid {@code yyyy-MM-dd} date that is today or later.
+     *
+     * @param value Value to check
+     * @param today Reference date
+     * @return true if valid and not in the past
+     */
+    public static boolean isFutureIsoDate(CharSequence value, LocalDate today) {
+        long epochDay = parseIsoDate(value);
+        return epochDay != INVALID_DATE && epochDay >= today.toEpochDay();
+    }
+
+    // ---------------------------------------------------------------------
+    // Batch validation
+    // ---------------------------------------------------------------------
+
+    /**
+     * Validates an array of projects and collects every violation.
+     *
+     * @param projects Projects to validate; null elements are reported as violations
+     * @return Report of all violations, indexed by array position
+     */
+    public static Report validateProjects(Project[] projects) {
+        Report report = new Report(projects.length);
+        for (int row = 0; row < projects.length; row++) {
+            validateProject(row, projects[row], report);
+        }
+        return report;
+    }
+
+    /**
+     * Validates an array of people and collects every violation.
+     *
+     * @param people People to validate; null elements are reported as violations
+     * @return Report of all violations, indexed by array position
+     */
+    public static Report validatePeople(Person[] people) {
+        Report report = new Report(people.length);
+        for (int row = 0; row < people.length; row++) {
+            validatePerson(row, people[row], report);
+        }
+        return report;
+    }
+
+    private static void validateProject(int row, Project project, Report report) {
+        if (project == null) {
+            report.add(row, null, "Record is null");
+            return;
+        }
+        if (!isProjectNumber(project.getProjectNumber())) {
+            report.add(row, FIELD_PROJECT_NUMBER, "Project number must be numeric or PRJ followed by digits");
+        }
+        if (project.getDeadline() == null) {
+            report.add(row, FIELD_DEADLINE, "Deadline is required");
+        }
+        if (!isErf(project.getErfNumber())) {
+            report.add(row, FIELD_ERF, "ERF number must start with 'ERF'");
+        }
+        if (!isAddress(project.getPhysicalAddress())) {
+            report.add(row, FIELD_ADDRESS, "Address must include street, city and country");
+        }
+        double fee = project.getTotalFee();
+        double paid = project.getTotalPaid();
+        if (fee < 0) {
+            report.add(row, FIELD_TOTAL_FEE, "Total fee cannot be negative");
+        }
+        if (paid < 0) {
+            report.add(row, FIELD_TOTAL_PAID, "Total paid cannot be negative");
+        } else if (paid > fee) {
+            report.add(row, FIELD_TOTAL_PAID, "Total paid cannot exceed total fee");
+        }
+        if (isBlank(project.getArchitectId())) {
+            report.add(row, FIELD_ARCHITECT, "Architect is required");
+        }
+        if (isBlank(project.getContractorId())) {
+            report.add(row, FIELD_CONTRACTOR, "Contractor is required");
+        }
+        if (isBlank(project.getCustomerId())) {
+            report.add(row, FIELD_CUSTOMER, "Customer is required");
+        }
+    }
+
+    private static void validatePerson(int row, Person person, Report report) {
+        if (person == null) {
+            report.add(row, null, "Record is null");
+            return;
+        }
+        if (isBlank(person.getFirstName())) {
+            report.add(row, FIELD_FIRST_NAME, "First name is required");
+        }
+        if (isBlank(person.getSurname())) {
+            report.add(row, FIELD_SURNAME, "Surname is required");
+        }
+        if (!isPhone(person.getTelephone())) {
+            report.add(row, FIELD_TELEPHONE, "Telephone must be 10-15 digits");
+        }
+        if (!isEmail(person.getEmail())) {
+            report.add(row, FIELD_EMAIL, "Email format is invalid");
+        }
+        if (!isAddress(person.getPhysicalAddress())) {
+            report.add(row, FIELD_ADDRESS, "Address must include street, city and country");
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------------
+
+    private static int trimStart(CharSequence value) {
+        int start = 0;
+        int length = value.length();
+        while (start < length && value.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence value, int start) {
+        int end = value.length();
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isBlank(CharSequence value) {
+        if (value == null) {
+            return true;
+        }
+        int start = trimStart(value);
+        return trimEnd(value, start) == start;
+    }
+
+    private static boolean allDigits(CharSequence value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static int parseFixed(CharSequence value, int offset, int digits) {
+        int result = 0;
+        for (int i = offset; i < offset + digits; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01, using the same proleptic Gregorian arithmetic as
+     * {@link LocalDate#toEpochDay()} but without creating the object.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - 719528;
+    }
+
+    // ---------------------------------------------------------------------
+    // Results
+    // ---------------------------------------------------------------------
+
+    /**
+     * A single rule violation found by a batch validation.
+     */
+    public static final class Violation {
+        private final int row;
+        private final String field;
+        private final String message;
+
+        Violation(int row, String field, String message) {
+            this.row = row;
+            this.field = field;
+            this.message = message;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return field == null
+                ? String.format("Row %d: %s", row, message)
+                : String.format("Row %d, field '%s': %s", row, field, message);
+        }
+    }
+
+    /**
+     * Result of a batch validation. Valid rows cost nothing; only violations are stored.
+     */
+    public static final class Report {
+        private final int rowCount;
+        private final List<Violation> violations = new ArrayList<>();
+        private int invalidRows;
+        private int lastInvalidRow = -1;
+
+        Report(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        void add(int row, String field, String message) {
+            violations.add(new Violation(row, field, message));
+            if (row != lastInvalidRow) {
+                lastInvalidRow = row;
+                invalidRows++;
+            }
+        }
+
+        /**
+         * @return true if no violations were found
+         */
+        public boolean isValid() {
+            return violations.isEmpty();
+        }
+
+        /**
+         * @return Number of records validated
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return Number of records with at least one violation
+         */
+        public int getInvalidRowCount() {
+            return invalidRows;
+        }
+
+        /**
+         * @return All violations in row order
+         */
+        public List<Violation> getViolations() {
+            return Collections.unmodifiableList(violations);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ValidationReport[rows=%d, invalidRows=%d, violations=%d]",
+                                 rowCount, invalidRows, violations.size());
+        }
+    }
+}
@@ -1,35 +1,17 @@
 package util;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.regex.Pattern;
 
 /**
  * ValidationUtil provides comprehensive input validation for the application.
  * Ensures data integrity and security through robust validation methods.
+ * Format rules are delegated to {@link ValidationEngine}.
  * 
  * @author Demayne Govender
  * @version 2.0
  */
 public class ValidationUtil {
     
-    // Validation patterns
-    private static final Pattern EMAIL_PATTERN = 
-        Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-    
-    private static final Pattern PHONE_PATTERN = 
-        Pattern.compile("^[0-9]{10,15}$");
-    
-    private static final Pattern NUMERIC_PATTERN = 
-        Pattern.compile("^\\d+$");
-    
-    private static final Pattern ALPHANUMERIC_PATTERN = 
-        Pattern.compile("^[a-zA-Z0-9 ]+$");
-    
-    private static final DateTimeFormatter DATE_FORMAT = 
-        DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    
     /**
      * Validates email address format.
      * 
@@ -37,7 +19,7 @@ public class ValidationUtil {
      * @return true if valid, false otherwise
      */
     public static boolean isValidEmail(String email) {
-        return email != null && EMAIL_PATTERN.matcher(email.trim()).matches();
+        return ValidationEngine.isEmail(email);
     }
     
     /**
@@ -47,7 +29,7 @@ public class ValidationUtil {
      * @return true if valid, false otherwise
      */
     public static boolean isValidPhone(String phone) {
-        return phone != null && PHONE_PATTERN.matcher(phone.trim()).matches();
+        return ValidationEngine.isPhone(phone);
     }
     
     /**
@@ -57,7 +39,7 @@ public class ValidationUtil {
      * @return true if numeric, false otherwise
      */
     public static boolean isNumeric(String value) {
-        return value != null && NUMERIC_PATTERN.matcher(value.trim()).matches();
+        return ValidationEngine.isDigits(value);
     }
     
     /**
@@ -67,7 +49,7 @@ public class ValidationUtil {
      * @return true if alphanumeric, false otherwise
      */
     public static boolean isAlphanumeric(String value) {
-        return value != null && ALPHANUMERIC_PATTERN.matcher(value.trim()).matches();
+        return ValidationEngine.isAlphanumeric(value);
     }
     
     /**
@@ -77,7 +59,7 @@ public class ValidationUtil {
      * @return true if valid, false otherwise
      */
     public static boolean isValidERF(String erfNumber) {
-        return erfNumber != null && erfNumber.trim().toUpperCase().startsWith("ERF");
+        return ValidationEngine.isErf(erfNumber);
     }
     
     /**
@@ -87,16 +69,7 @@ public class ValidationUtil {
      * @return true if valid future date, false otherwise
      */
     public static boolean isValidFutureDate(String dateString) {
-        if (dateString == null || dateString.trim().isEmpty()) {
-            return false;
-        }
-        
-        try {
-            LocalDate date = LocalDate.parse(dateString.trim(), DATE_FORMAT);
-            return !date.isBefore(LocalDate.now());
-        } catch (DateTimeParseException e) {
-            return false;
-        }
+        return ValidationEngine.isFutureIsoDate(dateString, LocalDate.now());
     }
     
     /**
@@ -106,16 +79,7 @@ public class ValidationUtil {
      * @return true if valid date format, false otherwise
      */
     public static boolean isValidDate(String dateString) {
-        if (dateString == null || dateString.trim().isEmpty()) {
-            return false;
-        }
-        
-        try {
-            LocalDate.parse(dateString.trim(), DATE_FORMAT);
-            return true;
-        } catch (DateTimeParseException e) {
-            return false;
-        }
+        return ValidationEngine.isIsoDate(dateString);
     }
     
     /**
@@ -155,7 +119,7 @@ public class ValidationUtil {
      * @return true if valid, false otherwise
      */
     public static boolean isValidAddress(String address) {
-        return address != null && address.trim().length() > 5 && address.contains(",");
+        return ValidationEngine.isAddress(address);
     }
     
     /**